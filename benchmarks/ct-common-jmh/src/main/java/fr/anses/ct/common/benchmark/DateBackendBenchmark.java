@@ -0,0 +1,84 @@
+package fr.anses.ct.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.anses.ct.common.transverse.DateBackend;
+import fr.anses.ct.common.transverse.DateUtils;
+
+/**
+ * Comparaison des moteurs de dates Joda-Time et java.time (formatage et lecture).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateBackendBenchmark {
+
+  /** Moteur de dates. */
+  @Param({"joda", "java.time" })
+  private String backend;
+
+  /** Format. */
+  @Param({DateUtils.FORMAT_DATE, DateUtils.FORMAT_DATE_BASE_DE_DONNEES, DateUtils.FORMAT_ISO_DATE,
+    DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP, DateUtils.FORMAT_AFFICHAGE_DATE })
+  private String format;
+
+  /** Moteur sélectionné. */
+  private DateBackend moteur;
+
+  /** Instants. */
+  private final long[] instants = new long[Donnees.TAILLE];
+
+  /** Dates formatées. */
+  private final String[] dates = new String[Donnees.TAILLE];
+
+  /** Indice courant. */
+  private int indice;
+
+  /**
+   * Préparation des données.
+   */
+  @Setup
+  public void preparer() {
+    moteur = DateUtils.choisirBackend(backend);
+    Donnees.instants(instants);
+    for (int i = 0; i < instants.length; i++) {
+      dates[i] = moteur.formater(instants[i], format);
+    }
+  }
+
+  /**
+   * Formatage.
+   *
+   * @return la date formatée
+   */
+  @Benchmark
+  public String formater() {
+    return moteur.formater(instants[indice++ & Donnees.MASQUE], format);
+  }
+
+  /**
+   * Lecture.
+   *
+   * @return l'instant lu
+   */
+  @Benchmark
+  public long parser() {
+    return moteur.parser(dates[indice++ & Donnees.MASQUE], format);
+  }
+
+}
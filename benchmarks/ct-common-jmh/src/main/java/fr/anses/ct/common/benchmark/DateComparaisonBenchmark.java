@@ -0,0 +1,134 @@
+package fr.anses.ct.common.benchmark;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.anses.ct.common.transverse.DateUtils;
+
+/**
+ * Comparaisons à la précision du jour de {@link DateUtils}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateComparaisonBenchmark {
+
+  /** Calendars. */
+  private final Calendar[] calendars = new Calendar[Donnees.TAILLE];
+
+  /** Indice courant. */
+  private int indice;
+
+  /**
+   * Préparation des données.
+   */
+  @Setup
+  public void preparer() {
+    Donnees.calendars(calendars);
+  }
+
+  /**
+   * Premier calendar du couple courant.
+   *
+   * @return le calendar
+   */
+  private Calendar premier() {
+    return calendars[indice & Donnees.MASQUE];
+  }
+
+  /**
+   * Second calendar du couple courant (passe au couple suivant).
+   *
+   * @return le calendar
+   */
+  private Calendar second() {
+    return calendars[(indice++ + 1) & Donnees.MASQUE];
+  }
+
+  /**
+   * {@link DateUtils#afterPrecisionJour(Calendar, Calendar)}.
+   *
+   * @return le résultat de la comparaison
+   */
+  @Benchmark
+  public boolean afterPrecisionJour() {
+    return DateUtils.afterPrecisionJour(premier(), second());
+  }
+
+  /**
+   * {@link DateUtils#beforePrecisionJour(Calendar, Calendar)}.
+   *
+   * @return le résultat de la comparaison
+   */
+  @Benchmark
+  public boolean beforePrecisionJour() {
+    return DateUtils.beforePrecisionJour(premier(), second());
+  }
+
+  /**
+   * {@link DateUtils#compareToPrecisionJour(Calendar, Calendar)}.
+   *
+   * @return le résultat de la comparaison
+   */
+  @Benchmark
+  public int compareToPrecisionJour() {
+    return DateUtils.compareToPrecisionJour(premier(), second());
+  }
+
+  /**
+   * {@link DateUtils#egaliteDateJourMoisAn(Object, Object)}.
+   *
+   * @return le résultat de la comparaison
+   */
+  @Benchmark
+  public boolean egaliteDateJourMoisAn() {
+    return DateUtils.egaliteDateJourMoisAn(premier(), second());
+  }
+
+  /**
+   * {@link DateUtils#nbJoursEcart(Calendar, Calendar)}.
+   *
+   * @return le nombre de jours
+   */
+  @Benchmark
+  public long nbJoursEcart() {
+    return DateUtils.nbJoursEcart(premier(), second());
+  }
+
+  /**
+   * {@link DateUtils#getAnneesDiff(Calendar, Calendar)}.
+   *
+   * @return le nombre d'années
+   */
+  @Benchmark
+  public int getAnneesDiff() {
+    return DateUtils.getAnneesDiff(premier(), second());
+  }
+
+  /**
+   * {@link DateUtils#miseAZeroHeure(Calendar)} (sur une copie).
+   *
+   * @return le calendar à 00:00
+   */
+  @Benchmark
+  public Calendar miseAZeroHeure() {
+    final Calendar calendar = DateUtils.cloneCalendar(calendars[indice++ & Donnees.MASQUE]);
+    DateUtils.miseAZeroHeure(calendar);
+    return calendar;
+  }
+
+}
@@ -0,0 +1,94 @@
+package fr.anses.ct.common.benchmark;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.anses.ct.common.transverse.DateConversionCache;
+import fr.anses.ct.common.transverse.DateUtils;
+
+/**
+ * Formatage et lecture de {@link DateUtils} avec et sans {@link DateConversionCache} : toutes les
+ * recherches sont des succès (le cache contient toutes les données), ce qui donne le gain maximal
+ * du cache face au formatage direct.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateConversionCacheBenchmark {
+
+  /** Capacité du cache (0 : pas de cache). */
+  @Param({"0", "4096" })
+  private int capacite;
+
+  /** Format : deux formats à largeur fixe et un format confié au moteur. */
+  @Param({DateUtils.FORMAT_DATE, DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP, "d MMMM yyyy HH:mm" })
+  private String format;
+
+  /** Calendars. */
+  private final Calendar[] calendars = new Calendar[Donnees.TAILLE];
+
+  /** Dates formatées. */
+  private final String[] dates = new String[Donnees.TAILLE];
+
+  /** Indice courant. */
+  private int indice;
+
+  /**
+   * Préparation des données et remplissage du cache.
+   */
+  @Setup(Level.Trial)
+  public void preparer() {
+    DateUtils.setCache(capacite == 0 ? null : new DateConversionCache(capacite));
+    Donnees.calendars(calendars);
+    for (int i = 0; i < calendars.length; i++) {
+      dates[i] = DateUtils.toString(calendars[i], format);
+      DateUtils.toCalendar(dates[i], format);
+    }
+  }
+
+  /**
+   * Désactivation du cache.
+   */
+  @TearDown(Level.Trial)
+  public void terminer() {
+    DateUtils.setCache(null);
+  }
+
+  /**
+   * {@link DateUtils#toString(Calendar, String)}.
+   *
+   * @return la date formatée
+   */
+  @Benchmark
+  public String formater() {
+    return DateUtils.toString(calendars[indice++ & Donnees.MASQUE], format);
+  }
+
+  /**
+   * {@link DateUtils#toCalendar(String, String)}.
+   *
+   * @return le calendar lu
+   */
+  @Benchmark
+  public Calendar lire() {
+    return DateUtils.toCalendar(dates[indice++ & Donnees.MASQUE], format);
+  }
+
+}
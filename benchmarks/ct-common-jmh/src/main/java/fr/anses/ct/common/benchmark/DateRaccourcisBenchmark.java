@@ -0,0 +1,215 @@
+package fr.anses.ct.common.benchmark;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.anses.ct.common.transverse.DateUtils;
+
+/**
+ * Couples formatage / lecture dédiés de {@link DateUtils} (<code>toStringXxx</code> /
+ * <code>toCalendarFormatXxx</code>).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateRaccourcisBenchmark {
+
+  /** Calendars. */
+  private final Calendar[] calendars = new Calendar[Donnees.TAILLE];
+
+  /** Dates au format {@link DateUtils#FORMAT_DATE}. */
+  private final String[] iso = new String[Donnees.TAILLE];
+
+  /** Dates au format {@link DateUtils#FORMAT_DATE_AAAAMMJJ}. */
+  private final String[] aaaammjj = new String[Donnees.TAILLE];
+
+  /** Dates au format {@link DateUtils#FORMAT_DATE_JJMMAAAA}. */
+  private final String[] jjmmaaaa = new String[Donnees.TAILLE];
+
+  /** Dates au format {@link DateUtils#FORMAT_AFFICHAGE_DATE}. */
+  private final String[] affichage = new String[Donnees.TAILLE];
+
+  /** Dates au format {@link DateUtils#FORMAT_DATE_BASE_DE_DONNEES}. */
+  private final String[] baseDeDonnees = new String[Donnees.TAILLE];
+
+  /** Indice courant. */
+  private int indice;
+
+  /**
+   * Préparation des données.
+   */
+  @Setup
+  public void preparer() {
+    Donnees.calendars(calendars);
+    for (int i = 0; i < calendars.length; i++) {
+      iso[i] = DateUtils.toStringAAAAMMJJNullSafe(calendars[i]);
+      aaaammjj[i] = DateUtils.toStringyyyyMMdd(calendars[i]);
+      jjmmaaaa[i] = DateUtils.toString(calendars[i], DateUtils.FORMAT_DATE_JJMMAAAA);
+      affichage[i] = DateUtils.toStringJJMMAAAA(calendars[i]);
+      baseDeDonnees[i] = DateUtils.toStringyyyyMMddHHmmss(calendars[i]);
+    }
+  }
+
+  /**
+   * Calendar suivant.
+   *
+   * @return le calendar
+   */
+  private Calendar calendar() {
+    return calendars[indice++ & Donnees.MASQUE];
+  }
+
+  /**
+   * Indice suivant.
+   *
+   * @return l'indice
+   */
+  private int suivant() {
+    return indice++ & Donnees.MASQUE;
+  }
+
+  /**
+   * {@link DateUtils#toStringAAAAMMJJNullSafe(Calendar)}.
+   *
+   * @return la date formatée
+   */
+  @Benchmark
+  public String toStringAAAAMMJJNullSafe() {
+    return DateUtils.toStringAAAAMMJJNullSafe(calendar());
+  }
+
+  /**
+   * {@link DateUtils#toCalendarFormatISO(String)}.
+   *
+   * @return le calendar lu
+   */
+  @Benchmark
+  public Calendar toCalendarFormatISO() {
+    return DateUtils.toCalendarFormatISO(iso[suivant()]);
+  }
+
+  /**
+   * {@link DateUtils#toStringyyyyMMdd(Calendar)}.
+   *
+   * @return la date formatée
+   */
+  @Benchmark
+  public String toStringyyyyMMdd() {
+    return DateUtils.toStringyyyyMMdd(calendar());
+  }
+
+  /**
+   * {@link DateUtils#toCalendarFormatyyyyMMdd(String)}.
+   *
+   * @return le calendar lu
+   */
+  @Benchmark
+  public Calendar toCalendarFormatyyyyMMdd() {
+    return DateUtils.toCalendarFormatyyyyMMdd(aaaammjj[suivant()]);
+  }
+
+  /**
+   * {@link DateUtils#toCalendarFormatddMMyyyy(String)}.
+   *
+   * @return le calendar lu
+   */
+  @Benchmark
+  public Calendar toCalendarFormatddMMyyyy() {
+    return DateUtils.toCalendarFormatddMMyyyy(jjmmaaaa[suivant()]);
+  }
+
+  /**
+   * {@link DateUtils#toStringJJMMAAAA(Calendar)}.
+   *
+   * @return la date formatée
+   */
+  @Benchmark
+  public String toStringJJMMAAAA() {
+    return DateUtils.toStringJJMMAAAA(calendar());
+  }
+
+  /**
+   * {@link DateUtils#toCalendarFormatAffichageDate(String)}.
+   *
+   * @return le calendar lu
+   */
+  @Benchmark
+  public Calendar toCalendarFormatAffichageDate() {
+    return DateUtils.toCalendarFormatAffichageDate(affichage[suivant()]);
+  }
+
+  /**
+   * {@link DateUtils#toStringyyyyMMddHHmmss(Calendar)}.
+   *
+   * @return la date formatée
+   */
+  @Benchmark
+  public String toStringyyyyMMddHHmmss() {
+    return DateUtils.toStringyyyyMMddHHmmss(calendar());
+  }
+
+  /**
+   * {@link DateUtils#toCalendarFormatyyyyMMddHHmmss(String)}.
+   *
+   * @return le calendar lu
+   */
+  @Benchmark
+  public Calendar toCalendarFormatyyyyMMddHHmmss() {
+    return DateUtils.toCalendarFormatyyyyMMddHHmmss(baseDeDonnees[suivant()]);
+  }
+
+  /**
+   * {@link DateUtils#toStringISONullSafe(Calendar)}.
+   *
+   * @return la date formatée
+   */
+  @Benchmark
+  public String toStringISONullSafe() {
+    return DateUtils.toStringISONullSafe(calendar());
+  }
+
+  /**
+   * {@link DateUtils#toStringTimeStamp(Calendar)}.
+   *
+   * @return la date formatée
+   */
+  @Benchmark
+  public String toStringTimeStamp() {
+    return DateUtils.toStringTimeStamp(calendar());
+  }
+
+  /**
+   * {@link DateUtils#getDateCourante()}.
+   *
+   * @return la date courante
+   */
+  @Benchmark
+  public Calendar getDateCourante() {
+    return DateUtils.getDateCourante();
+  }
+
+  /**
+   * <code>Calendar.getInstance()</code>, référence de {@link #getDateCourante()}.
+   *
+   * @return la date courante
+   */
+  @Benchmark
+  public Calendar calendarGetInstance() {
+    return Calendar.getInstance();
+  }
+
+}
@@ -0,0 +1,109 @@
+package fr.anses.ct.common.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.anses.ct.common.transverse.DateUtils;
+
+/**
+ * Formatage et lecture de {@link DateUtils} pour chacun des formats <code>FORMAT_*</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateUtilsBenchmark {
+
+  /** Format. */
+  @Param({DateUtils.FORMAT_DATE, DateUtils.FORMAT_DATE_BAS_PAGE, DateUtils.FORMAT_DATE_BASE_DE_DONNEES,
+    DateUtils.FORMAT_ISO_DATE, DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP, DateUtils.FORMAT_ISO_DATE_RACVISION,
+    DateUtils.FORMAT_AFFICHAGE_DATE, DateUtils.FORMAT_AAMM, DateUtils.FORMAT_AAAA, DateUtils.FORMAT_DATE_AAAAMMJJ,
+    DateUtils.FORMAT_DATE_JJMMAAAA })
+  private String format;
+
+  /** Calendars. */
+  private final Calendar[] calendars = new Calendar[Donnees.TAILLE];
+
+  /** Dates formatées. */
+  private final String[] dates = new String[Donnees.TAILLE];
+
+  /** Dates formatées, en buffer de caractères. */
+  private final CharBuffer[] caracteres = new CharBuffer[Donnees.TAILLE];
+
+  /** Dates formatées, en buffer d'octets ASCII. */
+  private final ByteBuffer[] octets = new ByteBuffer[Donnees.TAILLE];
+
+  /** Indice courant. */
+  private int indice;
+
+  /**
+   * Préparation des données.
+   */
+  @Setup
+  public void preparer() {
+    Donnees.calendars(calendars);
+    for (int i = 0; i < calendars.length; i++) {
+      dates[i] = DateUtils.toString(calendars[i], format);
+      caracteres[i] = CharBuffer.wrap(dates[i]);
+      octets[i] = ByteBuffer.wrap(dates[i].getBytes(StandardCharsets.ISO_8859_1));
+    }
+  }
+
+  /**
+   * Formatage.
+   *
+   * @return la date formatée
+   */
+  @Benchmark
+  public String formater() {
+    return DateUtils.toString(calendars[indice++ & Donnees.MASQUE], format);
+  }
+
+  /**
+   * Lecture.
+   *
+   * @return le calendar lu
+   */
+  @Benchmark
+  public Calendar parser() {
+    return DateUtils.toCalendar(dates[indice++ & Donnees.MASQUE], format);
+  }
+
+  /**
+   * Lecture dans un buffer de caractères (sans <code>String</code> pour les formats à largeur fixe).
+   *
+   * @return l'instant lu
+   */
+  @Benchmark
+  public long toMillisCharBuffer() {
+    return DateUtils.toMillis(caracteres[indice++ & Donnees.MASQUE], format);
+  }
+
+  /**
+   * Lecture dans un buffer d'octets (sans <code>String</code> pour les formats à largeur fixe).
+   *
+   * @return l'instant lu
+   */
+  @Benchmark
+  public long toMillisByteBuffer() {
+    return DateUtils.toMillis(octets[indice++ & Donnees.MASQUE], format);
+  }
+
+}
@@ -0,0 +1,59 @@
+package fr.anses.ct.common.benchmark;
+
+import java.util.Calendar;
+import java.util.Random;
+
+/**
+ * Jeux de données partagés par les benchmarks.
+ */
+final class Donnees {
+
+  /** Taille des jeux de données (puissance de 2). */
+  static final int TAILLE = 1024;
+
+  /** Masque d'indice. */
+  static final int MASQUE = TAILLE - 1;
+
+  /** 2000-01-01T00:00:00Z. */
+  private static final long DEBUT = 946684800000L;
+
+  /** Environ 30 ans en millisecondes. */
+  private static final long ETENDUE = 946684800000L;
+
+  /**
+   * Constructeur de la classe.
+   */
+  private Donnees() {
+    // Constructeur vide
+  }
+
+  /**
+   * Remplit le tableau avec des instants pseudo-aléatoires reproductibles.
+   *
+   * @param instants
+   *          tableau à remplir
+   */
+  static void instants(final long[] instants) {
+    final Random random = new Random(42);
+    for (int i = 0; i < instants.length; i++) {
+      instants[i] = DEBUT + (long) (random.nextDouble() * ETENDUE);
+    }
+  }
+
+  /**
+   * Remplit le tableau avec des calendars (fuseau horaire par défaut) aux instants de
+   * {@link #instants(long[])}.
+   *
+   * @param calendars
+   *          tableau à remplir
+   */
+  static void calendars(final Calendar[] calendars) {
+    final long[] instants = new long[calendars.length];
+    instants(instants);
+    for (int i = 0; i < calendars.length; i++) {
+      calendars[i] = Calendar.getInstance();
+      calendars[i].setTimeInMillis(instants[i]);
+    }
+  }
+
+}
@@ -0,0 +1,157 @@
+package fr.anses.ct.common.benchmark;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.StaticMessageSource;
+
+import fr.anses.ct.common.transverse.ErrorMetrics;
+import fr.anses.ct.common.transverse.ExceptionFactory;
+import fr.anses.ct.common.transverse.RfaException;
+
+/**
+ * Levée d'exceptions par {@link ExceptionFactory} avec résolution du message (les traces sont
+ * désactivées par le <code>logback.xml</code> du module), avec ou sans capture de la pile
+ * d'appels et comptage dans des {@link ErrorMetrics}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionFactoryBenchmark {
+
+  /** Code du message sans argument. */
+  private static final String CODE_SIMPLE = "ERR_SIMPLE";
+
+  /** Code du message avec arguments. */
+  private static final String CODE_ARGUMENTS = "ERR_ARGUMENTS";
+
+  /** Capture de la pile d'appels. */
+  @Param({"true", "false" })
+  private boolean pileAppels;
+
+  /** Comptage des exceptions dans des métriques. */
+  @Param({"true", "false" })
+  private boolean metriques;
+
+  /** Factory. */
+  private ExceptionFactory factory;
+
+  /** Buffer réutilisé. */
+  private final StringBuilder buffer = new StringBuilder();
+
+  /** Cause. */
+  private final IllegalStateException cause = new IllegalStateException("cause");
+
+  /**
+   * Préparation de la factory.
+   */
+  @Setup
+  public void preparer() {
+    final StaticMessageSource messageSource = new StaticMessageSource();
+    messageSource.addMessage(CODE_SIMPLE, new Locale(""), "Erreur technique");
+    messageSource.addMessage(CODE_ARGUMENTS, new Locale(""), "La colonne {0} n''a pas été trouvée à la ligne {1}");
+    factory = new ExceptionFactory();
+    factory.setMessageSource(messageSource);
+    factory.setPileAppels(pileAppels);
+    factory.setMetriques(metriques ? new ErrorMetrics() : null);
+  }
+
+  /**
+   * {@link ExceptionFactory#throwRfaException(String)}.
+   *
+   * @return l'exception levée
+   */
+  @Benchmark
+  public RfaException throwRfaException() {
+    try {
+      factory.throwRfaException(CODE_SIMPLE);
+      return null;
+    } catch (RfaException e) {
+      return e;
+    }
+  }
+
+  /**
+   * {@link ExceptionFactory#throwRfaException(String, String[], Throwable)}.
+   *
+   * @return l'exception levée
+   */
+  @Benchmark
+  public RfaException throwRfaExceptionArguments() {
+    try {
+      factory.throwRfaException(CODE_ARGUMENTS, new String[] {"NOM", "42" }, cause);
+      return null;
+    } catch (RfaException e) {
+      return e;
+    }
+  }
+
+  /**
+   * {@link ExceptionFactory#throwRfaException(String)} avec un code inconnu (message par défaut).
+   *
+   * @return l'exception levée
+   */
+  @Benchmark
+  public RfaException throwRfaExceptionCodeInconnu() {
+    try {
+      factory.throwRfaException("ERR_INCONNU");
+      return null;
+    } catch (RfaException e) {
+      return e;
+    }
+  }
+
+  /**
+   * {@link ExceptionFactory#throwRfaException(String, String[], Throwable)} puis lecture du message
+   * et de l'UUID (matérialisation complète, comme {@link fr.anses.ct.common.transverse.RouteFailureHandler}).
+   *
+   * @return l'exception levée
+   */
+  @Benchmark
+  public RfaException throwRfaExceptionMaterialisee() {
+    try {
+      factory.throwRfaException(CODE_ARGUMENTS, new String[] {"NOM", "42" }, cause);
+      return null;
+    } catch (RfaException e) {
+      e.getMessage();
+      e.getUuid();
+      return e;
+    }
+  }
+
+  /**
+   * {@link ExceptionFactory#getMessage(String, String[])}.
+   *
+   * @return le message
+   */
+  @Benchmark
+  public String getMessage() {
+    return factory.getMessage(CODE_ARGUMENTS, new String[] {"NOM", "42" });
+  }
+
+  /**
+   * {@link ExceptionFactory#getMessage(String, String[], StringBuilder)} dans un buffer réutilisé.
+   *
+   * @return le buffer
+   */
+  @Benchmark
+  public StringBuilder getMessageBuffer() {
+    buffer.setLength(0);
+    return factory.getMessage(CODE_ARGUMENTS, new String[] {"NOM", "42" }, buffer);
+  }
+
+}
@@ -0,0 +1,96 @@
+package fr.anses.ct.common.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultExchange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.anses.ct.common.transverse.RfaException;
+import fr.anses.ct.common.transverse.RouteFailureHandler;
+
+/**
+ * Traitement d'une erreur de route Camel par {@link RouteFailureHandler} (la sortie d'erreur,
+ * où le handler écrit la pile d'appels, est neutralisée pendant la mesure).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteFailureHandlerBenchmark {
+
+  /** Handler. */
+  private final RouteFailureHandler handler = new RouteFailureHandler();
+
+  /** Contexte Camel (non démarré). */
+  private CamelContext contexte;
+
+  /** Exception d'origine. */
+  private RfaException exception;
+
+  /** Sortie d'erreur d'origine. */
+  private PrintStream erreurOrigine;
+
+  /**
+   * Préparation du contexte.
+   */
+  @Setup(Level.Trial)
+  public void preparer() {
+    contexte = new DefaultCamelContext();
+    exception = new RfaException("Erreur technique");
+    exception.setCode("ERR_500");
+    erreurOrigine = System.err;
+    System.setErr(new PrintStream(new OutputStream() {
+      @Override
+      public void write(final int b) {
+        // sortie neutralisée
+      }
+
+      @Override
+      public void write(final byte[] b, final int off, final int len) {
+        // sortie neutralisée
+      }
+    }));
+  }
+
+  /**
+   * Restauration de la sortie d'erreur.
+   */
+  @TearDown(Level.Trial)
+  public void terminer() {
+    System.setErr(erreurOrigine);
+  }
+
+  /**
+   * {@link RouteFailureHandler#process(Exchange)}.
+   *
+   * @return l'exchange traité
+   * @throws Exception
+   *           en cas d'erreur du handler
+   */
+  @Benchmark
+  public Exchange process() throws Exception {
+    final Exchange exchange = new DefaultExchange(contexte);
+    exchange.setProperty(Exchange.EXCEPTION_CAUGHT, exception);
+    handler.process(exchange);
+    return exchange;
+  }
+
+}
@@ -0,0 +1,118 @@
+package fr.anses.ct.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.anses.ct.common.transverse.UUIDUtils;
+import fr.anses.ct.common.transverse.UuidCodecs;
+
+/**
+ * Génération et conversion d'UUID de {@link UUIDUtils}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidBenchmark {
+
+  /** UUID binaires. */
+  private final byte[][] uuids = new byte[Donnees.TAILLE][];
+
+  /** UUID texte. */
+  private final String[] textes = new String[Donnees.TAILLE];
+
+  /** Tampon de caractères réutilisé. */
+  private final char[] caracteres = new char[UuidCodecs.LONGUEUR_HEXA];
+
+  /** Tampon d'octets réutilisé. */
+  private final byte[] octets = new byte[16];
+
+  /** Indice courant. */
+  private int indice;
+
+  /**
+   * Préparation des données.
+   */
+  @Setup
+  public void preparer() {
+    for (int i = 0; i < uuids.length; i++) {
+      uuids[i] = UUIDUtils.genererRandom16ByteUuid();
+      textes[i] = UUIDUtils.genererFrom16ByteString(uuids[i]);
+    }
+  }
+
+  /**
+   * {@link UUIDUtils#genererRandom16ByteUuid()}.
+   *
+   * @return l'UUID binaire
+   */
+  @Benchmark
+  public byte[] genererRandom16ByteUuid() {
+    return UUIDUtils.genererRandom16ByteUuid();
+  }
+
+  /**
+   * {@link UUIDUtils#genererRandomUuid()}.
+   *
+   * @return l'UUID texte
+   */
+  @Benchmark
+  public String genererRandomUuid() {
+    return UUIDUtils.genererRandomUuid();
+  }
+
+  /**
+   * {@link UUIDUtils#genererOrdonne16ByteUuid()}.
+   *
+   * @return l'UUID binaire
+   */
+  @Benchmark
+  public byte[] genererOrdonne16ByteUuid() {
+    return UUIDUtils.genererOrdonne16ByteUuid();
+  }
+
+  /**
+   * {@link UUIDUtils#genererFrom16ByteString(byte[])}.
+   *
+   * @return l'UUID texte
+   */
+  @Benchmark
+  public String genererFrom16ByteString() {
+    return UUIDUtils.genererFrom16ByteString(uuids[indice++ & Donnees.MASQUE]);
+  }
+
+  /**
+   * {@link UuidCodecs#ecrire(byte[], int, char[], int)} (sans allocation).
+   *
+   * @return le tampon écrit
+   */
+  @Benchmark
+  public char[] ecrireHexa() {
+    UuidCodecs.ecrire(uuids[indice++ & Donnees.MASQUE], 0, caracteres, 0);
+    return caracteres;
+  }
+
+  /**
+   * {@link UuidCodecs#lire(CharSequence, int, byte[], int)} (sans allocation).
+   *
+   * @return le tampon lu
+   */
+  @Benchmark
+  public byte[] lireHexa() {
+    UuidCodecs.lire(textes[indice++ & Donnees.MASQUE], 0, octets, 0);
+    return octets;
+  }
+
+}
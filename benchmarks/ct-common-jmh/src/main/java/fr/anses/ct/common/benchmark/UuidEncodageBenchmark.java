@@ -0,0 +1,116 @@
+package fr.anses.ct.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.anses.ct.common.transverse.UUIDUtils;
+import fr.anses.ct.common.transverse.UuidCodecs;
+import fr.anses.ct.common.transverse.UuidCompactCodec;
+
+/**
+ * Ecriture et lecture des formes textuelles d'UUID : canonique (<code>hexa</code>, 36
+ * caractères, {@link UuidCodecs}) et compactes ({@link UuidCompactCodec}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidEncodageBenchmark {
+
+  /** Forme canonique. */
+  private static final String HEXA = "hexa";
+
+  /** Forme textuelle : hexa, BASE64URL ou CROCKFORD. */
+  @Param({HEXA, "BASE64URL", "CROCKFORD" })
+  private String forme;
+
+  /** Codec compact (<code>null</code> pour la forme canonique). */
+  private UuidCompactCodec codec;
+
+  /** Poids forts puis poids faibles des UUID. */
+  private final long[] paires = new long[Donnees.TAILLE * 2];
+
+  /** UUID texte dans la forme mesurée. */
+  private final String[] textes = new String[Donnees.TAILLE];
+
+  /** Tampon de caractères réutilisé. */
+  private final char[] caracteres = new char[UuidCodecs.LONGUEUR_HEXA];
+
+  /** Tampon de lecture réutilisé. */
+  private final long[] lus = new long[2];
+
+  /** Indice courant. */
+  private int indice;
+
+  /**
+   * Préparation des données.
+   */
+  @Setup
+  public void preparer() {
+    codec = HEXA.equals(forme) ? null : UuidCompactCodec.valueOf(forme);
+    for (int i = 0; i < Donnees.TAILLE; i++) {
+      final byte[] uuid = UUIDUtils.genererRandom16ByteUuid();
+      paires[2 * i] = UuidCodecs.poidsFort(uuid, 0);
+      paires[2 * i + 1] = UuidCodecs.poidsFaible(uuid, 0);
+      textes[i] = codec == null ? UuidCodecs.toString(uuid, 0) : codec.toString(uuid, 0);
+    }
+  }
+
+  /**
+   * Ecriture dans un tampon réutilisé.
+   *
+   * @return le tampon écrit
+   */
+  @Benchmark
+  public char[] ecrire() {
+    final int i = (indice++ & Donnees.MASQUE) * 2;
+    if (codec == null) {
+      UuidCodecs.ecrire(paires[i], paires[i + 1], caracteres, 0);
+    } else {
+      codec.ecrire(paires[i], paires[i + 1], caracteres, 0);
+    }
+    return caracteres;
+  }
+
+  /**
+   * Création de la <code>String</code>.
+   *
+   * @return le texte
+   */
+  @Benchmark
+  public String toString() {
+    final int i = (indice++ & Donnees.MASQUE) * 2;
+    return codec == null ? UuidCodecs.toString(paires[i], paires[i + 1]) : codec.toString(paires[i],
+      paires[i + 1]);
+  }
+
+  /**
+   * Lecture dans un tampon réutilisé.
+   *
+   * @return le tampon lu
+   */
+  @Benchmark
+  public long[] lire() {
+    final String texte = textes[indice++ & Donnees.MASQUE];
+    if (codec == null) {
+      UuidCodecs.lire(texte, 0, lus, 0);
+    } else {
+      codec.lire(texte, 0, lus, 0);
+    }
+    return lus;
+  }
+
+}
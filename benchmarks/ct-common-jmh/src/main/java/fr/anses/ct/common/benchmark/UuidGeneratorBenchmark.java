@@ -0,0 +1,83 @@
+package fr.anses.ct.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.anses.ct.common.transverse.UUIDUtils;
+import fr.anses.ct.common.transverse.UuidGeneratorStrategy;
+import fr.anses.ct.common.transverse.UuidRingBuffer;
+
+/**
+ * Débit de génération d'UUID de {@link UUIDUtils} selon le générateur, tous les processeurs
+ * générant en parallèle. Le suffixe <code>+anneau</code> place le générateur derrière une
+ * {@link UuidRingBuffer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class UuidGeneratorBenchmark {
+
+  /** Suffixe des générateurs derrière une réserve. */
+  private static final String SUFFIXE_ANNEAU = "+anneau";
+
+  /** Générateur. */
+  @Param({"jdk", "pool", "thread", "rapide", "jdk+anneau" })
+  private String generateur;
+
+  /** Réserve (<code>null</code> sans suffixe <code>+anneau</code>). */
+  private UuidRingBuffer reserve;
+
+  /**
+   * Sélection du générateur.
+   */
+  @Setup(Level.Trial)
+  public void preparer() {
+    if (generateur.endsWith(SUFFIXE_ANNEAU)) {
+      reserve = new UuidRingBuffer(UuidGeneratorStrategy.pourNom(generateur.substring(0, generateur.length()
+        - SUFFIXE_ANNEAU.length())));
+      UUIDUtils.setGenerateur(reserve);
+    } else {
+      UUIDUtils.setGenerateur(UuidGeneratorStrategy.pourNom(generateur));
+    }
+  }
+
+  /**
+   * Restauration du générateur par défaut.
+   */
+  @TearDown(Level.Trial)
+  public void terminer() {
+    UUIDUtils.setGenerateur(UuidGeneratorStrategy.JDK);
+    if (reserve != null) {
+      reserve.arreter();
+    }
+  }
+
+  /**
+   * {@link UUIDUtils#genererRandom16ByteUuid()}.
+   *
+   * @return l'UUID binaire
+   */
+  @Benchmark
+  public byte[] genererRandom16ByteUuid() {
+    return UUIDUtils.genererRandom16ByteUuid();
+  }
+
+}
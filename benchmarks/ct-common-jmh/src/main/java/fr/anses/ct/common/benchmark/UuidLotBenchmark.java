@@ -0,0 +1,103 @@
+package fr.anses.ct.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.anses.ct.common.transverse.UUIDUtils;
+import fr.anses.ct.common.transverse.UuidGeneratorStrategy;
+
+/**
+ * Coût par UUID d'une génération de {@link #TAILLE_LOT} UUID, appel par appel ou par lot, selon
+ * le générateur.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidLotBenchmark {
+
+  /** Nombre d'UUID par opération. */
+  private static final int TAILLE_LOT = 1000;
+
+  /** Générateur. */
+  @Param({"jdk", "pool", "rapide" })
+  private String generateur;
+
+  /** UUID binaires. */
+  private final byte[] octets = new byte[TAILLE_LOT * 16];
+
+  /** UUID en longs. */
+  private final long[] longs = new long[TAILLE_LOT * 2];
+
+  /**
+   * Sélection du générateur.
+   */
+  @Setup(Level.Trial)
+  public void preparer() {
+    UUIDUtils.setGenerateur(UuidGeneratorStrategy.pourNom(generateur));
+  }
+
+  /**
+   * Restauration du générateur par défaut.
+   */
+  @TearDown(Level.Trial)
+  public void terminer() {
+    UUIDUtils.setGenerateur(UuidGeneratorStrategy.JDK);
+  }
+
+  /**
+   * {@link UUIDUtils#genererRandom16ByteUuid()} appelé {@link #TAILLE_LOT} fois.
+   *
+   * @return le dernier UUID
+   */
+  @Benchmark
+  @OperationsPerInvocation(TAILLE_LOT)
+  public byte[] unitaire() {
+    byte[] uuid = null;
+    for (int i = 0; i < TAILLE_LOT; i++) {
+      uuid = UUIDUtils.genererRandom16ByteUuid();
+    }
+    return uuid;
+  }
+
+  /**
+   * {@link UUIDUtils#genererRandom16ByteUuids(byte[], int, int)}.
+   *
+   * @return les UUID
+   */
+  @Benchmark
+  @OperationsPerInvocation(TAILLE_LOT)
+  public byte[] lot() {
+    UUIDUtils.genererRandom16ByteUuids(octets, 0, TAILLE_LOT);
+    return octets;
+  }
+
+  /**
+   * {@link UUIDUtils#genererOrdonneUuids(long[], int, int)}.
+   *
+   * @return les UUID
+   */
+  @Benchmark
+  @OperationsPerInvocation(TAILLE_LOT)
+  public long[] lotOrdonne() {
+    UUIDUtils.genererOrdonneUuids(longs, 0, TAILLE_LOT);
+    return longs;
+  }
+
+}
@@ -0,0 +1,274 @@
+package fr.anses.ct.common.transverse;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * Arithmétique du calendrier grégorien proleptique (ISO) sur des valeurs primitives.
+ * <p>
+ * Les conversions jour &lt;-&gt; (année, mois, jour) suivent l'algorithme de H. Hinnant
+ * (<i>chrono-Compatible Low-Level Date Algorithms</i>) et ne créent aucun objet.
+ * </p>
+ */
+final class CivilDates {
+
+  /** Nombre de millisecondes dans une seconde. */
+  static final int MILLIS_PAR_SECONDE = 1000;
+
+  /** Nombre de millisecondes dans une minute. */
+  static final int MILLIS_PAR_MINUTE = 60 * MILLIS_PAR_SECONDE;
+
+  /** Nombre de millisecondes dans une heure. */
+  static final int MILLIS_PAR_HEURE = 60 * MILLIS_PAR_MINUTE;
+
+  /** Nombre de millisecondes dans un jour. */
+  static final long MILLIS_PAR_JOUR = 24L * MILLIS_PAR_HEURE;
+
+  /** Nombre de jours entre le 0000-03-01 et le 1970-01-01. */
+  private static final int DECALAGE_EPOCH = 719468;
+
+  /** Nombre de jours dans un cycle de 400 ans. */
+  private static final int JOURS_PAR_ERE = 146097;
+
+  /** Rang (à partir de 0) du 29 février dans une année bissextile. */
+  private static final int JOUR_29_FEVRIER = 31 + 28;
+
+  /** Durée des mois d'une année non bissextile. */
+  private static final int[] JOURS_PAR_MOIS = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+  /**
+   * Constructeur de la classe.
+   */
+  private CivilDates() {
+    // Constructeur vide
+  }
+
+  /**
+   * Division entière arrondie vers moins l'infini.
+   *
+   * @param a
+   *          dividende
+   * @param b
+   *          diviseur (strictement positif)
+   * @return le quotient arrondi vers moins l'infini
+   */
+  static long floorDiv(final long a, final long b) {
+    final long q = a / b;
+    return (a % b) < 0 ? q - 1 : q;
+  }
+
+  /**
+   * Indique si l'année est bissextile.
+   *
+   * @param annee
+   *          année
+   * @return true si l'année est bissextile
+   */
+  static boolean estBissextile(final int annee) {
+    return (annee & 3) == 0 && (annee % 100 != 0 || annee % 400 == 0);
+  }
+
+  /**
+   * Retourne le nombre de jours du mois.
+   *
+   * @param annee
+   *          année
+   * @param mois
+   *          mois (1-12)
+   * @return le nombre de jours du mois
+   */
+  static int joursDansMois(final int annee, final int mois) {
+    return mois == 2 && estBissextile(annee) ? 29 : JOURS_PAR_MOIS[mois - 1];
+  }
+
+  /**
+   * Indique si (année, mois, jour) est une date valide.
+   *
+   * @param annee
+   *          année
+   * @param mois
+   *          mois
+   * @param jour
+   *          jour du mois
+   * @return true si la date est valide
+   */
+  static boolean estDateValide(final int annee, final int mois, final int jour) {
+    return mois >= 1 && mois <= 12 && jour >= 1 && jour <= joursDansMois(annee, mois);
+  }
+
+  /**
+   * Retourne le numéro de jour depuis le 1970-01-01 de la date (année, mois, jour).
+   *
+   * @param annee
+   *          année
+   * @param mois
+   *          mois (1-12)
+   * @param jour
+   *          jour du mois
+   * @return le numéro de jour depuis l'epoch
+   */
+  static long jourEpoch(final int annee, final int mois, final int jour) {
+    final long y = mois <= 2 ? annee - 1L : annee;
+    final long ere = floorDiv(y, 400);
+    final long anneeDeEre = y - ere * 400;
+    final long jourDeAnnee = (153 * (mois > 2 ? mois - 3 : mois + 9) + 2) / 5 + jour - 1;
+    final long jourDeEre = anneeDeEre * 365 + anneeDeEre / 4 - anneeDeEre / 100 + jourDeAnnee;
+    return ere * JOURS_PAR_ERE + jourDeEre - DECALAGE_EPOCH;
+  }
+
+  /**
+   * Retourne la date (année, mois, jour) du jour <code>jourEpoch</code>, compactée sous la forme
+   * <code>(annee &lt;&lt; 9) | (mois &lt;&lt; 5) | jour</code>.
+   *
+   * @param jourEpoch
+   *          numéro de jour depuis le 1970-01-01
+   * @return la date compactée
+   * @see #annee(long)
+   * @see #mois(long)
+   * @see #jour(long)
+   */
+  static long civil(final long jourEpoch) {
+    final long z = jourEpoch + DECALAGE_EPOCH;
+    final long ere = floorDiv(z, JOURS_PAR_ERE);
+    final long jourDeEre = z - ere * JOURS_PAR_ERE;
+    final long anneeDeEre = (jourDeEre - jourDeEre / 1460 + jourDeEre / 36524 - jourDeEre / 146096) / 365;
+    final long jourDeAnnee = jourDeEre - (365 * anneeDeEre + anneeDeEre / 4 - anneeDeEre / 100);
+    final long mp = (5 * jourDeAnnee + 2) / 153;
+    final long jour = jourDeAnnee - (153 * mp + 2) / 5 + 1;
+    final long mois = mp < 10 ? mp + 3 : mp - 9;
+    final long annee = anneeDeEre + ere * 400 + (mois <= 2 ? 1 : 0);
+    return (annee << 9) | (mois << 5) | jour;
+  }
+
+  /**
+   * Année d'une date compactée par {@link #civil(long)}.
+   *
+   * @param civil
+   *          date compactée
+   * @return l'année
+   */
+  static int annee(final long civil) {
+    return (int) (civil >> 9);
+  }
+
+  /**
+   * Mois (1-12) d'une date compactée par {@link #civil(long)}.
+   *
+   * @param civil
+   *          date compactée
+   * @return le mois
+   */
+  static int mois(final long civil) {
+    return (int) ((civil >> 5) & 0xF);
+  }
+
+  /**
+   * Jour du mois d'une date compactée par {@link #civil(long)}.
+   *
+   * @param civil
+   *          date compactée
+   * @return le jour du mois
+   */
+  static int jour(final long civil) {
+    return (int) (civil & 0x1F);
+  }
+
+  /**
+   * Convertit un instant en heure locale du fuseau <code>zone</code> (millisecondes depuis
+   * l'epoch locale).
+   *
+   * @param millis
+   *          instant UTC
+   * @param zone
+   *          fuseau horaire
+   * @return l'heure locale en millisecondes
+   */
+  static long versLocal(final long millis, final DateTimeZone zone) {
+    return millis + zone.getOffset(millis);
+  }
+
+  /**
+   * Convertit une heure locale du fuseau <code>zone</code> en instant UTC, selon la même règle que
+   * l'analyse Joda-Time. Les heures locales inexistantes (passage à l'heure d'été) sont rejetées.
+   *
+   * @param local
+   *          heure locale en millisecondes
+   * @param zone
+   *          fuseau horaire
+   * @return l'instant UTC, ou <code>Long.MIN_VALUE</code> si l'heure locale n'existe pas
+   */
+  static long versUtc(final long local, final DateTimeZone zone) {
+    final int offset = zone.getOffsetFromLocal(local);
+    final long utc = local - offset;
+    if (offset != zone.getOffset(utc)) {
+      return Long.MIN_VALUE;
+    }
+    return utc;
+  }
+
+  /**
+   * Ajoute <code>annees</code> années au jour <code>jourEpoch</code>. Le 29 février devient le 28
+   * février dans une année non bissextile (même règle que <code>LocalDate.plusYears</code>).
+   *
+   * @param jourEpoch
+   *          numéro de jour depuis le 1970-01-01
+   * @param annees
+   *          nombre d'années (éventuellement négatif)
+   * @return le numéro de jour résultant
+   */
+  static long ajouterAnnees(final long jourEpoch, final int annees) {
+    final long civil = civil(jourEpoch);
+    final int annee = annee(civil) + annees;
+    final int mois = mois(civil);
+    return jourEpoch(annee, mois, Math.min(jour(civil), joursDansMois(annee, mois)));
+  }
+
+  /**
+   * Retourne le nombre d'années pleines entre deux jours, selon la même règle que
+   * <code>Years.yearsBetween</code> de Joda-Time sur des <code>LocalDate</code>.
+   *
+   * @param debut
+   *          numéro du premier jour depuis le 1970-01-01
+   * @param fin
+   *          numéro du second jour depuis le 1970-01-01
+   * @return le nombre d'années pleines, négatif si <code>fin</code> précède <code>debut</code>
+   */
+  static int anneesEcart(final long debut, final long fin) {
+    if (fin < debut) {
+      return -differenceAnnees(debut, fin);
+    }
+    return differenceAnnees(fin, debut);
+  }
+
+  /**
+   * Différence en années pleines entre deux jours, <code>diminuende</code> étant postérieur ou égal
+   * à <code>diminuteur</code>.
+   *
+   * @param diminuende
+   *          numéro du jour le plus tardif
+   * @param diminuteur
+   *          numéro du jour le plus ancien
+   * @return le nombre d'années pleines
+   */
+  private static int differenceAnnees(final long diminuende, final long diminuteur) {
+    final int anneeDiminuende = annee(civil(diminuende));
+    final int anneeDiminuteur = annee(civil(diminuteur));
+    long resteDiminuende = diminuende - jourEpoch(anneeDiminuende, 1, 1);
+    long resteDiminuteur = diminuteur - jourEpoch(anneeDiminuteur, 1, 1);
+    // équilibrage des années bissextiles sur les restes (cf. BasicGJChronology.getYearDifference)
+    if (resteDiminuteur >= JOUR_29_FEVRIER) {
+      if (estBissextile(anneeDiminuteur)) {
+        if (!estBissextile(anneeDiminuende)) {
+          resteDiminuteur--;
+        }
+      } else if (resteDiminuende >= JOUR_29_FEVRIER && estBissextile(anneeDiminuende)) {
+        resteDiminuende--;
+      }
+    }
+    int difference = anneeDiminuende - anneeDiminuteur;
+    if (resteDiminuende < resteDiminuteur) {
+      difference--;
+    }
+    return difference;
+  }
+
+}
@@ -0,0 +1,101 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Horloge à faible résolution : l'instant courant est relu toutes les <code>resolution</code>
+ * millisecondes par un thread démon et la lecture se limite à celle d'un champ volatile.
+ * L'instant retourné peut retarder d'au plus une résolution (plus la latence d'ordonnancement)
+ * sur l'horloge système.
+ * <p>
+ * Le thread est arrêté par {@link #arreter()} ; l'horloge reste alors figée à son dernier instant.
+ * </p>
+ */
+public final class CoarseDateClock implements DateClock {
+
+  /** Résolution par défaut en millisecondes. */
+  public static final long RESOLUTION_DEFAUT = 10;
+
+  /** Nom du thread de rafraîchissement. */
+  private static final String NOM_THREAD = "ct-common-coarse-clock";
+
+  /** Résolution en millisecondes. */
+  private final long resolution;
+
+  /** Ordonnanceur du rafraîchissement. */
+  private final ScheduledExecutorService ordonnanceur;
+
+  /** Dernier instant lu. */
+  private volatile long millis = System.currentTimeMillis();
+
+  /**
+   * Constructeur de la classe, résolution {@link #RESOLUTION_DEFAUT}.
+   */
+  public CoarseDateClock() {
+    this(RESOLUTION_DEFAUT);
+  }
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param resolution
+   *          résolution en millisecondes (strictement positive)
+   */
+  public CoarseDateClock(final long resolution) {
+    isTrue(resolution > 0, "la résolution doit être strictement positive : %d", resolution);
+    this.resolution = resolution;
+    this.ordonnanceur = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, NOM_THREAD);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    ordonnanceur.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        millis = System.currentTimeMillis();
+      }
+    }, resolution, resolution, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMillis() {
+    return millis;
+  }
+
+  /**
+   * Retourne la résolution.
+   *
+   * @return la résolution en millisecondes
+   */
+  public long getResolution() {
+    return resolution;
+  }
+
+  /**
+   * Arrête le thread de rafraîchissement.
+   */
+  public void arreter() {
+    ordonnanceur.shutdownNow();
+  }
+
+  /**
+   * Indique si le thread de rafraîchissement est arrêté.
+   *
+   * @return true si l'horloge est arrêtée
+   */
+  public boolean estArretee() {
+    return ordonnanceur.isShutdown();
+  }
+
+}
@@ -0,0 +1,83 @@
+package fr.anses.ct.common.transverse;
+
+import java.util.Calendar;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * Moteur de calcul des dates utilisé par {@link DateUtils} pour le formatage et la lecture selon
+ * un format, et pour la construction des <code>Calendar</code>.
+ * <p>
+ * Toutes les opérations se font dans le fuseau horaire par défaut, avec la sémantique des formats
+ * Joda-Time (ex: yyyy-MM-dd'T'HH:mm:ss,SZ). Le moteur est choisi au démarrage par la propriété
+ * système {@link DateUtils#PROPRIETE_BACKEND} ou par {@link DateUtils#setBackend(DateBackend)}.
+ * </p>
+ */
+public interface DateBackend {
+
+  /**
+   * Retourne le nom du moteur.
+   *
+   * @return le nom du moteur
+   */
+  String getNom();
+
+  /**
+   * Formate l'instant <code>millis</code> au format <code>format</code>.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @param format
+   *          format de sortie (ex: ddMMyyyy)
+   * @return la date formatée
+   */
+  String formater(long millis, String format);
+
+  /**
+   * Lit la date <code>date</code> au format <code>format</code>.
+   *
+   * @param date
+   *          la date à lire
+   * @param format
+   *          format de lecture (ex: ddMMyyyy)
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si la date ne respecte pas le format ou n'existe pas dans le fuseau horaire
+   */
+  long parser(String date, String format);
+
+  /**
+   * Retourne le premier instant du jour (année, mois, jour).
+   *
+   * @param annee
+   *          année
+   * @param mois
+   *          mois (1-12)
+   * @param jour
+   *          jour du mois
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si la date n'est pas valide
+   */
+  long debutDeJour(int annee, int mois, int jour);
+
+  /**
+   * Construit le calendar de l'instant <code>millis</code>, dans le fuseau horaire par défaut et
+   * avec la locale par défaut.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @return le calendar
+   */
+  Calendar toCalendar(long millis);
+
+  /**
+   * Retourne le fuseau horaire par défaut selon les règles du moteur. {@link DateUtils} l'utilise
+   * pour les formats à largeur fixe ({@link FixedDateLayout}) et les calculs au jour, afin qu'un
+   * même instant donne le même résultat que par {@link #formater(long, String)}.
+   *
+   * @return le fuseau horaire par défaut
+   */
+  DateTimeZone getZone();
+
+}
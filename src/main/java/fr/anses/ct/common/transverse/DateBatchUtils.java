@@ -0,0 +1,402 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * Conversion de dates par lots (colonnes d'instants en millisecondes).
+ * <p>
+ * Les résultats sont identiques à ceux des méthodes unitaires de {@link DateUtils} : le fuseau
+ * horaire par défaut est utilisé, les formats à largeur fixe passent par {@link FixedDateLayout}
+ * et les autres par le moteur de dates de {@link DateUtils}. Au-delà du seuil de parallélisation, le lot
+ * est découpé et traité dans un <code>ForkJoinPool</code>.
+ * </p>
+ */
+public final class DateBatchUtils {
+
+  /** Taille de lot par défaut en dessous de laquelle le traitement n'est pas découpé. */
+  public static final int SEUIL_PARALLELISATION_DEFAUT = 8192;
+
+  /** Message d'erreur lors de la verification de la nullité des params. */
+  private static final String NULL_ERROR_PATTERN = "le paramètre '%s' est null";
+
+  /** MILLIS_ARG. */
+  private static final String MILLIS_ARG = "millis";
+
+  /** DEST_ARG. */
+  private static final String DEST_ARG = "dest";
+
+  /** Taille de lot en dessous de laquelle le traitement n'est pas découpé. */
+  private static volatile int seuilParallelisation = SEUIL_PARALLELISATION_DEFAUT;
+
+  /** Pool utilisé pour les lots parallélisés. */
+  private static volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+
+  /**
+   * Constructeur de la classe.
+   */
+  private DateBatchUtils() {
+    // Constructeur vide.
+  }
+
+  /**
+   * Formate chaque instant de <code>millis</code> au format <code>format</code> dans le tableau
+   * <code>dest</code> (même indice).
+   *
+   * @param millis
+   *          instants en millisecondes depuis l'epoch
+   * @param format
+   *          format de sortie (ex: ddMMyyyy)
+   * @param dest
+   *          tableau de destination, au moins aussi long que <code>millis</code>
+   */
+  public static void toString(final long[] millis, final String format, final String[] dest) {
+    notNull(millis, NULL_ERROR_PATTERN, MILLIS_ARG);
+    notNull(dest, NULL_ERROR_PATTERN, DEST_ARG);
+    isTrue(dest.length >= millis.length, "Le tableau de destination est trop court : %s", dest.length);
+    executer(new Conversion(Operation.FORMATER, format, millis, dest, null, null, 0), millis.length);
+  }
+
+  /**
+   * Formate chaque instant de <code>millis</code> au format à largeur fixe <code>format</code> dans
+   * un unique tableau contigu : la date d'indice <code>i</code> occupe les caractères
+   * <code>[i * longueur, (i + 1) * longueur[</code>.
+   *
+   * @param millis
+   *          instants en millisecondes depuis l'epoch
+   * @param format
+   *          format à largeur fixe (voir {@link FixedDateLayout})
+   * @return le tableau contigu des dates formatées
+   */
+  public static char[] toChars(final long[] millis, final String format) {
+    notNull(millis, NULL_ERROR_PATTERN, MILLIS_ARG);
+    final char[] dest = new char[millis.length * layout(format).getLongueur()];
+    toChars(millis, format, dest, 0);
+    return dest;
+  }
+
+  /**
+   * Formate chaque instant de <code>millis</code> au format à largeur fixe <code>format</code> dans
+   * le tableau contigu <code>dest</code> à partir de <code>offset</code>.
+   *
+   * @param millis
+   *          instants en millisecondes depuis l'epoch
+   * @param format
+   *          format à largeur fixe (voir {@link FixedDateLayout})
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position d'écriture de la première date
+   * @return la position qui suit le dernier caractère écrit
+   */
+  public static int toChars(final long[] millis, final String format, final char[] dest, final int offset) {
+    notNull(millis, NULL_ERROR_PATTERN, MILLIS_ARG);
+    notNull(dest, NULL_ERROR_PATTERN, DEST_ARG);
+    final int longueur = layout(format).getLongueur();
+    final int fin = offset + millis.length * longueur;
+    isTrue(offset >= 0 && fin <= dest.length, "Le tableau de destination est trop court : %s", dest.length);
+    executer(new Conversion(Operation.ECRIRE, format, millis, null, null, dest, offset), millis.length);
+    return fin;
+  }
+
+  /**
+   * Lit chaque date de <code>dates</code> au format <code>format</code> dans le tableau
+   * <code>dest</code> (même indice).
+   *
+   * @param dates
+   *          dates à lire (aucune ne doit être null)
+   * @param format
+   *          format de lecture (ex: ddMMyyyy)
+   * @param dest
+   *          tableau des instants en millisecondes, au moins aussi long que <code>dates</code>
+   */
+  public static void toMillis(final CharSequence[] dates, final String format, final long[] dest) {
+    notNull(dates, NULL_ERROR_PATTERN, "dates");
+    notNull(dest, NULL_ERROR_PATTERN, DEST_ARG);
+    isTrue(dest.length >= dates.length, "Le tableau de destination est trop court : %s", dest.length);
+    executer(new Conversion(Operation.LIRE, format, dest, null, dates, null, 0), dates.length);
+  }
+
+  /**
+   * Lit les <code>dest.length</code> dates contiguës au format à largeur fixe <code>format</code>
+   * du tableau <code>source</code> à partir de <code>offset</code>.
+   *
+   * @param source
+   *          tableau contigu des dates
+   * @param offset
+   *          position de la première date
+   * @param format
+   *          format à largeur fixe (voir {@link FixedDateLayout})
+   * @param dest
+   *          tableau des instants en millisecondes
+   */
+  public static void toMillis(final char[] source, final int offset, final String format, final long[] dest) {
+    notNull(source, NULL_ERROR_PATTERN, "source");
+    notNull(dest, NULL_ERROR_PATTERN, DEST_ARG);
+    final int longueur = layout(format).getLongueur();
+    isTrue(offset >= 0 && offset + dest.length * longueur <= source.length, "Le tableau source est trop court : %s",
+      source.length);
+    executer(new Conversion(Operation.LIRE_CONTIGU, format, dest, null, null, source, offset), dest.length);
+  }
+
+  /**
+   * Retourne la taille de lot en dessous de laquelle le traitement n'est pas découpé.
+   *
+   * @return la taille de lot
+   */
+  public static int getSeuilParallelisation() {
+    return seuilParallelisation;
+  }
+
+  /**
+   * Modifie la taille de lot en dessous de laquelle le traitement n'est pas découpé.
+   *
+   * @param seuil
+   *          la taille de lot (strictement positive)
+   */
+  public static void setSeuilParallelisation(final int seuil) {
+    isTrue(seuil > 0, "Le seuil doit être strictement positif : %s", seuil);
+    seuilParallelisation = seuil;
+  }
+
+  /**
+   * Modifie le pool utilisé pour les lots parallélisés (par défaut le pool commun).
+   *
+   * @param forkJoinPool
+   *          le pool
+   */
+  public static void setForkJoinPool(final ForkJoinPool forkJoinPool) {
+    pool = notNull(forkJoinPool, NULL_ERROR_PATTERN, "forkJoinPool");
+  }
+
+  /**
+   * Retourne le format à largeur fixe correspondant à <code>format</code>.
+   *
+   * @param format
+   *          le format
+   * @return le format à largeur fixe
+   */
+  private static FixedDateLayout layout(final String format) {
+    final FixedDateLayout layout = FixedDateLayout.pourFormat(notNull(format, NULL_ERROR_PATTERN,
+      DateUtils.FORMAT_ARG));
+    isTrue(layout != null, "Le format n'est pas à largeur fixe : %s", format);
+    return layout;
+  }
+
+  /**
+   * Exécute la conversion, en parallèle si le lot dépasse le seuil.
+   *
+   * @param conversion
+   *          la conversion de tout le lot
+   * @param taille
+   *          la taille du lot
+   */
+  private static void executer(final Conversion conversion, final int taille) {
+    if (taille <= seuilParallelisation) {
+      conversion.convertir(0, taille);
+    } else {
+      pool.invoke(new Tache(conversion, 0, taille, seuilParallelisation));
+    }
+  }
+
+  /**
+   * Opérations de conversion.
+   */
+  private enum Operation {
+    /** long[] vers String[]. */
+    FORMATER,
+    /** long[] vers char[] contigu. */
+    ECRIRE,
+    /** CharSequence[] vers long[]. */
+    LIRE,
+    /** char[] contigu vers long[]. */
+    LIRE_CONTIGU
+  }
+
+  /**
+   * Conversion d'un lot, applicable sur n'importe quel sous-intervalle.
+   */
+  private static final class Conversion {
+
+    /** Opération. */
+    private final Operation operation;
+
+    /** Fuseau horaire. */
+    private final DateTimeZone zone;
+
+    /** Format à largeur fixe, null si le format n'est pas à largeur fixe. */
+    private final FixedDateLayout layout;
+
+    /** Format. */
+    private final String format;
+
+    /** Moteur de dates. */
+    private final DateBackend backend;
+
+    /** Instants. */
+    private final long[] millis;
+
+    /** Chaines formatées. */
+    private final String[] chaines;
+
+    /** Dates à lire. */
+    private final CharSequence[] dates;
+
+    /** Tableau contigu. */
+    private final char[] contigu;
+
+    /** Vue du tableau contigu. */
+    private final CharBuffer vue;
+
+    /** Position de la première date dans le tableau contigu. */
+    private final int offset;
+
+    /**
+     * Constructeur.
+     *
+     * @param operation
+     *          opération
+     * @param format
+     *          format
+     * @param millis
+     *          instants
+     * @param chaines
+     *          chaines formatées
+     * @param dates
+     *          dates à lire
+     * @param contigu
+     *          tableau contigu
+     * @param offset
+     *          position de la première date dans le tableau contigu
+     */
+    Conversion(final Operation operation, final String format, final long[] millis, final String[] chaines,
+      final CharSequence[] dates, final char[] contigu, final int offset) {
+      this.operation = operation;
+      this.backend = DateUtils.getBackend();
+      this.zone = backend.getZone();
+      this.layout = FixedDateLayout.pourFormat(notNull(format, NULL_ERROR_PATTERN, DateUtils.FORMAT_ARG));
+      this.format = format;
+      this.millis = millis;
+      this.chaines = chaines;
+      this.dates = dates;
+      this.contigu = contigu;
+      this.vue = contigu == null ? null : CharBuffer.wrap(contigu);
+      this.offset = offset;
+    }
+
+    /**
+     * Convertit les éléments d'indices <code>[debut, fin[</code>.
+     *
+     * @param debut
+     *          premier indice
+     * @param fin
+     *          indice qui suit le dernier
+     */
+    void convertir(final int debut, final int fin) {
+      switch (operation) {
+        case FORMATER:
+          for (int i = debut; i < fin; i++) {
+            chaines[i] = layout == null ? backend.formater(millis[i], format) : layout.formater(millis[i], zone);
+          }
+          break;
+        case ECRIRE:
+          for (int i = debut; i < fin; i++) {
+            layout.formater(millis[i], zone, contigu, offset + i * layout.getLongueur());
+          }
+          break;
+        case LIRE:
+          for (int i = debut; i < fin; i++) {
+            millis[i] = lire(notNull(dates[i], NULL_ERROR_PATTERN, DateUtils.DATE_ARG), 0, dates[i].length());
+          }
+          break;
+        default:
+          final int longueur = layout.getLongueur();
+          for (int i = debut; i < fin; i++) {
+            millis[i] = lire(vue, offset + i * longueur, longueur);
+          }
+          break;
+      }
+    }
+
+    /**
+     * Lit une date.
+     *
+     * @param texte
+     *          texte
+     * @param position
+     *          position du premier caractère
+     * @param longueur
+     *          nombre de caractères
+     * @return l'instant en millisecondes
+     */
+    private long lire(final CharSequence texte, final int position, final int longueur) {
+      if (layout != null && longueur == layout.getLongueur()) {
+        final long resultat = layout.tenterParser(texte, position, zone);
+        if (resultat != FixedDateLayout.INVALIDE) {
+          return resultat;
+        }
+      }
+      return backend.parser(texte.subSequence(position, position + longueur).toString(), format);
+    }
+  }
+
+  /**
+   * Tâche de découpage d'un lot.
+   */
+  private static final class Tache extends RecursiveAction {
+
+    /** UID. */
+    private static final long serialVersionUID = 1L;
+
+    /** Conversion. */
+    private final transient Conversion conversion;
+
+    /** Premier indice. */
+    private final int debut;
+
+    /** Indice qui suit le dernier. */
+    private final int fin;
+
+    /** Taille maximale d'une tâche non découpée. */
+    private final int seuil;
+
+    /**
+     * Constructeur.
+     *
+     * @param conversion
+     *          conversion
+     * @param debut
+     *          premier indice
+     * @param fin
+     *          indice qui suit le dernier
+     * @param seuil
+     *          taille maximale d'une tâche non découpée
+     */
+    Tache(final Conversion conversion, final int debut, final int fin, final int seuil) {
+      this.conversion = conversion;
+      this.debut = debut;
+      this.fin = fin;
+      this.seuil = seuil;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void compute() {
+      if (fin - debut <= seuil) {
+        conversion.convertir(debut, fin);
+        return;
+      }
+      final int milieu = (debut + fin) >>> 1;
+      invokeAll(new Tache(conversion, debut, milieu, seuil), new Tache(conversion, milieu, fin, seuil));
+    }
+  }
+
+}
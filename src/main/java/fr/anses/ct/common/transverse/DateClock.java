@@ -0,0 +1,21 @@
+package fr.anses.ct.common.transverse;
+
+/**
+ * Horloge utilisée par {@link DateUtils} pour obtenir l'instant courant.
+ * <p>
+ * Implémentations fournies : {@link SystemDateClock} (horloge système), {@link CoarseDateClock}
+ * (horloge rafraîchie périodiquement par un thread d'arrière-plan) et {@link FixedDateClock}
+ * (horloge figée, pour les tests). L'horloge est choisie par
+ * {@link DateUtils#setHorloge(DateClock)}.
+ * </p>
+ */
+public interface DateClock {
+
+  /**
+   * Retourne l'instant courant.
+   *
+   * @return l'instant courant en millisecondes depuis l'epoch
+   */
+  long getMillis();
+
+}
@@ -0,0 +1,566 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * Cache borné des conversions de dates, dans les deux sens : (format, fuseau, instant) -&gt; texte
+ * et (format, fuseau, texte) -&gt; instant.
+ * <p>
+ * Pour les formats à largeur fixe sans heure ({@link FixedDateLayout#contientHeure()}), le texte
+ * ne dépend que du jour : la clé de formatage est alors le jour epoch, ce qui permet de partager
+ * une entrée entre tous les instants d'une même journée. Les formats comportant des champs textuels
+ * (mois en lettres, jour de la semaine, AM/PM, ère, nom de fuseau) dépendent de la locale : la
+ * locale par défaut, utilisée par le moteur de formatage, fait alors partie de la clé. Le fuseau
+ * est celui fourni par l'appelant ({@link DateUtils} passe {@link DateBackend#getZone()}).
+ * </p>
+ * <p>
+ * Chaque sens est découpé en {@link #NB_SEGMENTS} segments LRU indépendants (verrou par segment) ;
+ * un segment plein évince son entrée la moins récemment utilisée. Les compteurs de succès,
+ * d'échecs et d'évictions sont tenus par segment, sous son verrou, et additionnés à la lecture :
+ * aucun compteur n'est partagé entre segments. Le cache est activé dans {@link DateUtils} par
+ * {@link DateUtils#setCache(DateConversionCache)} ou par la propriété système
+ * {@link DateUtils#PROPRIETE_TAILLE_CACHE}.
+ * </p>
+ */
+public final class DateConversionCache {
+
+  /** Nombre de segments par sens de conversion. */
+  public static final int NB_SEGMENTS = 16;
+
+  /** Message d'erreur lors de la verification de la nullité des params. */
+  private static final String NULL_ERROR_PATTERN = "le paramètre '%s' est null";
+
+  /** Nature des formats déjà rencontrés. */
+  private static final ConcurrentMap<String, Nature> NATURES = new ConcurrentHashMap<String, Nature>();
+
+  /** Capacité par sens de conversion. */
+  private final int capacite;
+
+  /** Segments de formatage. */
+  private final Segment[] textes = new Segment[NB_SEGMENTS];
+
+  /** Segments de lecture. */
+  private final Segment[] instants = new Segment[NB_SEGMENTS];
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param capacite
+   *          nombre maximal d'entrées par sens de conversion (au moins {@link #NB_SEGMENTS})
+   */
+  public DateConversionCache(final int capacite) {
+    isTrue(capacite >= NB_SEGMENTS, "la capacité doit être au moins %d", NB_SEGMENTS);
+    this.capacite = capacite;
+    final int parSegment = (capacite + NB_SEGMENTS - 1) / NB_SEGMENTS;
+    for (int i = 0; i < NB_SEGMENTS; i++) {
+      textes[i] = new Segment(parSegment);
+      instants[i] = new Segment(parSegment);
+    }
+  }
+
+  /**
+   * Retourne le texte mémorisé de l'instant <code>millis</code> au format <code>format</code>.
+   *
+   * @param format
+   *          format
+   * @param zone
+   *          fuseau horaire du formatage
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @return le texte, <code>null</code> s'il n'est pas en cache
+   */
+  public String getTexte(final String format, final DateTimeZone zone, final long millis) {
+    return (String) chercher(textes, cleTexte(format, zone, millis));
+  }
+
+  /**
+   * Mémorise le texte de l'instant <code>millis</code> au format <code>format</code>.
+   *
+   * @param format
+   *          format
+   * @param zone
+   *          fuseau horaire du formatage
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @param texte
+   *          texte formaté
+   */
+  public void putTexte(final String format, final DateTimeZone zone, final long millis, final String texte) {
+    memoriser(textes, cleTexte(format, zone, millis), notNull(texte, NULL_ERROR_PATTERN, "texte"));
+  }
+
+  /**
+   * Retourne l'instant mémorisé du texte <code>texte</code> lu au format <code>format</code>.
+   *
+   * @param format
+   *          format
+   * @param zone
+   *          fuseau horaire de la lecture
+   * @param texte
+   *          texte lu
+   * @return l'instant, <code>null</code> s'il n'est pas en cache
+   */
+  public Long getMillis(final String format, final DateTimeZone zone, final String texte) {
+    return (Long) chercher(instants, cleLecture(format, zone, texte));
+  }
+
+  /**
+   * Mémorise l'instant du texte <code>texte</code> lu au format <code>format</code>.
+   *
+   * @param format
+   *          format
+   * @param zone
+   *          fuseau horaire de la lecture
+   * @param texte
+   *          texte lu
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   */
+  public void putMillis(final String format, final DateTimeZone zone, final String texte, final long millis) {
+    memoriser(instants, cleLecture(format, zone, texte), Long.valueOf(millis));
+  }
+
+  /**
+   * Retourne la capacité par sens de conversion.
+   *
+   * @return la capacité
+   */
+  public int getCapacite() {
+    return capacite;
+  }
+
+  /**
+   * Retourne le nombre d'entrées en cache (deux sens confondus).
+   *
+   * @return le nombre d'entrées
+   */
+  public int getTaille() {
+    int taille = 0;
+    for (int i = 0; i < NB_SEGMENTS; i++) {
+      taille += textes[i].taille() + instants[i].taille();
+    }
+    return taille;
+  }
+
+  /**
+   * Retourne le nombre de recherches fructueuses.
+   *
+   * @return le nombre de succès
+   */
+  public long getNbSucces() {
+    long total = 0L;
+    for (int i = 0; i < NB_SEGMENTS; i++) {
+      total += textes[i].nbSucces() + instants[i].nbSucces();
+    }
+    return total;
+  }
+
+  /**
+   * Retourne le nombre de recherches infructueuses.
+   *
+   * @return le nombre d'échecs
+   */
+  public long getNbEchecs() {
+    long total = 0L;
+    for (int i = 0; i < NB_SEGMENTS; i++) {
+      total += textes[i].nbEchecs() + instants[i].nbEchecs();
+    }
+    return total;
+  }
+
+  /**
+   * Retourne le nombre d'entrées évincées.
+   *
+   * @return le nombre d'évictions
+   */
+  public long getNbEvictions() {
+    long total = 0L;
+    for (int i = 0; i < NB_SEGMENTS; i++) {
+      total += textes[i].nbEvictions() + instants[i].nbEvictions();
+    }
+    return total;
+  }
+
+  /**
+   * Retourne la proportion de recherches fructueuses.
+   *
+   * @return le taux de succès (0 si aucune recherche)
+   */
+  public double getTauxSucces() {
+    final long nbSucces = getNbSucces();
+    final long total = nbSucces + getNbEchecs();
+    return total == 0 ? 0d : (double) nbSucces / total;
+  }
+
+  /**
+   * Vide le cache et remet les compteurs à zéro.
+   */
+  public void vider() {
+    for (int i = 0; i < NB_SEGMENTS; i++) {
+      textes[i].vider();
+      instants[i].vider();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return "DateConversionCache[taille=" + getTaille() + ", succes=" + getNbSucces() + ", echecs=" + getNbEchecs()
+      + ", evictions=" + getNbEvictions() + ']';
+  }
+
+  /**
+   * Construit la clé de formatage : jour epoch pour un format sans heure, instant sinon.
+   *
+   * @param format
+   *          format
+   * @param zone
+   *          fuseau horaire
+   * @param millis
+   *          instant
+   * @return la clé
+   */
+  private static Cle cleTexte(final String format, final DateTimeZone zone, final long millis) {
+    notNull(format, NULL_ERROR_PATTERN, DateUtils.FORMAT_ARG);
+    notNull(zone, NULL_ERROR_PATTERN, "zone");
+    final Nature nature = nature(format);
+    if (nature == Nature.JOUR) {
+      return new Cle(format, zone, null, DateUtils.toJourEpoch(millis, zone), null);
+    }
+    return new Cle(format, zone, nature == Nature.TEXTUEL ? Locale.getDefault() : null, millis, null);
+  }
+
+  /**
+   * Construit la clé de lecture.
+   *
+   * @param format
+   *          format
+   * @param zone
+   *          fuseau horaire
+   * @param texte
+   *          texte lu
+   * @return la clé
+   */
+  private static Cle cleLecture(final String format, final DateTimeZone zone, final String texte) {
+    notNull(format, NULL_ERROR_PATTERN, DateUtils.FORMAT_ARG);
+    notNull(zone, NULL_ERROR_PATTERN, "zone");
+    notNull(texte, NULL_ERROR_PATTERN, "texte");
+    return new Cle(format, zone, nature(format) == Nature.TEXTUEL ? Locale.getDefault() : null, 0L, texte);
+  }
+
+  /**
+   * Retourne la nature du format (mémorisée).
+   *
+   * @param format
+   *          format
+   * @return la nature
+   */
+  private static Nature nature(final String format) {
+    Nature nature = NATURES.get(format);
+    if (nature == null) {
+      final FixedDateLayout layout = FixedDateLayout.pourFormat(format);
+      if (layout != null) {
+        nature = layout.contientHeure() ? Nature.NUMERIQUE : Nature.JOUR;
+      } else {
+        nature = contientChampTextuel(format) ? Nature.TEXTUEL : Nature.NUMERIQUE;
+      }
+      if (NATURES.size() < DateFormatterRegistry.TAILLE_MAX_DEFAUT) {
+        NATURES.putIfAbsent(format, nature);
+      }
+    }
+    return nature;
+  }
+
+  /**
+   * Indique si le format Joda-Time comporte un champ textuel, dont le rendu dépend de la locale :
+   * mois en lettres (<code>MMM</code> et plus), jour de la semaine (<code>E</code>), AM/PM
+   * (<code>a</code>), ère (<code>G</code>) ou nom de fuseau (<code>z</code>). Le texte entre
+   * apostrophes est ignoré.
+   *
+   * @param format
+   *          format
+   * @return true si le format dépend de la locale
+   */
+  private static boolean contientChampTextuel(final String format) {
+    boolean litteral = false;
+    int mois = 0;
+    for (int i = 0; i < format.length(); i++) {
+      final char c = format.charAt(i);
+      if (c == '\'') {
+        litteral = !litteral;
+      }
+      if (!litteral && c == 'M') {
+        mois++;
+        if (mois >= 3) {
+          return true;
+        }
+        continue;
+      }
+      mois = 0;
+      if (!litteral && (c == 'E' || c == 'a' || c == 'G' || c == 'z')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Cherche une clé et met à jour les compteurs.
+   *
+   * @param segments
+   *          segments du sens de conversion
+   * @param cle
+   *          clé
+   * @return la valeur, <code>null</code> si absente
+   */
+  private static Object chercher(final Segment[] segments, final Cle cle) {
+    return segments[segment(cle)].chercher(cle);
+  }
+
+  /**
+   * Mémorise une valeur.
+   *
+   * @param segments
+   *          segments du sens de conversion
+   * @param cle
+   *          clé
+   * @param valeur
+   *          valeur
+   */
+  private static void memoriser(final Segment[] segments, final Cle cle, final Object valeur) {
+    segments[segment(cle)].memoriser(cle, valeur);
+  }
+
+  /**
+   * Retourne le segment d'une clé.
+   *
+   * @param cle
+   *          clé
+   * @return l'indice du segment
+   */
+  private static int segment(final Cle cle) {
+    final int h = cle.hashCode();
+    return (h ^ (h >>> 16)) & (NB_SEGMENTS - 1);
+  }
+
+  /**
+   * Clé de conversion : format, fuseau, locale (formats textuels uniquement), et instant, jour
+   * epoch ou texte. Un format donné est toujours indexé de la même façon (jour ou instant), les deux
+   * ne se mélangent donc pas.
+   */
+  private static final class Cle {
+
+    /** Format. */
+    private final String format;
+
+    /** Fuseau horaire. */
+    private final DateTimeZone zone;
+
+    /** Locale (<code>null</code> pour un format sans champ textuel). */
+    private final Locale locale;
+
+    /** Instant ou jour epoch. */
+    private final long valeur;
+
+    /** Texte lu (<code>null</code> pour une clé de formatage). */
+    private final String texte;
+
+    /** Hash précalculé. */
+    private final int hash;
+
+    /**
+     * Constructeur de la classe.
+     *
+     * @param format
+     *          format
+     * @param zone
+     *          fuseau horaire
+     * @param locale
+     *          locale (<code>null</code> pour un format sans champ textuel)
+     * @param valeur
+     *          instant ou jour epoch
+     * @param texte
+     *          texte lu (<code>null</code> pour une clé de formatage)
+     */
+    Cle(final String format, final DateTimeZone zone, final Locale locale, final long valeur, final String texte) {
+      this.format = format;
+      this.zone = zone;
+      this.locale = locale;
+      this.valeur = valeur;
+      this.texte = texte;
+      int h = format.hashCode();
+      h = 31 * h + zone.hashCode();
+      h = 31 * h + (locale == null ? 0 : locale.hashCode());
+      h = 31 * h + (int) (valeur ^ (valeur >>> 32));
+      this.hash = 31 * h + (texte == null ? 0 : texte.hashCode());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Cle)) {
+        return false;
+      }
+      final Cle autre = (Cle) obj;
+      return hash == autre.hash && valeur == autre.valeur && format.equals(autre.format) && zone.equals(autre.zone)
+        && (locale == null ? autre.locale == null : locale.equals(autre.locale))
+        && (texte == null ? autre.texte == null : texte.equals(autre.texte));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Nature d'un format vis-à-vis du cache.
+   */
+  private enum Nature {
+
+    /** Format à largeur fixe sans heure : indexé par jour epoch. */
+    JOUR,
+
+    /** Format numérique : indexé par instant. */
+    NUMERIQUE,
+
+    /** Format avec champ textuel : indexé par instant et locale. */
+    TEXTUEL
+  }
+
+  /**
+   * Segment LRU protégé par son propre verrou, qui protège aussi ses compteurs.
+   */
+  private static final class Segment {
+
+    /** Entrées, dans l'ordre d'accès. */
+    private final LinkedHashMap<Cle, Object> entrees;
+
+    /** Nombre de succès. */
+    private long succes;
+
+    /** Nombre d'échecs. */
+    private long echecs;
+
+    /** Nombre d'évictions. */
+    private long evictions;
+
+    /**
+     * Constructeur de la classe.
+     *
+     * @param capacite
+     *          nombre maximal d'entrées du segment
+     */
+    Segment(final int capacite) {
+      entrees = new LinkedHashMap<Cle, Object>(16, 0.75f, true) {
+
+        /** serialVersionUID. */
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Cle, Object> eldest) {
+          if (size() > capacite) {
+            evictions++;
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+
+    /**
+     * Cherche une clé (et la marque comme la plus récemment utilisée).
+     *
+     * @param cle
+     *          clé
+     * @return la valeur, <code>null</code> si absente
+     */
+    synchronized Object chercher(final Cle cle) {
+      final Object valeur = entrees.get(cle);
+      if (valeur == null) {
+        echecs++;
+      } else {
+        succes++;
+      }
+      return valeur;
+    }
+
+    /**
+     * Mémorise une valeur.
+     *
+     * @param cle
+     *          clé
+     * @param valeur
+     *          valeur
+     */
+    synchronized void memoriser(final Cle cle, final Object valeur) {
+      entrees.put(cle, valeur);
+    }
+
+    /**
+     * Retourne le nombre d'entrées.
+     *
+     * @return le nombre d'entrées
+     */
+    synchronized int taille() {
+      return entrees.size();
+    }
+
+    /**
+     * Retourne le nombre de succès.
+     *
+     * @return le nombre de succès
+     */
+    synchronized long nbSucces() {
+      return succes;
+    }
+
+    /**
+     * Retourne le nombre d'échecs.
+     *
+     * @return le nombre d'échecs
+     */
+    synchronized long nbEchecs() {
+      return echecs;
+    }
+
+    /**
+     * Retourne le nombre d'évictions.
+     *
+     * @return le nombre d'évictions
+     */
+    synchronized long nbEvictions() {
+      return evictions;
+    }
+
+    /**
+     * Vide le segment et remet ses compteurs à zéro.
+     */
+    synchronized void vider() {
+      entrees.clear();
+      succes = 0L;
+      echecs = 0L;
+      evictions = 0L;
+    }
+  }
+
+}
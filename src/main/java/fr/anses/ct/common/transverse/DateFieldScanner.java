@@ -0,0 +1,387 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * Lecteur séquentiel des champs d'un flux d'octets délimité (ex: fichier CSV), destiné à
+ * l'extraction des dates sans <code>String</code> intermédiaire.
+ * <p>
+ * Les champs sont séparés par un octet séparateur et les enregistrements par des fins de ligne
+ * (<code>\n</code> ou <code>\r\n</code>). La source est un <code>ByteBuffer</code> (direct, tas ou
+ * fichier projeté en mémoire, voir {@link #ouvrir(Path, byte)}) ou un
+ * <code>ReadableByteChannel</code> bloquant lu par blocs. Les dates sont lues directement dans le
+ * tampon par les gabarits {@link FixedDateLayout}.
+ * </p>
+ * <p>
+ * Exemple :
+ * </p>
+ *
+ * <pre>
+ * DateFieldScanner scanner = DateFieldScanner.ouvrir(fichier, (byte) ';');
+ * while (scanner.suivant()) {
+ *   if (scanner.getColonne() == 3) {
+ *     long millis = scanner.lireDate(FixedDateLayout.TIMESTAMP);
+ *   }
+ * }
+ * </pre>
+ * <p>
+ * Cette classe n'est pas thread-safe.
+ * </p>
+ */
+public final class DateFieldScanner implements Closeable {
+
+  /** Valeur retournée par {@link #tenterLireDate(FixedDateLayout, DateTimeZone)} pour un champ invalide. */
+  public static final long INVALIDE = FixedDateLayout.INVALIDE;
+
+  /** Taille par défaut du tampon de lecture d'un canal. */
+  public static final int TAILLE_TAMPON_DEFAUT = 64 * 1024;
+
+  /** Message d'erreur lors de la verification de la nullité des params. */
+  private static final String NULL_ERROR_PATTERN = "le paramètre '%s' est null";
+
+  /** Fin de ligne. */
+  private static final byte FIN_LIGNE = '\n';
+
+  /** Retour chariot. */
+  private static final byte RETOUR_CHARIOT = '\r';
+
+  /** Aucun champ lu ou dernier champ terminé par une fin de ligne. */
+  private static final int TERMINE_LIGNE = 0;
+
+  /** Dernier champ terminé par le séparateur. */
+  private static final int TERMINE_SEPARATEUR = 1;
+
+  /** Dernier champ terminé par la fin des données. */
+  private static final int TERMINE_FIN = 2;
+
+  /** Canal lu par blocs, <code>null</code> pour une source en mémoire. */
+  private final ReadableByteChannel canal;
+
+  /** Séparateur de champs. */
+  private final byte separateur;
+
+  /** Tampon : données valides entre 0 (ou la position de la source) et <code>limite</code>. */
+  private ByteBuffer tampon;
+
+  /** Fin des données valides du tampon. */
+  private int limite;
+
+  /** Index du prochain octet à examiner. */
+  private int curseur;
+
+  /** Indique si le canal est épuisé (toujours vrai pour une source en mémoire). */
+  private boolean epuise;
+
+  /** Terminaison du dernier champ. */
+  private int terminaison = TERMINE_LIGNE;
+
+  /** Index du premier octet du champ courant. */
+  private int debutChamp;
+
+  /** Index qui suit le dernier octet du champ courant. */
+  private int finChamp;
+
+  /** Numéro de ligne (à partir de 1) du champ courant. */
+  private long ligne;
+
+  /** Numéro de colonne (à partir de 0) du champ courant. */
+  private int colonne;
+
+  /**
+   * Constructeur sur une source en mémoire. Les octets lus sont ceux compris entre la position et
+   * la limite de <code>source</code>, qui n'est pas modifiée.
+   *
+   * @param source
+   *          la source
+   * @param separateur
+   *          séparateur de champs
+   */
+  public DateFieldScanner(final ByteBuffer source, final byte separateur) {
+    this.canal = null;
+    this.separateur = separateur;
+    this.tampon = notNull(source, NULL_ERROR_PATTERN, "source").duplicate();
+    this.curseur = source.position();
+    this.limite = source.limit();
+    this.epuise = true;
+  }
+
+  /**
+   * Constructeur sur un canal bloquant, lu par blocs de {@link #TAILLE_TAMPON_DEFAUT} octets.
+   *
+   * @param canal
+   *          le canal
+   * @param separateur
+   *          séparateur de champs
+   */
+  public DateFieldScanner(final ReadableByteChannel canal, final byte separateur) {
+    this(canal, separateur, TAILLE_TAMPON_DEFAUT);
+  }
+
+  /**
+   * Constructeur sur un canal bloquant. Le tampon est agrandi si un champ est plus long que
+   * <code>tailleTampon</code>.
+   *
+   * @param canal
+   *          le canal
+   * @param separateur
+   *          séparateur de champs
+   * @param tailleTampon
+   *          taille initiale du tampon de lecture
+   */
+  public DateFieldScanner(final ReadableByteChannel canal, final byte separateur, final int tailleTampon) {
+    isTrue(tailleTampon > 0, "la taille du tampon doit être strictement positive : %d", tailleTampon);
+    this.canal = notNull(canal, NULL_ERROR_PATTERN, "canal");
+    this.separateur = separateur;
+    this.tampon = ByteBuffer.allocate(tailleTampon);
+    this.epuise = false;
+  }
+
+  /**
+   * Ouvre un fichier. Il est projeté en mémoire s'il fait moins de 2 Go, lu par blocs sinon.
+   *
+   * @param fichier
+   *          le fichier
+   * @param separateur
+   *          séparateur de champs
+   * @return le lecteur, à fermer après usage
+   * @throws IOException
+   *           en cas d'erreur d'ouverture ou de projection
+   */
+  public static DateFieldScanner ouvrir(final Path fichier, final byte separateur) throws IOException {
+    final FileChannel canal = FileChannel.open(notNull(fichier, NULL_ERROR_PATTERN, "fichier"),
+      StandardOpenOption.READ);
+    boolean conserve = false;
+    try {
+      final long taille = canal.size();
+      if (taille > Integer.MAX_VALUE) {
+        conserve = true;
+        return new DateFieldScanner(canal, separateur);
+      }
+      // la projection reste valide après la fermeture du canal
+      return new DateFieldScanner(canal.map(FileChannel.MapMode.READ_ONLY, 0, taille), separateur);
+    } finally {
+      if (!conserve) {
+        canal.close();
+      }
+    }
+  }
+
+  /**
+   * Passe au champ suivant.
+   *
+   * @return false s'il n'y a plus de champ
+   * @throws IOException
+   *           en cas d'erreur de lecture du canal
+   */
+  public boolean suivant() throws IOException {
+    if (curseur == limite && !remplir()) {
+      if (terminaison != TERMINE_SEPARATEUR) {
+        // fin des données, éventuellement après une fin de ligne
+        terminaison = TERMINE_FIN;
+        return false;
+      }
+      // champ vide final après un séparateur
+      colonne++;
+      debutChamp = curseur;
+      finChamp = curseur;
+      terminaison = TERMINE_FIN;
+      return true;
+    }
+    if (terminaison == TERMINE_LIGNE) {
+      ligne++;
+      colonne = 0;
+    } else {
+      colonne++;
+    }
+    int i = curseur;
+    while (true) {
+      if (i == limite) {
+        final int decalage = curseur;
+        if (!remplir()) {
+          debutChamp = curseur;
+          finChamp = sansRetourChariot(curseur, limite);
+          curseur = limite;
+          terminaison = TERMINE_FIN;
+          return true;
+        }
+        i -= decalage - curseur;
+        continue;
+      }
+      final byte octet = tampon.get(i);
+      if (octet == separateur || octet == FIN_LIGNE) {
+        debutChamp = curseur;
+        finChamp = octet == FIN_LIGNE ? sansRetourChariot(curseur, i) : i;
+        curseur = i + 1;
+        terminaison = octet == FIN_LIGNE ? TERMINE_LIGNE : TERMINE_SEPARATEUR;
+        return true;
+      }
+      i++;
+    }
+  }
+
+  /**
+   * Retourne le numéro de ligne (à partir de 1) du champ courant.
+   *
+   * @return le numéro de ligne
+   */
+  public long getLigne() {
+    return ligne;
+  }
+
+  /**
+   * Retourne le numéro de colonne (à partir de 0) du champ courant dans sa ligne.
+   *
+   * @return le numéro de colonne
+   */
+  public int getColonne() {
+    return colonne;
+  }
+
+  /**
+   * Retourne le nombre d'octets du champ courant.
+   *
+   * @return le nombre d'octets
+   */
+  public int getLongueur() {
+    return finChamp - debutChamp;
+  }
+
+  /**
+   * Retourne le champ courant sous forme de chaîne (ISO-8859-1), pour les champs qui ne sont pas des
+   * dates ou pour les diagnostics.
+   *
+   * @return le texte du champ
+   */
+  public String getTexte() {
+    final byte[] octets = new byte[finChamp - debutChamp];
+    for (int i = 0; i < octets.length; i++) {
+      octets[i] = tampon.get(debutChamp + i);
+    }
+    return new String(octets, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Lit le champ courant comme une date du gabarit <code>layout</code> dans le fuseau horaire par
+   * défaut.
+   *
+   * @param layout
+   *          gabarit de la date
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si le champ ne respecte pas le gabarit
+   */
+  public long lireDate(final FixedDateLayout layout) {
+    return lireDate(layout, DateUtils.getBackend().getZone());
+  }
+
+  /**
+   * Lit le champ courant comme une date du gabarit <code>layout</code> dans le fuseau
+   * <code>zone</code>.
+   *
+   * @param layout
+   *          gabarit de la date
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si le champ ne respecte pas le gabarit
+   */
+  public long lireDate(final FixedDateLayout layout, final DateTimeZone zone) {
+    final long millis = tenterLireDate(layout, zone);
+    isTrue(millis != INVALIDE, "Date invalide pour le format %s ligne %d colonne %d", layout.getFormat(), ligne,
+      colonne);
+    return millis;
+  }
+
+  /**
+   * Lit le champ courant comme une date du gabarit <code>layout</code> dans le fuseau
+   * <code>zone</code>, sans lever d'exception.
+   *
+   * @param layout
+   *          gabarit de la date
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return l'instant en millisecondes depuis l'epoch, {@link #INVALIDE} si le champ ne respecte
+   *         pas le gabarit
+   */
+  public long tenterLireDate(final FixedDateLayout layout, final DateTimeZone zone) {
+    notNull(layout, NULL_ERROR_PATTERN, "layout");
+    notNull(zone, NULL_ERROR_PATTERN, "zone");
+    if (finChamp - debutChamp != layout.getLongueur()) {
+      return INVALIDE;
+    }
+    return layout.tenterParser(tampon, debutChamp, zone);
+  }
+
+  /**
+   * Ferme le canal lu par blocs (sans effet pour une source en mémoire).
+   *
+   * @throws IOException
+   *           en cas d'erreur de fermeture
+   */
+  @Override
+  public void close() throws IOException {
+    if (canal != null) {
+      canal.close();
+    }
+  }
+
+  /**
+   * Retire le retour chariot qui précède une fin de ligne.
+   *
+   * @param debut
+   *          index du premier octet du champ
+   * @param fin
+   *          index qui suit le dernier octet du champ
+   * @return la fin du champ sans retour chariot
+   */
+  private int sansRetourChariot(final int debut, final int fin) {
+    return fin > debut && tampon.get(fin - 1) == RETOUR_CHARIOT ? fin - 1 : fin;
+  }
+
+  /**
+   * Complète le tampon depuis le canal en conservant les octets à partir de <code>curseur</code>, qui
+   * est ramené à 0. Le tampon est agrandi s'il est plein.
+   *
+   * @return false si le canal est épuisé
+   * @throws IOException
+   *           en cas d'erreur de lecture
+   */
+  private boolean remplir() throws IOException {
+    if (epuise) {
+      return false;
+    }
+    tampon.limit(limite);
+    tampon.position(curseur);
+    if (curseur == 0 && limite == tampon.capacity()) {
+      final ByteBuffer agrandi = ByteBuffer.allocate(tampon.capacity() * 2);
+      agrandi.put(tampon);
+      tampon = agrandi;
+    } else {
+      tampon.compact();
+    }
+    curseur = 0;
+    int lus;
+    do {
+      lus = canal.read(tampon);
+    } while (lus == 0 && tampon.hasRemaining());
+    limite = tampon.position();
+    if (lus < 0) {
+      epuise = true;
+    }
+    return lus > 0;
+  }
+
+}
@@ -0,0 +1,762 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * Détecteur de format de date : une liste ordonnée de formats est compilée en un automate à
+ * classes de caractères qui identifie, en un seul passage sur le texte, les formats dont le
+ * gabarit correspond, puis la date est lue selon le premier de ces formats dont les champs sont
+ * valides. Aucune exception n'est levée pour un texte invalide.
+ * <p>
+ * La lecture est stricte : chaque champ numérique a exactement le nombre de chiffres du format
+ * (<code>yyyy</code> = 4 chiffres, <code>yy</code> = 2 chiffres avec le pivot Joda-Time année
+ * courante - 30). Le décalage <code>Z</code> ou <code>ZZ</code> est accepté sous les formes
+ * +HHMM, +HH:MM et Z, comme Joda-Time. Les lettres supportées sont y, M, d, H, m, s, S et Z, ce
+ * qui couvre les formats FORMAT_* de {@link DateUtils}.
+ * </p>
+ * <p>
+ * Les instances sont immuables et thread-safe.
+ * </p>
+ */
+public final class DateFormatSniffer {
+
+  /** Valeur retournée par {@link #tenterParser(CharSequence, DateTimeZone)} si aucun format ne convient. */
+  public static final long INVALIDE = FixedDateLayout.INVALIDE;
+
+  /** Nombre maximal de branches (formats et variantes de décalage). */
+  public static final int NB_BRANCHES_MAX = Long.SIZE;
+
+  /** Nombre maximal d'états de l'automate. */
+  private static final int NB_ETATS_MAX = 1 << 14;
+
+  /** Message d'erreur lors de la verification de la nullité des params. */
+  private static final String NULL_ERROR_PATTERN = "le paramètre '%s' est null";
+
+  /** Motif : un chiffre. */
+  private static final int CHIFFRE = -1;
+
+  /** Motif : un signe (+ ou -). */
+  private static final int SIGNE = -2;
+
+  /** Classe des caractères qui n'apparaissent dans aucun format. */
+  private static final int CLASSE_AUTRE = 0;
+
+  /** Classe des chiffres. */
+  private static final int CLASSE_CHIFFRE = 1;
+
+  /** Etat mort de l'automate. */
+  private static final int MORT = 0;
+
+  /** Etat initial de l'automate. */
+  private static final int INITIAL = 1;
+
+  /** Année des formats sans année (Joda-Time). */
+  private static final int ANNEE_DEFAUT = 1970;
+
+  /** Champ : aucun (littéral). */
+  private static final byte AUCUN = -1;
+
+  /** Champ : année. */
+  private static final byte ANNEE = 0;
+
+  /** Champ : année sur 2 chiffres. */
+  private static final byte ANNEE_2 = 1;
+
+  /** Champ : mois. */
+  private static final byte MOIS = 2;
+
+  /** Champ : jour. */
+  private static final byte JOUR = 3;
+
+  /** Champ : heure. */
+  private static final byte HEURE = 4;
+
+  /** Champ : minute. */
+  private static final byte MINUTE = 5;
+
+  /** Champ : seconde. */
+  private static final byte SECONDE = 6;
+
+  /** Champ : fraction de seconde. */
+  private static final byte FRACTION = 7;
+
+  /** Champ : signe du décalage. */
+  private static final byte DECALAGE_SIGNE = 8;
+
+  /** Champ : heures du décalage. */
+  private static final byte DECALAGE_HEURE = 9;
+
+  /** Champ : minutes du décalage. */
+  private static final byte DECALAGE_MINUTE = 10;
+
+  /** Champ : décalage nul (Z). */
+  private static final byte DECALAGE_NUL = 11;
+
+  /** Formats, dans l'ordre de préférence. */
+  private final String[] formats;
+
+  /** Motif de chaque branche (chiffre, signe ou caractère littéral par position). */
+  private final int[][] motifs;
+
+  /** Champ de chaque position de chaque branche. */
+  private final byte[][] champs;
+
+  /** Format de chaque branche. */
+  private final int[] formatParBranche;
+
+  /** Classe de chaque caractère ASCII. */
+  private final byte[] classes = new byte[128];
+
+  /** Nombre de classes de caractères. */
+  private final int nbClasses;
+
+  /** Transitions : <code>etat * nbClasses + classe</code> -&gt; état. */
+  private final int[] transitions;
+
+  /** Branches acceptées par état. */
+  private final long[] acceptations;
+
+  /** Pivot des années sur 2 chiffres de l'année courante, recalculé au changement d'année. */
+  private volatile Pivot pivot = new Pivot(DateUtils.getJourEpochCourant());
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param formats
+   *          formats autorisés, dans l'ordre de préférence
+   * @throws IllegalArgumentException
+   *           si un format n'est pas supporté ou si les formats sont trop nombreux
+   */
+  public DateFormatSniffer(final String... formats) {
+    notNull(formats, NULL_ERROR_PATTERN, "formats");
+    isTrue(formats.length > 0, "au moins un format est requis");
+    this.formats = formats.clone();
+    final List<int[]> listeMotifs = new ArrayList<int[]>();
+    final List<byte[]> listeChamps = new ArrayList<byte[]>();
+    final List<Integer> listeFormats = new ArrayList<Integer>();
+    for (int f = 0; f < this.formats.length; f++) {
+      compiler(notNull(this.formats[f], NULL_ERROR_PATTERN, DateUtils.FORMAT_ARG), f, listeMotifs, listeChamps,
+        listeFormats);
+    }
+    isTrue(listeMotifs.size() <= NB_BRANCHES_MAX, "trop de formats (%d branches, maximum %d)", listeMotifs.size(),
+      NB_BRANCHES_MAX);
+    motifs = listeMotifs.toArray(new int[listeMotifs.size()][]);
+    champs = listeChamps.toArray(new byte[listeChamps.size()][]);
+    formatParBranche = new int[listeFormats.size()];
+    for (int b = 0; b < formatParBranche.length; b++) {
+      formatParBranche[b] = listeFormats.get(b);
+    }
+    nbClasses = classer();
+    final List<int[]> lignes = new ArrayList<int[]>();
+    final List<Long> listeAcceptations = new ArrayList<Long>();
+    construire(lignes, listeAcceptations);
+    transitions = new int[lignes.size() * nbClasses];
+    acceptations = new long[lignes.size()];
+    for (int e = 0; e < lignes.size(); e++) {
+      System.arraycopy(lignes.get(e), 0, transitions, e * nbClasses, nbClasses);
+      acceptations[e] = listeAcceptations.get(e);
+    }
+  }
+
+  /**
+   * Retourne le nombre de formats.
+   *
+   * @return le nombre de formats
+   */
+  public int getNbFormats() {
+    return formats.length;
+  }
+
+  /**
+   * Retourne le format d'indice <code>index</code>.
+   *
+   * @param index
+   *          indice du format
+   * @return le format
+   */
+  public String getFormat(final int index) {
+    return formats[index];
+  }
+
+  /**
+   * Retourne le nombre d'états de l'automate compilé.
+   *
+   * @return le nombre d'états
+   */
+  public int getNbEtats() {
+    return acceptations.length;
+  }
+
+  /**
+   * Retourne les formats dont le gabarit correspond au texte, sans vérifier la validité des champs.
+   *
+   * @param texte
+   *          le texte
+   * @return le masque des indices de formats (bit <code>i</code> pour le format <code>i</code>)
+   */
+  public long formatsCompatibles(final CharSequence texte) {
+    final long branches = branches(notNull(texte, NULL_ERROR_PATTERN, DateUtils.DATE_ARG));
+    long masque = 0L;
+    for (long reste = branches; reste != 0; reste &= reste - 1) {
+      masque |= 1L << formatParBranche[Long.numberOfTrailingZeros(reste)];
+    }
+    return masque;
+  }
+
+  /**
+   * Lit la date selon le premier format qui convient, dans le fuseau horaire par défaut.
+   *
+   * @param texte
+   *          le texte
+   * @return la date détectée, <code>null</code> si aucun format ne convient
+   */
+  public DetectedDate analyser(final CharSequence texte) {
+    return analyser(texte, DateUtils.getBackend().getZone());
+  }
+
+  /**
+   * Lit la date selon le premier format qui convient, dans le fuseau <code>zone</code> (sauf pour
+   * les formats avec décalage).
+   *
+   * @param texte
+   *          le texte
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return la date détectée, <code>null</code> si aucun format ne convient
+   */
+  public DetectedDate analyser(final CharSequence texte, final DateTimeZone zone) {
+    notNull(zone, NULL_ERROR_PATTERN, "zone");
+    for (long reste = branches(notNull(texte, NULL_ERROR_PATTERN, DateUtils.DATE_ARG)); reste != 0;
+      reste &= reste - 1) {
+      final int branche = Long.numberOfTrailingZeros(reste);
+      final long millis = extraire(branche, texte, zone);
+      if (millis != INVALIDE) {
+        final int format = formatParBranche[branche];
+        return new DetectedDate(formats[format], format, millis);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Lit la date selon le premier format qui convient, sans créer d'objet.
+   *
+   * @param texte
+   *          le texte
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return l'instant en millisecondes depuis l'epoch, {@link #INVALIDE} si aucun format ne
+   *         convient
+   */
+  public long tenterParser(final CharSequence texte, final DateTimeZone zone) {
+    notNull(zone, NULL_ERROR_PATTERN, "zone");
+    for (long reste = branches(notNull(texte, NULL_ERROR_PATTERN, DateUtils.DATE_ARG)); reste != 0;
+      reste &= reste - 1) {
+      final long millis = extraire(Long.numberOfTrailingZeros(reste), texte, zone);
+      if (millis != INVALIDE) {
+        return millis;
+      }
+    }
+    return INVALIDE;
+  }
+
+  /**
+   * Exécute l'automate sur le texte.
+   *
+   * @param texte
+   *          le texte
+   * @return le masque des branches dont le gabarit correspond
+   */
+  private long branches(final CharSequence texte) {
+    int etat = INITIAL;
+    for (int i = 0, n = texte.length(); i < n && etat != MORT; i++) {
+      final char c = texte.charAt(i);
+      etat = transitions[etat * nbClasses + (c < classes.length ? classes[c] : CLASSE_AUTRE)];
+    }
+    return acceptations[etat];
+  }
+
+  /**
+   * Lit les champs du texte, dont le gabarit correspond à la branche, et les convertit en instant.
+   *
+   * @param branche
+   *          branche
+   * @param texte
+   *          le texte
+   * @param zone
+   *          fuseau horaire
+   * @return l'instant, {@link #INVALIDE} si un champ est invalide
+   */
+  private long extraire(final int branche, final CharSequence texte, final DateTimeZone zone) {
+    final byte[] champsBranche = champs[branche];
+    int annee = ANNEE_DEFAUT;
+    int mois = 1;
+    int jour = 1;
+    int heure = 0;
+    int minute = 0;
+    int seconde = 0;
+    int fraction = 0;
+    int chiffresFraction = 0;
+    int signe = 0;
+    int decalageHeure = 0;
+    int decalageMinute = 0;
+    boolean anneeCourte = false;
+    boolean decalage = false;
+    for (int i = 0; i < champsBranche.length; i++) {
+      final int chiffre = texte.charAt(i) - '0';
+      switch (champsBranche[i]) {
+        case ANNEE:
+          annee = (i > 0 && champsBranche[i - 1] == ANNEE ? annee * 10 : 0) + chiffre;
+          break;
+        case ANNEE_2:
+          annee = (i > 0 && champsBranche[i - 1] == ANNEE_2 ? annee * 10 : 0) + chiffre;
+          anneeCourte = true;
+          break;
+        case MOIS:
+          mois = (i > 0 && champsBranche[i - 1] == MOIS ? mois * 10 : 0) + chiffre;
+          break;
+        case JOUR:
+          jour = (i > 0 && champsBranche[i - 1] == JOUR ? jour * 10 : 0) + chiffre;
+          break;
+        case HEURE:
+          heure = heure * 10 + chiffre;
+          break;
+        case MINUTE:
+          minute = minute * 10 + chiffre;
+          break;
+        case SECONDE:
+          seconde = seconde * 10 + chiffre;
+          break;
+        case FRACTION:
+          if (chiffresFraction < 3) {
+            fraction = fraction * 10 + chiffre;
+          }
+          chiffresFraction++;
+          break;
+        case DECALAGE_SIGNE:
+          signe = texte.charAt(i) == '-' ? -1 : 1;
+          decalage = true;
+          break;
+        case DECALAGE_HEURE:
+          decalageHeure = decalageHeure * 10 + chiffre;
+          break;
+        case DECALAGE_MINUTE:
+          decalageMinute = decalageMinute * 10 + chiffre;
+          break;
+        case DECALAGE_NUL:
+          decalage = true;
+          break;
+        default:
+          break;
+      }
+    }
+    for (int n = chiffresFraction; n < 3; n++) {
+      fraction *= 10;
+    }
+    if (anneeCourte) {
+      annee = anneeSurDeuxChiffres(annee);
+    }
+    if (!decalage) {
+      return FixedDateLayout.versMillis(annee, mois, jour, heure, minute, seconde, fraction, zone);
+    }
+    final long local = FixedDateLayout.versLocal(annee, mois, jour, heure, minute, seconde, fraction);
+    if (local == INVALIDE || decalageHeure > 23 || decalageMinute > 59) {
+      return INVALIDE;
+    }
+    return local - signe * (decalageHeure * (long) CivilDates.MILLIS_PAR_HEURE + decalageMinute
+      * (long) CivilDates.MILLIS_PAR_MINUTE);
+  }
+
+  /**
+   * Résout une année sur 2 chiffres selon la règle Joda-Time (100 ans à partir du pivot - 50).
+   *
+   * @param deuxChiffres
+   *          année sur 2 chiffres
+   * @return l'année
+   */
+  private int anneeSurDeuxChiffres(final int deuxChiffres) {
+    final int jour = DateUtils.getJourEpochCourant();
+    Pivot courant = pivot;
+    if (jour < courant.premierJour || jour >= courant.premierJourSuivant) {
+      courant = new Pivot(jour);
+      pivot = courant;
+    }
+    final int anneeBasse = courant.anneeBasse;
+    final int t = anneeBasse >= 0 ? anneeBasse % 100 : 99 + ((anneeBasse + 1) % 100);
+    return deuxChiffres + anneeBasse + (deuxChiffres < t ? 100 : 0) - t;
+  }
+
+  /**
+   * Compile un format en branches (une par variante de décalage).
+   *
+   * @param format
+   *          format Joda-Time
+   * @param indice
+   *          indice du format
+   * @param listeMotifs
+   *          motifs des branches
+   * @param listeChamps
+   *          champs des branches
+   * @param listeFormats
+   *          format des branches
+   */
+  private static void compiler(final String format, final int indice, final List<int[]> listeMotifs,
+    final List<byte[]> listeChamps, final List<Integer> listeFormats) {
+    final List<StringBuilder> variantesMotif = new ArrayList<StringBuilder>();
+    final List<StringBuilder> variantesChamps = new ArrayList<StringBuilder>();
+    variantesMotif.add(new StringBuilder());
+    variantesChamps.add(new StringBuilder());
+    final int longueur = format.length();
+    int i = 0;
+    while (i < longueur) {
+      final char lettre = format.charAt(i);
+      if (lettre == '\'') {
+        i = litteral(format, i, variantesMotif, variantesChamps);
+        continue;
+      }
+      int fin = i;
+      while (fin < longueur && format.charAt(fin) == lettre) {
+        fin++;
+      }
+      final int n = fin - i;
+      switch (lettre) {
+        case 'y':
+          ajouter(variantesMotif, variantesChamps, CHIFFRE, n == 2 ? ANNEE_2 : ANNEE, n);
+          break;
+        case 'M':
+          ajouter(variantesMotif, variantesChamps, CHIFFRE, MOIS, largeurDeuxChiffres(format, n));
+          break;
+        case 'd':
+          ajouter(variantesMotif, variantesChamps, CHIFFRE, JOUR, largeurDeuxChiffres(format, n));
+          break;
+        case 'H':
+          ajouter(variantesMotif, variantesChamps, CHIFFRE, HEURE, largeurDeuxChiffres(format, n));
+          break;
+        case 'm':
+          ajouter(variantesMotif, variantesChamps, CHIFFRE, MINUTE, largeurDeuxChiffres(format, n));
+          break;
+        case 's':
+          ajouter(variantesMotif, variantesChamps, CHIFFRE, SECONDE, largeurDeuxChiffres(format, n));
+          break;
+        case 'S':
+          ajouter(variantesMotif, variantesChamps, CHIFFRE, FRACTION, n);
+          break;
+        case 'Z':
+          isTrue(n <= 2, "Décalage non supporté par le détecteur de format : %s", format);
+          decalage(variantesMotif, variantesChamps);
+          break;
+        default:
+          isTrue(!(lettre >= 'A' && lettre <= 'Z') && !(lettre >= 'a' && lettre <= 'z'),
+            "Lettre de format non supportée par le détecteur de format : %s", format);
+          for (int j = i; j < fin; j++) {
+            ajouter(variantesMotif, variantesChamps, lettre, AUCUN, 1);
+          }
+          break;
+      }
+      i = fin;
+    }
+    for (int v = 0; v < variantesMotif.size(); v++) {
+      final StringBuilder motif = variantesMotif.get(v);
+      final int[] codes = new int[motif.length()];
+      final byte[] champsVariante = new byte[motif.length()];
+      for (int j = 0; j < codes.length; j++) {
+        final char code = motif.charAt(j);
+        codes[j] = code == '\u0000' ? CHIFFRE : code == '\u0001' ? SIGNE : code;
+        champsVariante[j] = (byte) (variantesChamps.get(v).charAt(j) - 1);
+      }
+      listeMotifs.add(codes);
+      listeChamps.add(champsVariante);
+      listeFormats.add(indice);
+    }
+  }
+
+  /**
+   * Vérifie qu'un champ de 2 chiffres est écrit sur 2 lettres (largeur fixe).
+   *
+   * @param format
+   *          format
+   * @param n
+   *          nombre de lettres
+   * @return la largeur du champ
+   */
+  private static int largeurDeuxChiffres(final String format, final int n) {
+    isTrue(n == 2, "Champ de largeur variable non supporté par le détecteur de format : %s", format);
+    return n;
+  }
+
+  /**
+   * Ajoute <code>n</code> positions à toutes les variantes. Les motifs sont codés sur un caractère
+   * (<code>\u0000</code> chiffre, <code>\u0001</code> signe, sinon le littéral) et les champs sur
+   * un caractère (champ + 1).
+   *
+   * @param variantesMotif
+   *          motifs des variantes
+   * @param variantesChamps
+   *          champs des variantes
+   * @param code
+   *          {@link #CHIFFRE}, {@link #SIGNE} ou caractère littéral
+   * @param champ
+   *          champ des positions
+   * @param n
+   *          nombre de positions
+   */
+  private static void ajouter(final List<StringBuilder> variantesMotif, final List<StringBuilder> variantesChamps,
+    final int code, final byte champ, final int n) {
+    isTrue(code < 0 || (code > 1 && code < 128), "Caractère non ASCII non supporté par le détecteur de format");
+    final char codeMotif = code == CHIFFRE ? '\u0000' : code == SIGNE ? '\u0001' : (char) code;
+    for (int v = 0; v < variantesMotif.size(); v++) {
+      for (int j = 0; j < n; j++) {
+        variantesMotif.get(v).append(codeMotif);
+        variantesChamps.get(v).append((char) (champ + 1));
+      }
+    }
+  }
+
+  /**
+   * Déclinent chaque variante selon les formes de décalage +HHMM, +HH:MM et Z.
+   *
+   * @param variantesMotif
+   *          motifs des variantes
+   * @param variantesChamps
+   *          champs des variantes
+   */
+  private static void decalage(final List<StringBuilder> variantesMotif, final List<StringBuilder> variantesChamps) {
+    final int nb = variantesMotif.size();
+    for (int v = 0; v < nb; v++) {
+      final StringBuilder motif = variantesMotif.get(v);
+      final StringBuilder champsVariante = variantesChamps.get(v);
+      final List<StringBuilder> avecDeuxPoints = new ArrayList<StringBuilder>();
+      final List<StringBuilder> champsDeuxPoints = new ArrayList<StringBuilder>();
+      avecDeuxPoints.add(new StringBuilder(motif));
+      champsDeuxPoints.add(new StringBuilder(champsVariante));
+      final List<StringBuilder> nul = new ArrayList<StringBuilder>();
+      final List<StringBuilder> champsNul = new ArrayList<StringBuilder>();
+      nul.add(new StringBuilder(motif));
+      champsNul.add(new StringBuilder(champsVariante));
+      final List<StringBuilder> compact = variantesMotif.subList(v, v + 1);
+      final List<StringBuilder> champsCompact = variantesChamps.subList(v, v + 1);
+      ajouter(compact, champsCompact, SIGNE, DECALAGE_SIGNE, 1);
+      ajouter(compact, champsCompact, CHIFFRE, DECALAGE_HEURE, 2);
+      ajouter(compact, champsCompact, CHIFFRE, DECALAGE_MINUTE, 2);
+      ajouter(avecDeuxPoints, champsDeuxPoints, SIGNE, DECALAGE_SIGNE, 1);
+      ajouter(avecDeuxPoints, champsDeuxPoints, CHIFFRE, DECALAGE_HEURE, 2);
+      ajouter(avecDeuxPoints, champsDeuxPoints, ':', AUCUN, 1);
+      ajouter(avecDeuxPoints, champsDeuxPoints, CHIFFRE, DECALAGE_MINUTE, 2);
+      ajouter(nul, champsNul, 'Z', DECALAGE_NUL, 1);
+      variantesMotif.addAll(avecDeuxPoints);
+      variantesChamps.addAll(champsDeuxPoints);
+      variantesMotif.addAll(nul);
+      variantesChamps.addAll(champsNul);
+    }
+  }
+
+  /**
+   * Ajoute un littéral quoté (<code>''</code> représente une quote) à toutes les variantes.
+   *
+   * @param format
+   *          format
+   * @param debut
+   *          position de la quote ouvrante
+   * @param variantesMotif
+   *          motifs des variantes
+   * @param variantesChamps
+   *          champs des variantes
+   * @return la position qui suit le littéral
+   */
+  private static int litteral(final String format, final int debut, final List<StringBuilder> variantesMotif,
+    final List<StringBuilder> variantesChamps) {
+    if (debut + 1 < format.length() && format.charAt(debut + 1) == '\'') {
+      ajouter(variantesMotif, variantesChamps, '\'', AUCUN, 1);
+      return debut + 2;
+    }
+    int i = debut + 1;
+    while (i < format.length()) {
+      final char c = format.charAt(i);
+      if (c == '\'') {
+        if (i + 1 < format.length() && format.charAt(i + 1) == '\'') {
+          ajouter(variantesMotif, variantesChamps, '\'', AUCUN, 1);
+          i += 2;
+          continue;
+        }
+        return i + 1;
+      }
+      ajouter(variantesMotif, variantesChamps, c, AUCUN, 1);
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Affecte une classe à chaque caractère ASCII : chiffres, chaque caractère littéral des motifs,
+   * autres.
+   *
+   * @return le nombre de classes
+   */
+  private int classer() {
+    int suivante = CLASSE_CHIFFRE + 1;
+    for (char c = '0'; c <= '9'; c++) {
+      classes[c] = CLASSE_CHIFFRE;
+    }
+    for (int[] motif : motifs) {
+      for (int code : motif) {
+        if (code == SIGNE) {
+          suivante = classer('+', suivante);
+          suivante = classer('-', suivante);
+        } else if (code >= 0) {
+          suivante = classer((char) code, suivante);
+        }
+      }
+    }
+    return suivante;
+  }
+
+  /**
+   * Affecte une classe au caractère s'il n'en a pas.
+   *
+   * @param c
+   *          caractère
+   * @param suivante
+   *          prochaine classe libre
+   * @return la prochaine classe libre
+   */
+  private int classer(final char c, final int suivante) {
+    if (classes[c] != CLASSE_AUTRE) {
+      return suivante;
+    }
+    classes[c] = (byte) suivante;
+    return suivante + 1;
+  }
+
+  /**
+   * Indique si le code de motif accepte la classe.
+   *
+   * @param code
+   *          code de motif
+   * @param classe
+   *          classe de caractère
+   * @return true si la classe est acceptée
+   */
+  private boolean accepte(final int code, final int classe) {
+    if (code == CHIFFRE) {
+      return classe == CLASSE_CHIFFRE;
+    }
+    if (code == SIGNE) {
+      return classe == classes['+'] || classe == classes['-'];
+    }
+    return classe == classes[code];
+  }
+
+  /**
+   * Construit l'automate déterministe par la méthode des sous-ensembles. Un état de l'automate est
+   * l'ensemble des couples (branche, position) encore possibles ; l'automate est acyclique.
+   *
+   * @param lignes
+   *          transitions de chaque état
+   * @param listeAcceptations
+   *          branches acceptées par chaque état
+   */
+  private void construire(final List<int[]> lignes, final List<Long> listeAcceptations) {
+    final int[] bases = new int[motifs.length];
+    int total = 0;
+    for (int b = 0; b < motifs.length; b++) {
+      bases[b] = total;
+      total += motifs[b].length + 1;
+    }
+    final Map<BitSet, Integer> etats = new HashMap<BitSet, Integer>();
+    final List<BitSet> ensembles = new ArrayList<BitSet>();
+    final BitSet mort = new BitSet(total);
+    final BitSet initial = new BitSet(total);
+    for (int b = 0; b < motifs.length; b++) {
+      initial.set(bases[b]);
+    }
+    etats.put(mort, MORT);
+    ensembles.add(mort);
+    etats.put(initial, INITIAL);
+    ensembles.add(initial);
+    final Deque<Integer> aTraiter = new ArrayDeque<Integer>();
+    aTraiter.add(MORT);
+    aTraiter.add(INITIAL);
+    for (int e = 0; e < 2; e++) {
+      lignes.add(new int[nbClasses]);
+      listeAcceptations.add(0L);
+    }
+    while (!aTraiter.isEmpty()) {
+      final int etat = aTraiter.poll();
+      final BitSet ensemble = ensembles.get(etat);
+      long acceptees = 0L;
+      for (int b = 0; b < motifs.length; b++) {
+        if (ensemble.get(bases[b] + motifs[b].length)) {
+          acceptees |= 1L << b;
+        }
+      }
+      listeAcceptations.set(etat, acceptees);
+      for (int classe = 0; classe < nbClasses; classe++) {
+        final BitSet suivant = new BitSet(total);
+        for (int b = 0; b < motifs.length; b++) {
+          for (int p = 0; p < motifs[b].length; p++) {
+            if (ensemble.get(bases[b] + p) && accepte(motifs[b][p], classe)) {
+              suivant.set(bases[b] + p + 1);
+            }
+          }
+        }
+        Integer cible = etats.get(suivant);
+        if (cible == null) {
+          cible = ensembles.size();
+          isTrue(cible < NB_ETATS_MAX, "automate trop grand pour les formats demandés");
+          etats.put(suivant, cible);
+          ensembles.add(suivant);
+          lignes.add(new int[nbClasses]);
+          listeAcceptations.add(0L);
+          aTraiter.add(cible);
+        }
+        lignes.get(etat)[classe] = cible;
+      }
+    }
+  }
+
+  /**
+   * Pivot des années sur 2 chiffres d'une année.
+   */
+  private static final class Pivot {
+
+    /** Nombre d'années entre le pivot et l'année courante (Joda-Time). */
+    private static final int ANNEES_AVANT_PIVOT = 30;
+
+    /** Nombre d'années entre la borne basse et le pivot. */
+    private static final int DEMI_SIECLE = 50;
+
+    /** Premier jour de l'année (depuis le 1970-01-01). */
+    final long premierJour;
+
+    /** Premier jour de l'année suivante. */
+    final long premierJourSuivant;
+
+    /** Borne basse des années sur 2 chiffres (pivot Joda-Time - 50). */
+    final int anneeBasse;
+
+    /**
+     * Constructeur de la classe.
+     *
+     * @param jour
+     *          jour courant (depuis le 1970-01-01)
+     */
+    Pivot(final long jour) {
+      final int annee = CivilDates.annee(CivilDates.civil(jour));
+      this.premierJour = CivilDates.jourEpoch(annee, 1, 1);
+      this.premierJourSuivant = CivilDates.jourEpoch(annee + 1, 1, 1);
+      this.anneeBasse = annee - ANNEES_AVANT_PIVOT - DEMI_SIECLE;
+    }
+  }
+
+}
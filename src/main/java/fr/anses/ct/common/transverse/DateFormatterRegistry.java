@@ -0,0 +1,194 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+/**
+ * Registre des formateurs de dates précompilés.
+ * <p>
+ * Les <code>DateTimeFormatter</code> Joda-Time sont immuables et thread-safe : une instance est
+ * compilée une seule fois par couple (format, fuseau horaire) puis partagée entre tous les
+ * appels. Le registre est borné : une fois la taille maximale atteinte, les nouveaux formats sont
+ * compilés à la demande sans être conservés.
+ * </p>
+ * <p>
+ * Tous les formats <code>FORMAT_*</code> de {@link DateUtils} sont enregistrés pour le fuseau
+ * horaire par défaut à l'initialisation du registre partagé.
+ * </p>
+ */
+public final class DateFormatterRegistry {
+
+  /** Nombre maximal de formateurs conservés par défaut. */
+  public static final int TAILLE_MAX_DEFAUT = 256;
+
+  /** Message d'erreur lors de la verification de la nullité des params. */
+  private static final String NULL_ERROR_PATTERN = "le paramètre '%s' est null";
+
+  /** Formats pré-enregistrés. */
+  private static final String[] FORMATS_PREDEFINIS = {DateUtils.FORMAT_DATE, DateUtils.FORMAT_DATE_BAS_PAGE,
+    DateUtils.FORMAT_DATE_BASE_DE_DONNEES, DateUtils.FORMAT_ISO_DATE, DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP,
+    DateUtils.FORMAT_ISO_DATE_RACVISION, DateUtils.FORMAT_AFFICHAGE_DATE, DateUtils.FORMAT_AAMM,
+    DateUtils.FORMAT_AAAA, DateUtils.FORMAT_DATE_AAAAMMJJ, DateUtils.FORMAT_DATE_JJMMAAAA };
+
+  /** Registre partagé. */
+  private static final DateFormatterRegistry INSTANCE = new DateFormatterRegistry(TAILLE_MAX_DEFAUT);
+
+  static {
+    INSTANCE.enregistrerFormatsPredefinis(DateTimeZone.getDefault());
+  }
+
+  /** Formateurs par fuseau horaire puis par format. */
+  private final ConcurrentMap<DateTimeZone, ConcurrentMap<String, DateTimeFormatter>> formateurs =
+    new ConcurrentHashMap<DateTimeZone, ConcurrentMap<String, DateTimeFormatter>>();
+
+  /** Nombre de formateurs conservés. */
+  private final AtomicInteger taille = new AtomicInteger();
+
+  /** Nombre maximal de formateurs conservés. */
+  private final int tailleMax;
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param tailleMax
+   *          nombre maximal de formateurs conservés (strictement positif)
+   */
+  public DateFormatterRegistry(final int tailleMax) {
+    isTrue(tailleMax > 0, "La taille maximale doit être strictement positive : %s", tailleMax);
+    this.tailleMax = tailleMax;
+  }
+
+  /**
+   * Retourne le registre partagé utilisé par {@link DateUtils}.
+   *
+   * @return le registre partagé
+   */
+  public static DateFormatterRegistry getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Enregistre tous les formats <code>FORMAT_*</code> de {@link DateUtils} pour le fuseau
+   * <code>zone</code>.
+   *
+   * @param zone
+   *          le fuseau horaire
+   */
+  public void enregistrerFormatsPredefinis(final DateTimeZone zone) {
+    for (String format : FORMATS_PREDEFINIS) {
+      enregistrer(format, zone);
+    }
+  }
+
+  /**
+   * Retourne le formateur du format <code>format</code> pour le fuseau horaire par défaut.
+   *
+   * @param format
+   *          le format (ex: ddMMyyyy) : ne doit pas être null
+   * @return le formateur précompilé
+   */
+  public DateTimeFormatter getFormateur(final String format) {
+    return getFormateur(format, DateTimeZone.getDefault());
+  }
+
+  /**
+   * Retourne le formateur du format <code>format</code> pour le fuseau horaire <code>zone</code>,
+   * en le compilant et en l'enregistrant s'il est inconnu.
+   *
+   * @param format
+   *          le format (ex: ddMMyyyy) : ne doit pas être null
+   * @param zone
+   *          le fuseau horaire : ne doit pas être null
+   * @return le formateur précompilé
+   */
+  public DateTimeFormatter getFormateur(final String format, final DateTimeZone zone) {
+    ConcurrentMap<String, DateTimeFormatter> parFormat = formateurs.get(notNull(zone, NULL_ERROR_PATTERN, "zone"));
+    if (parFormat != null) {
+      DateTimeFormatter formateur = parFormat.get(notNull(format, NULL_ERROR_PATTERN, DateUtils.FORMAT_ARG));
+      if (formateur != null) {
+        return formateur;
+      }
+    }
+    return enregistrer(format, zone);
+  }
+
+  /**
+   * Compile et enregistre le formateur du format <code>format</code> pour le fuseau horaire
+   * <code>zone</code>. Si le registre est plein, le formateur est retourné sans être conservé.
+   *
+   * @param format
+   *          le format (ex: ddMMyyyy) : ne doit pas être null
+   * @param zone
+   *          le fuseau horaire : ne doit pas être null
+   * @return le formateur précompilé
+   */
+  public DateTimeFormatter enregistrer(final String format, final DateTimeZone zone) {
+    notNull(format, NULL_ERROR_PATTERN, DateUtils.FORMAT_ARG);
+    notNull(zone, NULL_ERROR_PATTERN, "zone");
+    ConcurrentMap<String, DateTimeFormatter> parFormat = formateurs.get(zone);
+    if (parFormat == null) {
+      parFormat = new ConcurrentHashMap<String, DateTimeFormatter>();
+      ConcurrentMap<String, DateTimeFormatter> existant = formateurs.putIfAbsent(zone, parFormat);
+      if (existant != null) {
+        parFormat = existant;
+      }
+    }
+    DateTimeFormatter formateur = parFormat.get(format);
+    if (formateur != null) {
+      return formateur;
+    }
+    formateur = DateTimeFormat.forPattern(format).withZone(zone);
+    if (taille.incrementAndGet() > tailleMax) {
+      taille.decrementAndGet();
+      return formateur;
+    }
+    DateTimeFormatter existant = parFormat.putIfAbsent(format, formateur);
+    if (existant != null) {
+      taille.decrementAndGet();
+      return existant;
+    }
+    return formateur;
+  }
+
+  /**
+   * Indique si le formateur du format <code>format</code> est enregistré pour le fuseau horaire
+   * <code>zone</code>.
+   *
+   * @param format
+   *          le format
+   * @param zone
+   *          le fuseau horaire
+   * @return true si le formateur est enregistré
+   */
+  public boolean estEnregistre(final String format, final DateTimeZone zone) {
+    ConcurrentMap<String, DateTimeFormatter> parFormat = formateurs.get(zone);
+    return parFormat != null && parFormat.containsKey(format);
+  }
+
+  /**
+   * Retourne le nombre de formateurs conservés.
+   *
+   * @return le nombre de formateurs conservés
+   */
+  public int getTaille() {
+    return taille.get();
+  }
+
+  /**
+   * Retourne le nombre maximal de formateurs conservés.
+   *
+   * @return le nombre maximal de formateurs conservés
+   */
+  public int getTailleMax() {
+    return tailleMax;
+  }
+
+}
@@ -5,15 +5,21 @@ import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notNull;
 import static org.apache.commons.lang3.math.NumberUtils.isNumber;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
 import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.joda.time.DateTime;
-import org.joda.time.Days;
-import org.joda.time.LocalDate;
-import org.joda.time.Years;
-import org.joda.time.format.DateTimeFormat;
+import org.joda.time.DateTimeZone;
 
 /**
  * Classe utilitaire pour la manipulation des dates.
@@ -77,6 +83,44 @@ public final class DateUtils {
   /** 31. */
   private static final int TRENTE_ET_UN = 31;
 
+  /**
+   * Propriété système de choix du moteur de dates au démarrage : {@link JodaDateBackend#NOM}
+   * (défaut) ou {@link JavaTimeDateBackend#NOM}.
+   */
+  public static final String PROPRIETE_BACKEND = "fr.anses.ct.common.date.backend";
+
+  /** Moteur de dates. */
+  private static volatile DateBackend backend = choisirBackend(System.getProperty(PROPRIETE_BACKEND,
+    JodaDateBackend.NOM));
+
+  /**
+   * Propriété système de résolution (en millisecondes) de l'horloge au démarrage : une valeur
+   * strictement positive installe une {@link CoarseDateClock} de cette résolution, dont le thread
+   * de rafraîchissement est arrêté par {@link #arreterHorloge()} (à appeler à l'arrêt de
+   * l'application) ou au remplacement de l'horloge, sinon l'horloge système est utilisée.
+   */
+  public static final String PROPRIETE_RESOLUTION_HORLOGE = "fr.anses.ct.common.date.horloge.resolution";
+
+  /** Horloge. */
+  private static volatile DateClock horloge = choisirHorloge(Long.getLong(PROPRIETE_RESOLUTION_HORLOGE, 0L));
+
+  /** Modèle de {@link #getDateCourante()} pour le fuseau et la locale par défaut. */
+  private static volatile ModeleCalendar modeleCalendar;
+
+  /**
+   * Propriété système de capacité (par sens de conversion) du cache des conversions au démarrage :
+   * une valeur d'au moins {@link DateConversionCache#NB_SEGMENTS} active un
+   * {@link DateConversionCache}, sinon aucun cache n'est utilisé.
+   */
+  public static final String PROPRIETE_TAILLE_CACHE = "fr.anses.ct.common.date.cache.taille";
+
+  /** Cache des conversions (<code>null</code> si désactivé). */
+  private static volatile DateConversionCache cache = choisirCache(Integer.getInteger(PROPRIETE_TAILLE_CACHE, 0));
+
+  /** Détecteurs de format compilés par liste de formats. */
+  private static final ConcurrentMap<List<String>, DateFormatSniffer> DETECTEURS =
+    new ConcurrentHashMap<List<String>, DateFormatSniffer>();
+
   /**
    * Constructeur de la classe.
    */
@@ -85,13 +129,168 @@ public final class DateUtils {
   }
 
   /**
-   * Retourne la date courante <b>à la Time Zone du Système</b>.
+   * Retourne le moteur de dates de nom <code>nom</code>.
    * 
+   * @param nom
+   *          {@link JodaDateBackend#NOM} ou {@link JavaTimeDateBackend#NOM}
+   * @return le moteur de dates
+   */
+  public static DateBackend choisirBackend(final String nom) {
+    if (JodaDateBackend.NOM.equals(nom)) {
+      return JodaDateBackend.INSTANCE;
+    }
+    if (JavaTimeDateBackend.NOM.equals(nom)) {
+      return JavaTimeDateBackend.INSTANCE;
+    }
+    throw new IllegalArgumentException("Moteur de dates inconnu : " + nom);
+  }
+
+  /**
+   * Retourne le moteur de dates utilisé.
+   * 
+   * @return le moteur de dates
+   */
+  public static DateBackend getBackend() {
+    return backend;
+  }
+
+  /**
+   * Modifie le moteur de dates utilisé.
+   * 
+   * @param nouveauBackend
+   *          le moteur de dates
+   */
+  public static void setBackend(final DateBackend nouveauBackend) {
+    backend = notNull(nouveauBackend, NULL_ERROR_PATTERN, "backend");
+    final DateConversionCache courant = cache;
+    if (courant != null) {
+      courant.vider();
+    }
+  }
+
+  /**
+   * Retourne le cache des conversions de capacité <code>capacite</code>.
+   * 
+   * @param capacite
+   *          capacité par sens de conversion (en dessous de {@link DateConversionCache#NB_SEGMENTS} =
+   *          pas de cache)
+   * @return le cache, <code>null</code> si désactivé
+   */
+  private static DateConversionCache choisirCache(final int capacite) {
+    if (capacite >= DateConversionCache.NB_SEGMENTS) {
+      return new DateConversionCache(capacite);
+    }
+    return null;
+  }
+
+  /**
+   * Retourne le cache des conversions utilisé par les méthodes de formatage et de lecture.
+   * 
+   * @return le cache, <code>null</code> s'il est désactivé
+   */
+  public static DateConversionCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Modifie le cache des conversions utilisé par les méthodes de formatage et de lecture.
+   * 
+   * @param nouveauCache
+   *          le cache, <code>null</code> pour le désactiver
+   */
+  public static void setCache(final DateConversionCache nouveauCache) {
+    cache = nouveauCache;
+  }
+
+  /**
+   * Retourne l'horloge de résolution <code>resolution</code>.
+   * 
+   * @param resolution
+   *          résolution en millisecondes (0 ou moins = horloge système)
+   * @return l'horloge
+   */
+  private static DateClock choisirHorloge(final long resolution) {
+    if (resolution > 0) {
+      return new CoarseDateClock(resolution);
+    }
+    return SystemDateClock.INSTANCE;
+  }
+
+  /**
+   * Retourne l'horloge utilisée.
+   * 
+   * @return l'horloge
+   */
+  public static DateClock getHorloge() {
+    return horloge;
+  }
+
+  /**
+   * Modifie l'horloge utilisée. L'horloge remplacée, s'il s'agit d'une {@link CoarseDateClock},
+   * est arrêtée.
+   * 
+   * @param nouvelleHorloge
+   *          l'horloge
+   */
+  public static synchronized void setHorloge(final DateClock nouvelleHorloge) {
+    notNull(nouvelleHorloge, NULL_ERROR_PATTERN, "horloge");
+    final DateClock ancienne = horloge;
+    horloge = nouvelleHorloge;
+    if (ancienne != nouvelleHorloge && ancienne instanceof CoarseDateClock) {
+      ((CoarseDateClock) ancienne).arreter();
+    }
+  }
+
+  /**
+   * Arrête l'horloge utilisée s'il s'agit d'une {@link CoarseDateClock} (notamment celle installée
+   * par {@link #PROPRIETE_RESOLUTION_HORLOGE}) : son thread de rafraîchissement se termine et
+   * l'horloge système devient l'horloge utilisée. Sans effet sinon.
+   */
+  public static synchronized void arreterHorloge() {
+    final DateClock courante = horloge;
+    if (courante instanceof CoarseDateClock) {
+      horloge = SystemDateClock.INSTANCE;
+      ((CoarseDateClock) courante).arreter();
+    }
+  }
+
+  /**
+   * Retourne l'instant courant selon l'horloge, sans créer de <code>Calendar</code>.
+   * 
+   * @return l'instant courant en millisecondes depuis l'epoch
+   */
+  public static long getMillisCourant() {
+    return horloge.getMillis();
+  }
+
+  /**
+   * Retourne le numéro du jour courant (fuseau horaire par défaut) selon l'horloge, sans créer
+   * d'objet.
+   * 
+   * @return le numéro du jour courant depuis le 1970-01-01
+   */
+  public static int getJourEpochCourant() {
+    return toJourEpoch(horloge.getMillis());
+  }
+
+  /**
+   * Retourne la date courante <b>à la Time Zone du Système</b>, selon l'horloge
+   * ({@link #getHorloge()}).
    * 
    * @return la date courante <b>à la Time Zone du Système</b>
    */
   public static Calendar getDateCourante() {
-    return Calendar.getInstance();
+    final TimeZone fuseau = TimeZone.getDefault();
+    final Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+    ModeleCalendar modele = modeleCalendar;
+    if (modele == null || !modele.fuseau.equals(fuseau) || !modele.locale.equals(locale)) {
+      modele = new ModeleCalendar(fuseau, locale);
+      modeleCalendar = modele;
+    }
+    // copie du modèle : pas de recherche du fournisseur de calendrier ni de lecture de l'horloge système
+    final Calendar c = (Calendar) modele.calendar.clone();
+    c.setTimeInMillis(horloge.getMillis());
+    return c;
   }
 
   /**
@@ -105,8 +304,19 @@ public final class DateUtils {
    * @return la chaine de caractère représentant la date en paramètre
    */
   public static String toString(final Calendar calendar, final String format) {
-    return new DateTime(notNull(calendar, NULL_ERROR_PATTERN, CALENDAR_ARG).getTime()).toString(notNull(format,
-      NULL_ERROR_PATTERN, FORMAT_ARG));
+    final long millis = notNull(calendar, NULL_ERROR_PATTERN, CALENDAR_ARG).getTimeInMillis();
+    notNull(format, NULL_ERROR_PATTERN, FORMAT_ARG);
+    final DateConversionCache memo = cache;
+    if (memo == null) {
+      return backend.formater(millis, format);
+    }
+    final DateTimeZone zone = backend.getZone();
+    String texte = memo.getTexte(format, zone, millis);
+    if (texte == null) {
+      texte = backend.formater(millis, format);
+      memo.putTexte(format, zone, millis, texte);
+    }
+    return texte;
   }
 
   /**
@@ -164,9 +374,105 @@ public final class DateUtils {
    * @return calendar
    */
   public static Calendar toCalendar(final String date, final String format) {
+    final DateBackend moteur = backend;
+    notNull(format, NULL_ERROR_PATTERN, FORMAT_ARG);
+    notNull(date, NULL_ERROR_PATTERN, DATE_ARG);
+    final DateConversionCache memo = cache;
+    if (memo == null) {
+      return moteur.toCalendar(moteur.parser(date, format));
+    }
+    final DateTimeZone zone = backend.getZone();
+    final Long memorise = memo.getMillis(format, zone, date);
+    if (memorise != null) {
+      return moteur.toCalendar(memorise.longValue());
+    }
+    final long millis = moteur.parser(date, format);
+    memo.putMillis(format, zone, date, millis);
+    return moteur.toCalendar(millis);
+  }
 
-    return DateTimeFormat.forPattern(notNull(format, NULL_ERROR_PATTERN, FORMAT_ARG))
-      .parseDateTime(notNull(date, NULL_ERROR_PATTERN, DATE_ARG)).toCalendar(Locale.getDefault());
+  /**
+   * Lit la date contenue en ASCII entre la position et la limite de <code>date</code> (position non
+   * modifiée), dans le fuseau horaire par défaut. Pour les formats à largeur fixe
+   * ({@link FixedDateLayout}), la lecture se fait directement dans le buffer, sans
+   * <code>String</code> intermédiaire. Les autres formats, et les dates qui ne respectent pas
+   * strictement le gabarit, sont copiés dans une <code>String</code> (une allocation par appel) et
+   * lus par le moteur ({@link #getBackend()}) : le gain se limite alors à l'absence de
+   * <code>Calendar</code>.
+   * 
+   * @param date
+   *          date
+   * @param format
+   *          format de tranformation
+   * @return l'instant en millisecondes depuis l'epoch
+   */
+  public static long toMillis(final ByteBuffer date, final String format) {
+    notNull(date, NULL_ERROR_PATTERN, DATE_ARG);
+    final FixedDateLayout layout = FixedDateLayout.pourFormat(notNull(format, NULL_ERROR_PATTERN, FORMAT_ARG));
+    if (layout != null && date.remaining() == layout.getLongueur()) {
+      final long millis = layout.tenterParser(date, date.position(), backend.getZone());
+      if (millis != FixedDateLayout.INVALIDE) {
+        return millis;
+      }
+    }
+    final byte[] octets = new byte[date.remaining()];
+    date.duplicate().get(octets);
+    return backend.parser(new String(octets, StandardCharsets.ISO_8859_1), format);
+  }
+
+  /**
+   * Lit la date contenue entre la position et la limite de <code>date</code> (position non
+   * modifiée), dans le fuseau horaire par défaut. Pour les formats à largeur fixe
+   * ({@link FixedDateLayout}), la lecture se fait directement dans le buffer, sans
+   * <code>String</code> intermédiaire. Les autres formats, et les dates qui ne respectent pas
+   * strictement le gabarit, sont copiés dans une <code>String</code> (une allocation par appel) et
+   * lus par le moteur ({@link #getBackend()}) : le gain se limite alors à l'absence de
+   * <code>Calendar</code>.
+   * 
+   * @param date
+   *          date
+   * @param format
+   *          format de tranformation
+   * @return l'instant en millisecondes depuis l'epoch
+   */
+  public static long toMillis(final CharBuffer date, final String format) {
+    notNull(date, NULL_ERROR_PATTERN, DATE_ARG);
+    final FixedDateLayout layout = FixedDateLayout.pourFormat(notNull(format, NULL_ERROR_PATTERN, FORMAT_ARG));
+    if (layout != null && date.remaining() == layout.getLongueur()) {
+      final long millis = layout.tenterParser(date, 0, backend.getZone());
+      if (millis != FixedDateLayout.INVALIDE) {
+        return millis;
+      }
+    }
+    return backend.parser(date.toString(), format);
+  }
+
+  /**
+   * Détecte le format de la date parmi les formats autorisés (dans l'ordre de préférence) et la lit
+   * dans le fuseau horaire par défaut, en un seul passage sur le texte et sans exception pour une
+   * date invalide. Les formats sont compilés une fois par liste (cf. {@link DateFormatSniffer}).
+   * 
+   * @param date
+   *          date
+   * @param formats
+   *          formats autorisés, dans l'ordre de préférence
+   * @return la date et le format reconnu, <code>null</code> si aucun format ne convient
+   */
+  public static DetectedDate detecterDate(final String date, final String... formats) {
+    notNull(date, NULL_ERROR_PATTERN, DATE_ARG);
+    notNull(formats, NULL_ERROR_PATTERN, "formats");
+    final List<String> cle = Arrays.asList(formats.clone());
+    DateFormatSniffer detecteur = DETECTEURS.get(cle);
+    if (detecteur == null) {
+      detecteur = new DateFormatSniffer(formats);
+      if (DETECTEURS.size() < DateFormatterRegistry.TAILLE_MAX_DEFAUT) {
+        final DateFormatSniffer existant = DETECTEURS.putIfAbsent(cle, detecteur);
+        if (existant != null) {
+          detecteur = existant;
+        }
+      }
+    }
+    return detecteur.analyser(date);
   }
 
   /**
@@ -190,8 +496,8 @@ public final class DateUtils {
     int month = isBlank(mois) || Integer.valueOf(mois) == 0 ? 1 : Integer.valueOf(mois);
     int day = isBlank(jour) || Integer.valueOf(jour) == 0 ? 1 : Integer.valueOf(jour);
 
-    final LocalDate date = new LocalDate(year, month, day);
-    return date.toDateTimeAtStartOfDay().toCalendar(Locale.getDefault());
+    final DateBackend moteur = backend;
+    return moteur.toCalendar(moteur.debutDeJour(year, month, day));
   }
 
   /**
@@ -202,7 +508,7 @@ public final class DateUtils {
    * @return la date au format yyyy-MM-dd HH:mm:ss.SSSSSS
    */
   public static String toStringTimeStamp(final Calendar calendar) {
-    return toString(calendar, FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP);
+    return toString(calendar, FixedDateLayout.TIMESTAMP);
   }
 
   /**
@@ -225,6 +531,11 @@ public final class DateUtils {
    */
   public static Calendar get1erJanvier(final int annee) {
     Calendar c = getDateCourante();
+    final DayBoundaryIndex index = getIndex(c);
+    if (index.contientAnnee(annee)) {
+      c.setTimeInMillis(index.debutAnnee(annee));
+      return c;
+    }
     c.set(Calendar.MONTH, Calendar.JANUARY);
     c.set(Calendar.DAY_OF_MONTH, 1);
     c.set(Calendar.HOUR, 0);
@@ -246,6 +557,11 @@ public final class DateUtils {
    */
   public static Calendar get31Decembre(final int annee) {
     Calendar c = getDateCourante();
+    final DayBoundaryIndex index = getIndex(c);
+    if (index.contientAnnee(annee)) {
+      c.setTimeInMillis(index.debutJourEpoch(CivilDates.jourEpoch(annee, Calendar.DECEMBER + 1, TRENTE_ET_UN)));
+      return c;
+    }
     c.set(Calendar.MONTH, Calendar.DECEMBER);
     c.set(Calendar.DAY_OF_MONTH, TRENTE_ET_UN);
     c.set(Calendar.HOUR, 0);
@@ -259,19 +575,41 @@ public final class DateUtils {
   }
 
   /**
-   * Mise à 00:00 de la date passé (reset de l'heure).
+   * Mise à 00:00 de la date passé (reset de l'heure). Si minuit n'existe pas (passage à l'heure
+   * d'été), la date est positionnée sur le premier instant du jour.
    * 
    * @param date
    *          Calendar a mettre à 00:00
    */
   public static void miseAZeroHeure(final Calendar date) {
     notNull(date, NULL_ERROR_PATTERN, DATE_ARG);
-    date.set(Calendar.HOUR, 0);
+    final long millis = date.getTimeInMillis();
+    final DayBoundaryIndex index = getIndex(date);
+    if (index.contient(millis)) {
+      date.setTimeInMillis(index.debutDeJour(millis));
+      return;
+    }
+    date.set(Calendar.HOUR_OF_DAY, 0);
     date.set(Calendar.MINUTE, 0);
     date.set(Calendar.SECOND, 0);
     date.set(Calendar.MILLISECOND, 0);
   }
 
+  /**
+   * Retourne l'index des débuts de jour du fuseau du calendar (index vide pour un calendrier non
+   * grégorien, dont les champs ne correspondent pas aux dates de l'index).
+   * 
+   * @param calendar
+   *          le calendar
+   * @return l'index
+   */
+  private static DayBoundaryIndex getIndex(final Calendar calendar) {
+    if (calendar.getClass() != GregorianCalendar.class) {
+      return DayBoundaryIndex.VIDE;
+    }
+    return DayBoundaryIndex.pour(calendar.getTimeZone());
+  }
+
   /**
    * Wrapper after pour les calendar avec une précision JOUR.
    * 
@@ -284,9 +622,9 @@ public final class DateUtils {
    * @since 1.0.7
    */
   public static boolean afterPrecisionJour(final Calendar c1, final Calendar c2) {
-    final DateTime d1 = new DateTime(notNull(c1, NULL_ERROR_PATTERN, C1_ARG));
-    final DateTime d2 = new DateTime(notNull(c2, NULL_ERROR_PATTERN, C2_ARG));
-    return d1.toLocalDate().isAfter(d2.toLocalDate());
+    final int jour1 = toJourEpoch(notNull(c1, NULL_ERROR_PATTERN, C1_ARG));
+    final int jour2 = toJourEpoch(notNull(c2, NULL_ERROR_PATTERN, C2_ARG));
+    return jour1 > jour2;
   }
 
   /**
@@ -301,9 +639,9 @@ public final class DateUtils {
    * @since 1.0.7
    */
   public static boolean beforePrecisionJour(final Calendar c1, final Calendar c2) {
-    final DateTime d1 = new DateTime(notNull(c1, NULL_ERROR_PATTERN, C1_ARG));
-    final DateTime d2 = new DateTime(notNull(c2, NULL_ERROR_PATTERN, C2_ARG));
-    return d1.toLocalDate().isBefore(d2.toLocalDate());
+    final int jour1 = toJourEpoch(notNull(c1, NULL_ERROR_PATTERN, C1_ARG));
+    final int jour2 = toJourEpoch(notNull(c2, NULL_ERROR_PATTERN, C2_ARG));
+    return jour1 < jour2;
   }
 
   /**
@@ -318,9 +656,300 @@ public final class DateUtils {
    * @since 1.0.7
    */
   public static int compareToPrecisionJour(final Calendar c1, final Calendar c2) {
-    final DateTime d1 = new DateTime(notNull(c1, NULL_ERROR_PATTERN, C1_ARG));
-    final DateTime d2 = new DateTime(notNull(c2, NULL_ERROR_PATTERN, C2_ARG));
-    return d1.toLocalDate().compareTo(d2.toLocalDate());
+    final int jour1 = toJourEpoch(notNull(c1, NULL_ERROR_PATTERN, C1_ARG));
+    final int jour2 = toJourEpoch(notNull(c2, NULL_ERROR_PATTERN, C2_ARG));
+    return compareToPrecisionJour(jour1, jour2);
+  }
+
+  /**
+   * Retourne le jour (nombre de jours depuis le 1970-01-01) de l'instant <code>millis</code> dans
+   * le fuseau horaire par défaut.
+   * 
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @return le jour epoch
+   */
+  public static int toJourEpoch(final long millis) {
+    return toJourEpoch(millis, backend.getZone());
+  }
+
+  /**
+   * Retourne le jour (nombre de jours depuis le 1970-01-01) de l'instant <code>millis</code> dans
+   * le fuseau horaire <code>zone</code>.
+   * 
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @param zone
+   *          fuseau horaire
+   * @return le jour epoch
+   */
+  public static int toJourEpoch(final long millis, final DateTimeZone zone) {
+    final DayBoundaryIndex index = DayBoundaryIndex.pour(zone);
+    if (index.contient(millis)) {
+      return index.jourEpoch(millis);
+    }
+    return Math.toIntExact(CivilDates.floorDiv(CivilDates.versLocal(millis, zone), CivilDates.MILLIS_PAR_JOUR));
+  }
+
+  /**
+   * Retourne le jour (nombre de jours depuis le 1970-01-01) du calendar, dans son propre fuseau
+   * horaire.
+   * 
+   * @param calendar
+   *          le calendar
+   * @return le jour epoch
+   */
+  public static int toJourEpoch(final Calendar calendar) {
+    return toJourEpoch(calendar.getTimeInMillis(), getZone(calendar));
+  }
+
+  /**
+   * Retourne le fuseau horaire Joda-Time du calendar (fuseau par défaut s'il n'est pas reconnu),
+   * selon la même règle que la conversion <code>new DateTime(calendar)</code>.
+   * 
+   * @param calendar
+   *          le calendar
+   * @return le fuseau horaire
+   */
+  static DateTimeZone getZone(final Calendar calendar) {
+    try {
+      return DateTimeZone.forTimeZone(calendar.getTimeZone());
+    } catch (IllegalArgumentException e) {
+      return DateTimeZone.getDefault();
+    }
+  }
+
+  /**
+   * Wrapper after avec une précision JOUR sur des instants, dans le fuseau horaire par défaut.
+   * 
+   * @param millis1
+   *          instant 1
+   * @param millis2
+   *          instant 2
+   * @return true si le jour de l'instant 1 est postérieur au jour de l'instant 2
+   */
+  public static boolean afterPrecisionJour(final long millis1, final long millis2) {
+    return afterPrecisionJour(millis1, millis2, backend.getZone());
+  }
+
+  /**
+   * Wrapper after avec une précision JOUR sur des instants, dans le fuseau horaire
+   * <code>zone</code>.
+   * 
+   * @param millis1
+   *          instant 1
+   * @param millis2
+   *          instant 2
+   * @param zone
+   *          fuseau horaire
+   * @return true si le jour de l'instant 1 est postérieur au jour de l'instant 2
+   */
+  public static boolean afterPrecisionJour(final long millis1, final long millis2, final DateTimeZone zone) {
+    return toJourEpoch(millis1, zone) > toJourEpoch(millis2, zone);
+  }
+
+  /**
+   * Wrapper before avec une précision JOUR sur des instants, dans le fuseau horaire par défaut.
+   * 
+   * @param millis1
+   *          instant 1
+   * @param millis2
+   *          instant 2
+   * @return true si le jour de l'instant 1 est antérieur au jour de l'instant 2
+   */
+  public static boolean beforePrecisionJour(final long millis1, final long millis2) {
+    return beforePrecisionJour(millis1, millis2, backend.getZone());
+  }
+
+  /**
+   * Wrapper before avec une précision JOUR sur des instants, dans le fuseau horaire
+   * <code>zone</code>.
+   * 
+   * @param millis1
+   *          instant 1
+   * @param millis2
+   *          instant 2
+   * @param zone
+   *          fuseau horaire
+   * @return true si le jour de l'instant 1 est antérieur au jour de l'instant 2
+   */
+  public static boolean beforePrecisionJour(final long millis1, final long millis2, final DateTimeZone zone) {
+    return toJourEpoch(millis1, zone) < toJourEpoch(millis2, zone);
+  }
+
+  /**
+   * Wrapper compareTo avec une précision JOUR sur des instants, dans le fuseau horaire par défaut.
+   * 
+   * @param millis1
+   *          instant 1
+   * @param millis2
+   *          instant 2
+   * @return idem que pour la methode compareTo
+   */
+  public static int compareToPrecisionJour(final long millis1, final long millis2) {
+    return compareToPrecisionJour(millis1, millis2, backend.getZone());
+  }
+
+  /**
+   * Wrapper compareTo avec une précision JOUR sur des instants, dans le fuseau horaire
+   * <code>zone</code>.
+   * 
+   * @param millis1
+   *          instant 1
+   * @param millis2
+   *          instant 2
+   * @param zone
+   *          fuseau horaire
+   * @return idem que pour la methode compareTo
+   */
+  public static int compareToPrecisionJour(final long millis1, final long millis2, final DateTimeZone zone) {
+    return compareToPrecisionJour(toJourEpoch(millis1, zone), toJourEpoch(millis2, zone));
+  }
+
+  /**
+   * Compare deux jours epoch.
+   * 
+   * @param jour1
+   *          jour epoch 1
+   * @param jour2
+   *          jour epoch 2
+   * @return -1, 0 ou 1 selon que le jour 1 est antérieur, égal ou postérieur au jour 2
+   */
+  public static int compareToPrecisionJour(final int jour1, final int jour2) {
+    return jour1 < jour2 ? -1 : (jour1 == jour2 ? 0 : 1);
+  }
+
+  /**
+   * Calcule le nombre de jours entre deux instants, dans le fuseau horaire par défaut.
+   * 
+   * @param debutPeriode
+   *          début période en millisecondes depuis l'epoch
+   * @param finPeriode
+   *          fin période en millisecondes depuis l'epoch
+   * @return nombre de jours entre les deux dates
+   */
+  public static long nbJoursEcart(final long debutPeriode, final long finPeriode) {
+    return nbJoursEcart(debutPeriode, finPeriode, backend.getZone());
+  }
+
+  /**
+   * Calcule le nombre de jours entre deux instants, dans le fuseau horaire <code>zone</code>.
+   * 
+   * @param debutPeriode
+   *          début période en millisecondes depuis l'epoch
+   * @param finPeriode
+   *          fin période en millisecondes depuis l'epoch
+   * @param zone
+   *          fuseau horaire
+   * @return nombre de jours entre les deux dates
+   */
+  public static long nbJoursEcart(final long debutPeriode, final long finPeriode, final DateTimeZone zone) {
+    return (long) toJourEpoch(finPeriode, zone) - toJourEpoch(debutPeriode, zone);
+  }
+
+  /**
+   * Teste l'égalité en terme de jour de deux instants, dans le fuseau horaire par défaut.
+   * 
+   * @param millis1
+   *          instant 1
+   * @param millis2
+   *          instant 2
+   * @return true si les deux instants sont le même jour
+   */
+  public static boolean egaliteDateJourMoisAn(final long millis1, final long millis2) {
+    return egaliteDateJourMoisAn(millis1, millis2, backend.getZone());
+  }
+
+  /**
+   * Teste l'égalité en terme de jour de deux instants, dans le fuseau horaire <code>zone</code>.
+   * 
+   * @param millis1
+   *          instant 1
+   * @param millis2
+   *          instant 2
+   * @param zone
+   *          fuseau horaire
+   * @return true si les deux instants sont le même jour
+   */
+  public static boolean egaliteDateJourMoisAn(final long millis1, final long millis2, final DateTimeZone zone) {
+    return toJourEpoch(millis1, zone) == toJourEpoch(millis2, zone);
+  }
+
+  /**
+   * Verifie que les instants sont espacés d'au moins un certain nombre d'années, dans le fuseau
+   * horaire par défaut.
+   * 
+   * @param millis1
+   *          instant 1
+   * @param millis2
+   *          instant 2
+   * @param annees
+   *          nombre d'années
+   * @return vrai si date2 >= date1 + annees + 1j
+   */
+  public static boolean possedeDelais(final long millis1, final long millis2, final int annees) {
+    return possedeDelais(millis1, millis2, annees, backend.getZone());
+  }
+
+  /**
+   * Verifie que les instants sont espacés d'au moins un certain nombre d'années, dans le fuseau
+   * horaire <code>zone</code>.
+   * 
+   * @param millis1
+   *          instant 1
+   * @param millis2
+   *          instant 2
+   * @param annees
+   *          nombre d'années
+   * @param zone
+   *          fuseau horaire
+   * @return vrai si date2 >= date1 + annees + 1j
+   */
+  public static boolean possedeDelais(final long millis1, final long millis2, final int annees,
+    final DateTimeZone zone) {
+    return possedeDelaisJourEpoch(toJourEpoch(millis1, zone), toJourEpoch(millis2, zone), annees);
+  }
+
+  /**
+   * Verifie que les jours epoch sont espacés d'au moins un certain nombre d'années.
+   * 
+   * @param jour1
+   *          jour epoch 1
+   * @param jour2
+   *          jour epoch 2
+   * @param annees
+   *          nombre d'années
+   * @return vrai si jour2 >= jour1 + annees + 1j
+   */
+  public static boolean possedeDelaisJourEpoch(final int jour1, final int jour2, final int annees) {
+    return ajouterAnnees(jour1, annees) < jour2;
+  }
+
+  /**
+   * Ajoute des années à un jour epoch (le 29 février devient le 28 février dans une année non
+   * bissextile).
+   * 
+   * @param jourEpoch
+   *          jour epoch
+   * @param annees
+   *          nombre d'années (éventuellement négatif)
+   * @return le jour epoch résultant
+   */
+  public static int ajouterAnnees(final int jourEpoch, final int annees) {
+    return Math.toIntExact(CivilDates.ajouterAnnees(jourEpoch, annees));
+  }
+
+  /**
+   * Retourne le nombre d'années pleines d'écart entre deux jours epoch.
+   * 
+   * @param jour1
+   *          jour epoch 1
+   * @param jour2
+   *          jour epoch 2
+   * @return nombre d'années positif si jour2 > jour1, négatif si l'inverse
+   */
+  public static int getAnneesDiff(final int jour1, final int jour2) {
+    return CivilDates.anneesEcart(jour1, jour2);
   }
 
   /**
@@ -334,7 +963,7 @@ public final class DateUtils {
     if (cal == null) {
       return null;
     }
-    return toString(cal, FORMAT_DATE);
+    return toString(cal, FixedDateLayout.DATE);
   }
 
   /**
@@ -350,7 +979,7 @@ public final class DateUtils {
     if (aaaammjj == null) {
       return null;
     }
-    return toCalendar(aaaammjj, FORMAT_DATE);
+    return toCalendar(aaaammjj, FixedDateLayout.DATE);
   }
 
   /**
@@ -363,7 +992,7 @@ public final class DateUtils {
    *         <code>yyyyMMddHHmmss</code>
    */
   public static Calendar toCalendarFormatyyyyMMddHHmmss(final String yyyyMMddHHmmss) {
-    return toCalendar(yyyyMMddHHmmss, FORMAT_DATE_BASE_DE_DONNEES);
+    return toCalendar(yyyyMMddHHmmss, FixedDateLayout.BASE_DE_DONNEES);
   }
 
   /**
@@ -375,7 +1004,7 @@ public final class DateUtils {
    * @return l'objet <code>java.util.Calendar</code> correspondant à la chaine <code>yyyyMMdd</code>
    */
   public static Calendar toCalendarFormatyyyyMMdd(final String yyyyMMdd) {
-    return toCalendar(yyyyMMdd, FORMAT_DATE_AAAAMMJJ);
+    return toCalendar(yyyyMMdd, FixedDateLayout.AAAAMMJJ);
   }
 
   /**
@@ -418,7 +1047,7 @@ public final class DateUtils {
    *         <code>calendar</code>
    */
   public static String toStringyyyyMMddHHmmss(final Calendar calendar) {
-    return toString(notNull(calendar, NULL_ERROR_PATTERN, CALENDAR_ARG), FORMAT_DATE_BASE_DE_DONNEES);
+    return toString(calendar, FixedDateLayout.BASE_DE_DONNEES);
   }
 
   /**
@@ -431,7 +1060,70 @@ public final class DateUtils {
    *         <code>calendar</code>
    */
   public static String toStringyyyyMMdd(final Calendar calendar) {
-    return toString(notNull(calendar, NULL_ERROR_PATTERN, CALENDAR_ARG), FORMAT_DATE_AAAAMMJJ);
+    return toString(calendar, FixedDateLayout.AAAAMMJJ);
+  }
+
+  /**
+   * Transforme en chaine de caractère la date passée en paramètre, au format à largeur fixe
+   * <code>layout</code>.
+   * 
+   * @param calendar
+   *          calendrier qui représente la date : ne doit pas être null
+   * @param layout
+   *          le format à largeur fixe
+   * @return la chaine de caractère représentant la date en paramètre
+   */
+  private static String toString(final Calendar calendar, final FixedDateLayout layout) {
+    final long millis = notNull(calendar, NULL_ERROR_PATTERN, CALENDAR_ARG).getTimeInMillis();
+    final DateTimeZone zone = backend.getZone();
+    final DateConversionCache memo = cache;
+    if (memo == null) {
+      return layout.formater(millis, zone);
+    }
+    String texte = memo.getTexte(layout.getFormat(), zone, millis);
+    if (texte == null) {
+      texte = layout.formater(millis, zone);
+      memo.putTexte(layout.getFormat(), zone, millis, texte);
+    }
+    return texte;
+  }
+
+  /**
+   * Convertie une chaine de caractère au format à largeur fixe <code>layout</code> en objet
+   * calendar. Une chaine qui ne respecte pas strictement le gabarit est confiée à Joda-Time, qui
+   * accepte les variantes permissives du format ou lève l'exception d'origine.
+   * 
+   * @param date
+   *          date
+   * @param layout
+   *          le format à largeur fixe
+   * @return calendar
+   */
+  private static Calendar toCalendar(final String date, final FixedDateLayout layout) {
+    notNull(date, NULL_ERROR_PATTERN, DATE_ARG);
+    final DateTimeZone zone = backend.getZone();
+    final DateConversionCache memo = cache;
+    if (memo != null) {
+      final Long memorise = memo.getMillis(layout.getFormat(), zone, date);
+      if (memorise != null) {
+        return backend.toCalendar(memorise.longValue());
+      }
+    }
+    if (date.length() == layout.getLongueur()) {
+      final long millis = layout.tenterParser(date, 0, zone);
+      if (millis != FixedDateLayout.INVALIDE) {
+        if (memo != null) {
+          memo.putMillis(layout.getFormat(), zone, date, millis);
+        }
+        return backend.toCalendar(millis);
+      }
+    }
+    if (memo == null) {
+      return toCalendar(date, layout.getFormat());
+    }
+    final long millis = backend.parser(date, layout.getFormat());
+    memo.putMillis(layout.getFormat(), zone, date, millis);
+    return backend.toCalendar(millis);
   }
 
   /**
@@ -458,9 +1150,9 @@ public final class DateUtils {
    * @return nombre de jours entre les deux dates
    */
   public static long nbJoursEcart(final Calendar debutPeriode, final Calendar finPeriode) {
-    final LocalDate debut = new DateTime(notNull(debutPeriode, NULL_ERROR_PATTERN, "debutPeriode")).toLocalDate();
-    final LocalDate fin = new DateTime(notNull(finPeriode, NULL_ERROR_PATTERN, "finPeriode")).toLocalDate();
-    return Days.daysBetween(debut, fin).getDays();
+    final int debut = toJourEpoch(notNull(debutPeriode, NULL_ERROR_PATTERN, "debutPeriode"));
+    final int fin = toJourEpoch(notNull(finPeriode, NULL_ERROR_PATTERN, "finPeriode"));
+    return (long) fin - debut;
   }
 
   
@@ -480,12 +1172,13 @@ public final class DateUtils {
   }
   
   /**
-   * Implémentation de la méthode qui teste l'égalité de Date ou de Calendar.
+   * Implémentation de la méthode qui teste l'égalité de Date, de Calendar ou de {@link ImmutableDate}
+   * (chacune dans son fuseau).
    * 
    * @param premiereDate
-   *          date ou calendar
+   *          date, calendar ou date immuable
    * @param secondeDate
-   *          date ou calendar
+   *          date, calendar ou date immuable
    * @return true si les deux sont égales en terme de jour.
    */
   public static boolean egaliteDateJourMoisAn(final Object premiereDate, final Object secondeDate) {
@@ -497,13 +1190,32 @@ public final class DateUtils {
     } else if (premiereDate != null && secondeDate == null) {
       res = false;
     } else {
-      final LocalDate d1 = new DateTime(premiereDate).toLocalDate();
-      final LocalDate d2 = new DateTime(secondeDate).toLocalDate();
-      res = d1.isEqual(d2);
+      res = toJourEpoch(premiereDate) == toJourEpoch(secondeDate);
     }
     return res;
   }
 
+  /**
+   * Retourne le jour epoch d'une date quelconque acceptée par <code>new DateTime(Object)</code>.
+   * 
+   * @param date
+   *          date, calendar ou tout objet convertible par Joda-Time
+   * @return le jour epoch
+   */
+  private static int toJourEpoch(final Object date) {
+    if (date instanceof Calendar) {
+      return toJourEpoch((Calendar) date);
+    }
+    if (date instanceof Date) {
+      return toJourEpoch(((Date) date).getTime());
+    }
+    if (date instanceof ImmutableDate) {
+      return ((ImmutableDate) date).getJourEpoch();
+    }
+    final DateTime dateTime = new DateTime(date);
+    return toJourEpoch(dateTime.getMillis(), dateTime.getZone());
+  }
+
   /**
    * Methode permettant de vérifier que deux Calendar possèdent la même valeur timeInMillis.
    * 
@@ -530,9 +1242,9 @@ public final class DateUtils {
    * @return vrai si date2 >= date1 + annees + 1j
    */
   public static boolean possedeDelais(final Date date1, final Date date2, final int annees) {
-    final LocalDate d1 = new DateTime(notNull(date1, NULL_ERROR_PATTERN, "date1")).toLocalDate();
-    final LocalDate d2 = new DateTime(notNull(date2, NULL_ERROR_PATTERN, "date2")).toLocalDate();
-    return d1.plusYears(annees).compareTo(d2) < 0;
+    final long millis1 = notNull(date1, NULL_ERROR_PATTERN, "date1").getTime();
+    final long millis2 = notNull(date2, NULL_ERROR_PATTERN, "date2").getTime();
+    return possedeDelais(millis1, millis2, annees);
   }
   
   
@@ -548,7 +1260,9 @@ public final class DateUtils {
    *         les dates sont dans la même année.
    */
   public static int getAnneesDiff(final Calendar date1, final Calendar date2) {
-    return Years.yearsBetween(new DateTime(date1).toLocalDate(), new DateTime(date2).toLocalDate()).getYears();
+    final int jour1 = date1 == null ? getJourEpochCourant() : toJourEpoch(date1);
+    final int jour2 = date2 == null ? getJourEpochCourant() : toJourEpoch(date2);
+    return getAnneesDiff(jour1, jour2);
   }
 
   
@@ -583,6 +1297,216 @@ public final class DateUtils {
     return calendar.getTime();
   }
 
+  /**
+   * Transforme un calendar en date immuable, dans le fuseau horaire du calendar (null safe).
+   * 
+   * @param calendar
+   *          calendar
+   * @return date immuable
+   */
+  public static ImmutableDate calendarToImmutableDate(final Calendar calendar) {
+    return ImmutableDate.from(calendar);
+  }
+
+  /**
+   * Transforme une date immuable en nouveau calendar, dans le fuseau horaire de la date (null
+   * safe).
+   * 
+   * @param date
+   *          date immuable
+   * @return calendar
+   */
+  public static Calendar immutableDateToCalendar(final ImmutableDate date) {
+    if (date == null) {
+      return null;
+    }
+    return date.toCalendar();
+  }
+
+  /**
+   * Transforme en chaine de caractère la date immuable passée en paramètre, dans son fuseau
+   * horaire.
+   * 
+   * @param date
+   *          date immuable : ne doit pas être null
+   * @param format
+   *          chaine de caractère représentant le format de sortie (ex: ddMMyyyy) : ne doit pas être
+   *          null
+   * @return la chaine de caractère représentant la date en paramètre
+   */
+  public static String immutableDateToString(final ImmutableDate date, final String format) {
+    notNull(date, NULL_ERROR_PATTERN, DATE_ARG);
+    notNull(format, NULL_ERROR_PATTERN, FORMAT_ARG);
+    final FixedDateLayout layout = FixedDateLayout.pourFormat(format);
+    if (layout != null) {
+      return layout.formater(date.getMillis(), date.getZone());
+    }
+    if (date.getZone().equals(backend.getZone())) {
+      return backend.formater(date.getMillis(), format);
+    }
+    return DateFormatterRegistry.getInstance().getFormateur(format, date.getZone()).print(date.getMillis());
+  }
+
+  /**
+   * Convertit la date immuable <code>date</code> sous la forme {@link #FORMAT_DATE}.
+   * 
+   * @param date
+   *          la date à convertir
+   * @return la chaine au format {@link #FORMAT_DATE}, <code>null</code> sinon
+   */
+  public static String immutableDateToStringAAAAMMJJNullSafe(final ImmutableDate date) {
+    if (date == null) {
+      return null;
+    }
+    return FixedDateLayout.DATE.formater(date.getMillis(), date.getZone());
+  }
+
+  /**
+   * Convertit la date immuable <code>date</code> sous la forme {@link #FORMAT_ISO_DATE}.
+   * 
+   * @param date
+   *          la date à convertir
+   * @return la chaine au format {@link #FORMAT_ISO_DATE}, <code>null</code> sinon
+   */
+  public static String immutableDateToStringISONullSafe(final ImmutableDate date) {
+    if (date == null) {
+      return null;
+    }
+    return immutableDateToString(date, FORMAT_ISO_DATE);
+  }
+
+  /**
+   * <B>Uniquement pour l'affichage</B> Convertie la date immuable passée en paramètre sous la forme
+   * JJ-MM-AAAA.
+   * 
+   * @param date
+   *          la date à convertir au format JJ-MM-AAAA
+   * @return JJ-MM-AAAA
+   */
+  public static String immutableDateToStringJJMMAAAA(final ImmutableDate date) {
+    return FixedDateLayout.AFFICHAGE_DATE.formater(notNull(date, NULL_ERROR_PATTERN, DATE_ARG).getMillis(),
+      date.getZone());
+  }
+
+  /**
+   * Retourne une chaine sous la forme {@link #FORMAT_DATE_AAAAMMJJ} représentant la date immuable.
+   * 
+   * @param date
+   *          la date à convertir
+   * @return la chaine sous la forme {@link #FORMAT_DATE_AAAAMMJJ}
+   */
+  public static String immutableDateToStringyyyyMMdd(final ImmutableDate date) {
+    return FixedDateLayout.AAAAMMJJ.formater(notNull(date, NULL_ERROR_PATTERN, DATE_ARG).getMillis(),
+      date.getZone());
+  }
+
+  /**
+   * Converti la date immuable sous le format {@link #FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP}.
+   * 
+   * @param date
+   *          la date à convertir
+   * @return la date au format {@link #FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP}
+   */
+  public static String immutableDateToStringTimeStamp(final ImmutableDate date) {
+    return FixedDateLayout.TIMESTAMP.formater(notNull(date, NULL_ERROR_PATTERN, DATE_ARG).getMillis(),
+      date.getZone());
+  }
+
+  /**
+   * Convertie une chaine de caractère en date immuable, dans le fuseau horaire par défaut, en
+   * fonction du format passé en paramètre.
+   * 
+   * @param date
+   *          date
+   * @param format
+   *          format de tranformation
+   * @return date immuable
+   */
+  public static ImmutableDate toImmutableDate(final String date, final String format) {
+    notNull(date, NULL_ERROR_PATTERN, DATE_ARG);
+    final FixedDateLayout layout = FixedDateLayout.pourFormat(notNull(format, NULL_ERROR_PATTERN, FORMAT_ARG));
+    final DateTimeZone zone = backend.getZone();
+    if (layout != null && date.length() == layout.getLongueur()) {
+      final long millis = layout.tenterParser(date, 0, zone);
+      if (millis != FixedDateLayout.INVALIDE) {
+        return ImmutableDate.of(millis, zone);
+      }
+    }
+    return ImmutableDate.of(backend.parser(date, format), zone);
+  }
+
+  /**
+   * Convertit la chaine <code>aaaammjj</code> au format {@link #FORMAT_DATE} en date immuable.
+   * 
+   * @param aaaammjj
+   *          la date au format {@link #FORMAT_DATE}
+   * @return la date immuable correspondant à la chaine <code>aaaammjj</code>, <code>null</code>
+   *         sinon
+   */
+  public static ImmutableDate toImmutableDateFormatISO(final String aaaammjj) {
+    if (aaaammjj == null) {
+      return null;
+    }
+    return toImmutableDate(aaaammjj, FORMAT_DATE);
+  }
+
+  /**
+   * Wrapper after avec une précision JOUR pour les dates immuables, chacune dans son fuseau.
+   * 
+   * @param d1
+   *          date 1
+   * @param d2
+   *          date 2
+   * @return true si le jour de <code>d1</code> est postérieur à celui de <code>d2</code>
+   */
+  public static boolean immutableDateAfterPrecisionJour(final ImmutableDate d1, final ImmutableDate d2) {
+    return notNull(d1, NULL_ERROR_PATTERN, C1_ARG).getJourEpoch() > notNull(d2, NULL_ERROR_PATTERN, C2_ARG)
+      .getJourEpoch();
+  }
+
+  /**
+   * Wrapper before avec une précision JOUR pour les dates immuables, chacune dans son fuseau.
+   * 
+   * @param d1
+   *          date 1
+   * @param d2
+   *          date 2
+   * @return true si le jour de <code>d1</code> est antérieur à celui de <code>d2</code>
+   */
+  public static boolean immutableDateBeforePrecisionJour(final ImmutableDate d1, final ImmutableDate d2) {
+    return notNull(d1, NULL_ERROR_PATTERN, C1_ARG).getJourEpoch() < notNull(d2, NULL_ERROR_PATTERN, C2_ARG)
+      .getJourEpoch();
+  }
+
+  /**
+   * Wrapper compareTo avec une précision JOUR pour les dates immuables, chacune dans son fuseau.
+   * 
+   * @param d1
+   *          date 1
+   * @param d2
+   *          date 2
+   * @return idem que pour la methode compareTo
+   */
+  public static int immutableDateCompareToPrecisionJour(final ImmutableDate d1, final ImmutableDate d2) {
+    return compareToPrecisionJour(notNull(d1, NULL_ERROR_PATTERN, C1_ARG).getJourEpoch(),
+      notNull(d2, NULL_ERROR_PATTERN, C2_ARG).getJourEpoch());
+  }
+
+  /**
+   * Calcule le nombre de jours entre deux dates immuables.
+   * 
+   * @param debutPeriode
+   *          début période
+   * @param finPeriode
+   *          fin période
+   * @return nombre de jours entre les deux dates
+   */
+  public static long immutableDateNbJoursEcart(final ImmutableDate debutPeriode, final ImmutableDate finPeriode) {
+    final int debut = notNull(debutPeriode, NULL_ERROR_PATTERN, "debutPeriode").getJourEpoch();
+    final int fin = notNull(finPeriode, NULL_ERROR_PATTERN, "finPeriode").getJourEpoch();
+    return (long) fin - debut;
+  }
+
   /**
    * Clone un calendar (null safe).
    * 
@@ -597,5 +1521,33 @@ public final class DateUtils {
     return (Calendar) calendar.clone();
   }
 
-}
+  /**
+   * Calendar modèle d'un fuseau et d'une locale, jamais modifié après sa construction.
+   */
+  private static final class ModeleCalendar {
+
+    /** Fuseau horaire. */
+    final TimeZone fuseau;
 
+    /** Locale. */
+    final Locale locale;
+
+    /** Calendar modèle. */
+    final Calendar calendar;
+
+    /**
+     * Constructeur de la classe.
+     *
+     * @param fuseau
+     *          fuseau horaire
+     * @param locale
+     *          locale
+     */
+    ModeleCalendar(final TimeZone fuseau, final Locale locale) {
+      this.fuseau = fuseau;
+      this.locale = locale;
+      this.calendar = Calendar.getInstance(fuseau, locale);
+    }
+  }
+
+}
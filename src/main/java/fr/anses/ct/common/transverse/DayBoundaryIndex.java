@@ -0,0 +1,472 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.time.Instant;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * Index précalculé des débuts de jour et d'année d'un fuseau horaire, sur une plage d'années
+ * configurable (par défaut {@link #ANNEE_MIN_DEFAUT} - {@link #ANNEE_MAX_DEFAUT}).
+ * <p>
+ * Le début d'un jour est le premier instant dont la date locale est ce jour : il tient compte des
+ * changements d'heure (minuit dans un trou d'heure d'été, jour sauté). Le jour d'un instant se lit
+ * alors par un décalage dans le tableau des débuts de jour et le début d'un jour ou d'une année par
+ * un simple accès indexé. Les index sont construits à la première demande, un par fuseau : à partir
+ * des règles Joda-Time pour un <code>DateTimeZone</code>, des règles du JDK pour un
+ * <code>TimeZone</code>.
+ * </p>
+ * <p>
+ * Les instants hors de la plage ne sont pas couverts ({@link #contient(long)}) : l'appelant utilise
+ * alors le calcul habituel. La plage commence après le dernier changement d'heure qui fait reculer
+ * la date locale ; l'index d'un <code>SimpleTimeZone</code> est vide.
+ * </p>
+ */
+public final class DayBoundaryIndex {
+
+  /** Propriété système de la première année indexée. */
+  public static final String PROPRIETE_ANNEE_MIN = "fr.anses.ct.common.date.index.anneeMin";
+
+  /** Propriété système de la dernière année indexée. */
+  public static final String PROPRIETE_ANNEE_MAX = "fr.anses.ct.common.date.index.anneeMax";
+
+  /** Première année indexée par défaut. */
+  public static final int ANNEE_MIN_DEFAUT = 1900;
+
+  /** Dernière année indexée par défaut. */
+  public static final int ANNEE_MAX_DEFAUT = 2100;
+
+  /** Index vide (fuseau non indexable). */
+  static final DayBoundaryIndex VIDE = new DayBoundaryIndex(0, 0, new long[] {0L }, new long[0]);
+
+  /** Marge de recherche d'un début de jour autour du minuit UTC du jour. */
+  private static final long MARGE = 2 * CivilDates.MILLIS_PAR_JOUR;
+
+  /** Index par fuseau Joda-Time. */
+  private static final ConcurrentMap<DateTimeZone, DayBoundaryIndex> INDEX_JODA =
+    new ConcurrentHashMap<DateTimeZone, DayBoundaryIndex>();
+
+  /** Index par identifiant de fuseau du JDK. */
+  private static final ConcurrentMap<String, DayBoundaryIndex> INDEX_JDK =
+    new ConcurrentHashMap<String, DayBoundaryIndex>();
+
+  /** Première année indexée. */
+  private static volatile int anneeMinCourante = Integer.getInteger(PROPRIETE_ANNEE_MIN, ANNEE_MIN_DEFAUT);
+
+  /** Dernière année indexée. */
+  private static volatile int anneeMaxCourante = Integer.getInteger(PROPRIETE_ANNEE_MAX, ANNEE_MAX_DEFAUT);
+
+  /** Première année de l'index. */
+  private final int anneeMin;
+
+  /** Premier jour (epoch) de l'index. */
+  private final int premierJour;
+
+  /** Débuts des jours, plus le début du jour qui suit le dernier jour indexé. */
+  private final long[] debutsJour;
+
+  /** Débuts des années. */
+  private final long[] debutsAnnee;
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param anneeMin
+   *          première année
+   * @param premierJour
+   *          premier jour epoch
+   * @param debutsJour
+   *          débuts des jours (avec le début du jour suivant le dernier)
+   * @param debutsAnnee
+   *          débuts des années
+   */
+  private DayBoundaryIndex(final int anneeMin, final int premierJour, final long[] debutsJour,
+    final long[] debutsAnnee) {
+    this.anneeMin = anneeMin;
+    this.premierJour = premierJour;
+    this.debutsJour = debutsJour;
+    this.debutsAnnee = debutsAnnee;
+  }
+
+  /**
+   * Retourne l'index du fuseau Joda-Time <code>zone</code>.
+   *
+   * @param zone
+   *          fuseau horaire
+   * @return l'index (vide si le fuseau n'est pas indexable)
+   */
+  public static DayBoundaryIndex pour(final DateTimeZone zone) {
+    DayBoundaryIndex index = INDEX_JODA.get(zone);
+    if (index == null) {
+      index = construire(new ReglesJoda(notNull(zone, "le paramètre '%s' est null", "zone")));
+      final DayBoundaryIndex existant = INDEX_JODA.putIfAbsent(zone, index);
+      if (existant != null) {
+        index = existant;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Retourne l'index du fuseau du JDK <code>zone</code>.
+   *
+   * @param zone
+   *          fuseau horaire
+   * @return l'index (vide si le fuseau n'est pas indexable)
+   */
+  public static DayBoundaryIndex pour(final TimeZone zone) {
+    if (zone instanceof SimpleTimeZone) {
+      // règles propres à l'instance : l'identifiant ne suffit pas à les retrouver
+      return VIDE;
+    }
+    final String id = zone.getID();
+    DayBoundaryIndex index = INDEX_JDK.get(id);
+    if (index == null) {
+      index = construire(new ReglesJdk((TimeZone) zone.clone()));
+      final DayBoundaryIndex existant = INDEX_JDK.putIfAbsent(id, index);
+      if (existant != null) {
+        index = existant;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Modifie la plage d'années des index et vide les index déjà construits.
+   *
+   * @param anneeMin
+   *          première année indexée
+   * @param anneeMax
+   *          dernière année indexée
+   */
+  public static synchronized void setPlage(final int anneeMin, final int anneeMax) {
+    isTrue(anneeMin <= anneeMax, "plage d'années invalide : %d - %d", anneeMin, anneeMax);
+    anneeMinCourante = anneeMin;
+    anneeMaxCourante = anneeMax;
+    INDEX_JODA.clear();
+    INDEX_JDK.clear();
+  }
+
+  /**
+   * Retourne la première année indexée.
+   *
+   * @return la première année indexée
+   */
+  public static int getAnneeMin() {
+    return anneeMinCourante;
+  }
+
+  /**
+   * Retourne la dernière année indexée.
+   *
+   * @return la dernière année indexée
+   */
+  public static int getAnneeMax() {
+    return anneeMaxCourante;
+  }
+
+  /**
+   * Indique si l'instant est couvert par l'index.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @return true si l'instant est couvert
+   */
+  public boolean contient(final long millis) {
+    return millis >= debutsJour[0] && millis < debutsJour[debutsJour.length - 1];
+  }
+
+  /**
+   * Indique si le jour est couvert par l'index.
+   *
+   * @param jourEpoch
+   *          numéro de jour depuis le 1970-01-01
+   * @return true si le jour est couvert
+   */
+  public boolean contientJour(final long jourEpoch) {
+    return jourEpoch >= premierJour && jourEpoch - premierJour < debutsJour.length - 1;
+  }
+
+  /**
+   * Indique si l'année est couverte par l'index.
+   *
+   * @param annee
+   *          année
+   * @return true si l'année est couverte
+   */
+  public boolean contientAnnee(final int annee) {
+    return annee >= anneeMin && annee - anneeMin < debutsAnnee.length;
+  }
+
+  /**
+   * Retourne le jour de l'instant <code>millis</code>, qui doit être couvert par l'index.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @return le numéro de jour depuis le 1970-01-01
+   */
+  public int jourEpoch(final long millis) {
+    return premierJour + indiceJour(millis);
+  }
+
+  /**
+   * Retourne le début du jour de l'instant <code>millis</code>, qui doit être couvert par l'index.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @return le premier instant du jour
+   */
+  public long debutDeJour(final long millis) {
+    return debutsJour[indiceJour(millis)];
+  }
+
+  /**
+   * Retourne le début du jour <code>jourEpoch</code>, qui doit être couvert par l'index.
+   *
+   * @param jourEpoch
+   *          numéro de jour depuis le 1970-01-01
+   * @return le premier instant du jour
+   */
+  public long debutJourEpoch(final long jourEpoch) {
+    return debutsJour[(int) (jourEpoch - premierJour)];
+  }
+
+  /**
+   * Retourne l'année de l'instant <code>millis</code>, qui doit être couvert par l'index.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @return l'année
+   */
+  public int annee(final long millis) {
+    final int position = Arrays.binarySearch(debutsAnnee, millis);
+    return anneeMin + (position >= 0 ? position : -position - 2);
+  }
+
+  /**
+   * Retourne le début de l'année <code>annee</code>, qui doit être couverte par l'index.
+   *
+   * @param annee
+   *          année
+   * @return le premier instant du 1er janvier
+   */
+  public long debutAnnee(final int annee) {
+    return debutsAnnee[annee - anneeMin];
+  }
+
+  /**
+   * Retourne l'indice du jour de l'instant <code>millis</code>.
+   *
+   * @param millis
+   *          instant couvert par l'index
+   * @return l'indice du jour
+   */
+  private int indiceJour(final long millis) {
+    final int dernier = debutsJour.length - 2;
+    int i = (int) Math.max(0, Math.min(dernier, (millis - debutsJour[0]) / CivilDates.MILLIS_PAR_JOUR));
+    while (debutsJour[i] > millis) {
+      i--;
+    }
+    while (debutsJour[i + 1] <= millis) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Construit l'index de la plage d'années courante.
+   *
+   * @param regles
+   *          règles du fuseau
+   * @return l'index, vide si la date locale du fuseau n'est croissante sur aucune année de la plage
+   */
+  private static DayBoundaryIndex construire(final Regles regles) {
+    final int anneeMax = anneeMaxCourante;
+    final int anneeMin = premiereAnneeCroissante(regles, anneeMinCourante, anneeMax);
+    if (anneeMin > anneeMax) {
+      return VIDE;
+    }
+    final long premierJour = CivilDates.jourEpoch(anneeMin, 1, 1);
+    final long finJour = CivilDates.jourEpoch(anneeMax + 1, 1, 1);
+    final long[] debutsJour = new long[(int) (finJour - premierJour) + 1];
+    for (int i = 0; i < debutsJour.length; i++) {
+      debutsJour[i] = debutDeJour(regles, premierJour + i);
+    }
+    final long[] debutsAnnee = new long[anneeMax - anneeMin + 1];
+    for (int annee = anneeMin; annee <= anneeMax; annee++) {
+      debutsAnnee[annee - anneeMin] = debutsJour[(int) (CivilDates.jourEpoch(annee, 1, 1) - premierJour)];
+    }
+    return new DayBoundaryIndex(anneeMin, (int) premierJour, debutsJour, debutsAnnee);
+  }
+
+  /**
+   * Retourne la première année de la plage à partir de laquelle la date locale ne recule plus à un
+   * changement d'heure (ex: Europe/Paris, mars 1911, 00:01 -&gt; 23:51:39 la veille). Chaque jour
+   * indexé est alors un intervalle d'instants.
+   *
+   * @param regles
+   *          règles du fuseau
+   * @param anneeMin
+   *          première année de la plage
+   * @param anneeMax
+   *          dernière année de la plage
+   * @return la première année indexable, <code>anneeMax + 1</code> si aucune
+   */
+  private static int premiereAnneeCroissante(final Regles regles, final int anneeMin, final int anneeMax) {
+    int premiere = anneeMin;
+    final long fin = CivilDates.jourEpoch(anneeMax + 1, 1, 1) * CivilDates.MILLIS_PAR_JOUR + MARGE;
+    long transition = regles.transitionSuivante(CivilDates.jourEpoch(anneeMin, 1, 1) * CivilDates.MILLIS_PAR_JOUR
+      - MARGE);
+    while (transition < fin) {
+      final long veille = jour(regles, transition - 1);
+      if (veille > jour(regles, transition)) {
+        // marge d'une année : la recherche des débuts de jour déborde de deux jours
+        premiere = Math.max(premiere, CivilDates.annee(CivilDates.civil(veille)) + 2);
+      }
+      transition = regles.transitionSuivante(transition);
+    }
+    return premiere;
+  }
+
+  /**
+   * Calcule le premier instant dont la date locale est postérieure ou égale au jour
+   * <code>jourEpoch</code>.
+   *
+   * @param regles
+   *          règles du fuseau
+   * @param jourEpoch
+   *          numéro de jour depuis le 1970-01-01
+   * @return le début du jour
+   */
+  private static long debutDeJour(final Regles regles, final long jourEpoch) {
+    final long minuit = jourEpoch * CivilDates.MILLIS_PAR_JOUR;
+    // cas courant : minuit local existe et le décalage de minuit est celui de la veille au soir
+    final long candidat = minuit - regles.decalage(minuit - regles.decalage(minuit));
+    if (jour(regles, candidat) >= jourEpoch && jour(regles, candidat - 1) < jourEpoch) {
+      return candidat;
+    }
+    long bas = minuit - MARGE;
+    long haut = minuit + MARGE;
+    while (bas + 1 < haut) {
+      final long milieu = bas + (haut - bas) / 2;
+      if (jour(regles, milieu) >= jourEpoch) {
+        haut = milieu;
+      } else {
+        bas = milieu;
+      }
+    }
+    return haut;
+  }
+
+  /**
+   * Jour local de l'instant.
+   *
+   * @param regles
+   *          règles du fuseau
+   * @param millis
+   *          instant
+   * @return le numéro de jour local
+   */
+  private static long jour(final Regles regles, final long millis) {
+    return CivilDates.floorDiv(millis + regles.decalage(millis), CivilDates.MILLIS_PAR_JOUR);
+  }
+
+  /**
+   * Règles de décalage d'un fuseau horaire.
+   */
+  private abstract static class Regles {
+
+    /**
+     * Décalage du fuseau à l'instant <code>millis</code>.
+     *
+     * @param millis
+     *          instant
+     * @return le décalage en millisecondes
+     */
+    abstract int decalage(long millis);
+
+    /**
+     * Prochain changement de décalage strictement après <code>millis</code>.
+     *
+     * @param millis
+     *          instant
+     * @return l'instant du changement, <code>Long.MAX_VALUE</code> s'il n'y en a pas
+     */
+    abstract long transitionSuivante(long millis);
+  }
+
+  /**
+   * Règles d'un fuseau Joda-Time.
+   */
+  private static final class ReglesJoda extends Regles {
+
+    /** Fuseau. */
+    private final DateTimeZone zone;
+
+    /**
+     * Constructeur de la classe.
+     *
+     * @param zone
+     *          fuseau
+     */
+    ReglesJoda(final DateTimeZone zone) {
+      this.zone = zone;
+    }
+
+    @Override
+    int decalage(final long millis) {
+      return zone.getOffset(millis);
+    }
+
+    @Override
+    long transitionSuivante(final long millis) {
+      final long suivante = zone.nextTransition(millis);
+      return suivante > millis ? suivante : Long.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Règles d'un fuseau du JDK : décalages de <code>TimeZone</code> (ceux utilisés par
+   * <code>Calendar</code>), changements d'heure de <code>ZoneRules</code>.
+   */
+  private static final class ReglesJdk extends Regles {
+
+    /** Fuseau. */
+    private final TimeZone zone;
+
+    /** Règles. */
+    private final ZoneRules regles;
+
+    /**
+     * Constructeur de la classe.
+     *
+     * @param zone
+     *          fuseau
+     */
+    ReglesJdk(final TimeZone zone) {
+      this.zone = zone;
+      this.regles = zone.toZoneId().getRules();
+    }
+
+    @Override
+    int decalage(final long millis) {
+      return zone.getOffset(millis);
+    }
+
+    @Override
+    long transitionSuivante(final long millis) {
+      final ZoneOffsetTransition suivante = regles.nextTransition(Instant.ofEpochMilli(millis));
+      return suivante == null ? Long.MAX_VALUE : suivante.toEpochSecond() * CivilDates.MILLIS_PAR_SECONDE;
+    }
+  }
+
+}
@@ -0,0 +1,79 @@
+package fr.anses.ct.common.transverse;
+
+import java.util.Calendar;
+
+/**
+ * Date lue par un {@link DateFormatSniffer} : instant et format reconnu.
+ */
+public final class DetectedDate {
+
+  /** Format reconnu. */
+  private final String format;
+
+  /** Indice du format reconnu dans la liste des formats autorisés. */
+  private final int indexFormat;
+
+  /** Instant en millisecondes depuis l'epoch. */
+  private final long millis;
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param format
+   *          format reconnu
+   * @param indexFormat
+   *          indice du format reconnu
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   */
+  DetectedDate(final String format, final int indexFormat, final long millis) {
+    this.format = format;
+    this.indexFormat = indexFormat;
+    this.millis = millis;
+  }
+
+  /**
+   * Retourne le format reconnu.
+   *
+   * @return le format
+   */
+  public String getFormat() {
+    return format;
+  }
+
+  /**
+   * Retourne l'indice du format reconnu dans la liste des formats autorisés.
+   *
+   * @return l'indice du format
+   */
+  public int getIndexFormat() {
+    return indexFormat;
+  }
+
+  /**
+   * Retourne l'instant lu.
+   *
+   * @return l'instant en millisecondes depuis l'epoch
+   */
+  public long getMillis() {
+    return millis;
+  }
+
+  /**
+   * Retourne l'instant lu sous forme de <code>Calendar</code> (fuseau horaire par défaut).
+   *
+   * @return le calendar
+   */
+  public Calendar toCalendar() {
+    return DateUtils.getBackend().toCalendar(millis);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return format + " : " + millis;
+  }
+
+}
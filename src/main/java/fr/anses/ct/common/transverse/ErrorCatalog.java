@@ -0,0 +1,265 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Catalogue des codes d'erreur : chaque code déclaré est associé à un {@link ErrorDescriptor}
+ * d'identifiant numérique (indice dans le catalogue), de sévérité, de statut HTTP et de clé de
+ * message.
+ * <p>
+ * Le catalogue est chargé depuis un fichier properties (cf. {@link #charger(String)}) dont chaque
+ * entrée a la forme <code>CODE=statut,SEVERITE[,cléMessage]</code>, la clé du message étant par
+ * défaut le code. Les identifiants sont attribués dans l'ordre alphabétique des codes. Les codes non
+ * déclarés reçoivent une description calculée une fois par code selon la règle historique de
+ * {@link RouteFailureHandler} (statut 403 si le code contient "403", 500 sinon), mise en cache
+ * (bornée à {@link #CODES_MAX} codes). Le catalogue est thread-safe.
+ * </p>
+ */
+public final class ErrorCatalog {
+
+  /**
+   * Nombre maximal de codes conservés par les caches indexés par code d'erreur (descriptions des
+   * codes non déclarés, messages, métriques, limitation des logs).
+   */
+  public static final int CODES_MAX = 256;
+
+  /** Catalogue vide : tous les codes suivent la règle historique. */
+  public static final ErrorCatalog VIDE = new ErrorCatalog(new TreeMap<String, String>());
+
+  /** Description des exceptions sans code. */
+  private static final ErrorDescriptor SANS_CODE = ErrorDescriptor.nonDeclare(null);
+
+  /** Séparateur des champs d'une entrée. */
+  private static final String SEPARATEUR = ",";
+
+  /** Statut HTTP minimal. */
+  private static final int STATUT_MIN = 100;
+
+  /** Statut HTTP maximal. */
+  private static final int STATUT_MAX = 599;
+
+  /** Descriptions des codes déclarés, par identifiant. */
+  private final ErrorDescriptor[] descripteurs;
+
+  /** Descriptions des codes déclarés, par code. */
+  private final Map<String, ErrorDescriptor> parCode;
+
+  /** Descriptions des codes non déclarés, par code. */
+  private final ConcurrentMap<String, ErrorDescriptor> nonDeclares = new ConcurrentHashMap<String, ErrorDescriptor>();
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param entrees
+   *          entrées <code>CODE=statut,SEVERITE[,cléMessage]</code> triées par code
+   * @throws IllegalArgumentException
+   *           si une entrée est invalide
+   */
+  private ErrorCatalog(final TreeMap<String, String> entrees) {
+    this.descripteurs = new ErrorDescriptor[entrees.size()];
+    final Map<String, ErrorDescriptor> map = new HashMap<String, ErrorDescriptor>();
+    int id = 0;
+    for (Map.Entry<String, String> entree : entrees.entrySet()) {
+      descripteurs[id] = lire(id, entree.getKey(), entree.getValue());
+      map.put(entree.getKey(), descripteurs[id]);
+      id++;
+    }
+    this.parCode = Collections.unmodifiableMap(map);
+  }
+
+  /**
+   * Charge le catalogue depuis la ressource properties <code>ressource</code> du classpath.
+   *
+   * @param ressource
+   *          nom de la ressource (ex : <code>erreurs.properties</code>)
+   * @return le catalogue
+   * @throws IllegalArgumentException
+   *           si la ressource est introuvable, illisible ou contient une entrée invalide
+   */
+  public static ErrorCatalog charger(final String ressource) {
+    notNull(ressource, "le paramètre '%s' est null", "ressource");
+    final InputStream flux = ErrorCatalog.class.getClassLoader().getResourceAsStream(ressource);
+    if (flux == null) {
+      throw new IllegalArgumentException("Catalogue d'erreurs introuvable : " + ressource);
+    }
+    final Properties proprietes = new Properties();
+    try {
+      try {
+        proprietes.load(flux);
+      } finally {
+        flux.close();
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Catalogue d'erreurs illisible : " + ressource, e);
+    }
+    return depuis(proprietes);
+  }
+
+  /**
+   * Construit le catalogue depuis les entrées <code>CODE=statut,SEVERITE[,cléMessage]</code>.
+   *
+   * @param proprietes
+   *          entrées du catalogue
+   * @return le catalogue
+   * @throws IllegalArgumentException
+   *           si une entrée est invalide
+   */
+  public static ErrorCatalog depuis(final Properties proprietes) {
+    notNull(proprietes, "le paramètre '%s' est null", "proprietes");
+    final TreeMap<String, String> entrees = new TreeMap<String, String>();
+    for (String code : proprietes.stringPropertyNames()) {
+      entrees.put(code.trim(), proprietes.getProperty(code));
+    }
+    return new ErrorCatalog(entrees);
+  }
+
+  /**
+   * Lit une entrée du catalogue.
+   *
+   * @param id
+   *          identifiant
+   * @param code
+   *          code
+   * @param valeur
+   *          <code>statut,SEVERITE[,cléMessage]</code>
+   * @return la description
+   * @throws IllegalArgumentException
+   *           si l'entrée est invalide
+   */
+  private static ErrorDescriptor lire(final int id, final String code, final String valeur) {
+    final String[] champs = valeur.split(SEPARATEUR);
+    if (code.isEmpty() || champs.length < 2 || champs.length > 3) {
+      throw entreeInvalide(code, valeur, null);
+    }
+    final int statut;
+    final ErrorDescriptor.Severite severite;
+    try {
+      statut = Integer.parseInt(champs[0].trim());
+      severite = ErrorDescriptor.Severite.valueOf(champs[1].trim());
+    } catch (IllegalArgumentException e) {
+      throw entreeInvalide(code, valeur, e);
+    }
+    if (statut < STATUT_MIN || statut > STATUT_MAX) {
+      throw entreeInvalide(code, valeur, null);
+    }
+    final String cle = champs.length == 3 && !champs[2].trim().isEmpty() ? champs[2].trim() : code;
+    return new ErrorDescriptor(id, code, severite, statut, cle);
+  }
+
+  /**
+   * Retourne l'exception d'une entrée invalide.
+   *
+   * @param code
+   *          code
+   * @param valeur
+   *          valeur
+   * @param cause
+   *          cause (nullable)
+   * @return l'exception
+   */
+  private static IllegalArgumentException entreeInvalide(final String code, final String valeur,
+    final Throwable cause) {
+    return new IllegalArgumentException("Entrée invalide du catalogue d'erreurs (statut,SEVERITE[,cléMessage]"
+      + " attendu) : " + code + '=' + valeur, cause);
+  }
+
+  /**
+   * Retourne la description du code <code>code</code>, déclaré ou non.
+   *
+   * @param code
+   *          code d'erreur (nullable)
+   * @return la description
+   */
+  public ErrorDescriptor get(final String code) {
+    if (code == null) {
+      return SANS_CODE;
+    }
+    ErrorDescriptor descripteur = parCode.get(code);
+    if (descripteur == null) {
+      descripteur = nonDeclares.get(code);
+      if (descripteur == null) {
+        descripteur = ErrorDescriptor.nonDeclare(code);
+        if (nonDeclares.size() < CODES_MAX) {
+          final ErrorDescriptor existant = nonDeclares.putIfAbsent(code, descripteur);
+          if (existant != null) {
+            descripteur = existant;
+          }
+        }
+      }
+    }
+    return descripteur;
+  }
+
+  /**
+   * Retourne la description du code déclaré d'identifiant <code>id</code>.
+   *
+   * @param id
+   *          identifiant (0 à {@link #getTaille()} - 1)
+   * @return la description
+   * @throws ArrayIndexOutOfBoundsException
+   *           si l'identifiant n'est pas celui d'un code déclaré
+   */
+  public ErrorDescriptor get(final int id) {
+    return descripteurs[id];
+  }
+
+  /**
+   * Indique si le code <code>code</code> est déclaré.
+   *
+   * @param code
+   *          code d'erreur
+   * @return true si le code est déclaré
+   */
+  public boolean estDeclare(final String code) {
+    return parCode.containsKey(code);
+  }
+
+  /**
+   * Retourne le nombre de codes déclarés.
+   *
+   * @return le nombre de codes
+   */
+  public int getTaille() {
+    return descripteurs.length;
+  }
+
+  /**
+   * Retourne les codes déclarés, triés.
+   *
+   * @return les codes
+   */
+  public SortedSet<String> getCodes() {
+    return Collections.unmodifiableSortedSet(new TreeSet<String>(parCode.keySet()));
+  }
+
+  /**
+   * Retourne, parmi les codes <code>codes</code>, ceux qui ne sont pas déclarés.
+   *
+   * @param codes
+   *          codes à vérifier
+   * @return les codes non déclarés, triés
+   */
+  public SortedSet<String> getCodesNonDeclares(final Collection<String> codes) {
+    final SortedSet<String> inconnus = new TreeSet<String>();
+    for (String code : codes) {
+      if (!parCode.containsKey(code)) {
+        inconnus.add(code);
+      }
+    }
+    return inconnus;
+  }
+
+}
@@ -0,0 +1,53 @@
+package fr.anses.ct.common.transverse;
+
+import java.util.Map;
+
+/**
+ * Métriques d'un code d'erreur {@link RfaException}, publiées en JMX par {@link ErrorMetrics}
+ * (<code>fr.anses.ct.common:type=Erreurs,code=&lt;code&gt;</code>).
+ */
+public interface ErrorCodeMetricsMXBean {
+
+  /**
+   * Retourne le code d'erreur.
+   *
+   * @return le code
+   */
+  String getCode();
+
+  /**
+   * Retourne le nombre d'exceptions créées pour ce code.
+   *
+   * @return le nombre d'exceptions
+   */
+  long getTotal();
+
+  /**
+   * Retourne le nombre moyen d'exceptions par seconde sur les 10 dernières secondes.
+   *
+   * @return le taux par seconde
+   */
+  double getTaux10s();
+
+  /**
+   * Retourne le nombre moyen d'exceptions par seconde sur la dernière minute.
+   *
+   * @return le taux par seconde
+   */
+  double getTaux60s();
+
+  /**
+   * Retourne le nombre de réponses d'erreur par statut HTTP.
+   *
+   * @return les réponses par statut
+   */
+  Map<String, Long> getStatuts();
+
+  /**
+   * Retourne le nombre de réponses d'erreur par route Camel.
+   *
+   * @return les réponses par identifiant de route
+   */
+  Map<String, Long> getRoutes();
+
+}
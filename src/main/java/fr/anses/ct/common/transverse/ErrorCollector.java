@@ -0,0 +1,238 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.Arrays;
+
+/**
+ * Collecteur d'erreurs pour la validation en masse, créé par
+ * {@link ExceptionFactory#creerCollecteur()}.
+ * <p>
+ * Chaque erreur est enregistrée sous la forme (enregistrement, code, arguments) dans des tableaux
+ * réutilisés, sans création d'exception ni résolution de message. {@link #lever()} lève ensuite
+ * une seule {@link RfaMultipleException} qui porte toutes les erreurs, dont les messages ne sont
+ * résolus qu'à la lecture. Au-delà de {@link #getMaxErreurs()} erreurs, les suivantes sont
+ * seulement comptées. Le collecteur peut être vidé par {@link #vider()} et réutilisé. Il n'est pas
+ * thread-safe.
+ * </p>
+ */
+public final class ErrorCollector {
+
+  /** Nombre maximal par défaut d'erreurs conservées. */
+  public static final int MAX_ERREURS_DEFAUT = 1000;
+
+  /** Capacité initiale des tableaux. */
+  private static final int CAPACITE_INITIALE = 16;
+
+  /** Factory de création de l'exception et de résolution des messages. */
+  private final ExceptionFactory factory;
+
+  /** Nombre maximal d'erreurs conservées. */
+  private final int maxErreurs;
+
+  /** Positions des enregistrements en erreur. */
+  private int[] enregistrements = new int[CAPACITE_INITIALE];
+
+  /** Codes des erreurs. */
+  private String[] codes = new String[CAPACITE_INITIALE];
+
+  /** Arguments des messages. */
+  private String[][] arguments = new String[CAPACITE_INITIALE][];
+
+  /** Nombre d'erreurs conservées. */
+  private int taille;
+
+  /** Nombre d'erreurs enregistrées. */
+  private int nbErreurs;
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param factory
+   *          factory de création de l'exception et de résolution des messages
+   * @param maxErreurs
+   *          nombre maximal d'erreurs conservées (strictement positif)
+   */
+  ErrorCollector(final ExceptionFactory factory, final int maxErreurs) {
+    notNull(factory, "le paramètre '%s' est null", "factory");
+    isTrue(maxErreurs > 0, "nombre maximal d'erreurs invalide : %d", maxErreurs);
+    this.factory = factory;
+    this.maxErreurs = maxErreurs;
+  }
+
+  /**
+   * Enregistre une erreur sans argument.
+   *
+   * @param code
+   *          code de l'erreur
+   */
+  public void ajouter(final String code) {
+    ajouter(ErrorDetail.SANS_ENREGISTREMENT, code, null);
+  }
+
+  /**
+   * Enregistre une erreur avec un argument.
+   *
+   * @param code
+   *          code de l'erreur
+   * @param arg
+   *          argument du message
+   */
+  public void ajouter(final String code, final String arg) {
+    ajouter(ErrorDetail.SANS_ENREGISTREMENT, code, new String[] {arg });
+  }
+
+  /**
+   * Enregistre une erreur.
+   *
+   * @param code
+   *          code de l'erreur
+   * @param args
+   *          arguments du message (nullable, non copiés : ne pas les modifier ensuite)
+   */
+  public void ajouter(final String code, final String[] args) {
+    ajouter(ErrorDetail.SANS_ENREGISTREMENT, code, args);
+  }
+
+  /**
+   * Enregistre une erreur de l'enregistrement <code>enregistrement</code>.
+   *
+   * @param enregistrement
+   *          position de l'enregistrement en erreur (ligne du fichier...)
+   * @param code
+   *          code de l'erreur
+   * @param args
+   *          arguments du message (nullable, non copiés : ne pas les modifier ensuite)
+   */
+  public void ajouter(final int enregistrement, final String code, final String[] args) {
+    nbErreurs++;
+    if (taille == maxErreurs) {
+      return;
+    }
+    if (taille == codes.length) {
+      final int capacite = (int) Math.min((long) taille * 2, maxErreurs);
+      enregistrements = Arrays.copyOf(enregistrements, capacite);
+      codes = Arrays.copyOf(codes, capacite);
+      arguments = Arrays.copyOf(arguments, capacite);
+    }
+    enregistrements[taille] = enregistrement;
+    codes[taille] = code;
+    arguments[taille] = args;
+    taille++;
+  }
+
+  /**
+   * Indique si aucune erreur n'est enregistrée.
+   *
+   * @return true si aucune erreur n'est enregistrée
+   */
+  public boolean estVide() {
+    return nbErreurs == 0;
+  }
+
+  /**
+   * Retourne le nombre d'erreurs enregistrées, y compris celles qui ne sont pas conservées.
+   *
+   * @return le nombre d'erreurs
+   */
+  public int getNbErreurs() {
+    return nbErreurs;
+  }
+
+  /**
+   * Retourne le nombre d'erreurs conservées.
+   *
+   * @return le nombre d'erreurs conservées
+   */
+  public int getTaille() {
+    return taille;
+  }
+
+  /**
+   * Retourne le nombre maximal d'erreurs conservées.
+   *
+   * @return le nombre maximal d'erreurs
+   */
+  public int getMaxErreurs() {
+    return maxErreurs;
+  }
+
+  /**
+   * Retourne le code de l'erreur conservée d'indice <code>indice</code>.
+   *
+   * @param indice
+   *          indice de l'erreur (0 à {@link #getTaille()} - 1)
+   * @return le code
+   */
+  public String getCode(final int indice) {
+    verifierIndice(indice);
+    return codes[indice];
+  }
+
+  /**
+   * Retourne le message de l'erreur conservée d'indice <code>indice</code>, résolu à chaque appel.
+   *
+   * @param indice
+   *          indice de l'erreur (0 à {@link #getTaille()} - 1)
+   * @return le message
+   */
+  public String getMessage(final int indice) {
+    verifierIndice(indice);
+    return factory.getMessage(codes[indice], arguments[indice]);
+  }
+
+  /**
+   * Vérifie l'indice d'une erreur conservée.
+   *
+   * @param indice
+   *          indice
+   */
+  private void verifierIndice(final int indice) {
+    if (indice < 0 || indice >= taille) {
+      throw new IndexOutOfBoundsException("indice " + indice + ", taille " + taille);
+    }
+  }
+
+  /**
+   * Retourne l'exception qui regroupe les erreurs enregistrées, sans vider le collecteur.
+   *
+   * @return l'exception, null si aucune erreur n'est enregistrée
+   */
+  public RfaMultipleException creerException() {
+    if (estVide()) {
+      return null;
+    }
+    final ErrorDetail[] erreurs = new ErrorDetail[taille];
+    for (int i = 0; i < taille; i++) {
+      erreurs[i] = new ErrorDetail(factory, enregistrements[i], codes[i], arguments[i]);
+    }
+    return factory.creerRfaMultipleException(Arrays.asList(erreurs), nbErreurs);
+  }
+
+  /**
+   * Lève l'exception qui regroupe les erreurs enregistrées, puis vide le collecteur. Ne fait rien
+   * si aucune erreur n'est enregistrée.
+   *
+   * @throws RfaMultipleException
+   *           si au moins une erreur est enregistrée
+   */
+  public void lever() throws RfaMultipleException {
+    final RfaMultipleException exception = creerException();
+    if (exception != null) {
+      vider();
+      factory.lever(exception);
+    }
+  }
+
+  /**
+   * Vide le collecteur, qui conserve ses tableaux pour être réutilisé.
+   */
+  public void vider() {
+    Arrays.fill(codes, 0, taille, null);
+    Arrays.fill(arguments, 0, taille, null);
+    taille = 0;
+    nbErreurs = 0;
+  }
+
+}
@@ -0,0 +1,159 @@
+package fr.anses.ct.common.transverse;
+
+/**
+ * Description d'un code d'erreur du {@link ErrorCatalog} : identifiant numérique, sévérité,
+ * statut HTTP et clé du message. Cette classe est immuable.
+ */
+public final class ErrorDescriptor {
+
+  /** Statut HTTP des erreurs d'autorisation. */
+  public static final int STATUT_INTERDIT = 403;
+
+  /** Statut HTTP par défaut. */
+  public static final int STATUT_ERREUR = 500;
+
+  /** Identifiant des codes non déclarés dans le catalogue. */
+  public static final int ID_NON_DECLARE = -1;
+
+  /**
+   * Sévérité d'une erreur.
+   */
+  public enum Severite {
+    /** Information. */
+    INFO,
+    /** Avertissement. */
+    AVERTISSEMENT,
+    /** Erreur. */
+    ERREUR,
+    /** Erreur fatale. */
+    FATALE
+  }
+
+  /** Identifiant (indice dans le catalogue), {@link #ID_NON_DECLARE} si le code n'est pas déclaré. */
+  private final int id;
+
+  /** Code d'erreur. */
+  private final String code;
+
+  /** Sévérité. */
+  private final Severite severite;
+
+  /** Statut HTTP. */
+  private final int statut;
+
+  /** Statut HTTP en texte (en-tête de réponse). */
+  private final String statutTexte;
+
+  /** Clé du message dans la <code>MessageSource</code>. */
+  private final String cleMessage;
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param id
+   *          identifiant
+   * @param code
+   *          code d'erreur
+   * @param severite
+   *          sévérité
+   * @param statut
+   *          statut HTTP
+   * @param cleMessage
+   *          clé du message
+   */
+  ErrorDescriptor(final int id, final String code, final Severite severite, final int statut,
+    final String cleMessage) {
+    this.id = id;
+    this.code = code;
+    this.severite = severite;
+    this.statut = statut;
+    this.statutTexte = String.valueOf(statut);
+    this.cleMessage = cleMessage;
+  }
+
+  /**
+   * Retourne la description d'un code non déclaré, selon la règle historique de
+   * {@link RouteFailureHandler} : statut 403 si le code contient "403", 500 sinon.
+   *
+   * @param code
+   *          code d'erreur (nullable)
+   * @return la description
+   */
+  static ErrorDescriptor nonDeclare(final String code) {
+    final int statut = code != null && code.contains(String.valueOf(STATUT_INTERDIT)) ? STATUT_INTERDIT
+      : STATUT_ERREUR;
+    return new ErrorDescriptor(ID_NON_DECLARE, code, Severite.ERREUR, statut, code);
+  }
+
+  /**
+   * Retourne l'identifiant.
+   *
+   * @return l'identifiant, {@link #ID_NON_DECLARE} si le code n'est pas déclaré
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Indique si le code est déclaré dans le catalogue.
+   *
+   * @return true si le code est déclaré
+   */
+  public boolean estDeclare() {
+    return id != ID_NON_DECLARE;
+  }
+
+  /**
+   * Retourne le code d'erreur.
+   *
+   * @return le code
+   */
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * Retourne la sévérité.
+   *
+   * @return la sévérité
+   */
+  public Severite getSeverite() {
+    return severite;
+  }
+
+  /**
+   * Retourne le statut HTTP.
+   *
+   * @return le statut
+   */
+  public int getStatut() {
+    return statut;
+  }
+
+  /**
+   * Retourne le statut HTTP en texte.
+   *
+   * @return le statut en texte
+   */
+  public String getStatutTexte() {
+    return statutTexte;
+  }
+
+  /**
+   * Retourne la clé du message.
+   *
+   * @return la clé
+   */
+  public String getCleMessage() {
+    return cleMessage;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return code + " (" + id + ", " + severite + ", " + statut + ", " + cleMessage + ')';
+  }
+
+}
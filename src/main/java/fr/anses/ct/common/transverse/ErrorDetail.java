@@ -0,0 +1,127 @@
+package fr.anses.ct.common.transverse;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Erreur élémentaire d'une {@link RfaMultipleException} : code, position de l'enregistrement en
+ * erreur et message. Le message n'est résolu qu'au premier appel de {@link #getMessage()} (ou à
+ * la sérialisation Java) ; les sérialiseurs qui lisent directement les champs (json-io) doivent
+ * d'abord passer par l'accesseur, comme {@link ErrorJsonWriter}.
+ */
+public final class ErrorDetail implements Serializable {
+
+  /** Position des erreurs qui ne concernent pas un enregistrement. */
+  public static final int SANS_ENREGISTREMENT = -1;
+
+  /** UUID pour la sérialisation. */
+  private static final long serialVersionUID = -3416813079152377520L;
+
+  /** Position de l'enregistrement en erreur, {@link #SANS_ENREGISTREMENT} si aucun. */
+  private final int enregistrement;
+
+  /** Code de l'erreur. */
+  private final String code;
+
+  /** Message (null tant qu'il n'est pas résolu). */
+  private volatile String message;
+
+  /** Arguments du message à résoudre. */
+  private transient String[] arguments;
+
+  /** Factory qui résoudra le message (null si le message est résolu). */
+  private transient volatile ExceptionFactory resolveur;
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param enregistrement
+   *          position de l'enregistrement en erreur, {@link #SANS_ENREGISTREMENT} si aucun
+   * @param code
+   *          code de l'erreur
+   * @param message
+   *          message
+   */
+  public ErrorDetail(final int enregistrement, final String code, final String message) {
+    this.enregistrement = enregistrement;
+    this.code = code;
+    this.message = message;
+  }
+
+  /**
+   * Constructeur de la classe : le message sera résolu par <code>factory</code>.
+   *
+   * @param factory
+   *          factory de résolution du message
+   * @param enregistrement
+   *          position de l'enregistrement en erreur
+   * @param code
+   *          code de l'erreur
+   * @param arguments
+   *          arguments du message (nullable, non copiés)
+   */
+  ErrorDetail(final ExceptionFactory factory, final int enregistrement, final String code, final String[] arguments) {
+    this.enregistrement = enregistrement;
+    this.code = code;
+    this.arguments = arguments;
+    this.resolveur = factory;
+  }
+
+  /**
+   * Retourne la position de l'enregistrement en erreur.
+   *
+   * @return la position, {@link #SANS_ENREGISTREMENT} si l'erreur ne concerne pas un
+   *         enregistrement
+   */
+  public int getEnregistrement() {
+    return enregistrement;
+  }
+
+  /**
+   * Retourne le code de l'erreur.
+   *
+   * @return le code
+   */
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * Retourne le message de l'erreur, résolu au premier appel.
+   *
+   * @return le message
+   */
+  public String getMessage() {
+    final ExceptionFactory factory = resolveur;
+    if (factory != null) {
+      // résolution idempotente : une course entre threads produit le même message
+      message = factory.getMessage(code, arguments);
+      resolveur = null;
+    }
+    return message;
+  }
+
+  /**
+   * Sérialisation : le message est résolu avant l'écriture.
+   *
+   * @param out
+   *          flux de sortie
+   * @throws IOException
+   *           erreur d'écriture
+   */
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    getMessage();
+    out.defaultWriteObject();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return (enregistrement == SANS_ENREGISTREMENT ? "" : "#" + enregistrement + ' ') + '[' + code + "] "
+      + getMessage();
+  }
+
+}
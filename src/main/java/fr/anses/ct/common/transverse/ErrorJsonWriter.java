@@ -0,0 +1,362 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Écriture JSON du corps des réponses d'erreur de {@link RouteFailureHandler}, sans réflexion ni
+ * métadonnées de type :
+ * <code>{"uuid":[...],"message":"...","code":"...","severite":"..."}</code>, complété pour une
+ * {@link RfaMultipleException} par <code>"nbErreurs"</code> et <code>"erreurs"</code> (tableau de
+ * <code>{"enregistrement":n,"code":"...","message":"..."}</code>, sans
+ * <code>enregistrement</code> si l'erreur ne concerne pas un enregistrement).
+ * <p>
+ * Les valeurs sont lues par les accesseurs (le message et l'UUID différés sont donc matérialisés)
+ * et écrites au fil de l'eau dans un <code>Appendable</code> ou un flux UTF-8 ;
+ * {@link #ecrire(RfaException)} utilise un tampon réutilisé par thread. Les chaînes sont échappées
+ * selon la RFC 8259 (guillemet, barre oblique inverse, caractères de contrôle), ainsi que U+2028 et
+ * U+2029. {@link #COMPACT} n'écrit aucun blanc ; {@link #INDENTE}, destiné au débogage, indente de
+ * deux espaces. Les instances sont immuables et thread-safe.
+ * </p>
+ */
+public final class ErrorJsonWriter {
+
+  /** Écriture compacte. */
+  public static final ErrorJsonWriter COMPACT = new ErrorJsonWriter(false);
+
+  /** Écriture indentée (débogage). */
+  public static final ErrorJsonWriter INDENTE = new ErrorJsonWriter(true);
+
+  /** Encodage des flux. */
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /** Chiffres hexadécimaux des séquences <code>\\u</code>. */
+  private static final char[] HEXA = "0123456789abcdef".toCharArray();
+
+  /** Premier caractère non échappé. */
+  private static final char PREMIER_IMPRIMABLE = 0x20;
+
+  /** Capacité initiale du tampon par thread. */
+  private static final int CAPACITE_TAMPON = 512;
+
+  /** Capacité au-delà de laquelle le tampon par thread n'est pas conservé. */
+  private static final int CAPACITE_TAMPON_MAX = 16384;
+
+  /** Indentation d'un niveau. */
+  private static final String INDENTATION = "  ";
+
+  /** true pour indenter. */
+  private final boolean indentation;
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param indentation
+   *          true pour indenter
+   */
+  private ErrorJsonWriter(final boolean indentation) {
+    this.indentation = indentation;
+  }
+
+  /**
+   * Retourne le JSON de l'exception <code>exception</code>.
+   *
+   * @param exception
+   *          exception
+   * @return le JSON
+   */
+  public String ecrire(final RfaException exception) {
+    notNull(exception, "le paramètre '%s' est null", "exception");
+    final StringBuilder tampon = Tampon.INSTANCE.get();
+    tampon.setLength(0);
+    try {
+      ecrireException(exception, tampon);
+    } catch (IOException e) {
+      // impossible : un StringBuilder ne lève pas d'IOException
+      throw new IllegalStateException(e);
+    }
+    final String json = tampon.toString();
+    if (tampon.capacity() > CAPACITE_TAMPON_MAX) {
+      Tampon.INSTANCE.remove();
+    }
+    return json;
+  }
+
+  /**
+   * Écrit le JSON de l'exception <code>exception</code> dans <code>sortie</code>.
+   *
+   * @param exception
+   *          exception
+   * @param sortie
+   *          destination (<code>StringBuilder</code>, <code>Writer</code>...)
+   * @throws IOException
+   *           erreur d'écriture
+   */
+  public void ecrire(final RfaException exception, final Appendable sortie) throws IOException {
+    notNull(exception, "le paramètre '%s' est null", "exception");
+    notNull(sortie, "le paramètre '%s' est null", "sortie");
+    ecrireException(exception, sortie);
+  }
+
+  /**
+   * Écrit le JSON de l'exception <code>exception</code> en UTF-8 dans <code>sortie</code>, qui
+   * n'est pas fermé.
+   *
+   * @param exception
+   *          exception
+   * @param sortie
+   *          flux de sortie
+   * @throws IOException
+   *           erreur d'écriture
+   */
+  public void ecrire(final RfaException exception, final OutputStream sortie) throws IOException {
+    notNull(exception, "le paramètre '%s' est null", "exception");
+    notNull(sortie, "le paramètre '%s' est null", "sortie");
+    final Writer writer = new OutputStreamWriter(sortie, UTF_8);
+    ecrireException(exception, writer);
+    writer.flush();
+  }
+
+  /**
+   * Écrit l'objet JSON d'une exception.
+   *
+   * @param exception
+   *          exception
+   * @param sortie
+   *          destination
+   * @throws IOException
+   *           erreur d'écriture
+   */
+  private void ecrireException(final RfaException exception, final Appendable sortie) throws IOException {
+    sortie.append('{');
+    champ(sortie, 1, true, "uuid");
+    ecrireOctets(sortie, exception.getUuid());
+    champ(sortie, 1, false, "message");
+    ecrireChaine(sortie, exception.getMessage());
+    champ(sortie, 1, false, "code");
+    ecrireChaine(sortie, exception.getCode());
+    champ(sortie, 1, false, "severite");
+    ecrireChaine(sortie, exception.getSeverite());
+    if (exception instanceof RfaMultipleException) {
+      final RfaMultipleException multiple = (RfaMultipleException) exception;
+      champ(sortie, 1, false, "nbErreurs");
+      ecrireEntier(sortie, multiple.getNbErreurs());
+      champ(sortie, 1, false, "erreurs");
+      ecrireErreurs(sortie, multiple.getErreurs());
+    }
+    retour(sortie, 0);
+    sortie.append('}');
+  }
+
+  /**
+   * Écrit le tableau JSON des erreurs d'une exception multiple.
+   *
+   * @param sortie
+   *          destination
+   * @param erreurs
+   *          erreurs
+   * @throws IOException
+   *           erreur d'écriture
+   */
+  private void ecrireErreurs(final Appendable sortie, final List<ErrorDetail> erreurs) throws IOException {
+    sortie.append('[');
+    final int taille = erreurs.size();
+    for (int i = 0; i < taille; i++) {
+      final ErrorDetail erreur = erreurs.get(i);
+      if (i > 0) {
+        sortie.append(',');
+      }
+      retour(sortie, 2);
+      sortie.append('{');
+      final boolean enregistrement = erreur.getEnregistrement() != ErrorDetail.SANS_ENREGISTREMENT;
+      if (enregistrement) {
+        champ(sortie, 3, true, "enregistrement");
+        ecrireEntier(sortie, erreur.getEnregistrement());
+      }
+      champ(sortie, 3, !enregistrement, "code");
+      ecrireChaine(sortie, erreur.getCode());
+      champ(sortie, 3, false, "message");
+      ecrireChaine(sortie, erreur.getMessage());
+      retour(sortie, 2);
+      sortie.append('}');
+    }
+    if (taille > 0) {
+      retour(sortie, 1);
+    }
+    sortie.append(']');
+  }
+
+  /**
+   * Écrit le début d'un champ : séparateur, indentation et nom.
+   *
+   * @param sortie
+   *          destination
+   * @param niveau
+   *          niveau d'indentation du champ
+   * @param premier
+   *          true pour le premier champ de l'objet
+   * @param nom
+   *          nom du champ (sans caractère à échapper)
+   * @throws IOException
+   *           erreur d'écriture
+   */
+  private void champ(final Appendable sortie, final int niveau, final boolean premier, final String nom)
+    throws IOException {
+    if (!premier) {
+      sortie.append(',');
+    }
+    retour(sortie, niveau);
+    sortie.append('"').append(nom).append('"').append(':');
+    if (indentation) {
+      sortie.append(' ');
+    }
+  }
+
+  /**
+   * Écrit un retour à la ligne suivi de l'indentation, en mode indenté.
+   *
+   * @param sortie
+   *          destination
+   * @param niveau
+   *          niveau d'indentation
+   * @throws IOException
+   *           erreur d'écriture
+   */
+  private void retour(final Appendable sortie, final int niveau) throws IOException {
+    if (indentation) {
+      sortie.append('\n');
+      for (int i = 0; i < niveau; i++) {
+        sortie.append(INDENTATION);
+      }
+    }
+  }
+
+  /**
+   * Écrit un tableau d'octets sous forme de tableau JSON d'entiers signés (forme historique de
+   * l'UUID).
+   *
+   * @param sortie
+   *          destination
+   * @param octets
+   *          octets (nullable)
+   * @throws IOException
+   *           erreur d'écriture
+   */
+  private static void ecrireOctets(final Appendable sortie, final byte[] octets) throws IOException {
+    if (octets == null) {
+      sortie.append("null");
+      return;
+    }
+    sortie.append('[');
+    for (int i = 0; i < octets.length; i++) {
+      if (i > 0) {
+        sortie.append(',');
+      }
+      ecrireEntier(sortie, octets[i]);
+    }
+    sortie.append(']');
+  }
+
+  /**
+   * Écrit un entier.
+   *
+   * @param sortie
+   *          destination
+   * @param valeur
+   *          entier
+   * @throws IOException
+   *           erreur d'écriture
+   */
+  private static void ecrireEntier(final Appendable sortie, final int valeur) throws IOException {
+    if (sortie instanceof StringBuilder) {
+      ((StringBuilder) sortie).append(valeur);
+    } else {
+      sortie.append(Integer.toString(valeur));
+    }
+  }
+
+  /**
+   * Écrit une chaîne JSON échappée. Les portions sans caractère à échapper sont copiées d'un bloc.
+   *
+   * @param sortie
+   *          destination
+   * @param valeur
+   *          chaîne (nullable)
+   * @throws IOException
+   *           erreur d'écriture
+   */
+  private static void ecrireChaine(final Appendable sortie, final String valeur) throws IOException {
+    if (valeur == null) {
+      sortie.append("null");
+      return;
+    }
+    sortie.append('"');
+    int debut = 0;
+    final int longueur = valeur.length();
+    for (int i = 0; i < longueur; i++) {
+      final char c = valeur.charAt(i);
+      if (c >= PREMIER_IMPRIMABLE && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+        continue;
+      }
+      sortie.append(valeur, debut, i);
+      switch (c) {
+        case '"':
+          sortie.append("\\\"");
+          break;
+        case '\\':
+          sortie.append("\\\\");
+          break;
+        case '\n':
+          sortie.append("\\n");
+          break;
+        case '\r':
+          sortie.append("\\r");
+          break;
+        case '\t':
+          sortie.append("\\t");
+          break;
+        case '\b':
+          sortie.append("\\b");
+          break;
+        case '\f':
+          sortie.append("\\f");
+          break;
+        default:
+          sortie.append("\\u").append(HEXA[c >> 12 & 0xF]).append(HEXA[c >> 8 & 0xF]).append(HEXA[c >> 4 & 0xF])
+            .append(HEXA[c & 0xF]);
+          break;
+      }
+      debut = i + 1;
+    }
+    sortie.append(valeur, debut, longueur);
+    sortie.append('"');
+  }
+
+  /**
+   * Tampon d'écriture par thread.
+   */
+  private static final class Tampon {
+
+    /** Tampon du thread courant. */
+    static final ThreadLocal<StringBuilder> INSTANCE = new ThreadLocal<StringBuilder>() {
+      @Override
+      protected StringBuilder initialValue() {
+        return new StringBuilder(CAPACITE_TAMPON);
+      }
+    };
+
+    /**
+     * Constructeur de la classe.
+     */
+    private Tampon() {
+      // Constructeur vide
+    }
+  }
+
+}
@@ -0,0 +1,318 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.joda.time.DateTimeZone;
+import org.slf4j.Logger;
+
+/**
+ * Limiteur des traces d'erreur par code.
+ * <p>
+ * Le temps est découpé en fenêtres de <code>fenetre</code> millisecondes : pour chaque code, les
+ * <code>limite</code> premières occurrences d'une fenêtre sont tracées en entier, une ligne signale
+ * l'atteinte de la limite, puis les occurrences suivantes sont seulement comptées. Une fois la
+ * fenêtre close, une ligne de synthèse donne le nombre d'occurrences non tracées et la période
+ * concernée : elle est écrite par le premier appel de {@link #tracer(Logger, String, Object)},
+ * quel que soit son code, ou par {@link #purger()} (à appeler périodiquement si les erreurs
+ * peuvent cesser durablement), dans le logger de la dernière occurrence non tracée.
+ * </p>
+ * <p>
+ * L'état d'un code (numéro de fenêtre et nombre d'occurrences) tient dans un seul
+ * <code>AtomicLong</code>, mis à jour sans verrou ; les états ne sont parcourus qu'une fois par
+ * fenêtre. Le nombre d'occurrences est saturé à
+ * {@link #OCCURRENCES_MAX} par fenêtre. Au-delà de {@link ErrorCatalog#CODES_MAX}
+ * codes, les codes suivants partagent un même compteur. Rien n'est compté ni construit si le niveau
+ * ERROR du logger est inactif.
+ * </p>
+ */
+public final class ErrorLogThrottle {
+
+  /** Nombre par défaut d'occurrences tracées par code et par fenêtre. */
+  public static final int LIMITE_DEFAUT = 100;
+
+  /** Durée par défaut d'une fenêtre, en millisecondes. */
+  public static final long FENETRE_DEFAUT = 10000;
+
+  /** Nombre de bits du nombre d'occurrences dans l'état d'un code. */
+  private static final int BITS_OCCURRENCES = 20;
+
+  /** Nombre maximal d'occurrences comptées par fenêtre. */
+  public static final int OCCURRENCES_MAX = (1 << BITS_OCCURRENCES) - 1;
+
+  /** Code du compteur partagé des codes en surnombre. */
+  private static final String AUTRES_CODES = "*";
+
+  /** Nombre d'occurrences tracées par code et par fenêtre. */
+  private final int limite;
+
+  /** Durée d'une fenêtre, en millisecondes. */
+  private final long fenetre;
+
+  /** Horloge. */
+  private final DateClock horloge;
+
+  /** État par code. */
+  private final ConcurrentMap<String, Etat> etats = new ConcurrentHashMap<String, Etat>();
+
+  /** État partagé des codes en surnombre. */
+  private final Etat autres = new Etat(AUTRES_CODES);
+
+  /** Numéro de la dernière fenêtre pour laquelle les synthèses ont été écrites. */
+  private final AtomicLong fenetrePurgee = new AtomicLong(Long.MIN_VALUE);
+
+  /** Nombre total d'occurrences non tracées. */
+  private final AtomicLong supprimees = new AtomicLong();
+
+  /**
+   * Constructeur de la classe : {@link #LIMITE_DEFAUT} occurrences par fenêtre de
+   * {@link #FENETRE_DEFAUT} ms, horloge système.
+   */
+  public ErrorLogThrottle() {
+    this(LIMITE_DEFAUT, FENETRE_DEFAUT, SystemDateClock.INSTANCE);
+  }
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param limite
+   *          nombre d'occurrences tracées par code et par fenêtre (strictement positif)
+   * @param fenetre
+   *          durée d'une fenêtre en millisecondes (strictement positive)
+   * @param horloge
+   *          horloge
+   */
+  public ErrorLogThrottle(final int limite, final long fenetre, final DateClock horloge) {
+    isTrue(limite > 0 && limite < OCCURRENCES_MAX, "limite invalide : %d", limite);
+    isTrue(fenetre > 0, "fenêtre invalide : %d", fenetre);
+    notNull(horloge, "le paramètre '%s' est null", "horloge");
+    this.limite = limite;
+    this.fenetre = fenetre;
+    this.horloge = horloge;
+  }
+
+  /**
+   * Trace en niveau ERROR <code>[code] message</code>, dans la limite de {@link #getLimite()}
+   * occurrences du code par fenêtre. Le message n'est converti en chaîne que s'il est tracé.
+   *
+   * @param logger
+   *          logger
+   * @param code
+   *          code de l'erreur
+   * @param message
+   *          message (converti par <code>toString()</code>)
+   * @return true si le message a été tracé
+   */
+  public boolean tracer(final Logger logger, final String code, final Object message) {
+    if (!logger.isErrorEnabled()) {
+      return false;
+    }
+    final long numero = CivilDates.floorDiv(horloge.getMillis(), fenetre);
+    if (numero > fenetrePurgee.get()) {
+      purger(numero);
+    }
+    final Etat etat = etat(code);
+    while (true) {
+      final long courant = etat.get();
+      final long numeroCourant = courant >>> BITS_OCCURRENCES;
+      final long occurrences = courant & OCCURRENCES_MAX;
+      if (numeroCourant >= numero) {
+        if (occurrences == OCCURRENCES_MAX || etat.compareAndSet(courant, courant + 1)) {
+          return tracer(logger, etat, code, message, occurrences + 1);
+        }
+      } else if (etat.compareAndSet(courant, (numero << BITS_OCCURRENCES) | 1)) {
+        if (occurrences > limite) {
+          synthese(logger, etat.code, numeroCourant, occurrences - limite);
+        }
+        return tracer(logger, etat, code, message, 1);
+      }
+    }
+  }
+
+  /**
+   * Écrit les synthèses en attente des fenêtres closes (à appeler périodiquement pour que les
+   * occurrences non tracées de la fin d'une rafale soient signalées même si l'erreur ne se
+   * reproduit plus).
+   */
+  public void purger() {
+    purger(CivilDates.floorDiv(horloge.getMillis(), fenetre));
+  }
+
+  /**
+   * Écrit les synthèses en attente des fenêtres antérieures à la fenêtre <code>numero</code>, une
+   * seule fois par fenêtre.
+   *
+   * @param numero
+   *          numéro de la fenêtre courante
+   */
+  private void purger(final long numero) {
+    final long precedent = fenetrePurgee.get();
+    if (numero <= precedent || !fenetrePurgee.compareAndSet(precedent, numero)) {
+      return;
+    }
+    for (Etat etat : etats.values()) {
+      purger(etat, numero);
+    }
+    purger(autres, numero);
+  }
+
+  /**
+   * Écrit la synthèse en attente d'un code si sa fenêtre est close, et remet son nombre
+   * d'occurrences à zéro.
+   *
+   * @param etat
+   *          état du code
+   * @param numero
+   *          numéro de la fenêtre courante
+   */
+  private void purger(final Etat etat, final long numero) {
+    while (true) {
+      final long courant = etat.get();
+      final long numeroCourant = courant >>> BITS_OCCURRENCES;
+      final long occurrences = courant & OCCURRENCES_MAX;
+      if (numeroCourant >= numero || occurrences <= limite) {
+        return;
+      }
+      if (etat.compareAndSet(courant, numeroCourant << BITS_OCCURRENCES)) {
+        final Logger logger = etat.logger;
+        if (logger != null) {
+          synthese(logger, etat.code, numeroCourant, occurrences - limite);
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Trace la synthèse d'une fenêtre close.
+   *
+   * @param logger
+   *          logger
+   * @param code
+   *          code de l'erreur
+   * @param numero
+   *          numéro de la fenêtre
+   * @param nombre
+   *          nombre d'occurrences non tracées
+   */
+  private void synthese(final Logger logger, final String code, final long numero, final long nombre) {
+    final long debut = numero * fenetre;
+    final DateTimeZone zone = DateUtils.getBackend().getZone();
+    logger.error("[{}] {} occurrence(s) non tracée(s) entre {} et {} (limite de {} par {} ms)", code, nombre,
+      FixedDateLayout.TIMESTAMP.formater(debut, zone), FixedDateLayout.TIMESTAMP.formater(debut + fenetre, zone),
+      limite, fenetre);
+  }
+
+  /**
+   * Trace l'occurrence de rang <code>rang</code> dans la fenêtre.
+   *
+   * @param logger
+   *          logger
+   * @param etat
+   *          état du code
+   * @param code
+   *          code de l'erreur
+   * @param message
+   *          message
+   * @param rang
+   *          rang de l'occurrence dans la fenêtre (à partir de 1)
+   * @return true si le message a été tracé
+   */
+  private boolean tracer(final Logger logger, final Etat etat, final String code, final Object message,
+    final long rang) {
+    if (rang <= limite) {
+      logger.error("[{}] {}", code, message);
+      return true;
+    }
+    if (rang == limite + 1) {
+      logger.error("[{}] limite de {} traces par {} ms atteinte, occurrences suivantes comptées seulement",
+        code, limite, fenetre);
+    }
+    if (etat.logger != logger) {
+      etat.logger = logger;
+    }
+    supprimees.incrementAndGet();
+    return false;
+  }
+
+  /**
+   * Retourne l'état du code <code>code</code>.
+   *
+   * @param code
+   *          code de l'erreur (nullable)
+   * @return l'état
+   */
+  private Etat etat(final String code) {
+    final String cle = code == null ? AUTRES_CODES : code;
+    Etat etat = etats.get(cle);
+    if (etat == null) {
+      if (etats.size() >= ErrorCatalog.CODES_MAX) {
+        return autres;
+      }
+      etat = new Etat(cle);
+      final Etat existant = etats.putIfAbsent(cle, etat);
+      if (existant != null) {
+        etat = existant;
+      }
+    }
+    return etat;
+  }
+
+  /**
+   * Retourne le nombre d'occurrences tracées par code et par fenêtre.
+   *
+   * @return la limite
+   */
+  public int getLimite() {
+    return limite;
+  }
+
+  /**
+   * Retourne la durée d'une fenêtre.
+   *
+   * @return la durée en millisecondes
+   */
+  public long getFenetre() {
+    return fenetre;
+  }
+
+  /**
+   * Retourne le nombre total d'occurrences non tracées depuis la création du limiteur.
+   *
+   * @return le nombre d'occurrences non tracées
+   */
+  public long getNbSupprimees() {
+    return supprimees.get();
+  }
+
+  /**
+   * État d'un code : numéro de fenêtre, puis nombre d'occurrences sur {@link #BITS_OCCURRENCES}
+   * bits.
+   */
+  private static final class Etat extends AtomicLong {
+
+    /** serialVersionUID. */
+    private static final long serialVersionUID = 1L;
+
+    /** Code de l'erreur. */
+    final String code;
+
+    /** Logger de la dernière occurrence non tracée (synthèse). */
+    transient volatile Logger logger;
+
+    /**
+     * Constructeur de la classe.
+     *
+     * @param code
+     *          code de l'erreur
+     */
+    Etat(final String code) {
+      this.code = code;
+    }
+  }
+
+}
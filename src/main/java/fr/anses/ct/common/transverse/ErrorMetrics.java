@@ -0,0 +1,699 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Métriques des erreurs {@link RfaException} par code : nombre d'exceptions créées par
+ * {@link ExceptionFactory}, taux sur les 10 et 60 dernières secondes, et réponses produites par
+ * {@link RouteFailureHandler} par statut HTTP et par route.
+ * <p>
+ * L'enregistrement d'une exception se limite à une lecture de map et à l'incrément d'un
+ * <code>LongAdder</code> (compteur réparti entre cœurs, sans contention), sans lecture de
+ * l'horloge. Un thread démon échantillonne le total de chaque code toutes les secondes (anneau de
+ * {@link #SECONDES_MAX} + 1 secondes) ; les taux sont calculés à la lecture à partir de ces
+ * échantillons, à la seconde près. Le thread n'est démarré qu'au premier code enregistré ou à la
+ * publication ({@link #publier()}) : charger la classe ne démarre aucun thread. Il est arrêté par
+ * {@link #depublier()}, jusqu'à la publication ou au code suivants, et définitivement par
+ * {@link #arreter()} (à appeler à l'arrêt de l'application, par exemple au déchargement d'une
+ * application web) ; les taux ne sont alors plus mis à jour.
+ * </p>
+ * <p>
+ * Les métriques sont lisibles par {@link #instantane()} ou, après {@link #publier()}, en JMX
+ * (domaine {@link #DOMAINE}) : un MXBean global et un MXBean par code. Les codes sont bornés à
+ * {@link ErrorCatalog#CODES_MAX}, les statuts et les routes à {@link #VALEURS_MAX}
+ * par code ; au-delà, les valeurs sont regroupées sous {@link #AUTRES}.
+ * </p>
+ */
+public final class ErrorMetrics implements ErrorMetricsMXBean {
+
+  /** Instance partagée, utilisée par défaut par {@link ExceptionFactory} et {@link RouteFailureHandler}. */
+  public static final ErrorMetrics INSTANCE = new ErrorMetrics();
+
+  /** Domaine JMX. */
+  public static final String DOMAINE = "fr.anses.ct.common";
+
+  /** Clé des valeurs en surnombre. */
+  public static final String AUTRES = "*";
+
+  /** Nombre maximal de statuts et de routes par code. */
+  public static final int VALEURS_MAX = 64;
+
+  /** Fenêtre maximale des taux, en secondes. */
+  public static final int SECONDES_MAX = 63;
+
+  /** Masque d'indice de l'anneau des échantillons (taille : puissance de 2). */
+  private static final int MASQUE = 63;
+
+  /** Nom du thread d'échantillonnage. */
+  private static final String NOM_THREAD = "ct-common-error-metrics";
+
+  /** Logger. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(ErrorMetrics.class);
+
+  /** Horloge. */
+  private final DateClock horloge;
+
+  /** Compteurs par code. */
+  private final ConcurrentMap<String, Compteur> compteurs = new ConcurrentHashMap<String, Compteur>();
+
+  /** true pour échantillonner dans un thread démon, false pour un échantillonnage manuel. */
+  private final boolean echantillonnage;
+
+  /** Ordonnanceur de l'échantillonnage (null tant qu'il n'est pas démarré, ou s'il est arrêté). */
+  private volatile ScheduledExecutorService ordonnanceur;
+
+  /** true après {@link #arreter()}. */
+  private boolean arrete;
+
+  /** Serveur JMX de publication (null si non publié). */
+  private volatile MBeanServer serveur;
+
+  /**
+   * Constructeur de la classe, horloge système et échantillonnage toutes les secondes.
+   */
+  public ErrorMetrics() {
+    this(SystemDateClock.INSTANCE, true);
+  }
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param horloge
+   *          horloge
+   * @param echantillonnage
+   *          true pour échantillonner toutes les secondes dans un thread démon (démarré au premier
+   *          usage), false pour échantillonner seulement par {@link #echantillonner()}
+   */
+  public ErrorMetrics(final DateClock horloge, final boolean echantillonnage) {
+    notNull(horloge, "le paramètre '%s' est null", "horloge");
+    this.horloge = horloge;
+    this.echantillonnage = echantillonnage;
+  }
+
+  /**
+   * Démarre le thread d'échantillonnage s'il est prévu et ne tourne pas déjà.
+   */
+  private synchronized void demarrer() {
+    if (!echantillonnage || arrete || ordonnanceur != null) {
+      return;
+    }
+    ordonnanceur = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, NOM_THREAD);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    ordonnanceur.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        echantillonner();
+      }
+    }, CivilDates.MILLIS_PAR_SECONDE, CivilDates.MILLIS_PAR_SECONDE, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Enregistre la création d'une exception de code <code>code</code>.
+   *
+   * @param code
+   *          code de l'exception (nullable)
+   */
+  public void enregistrer(final String code) {
+    compteur(code).nombre.increment();
+  }
+
+  /**
+   * Échantillonne le total de chaque code pour la seconde courante (appelé toutes les secondes
+   * par le thread d'échantillonnage).
+   */
+  public void echantillonner() {
+    final long seconde = seconde();
+    for (Compteur compteur : compteurs.values()) {
+      compteur.echantillonner(seconde);
+    }
+  }
+
+  /**
+   * Retourne la seconde courante.
+   *
+   * @return le nombre de secondes depuis l'epoch
+   */
+  private long seconde() {
+    return CivilDates.floorDiv(horloge.getMillis(), CivilDates.MILLIS_PAR_SECONDE);
+  }
+
+  /**
+   * Enregistre une réponse d'erreur de statut HTTP <code>statut</code>, produite par la route
+   * <code>route</code> pour une exception de code <code>code</code>.
+   *
+   * @param code
+   *          code de l'exception (nullable)
+   * @param statut
+   *          statut HTTP
+   * @param route
+   *          identifiant de la route (nullable)
+   */
+  public void enregistrerReponse(final String code, final String statut, final String route) {
+    final Compteur compteur = compteur(code);
+    compteur.incrementer(compteur.statuts, statut);
+    compteur.incrementer(compteur.routes, route);
+  }
+
+  /**
+   * Retourne le taux d'exceptions de code <code>code</code> par seconde sur les
+   * <code>secondes</code> dernières secondes.
+   *
+   * @param code
+   *          code de l'exception
+   * @param secondes
+   *          largeur de la fenêtre (1 à {@link #SECONDES_MAX})
+   * @return le taux par seconde
+   */
+  public double getTaux(final String code, final int secondes) {
+    isTrue(secondes > 0 && secondes <= SECONDES_MAX, "fenêtre invalide : %d", secondes);
+    final Compteur compteur = compteurs.get(code == null ? AUTRES : code);
+    return compteur == null ? 0 : compteur.taux(secondes);
+  }
+
+  /**
+   * Retourne un instantané des métriques de chaque code, trié par code.
+   *
+   * @return les métriques par code
+   */
+  public Map<String, ErrorCodeMetricsMXBean> instantane() {
+    final Map<String, ErrorCodeMetricsMXBean> instantane = new TreeMap<String, ErrorCodeMetricsMXBean>();
+    for (Compteur compteur : compteurs.values()) {
+      instantane.put(compteur.code, new Instantane(compteur));
+    }
+    return Collections.unmodifiableMap(instantane);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getTotal() {
+    long total = 0;
+    for (Compteur compteur : compteurs.values()) {
+      total += compteur.nombre.sum();
+    }
+    return total;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String[] getCodes() {
+    final Set<String> codes = new TreeSet<String>(compteurs.keySet());
+    return codes.toArray(new String[codes.size()]);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void reinitialiser() {
+    for (Compteur compteur : compteurs.values()) {
+      depublier(compteur);
+    }
+    compteurs.clear();
+  }
+
+  /**
+   * Arrête définitivement le thread d'échantillonnage.
+   */
+  public synchronized void arreter() {
+    arrete = true;
+    suspendre();
+  }
+
+  /**
+   * Arrête le thread d'échantillonnage, qui pourra être redémarré.
+   */
+  private synchronized void suspendre() {
+    if (ordonnanceur != null) {
+      ordonnanceur.shutdownNow();
+      ordonnanceur = null;
+    }
+  }
+
+  /**
+   * Indique si le thread d'échantillonnage ne tourne pas (arrêté, pas encore démarré, ou
+   * échantillonnage manuel).
+   *
+   * @return true si l'échantillonnage est arrêté
+   */
+  public boolean estArretee() {
+    return ordonnanceur == null;
+  }
+
+  /**
+   * Publie les métriques sur le serveur JMX de la plateforme.
+   */
+  public void publier() {
+    publier(ManagementFactory.getPlatformMBeanServer());
+  }
+
+  /**
+   * Publie les métriques sur le serveur JMX <code>serveur</code> : le MXBean global et un MXBean
+   * par code, y compris pour les codes rencontrés ensuite.
+   *
+   * @param serveur
+   *          serveur JMX
+   */
+  public synchronized void publier(final MBeanServer serveur) {
+    notNull(serveur, "le paramètre '%s' est null", "serveur");
+    depublier();
+    this.serveur = serveur;
+    enregistrerMBean(this, nom(null));
+    for (Compteur compteur : compteurs.values()) {
+      enregistrerMBean(compteur, nom(compteur.code));
+    }
+    demarrer();
+  }
+
+  /**
+   * Retire les MXBeans du serveur JMX et arrête le thread d'échantillonnage.
+   */
+  public synchronized void depublier() {
+    suspendre();
+    if (serveur == null) {
+      return;
+    }
+    for (Compteur compteur : compteurs.values()) {
+      depublier(compteur);
+    }
+    desenregistrerMBean(nom(null));
+    serveur = null;
+  }
+
+  /**
+   * Indique si les métriques sont publiées en JMX.
+   *
+   * @return true si les métriques sont publiées
+   */
+  public boolean estPubliee() {
+    return serveur != null;
+  }
+
+  /**
+   * Retourne le compteur du code <code>code</code>, créé (et publié) au besoin.
+   *
+   * @param code
+   *          code de l'exception (nullable)
+   * @return le compteur
+   */
+  private Compteur compteur(final String code) {
+    final Compteur compteur = compteurs.get(code == null ? AUTRES : code);
+    return compteur != null ? compteur : creerCompteur(code == null ? AUTRES : code);
+  }
+
+  /**
+   * Crée (et publie) le compteur du code <code>cle</code>, hors du chemin courant pour que
+   * {@link #enregistrer(String)} reste inlinable dans la levée d'exception.
+   *
+   * @param cle
+   *          code de l'exception
+   * @return le compteur
+   */
+  private Compteur creerCompteur(final String cle) {
+    if (compteurs.size() >= ErrorCatalog.CODES_MAX && !AUTRES.equals(cle)) {
+      return compteur(AUTRES);
+    }
+    final Compteur compteur = new Compteur(cle, seconde());
+    final Compteur existant = compteurs.putIfAbsent(cle, compteur);
+    if (existant != null) {
+      return existant;
+    }
+    synchronized (this) {
+      if (serveur != null && compteurs.get(cle) == compteur) {
+        enregistrerMBean(compteur, nom(cle));
+      }
+      demarrer();
+    }
+    return compteur;
+  }
+
+  /**
+   * Retire le MXBean du compteur <code>compteur</code> s'il est publié.
+   *
+   * @param compteur
+   *          compteur
+   */
+  private void depublier(final Compteur compteur) {
+    if (serveur != null) {
+      desenregistrerMBean(nom(compteur.code));
+    }
+  }
+
+  /**
+   * Retourne le nom JMX du MXBean global (<code>code</code> null) ou d'un code.
+   *
+   * @param code
+   *          code (nullable)
+   * @return le nom JMX
+   */
+  private static ObjectName nom(final String code) {
+    try {
+      if (code == null) {
+        return new ObjectName(DOMAINE + ":type=Erreurs");
+      }
+      return new ObjectName(DOMAINE + ":type=Erreurs,code=" + ObjectName.quote(code));
+    } catch (JMException e) {
+      throw new IllegalArgumentException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Enregistre un MXBean, en remplaçant celui de même nom.
+   *
+   * @param mbean
+   *          MXBean
+   * @param nom
+   *          nom JMX
+   */
+  private void enregistrerMBean(final Object mbean, final ObjectName nom) {
+    try {
+      if (serveur.isRegistered(nom)) {
+        serveur.unregisterMBean(nom);
+      }
+      serveur.registerMBean(mbean, nom);
+    } catch (JMException e) {
+      LOGGER.warn("Publication JMX impossible : {}", nom, e);
+    }
+  }
+
+  /**
+   * Retire un MXBean.
+   *
+   * @param nom
+   *          nom JMX
+   */
+  private void desenregistrerMBean(final ObjectName nom) {
+    try {
+      if (serveur.isRegistered(nom)) {
+        serveur.unregisterMBean(nom);
+      }
+    } catch (JMException e) {
+      LOGGER.warn("Retrait JMX impossible : {}", nom, e);
+    }
+  }
+
+  /**
+   * Convertit des compteurs par valeur en map triée.
+   *
+   * @param compteurs
+   *          compteurs par valeur
+   * @return les nombres par valeur
+   */
+  private static Map<String, Long> totaux(final Map<String, LongAdder> compteurs) {
+    final Map<String, Long> totaux = new TreeMap<String, Long>();
+    for (Map.Entry<String, LongAdder> entree : compteurs.entrySet()) {
+      totaux.put(entree.getKey(), entree.getValue().sum());
+    }
+    return Collections.unmodifiableMap(totaux);
+  }
+
+  /**
+   * Compteurs d'un code.
+   */
+  private final class Compteur implements ErrorCodeMetricsMXBean {
+
+    /** Code. */
+    private final String code;
+
+    /** Nombre d'exceptions. */
+    private final LongAdder nombre = new LongAdder();
+
+    /** Anneau des échantillons : seconde, puis total. */
+    private final AtomicLongArray echantillons = new AtomicLongArray((MASQUE + 1) * 2);
+
+    /** Réponses par statut HTTP. */
+    private final ConcurrentMap<String, LongAdder> statuts = new ConcurrentHashMap<String, LongAdder>();
+
+    /** Réponses par route. */
+    private final ConcurrentMap<String, LongAdder> routes = new ConcurrentHashMap<String, LongAdder>();
+
+    /**
+     * Constructeur de la classe.
+     *
+     * @param code
+     *          code
+     * @param seconde
+     *          seconde de création (échantillon initial à 0)
+     */
+    Compteur(final String code, final long seconde) {
+      this.code = code;
+      for (int i = 0; i <= MASQUE; i++) {
+        echantillons.set(i * 2, Long.MIN_VALUE);
+      }
+      echantillonner(seconde);
+    }
+
+    /**
+     * Échantillonne le total pour la seconde <code>seconde</code>.
+     *
+     * @param seconde
+     *          seconde courante
+     */
+    void echantillonner(final long seconde) {
+      final int indice = (int) (seconde & MASQUE) * 2;
+      echantillons.set(indice + 1, nombre.sum());
+      echantillons.set(indice, seconde);
+    }
+
+    /**
+     * Incrémente le compteur de la valeur <code>valeur</code>.
+     *
+     * @param parValeur
+     *          compteurs par valeur
+     * @param valeur
+     *          valeur (nullable)
+     */
+    void incrementer(final ConcurrentMap<String, LongAdder> parValeur, final String valeur) {
+      String cle = valeur == null ? AUTRES : valeur;
+      LongAdder compteur = parValeur.get(cle);
+      if (compteur == null && parValeur.size() >= VALEURS_MAX) {
+        // valeurs saturées : le compteur commun existe le plus souvent déjà
+        cle = AUTRES;
+        compteur = parValeur.get(AUTRES);
+      }
+      if (compteur == null) {
+        compteur = new LongAdder();
+        final LongAdder existant = parValeur.putIfAbsent(cle, compteur);
+        if (existant != null) {
+          compteur = existant;
+        }
+      }
+      compteur.increment();
+    }
+
+    /**
+     * Retourne le taux par seconde sur les <code>secondes</code> dernières secondes.
+     *
+     * @param secondes
+     *          largeur de la fenêtre
+     * @return le taux par seconde
+     */
+    double taux(final int secondes) {
+      final long maintenant = seconde();
+      final long debut = maintenant - secondes;
+      // total au début de la fenêtre : premier échantillon de la fenêtre, à défaut le dernier
+      // échantillon antérieur (échantillonnage arrêté)
+      long premiere = Long.MAX_VALUE;
+      long derniere = Long.MIN_VALUE;
+      long basePremiere = 0;
+      long baseDerniere = 0;
+      for (int i = 0; i <= MASQUE; i++) {
+        final long seconde = echantillons.get(i * 2);
+        final long valeur = echantillons.get(i * 2 + 1);
+        if (seconde == Long.MIN_VALUE || seconde > maintenant || echantillons.get(i * 2) != seconde) {
+          continue;
+        }
+        if (seconde >= debut) {
+          if (seconde < premiere) {
+            premiere = seconde;
+            basePremiere = valeur;
+          }
+        } else if (seconde > derniere) {
+          derniere = seconde;
+          baseDerniere = valeur;
+        }
+      }
+      final long base = premiere != Long.MAX_VALUE ? basePremiere : baseDerniere;
+      return (double) Math.max(0, nombre.sum() - base) / secondes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getCode() {
+      return code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTotal() {
+      return nombre.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTaux10s() {
+      return taux(10);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTaux60s() {
+      return taux(60);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getStatuts() {
+      return totaux(statuts);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getRoutes() {
+      return totaux(routes);
+    }
+
+  }
+
+  /**
+   * Instantané immuable des métriques d'un code.
+   */
+  private static final class Instantane implements ErrorCodeMetricsMXBean {
+
+    /** Code. */
+    private final String code;
+
+    /** Nombre d'exceptions. */
+    private final long total;
+
+    /** Taux sur 10 secondes. */
+    private final double taux10s;
+
+    /** Taux sur 60 secondes. */
+    private final double taux60s;
+
+    /** Réponses par statut HTTP. */
+    private final Map<String, Long> statuts;
+
+    /** Réponses par route. */
+    private final Map<String, Long> routes;
+
+    /**
+     * Constructeur de la classe.
+     *
+     * @param compteur
+     *          compteur
+     */
+    Instantane(final ErrorCodeMetricsMXBean compteur) {
+      this.code = compteur.getCode();
+      this.total = compteur.getTotal();
+      this.taux10s = compteur.getTaux10s();
+      this.taux60s = compteur.getTaux60s();
+      this.statuts = compteur.getStatuts();
+      this.routes = compteur.getRoutes();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getCode() {
+      return code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTotal() {
+      return total;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTaux10s() {
+      return taux10s;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTaux60s() {
+      return taux60s;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getStatuts() {
+      return statuts;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getRoutes() {
+      return routes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+      return code + " : " + total + " (" + taux10s + "/s sur 10 s, " + taux60s + "/s sur 60 s) statuts="
+        + statuts + " routes=" + routes;
+    }
+
+  }
+
+}
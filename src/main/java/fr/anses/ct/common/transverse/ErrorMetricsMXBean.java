@@ -0,0 +1,28 @@
+package fr.anses.ct.common.transverse;
+
+/**
+ * Métriques globales des erreurs {@link RfaException}, publiées en JMX par {@link ErrorMetrics}
+ * (<code>fr.anses.ct.common:type=Erreurs</code>).
+ */
+public interface ErrorMetricsMXBean {
+
+  /**
+   * Retourne le nombre total d'exceptions créées, tous codes confondus.
+   *
+   * @return le nombre d'exceptions
+   */
+  long getTotal();
+
+  /**
+   * Retourne les codes d'erreur rencontrés.
+   *
+   * @return les codes
+   */
+  String[] getCodes();
+
+  /**
+   * Remet à zéro les métriques.
+   */
+  void reinitialiser();
+
+}
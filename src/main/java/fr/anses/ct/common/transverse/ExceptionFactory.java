@@ -1,6 +1,17 @@
 package fr.anses.ct.common.transverse;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,15 +22,93 @@ import org.springframework.context.MessageSource;
 
 /**
  * Factory des exceptions.
+ * <p>
+ * Par défaut, les {@link RfaException} capturent leur pile d'appels. Les erreurs métier attendues
+ * (validation, 403...) peuvent être créées sans pile d'appels, ce qui évite le coût de
+ * <code>fillInStackTrace</code> : pour tous les codes avec {@link #setPileAppels(boolean)} à
+ * false, ou code par code avec {@link #setCodesSansPile(Collection)}. Les codes déclarés par
+ * {@link #setCodesTechniques(Collection)} gardent toujours leur pile d'appels.
+ * </p>
+ * <p>
+ * Les méthodes <code>throwRfaException</code> ne résolvent le message que s'il est tracé (niveau
+ * ERROR actif pour ce logger) ou lu par {@link RfaException#getMessage()}. Les traces sont
+ * limitées par code ({@link ErrorLogThrottle}, {@link ErrorLogThrottle#LIMITE_DEFAUT} traces par
+ * fenêtre de {@link ErrorLogThrottle#FENETRE_DEFAUT} ms par défaut) : au-delà, les occurrences sont
+ * comptées et signalées par une ligne de synthèse.
+ * </p>
+ * <p>
+ * Chaque exception créée est comptée par code dans {@link ErrorMetrics#INSTANCE} (cf.
+ * {@link #setMetriques(ErrorMetrics)}) et porte la description de son code dans le
+ * {@link #setCatalogue(ErrorCatalog) catalogue} (statut HTTP, sévérité, clé du message).
+ * </p>
+ * <p>
+ * Pour la validation en masse, un {@link #creerCollecteur() collecteur} enregistre les erreurs
+ * sans les lever, puis lève une seule {@link RfaMultipleException} qui les regroupe.
+ * </p>
+ * <p>
+ * Les messages sont demandés une seule fois à la <code>MessageSource</code> (locale racine), puis
+ * précompilés et mis en cache ({@link MessageTemplate}) : par identifiant pour les codes déclarés
+ * dans le catalogue, par code pour les autres, y compris le message par défaut des codes inconnus
+ * (cache borné à {@link ErrorCatalog#CODES_MAX} codes). Une exception créée par
+ * la factory résout son message à partir de la description attachée à sa création, sans nouvelle
+ * recherche du code dans le catalogue. Les
+ * bundles déclarés par {@link #setBasenames(List)} sont précompilés dès la configuration. Le cache
+ * suppose la <code>MessageSource</code> en mode par défaut de Spring
+ * (<code>alwaysUseMessageFormat</code> à false) ; il est vidé à chaque changement de
+ * <code>MessageSource</code>.
+ * </p>
  */
 public final class ExceptionFactory {
 
   /** Logger. */
   private static final Logger LOGGER = LoggerFactory.getLogger(ExceptionFactory.class);
 
+  /** Locale des messages. */
+  private static final Locale LOCALE = new Locale("");
+
+  /** Message des codes inconnus. */
+  private static final String MESSAGE_INTROUVABLE = "Libelle erreur introuvable";
+
+  /**
+   * Message par défaut passé à la <code>MessageSource</code> : propre à cette classe, il ne peut
+   * être confondu avec un message trouvé.
+   */
+  private static final String MESSAGE_ABSENT = "\u0000" + ExceptionFactory.class.getName();
+
+  /** Message précompilé des codes inconnus, et de l'absence de code. */
+  private static final MessageTemplate INTROUVABLE = MessageTemplate.constant(MESSAGE_INTROUVABLE);
+
+  /** Messages précompilés par code. */
+  private final ConcurrentMap<String, MessageTemplate> messages = new ConcurrentHashMap<String, MessageTemplate>();
+
+  /** Messages précompilés des codes déclarés, par identifiant dans le catalogue. */
+  private volatile AtomicReferenceArray<MessageTemplate> messagesDeclares =
+    new AtomicReferenceArray<MessageTemplate>(0);
+
   /** Source des messages de l'application. */
   private MessageSource messageSource;
 
+  /** Bundles précompilés à la configuration. */
+  private List<String> basenames = Collections.emptyList();
+
+  /** Capture de la pile d'appels pour les codes non configurés. */
+  private boolean pileAppels = true;
+
+  /** Codes des exceptions créées sans pile d'appels. */
+  private Set<String> codesSansPile = Collections.emptySet();
+
+  /** Codes des erreurs techniques, toujours créées avec leur pile d'appels. */
+  private Set<String> codesTechniques = Collections.emptySet();
+
+  /** Limiteur des traces d'erreur par code (null : toutes les erreurs sont tracées). */
+  private volatile ErrorLogThrottle limiteurTraces = new ErrorLogThrottle();
+
+  /** Catalogue des codes d'erreur. */
+  private volatile ErrorCatalog catalogue = ErrorCatalog.VIDE;
+
+  /** Métriques des exceptions créées (null : pas de métriques). */
+  private volatile ErrorMetrics metriques = ErrorMetrics.INSTANCE;
+
   /**
    * Throw une exception depuis un code (message sans argument)
    * @param code
@@ -79,8 +168,88 @@ public final class ExceptionFactory {
    */
   public void throwRfaException(final String code, final String[] args, final Throwable cause)
     throws RfaException {
-    String message = logMessage(code, args);
-    throw getRfaException(code, message, cause);
+    lever(creerRfaException(code, args, cause));
+  }
+
+  /**
+   * Trace puis lève l'exception <code>exception</code>.
+   * 
+   * @param exception
+   *          l'exception
+   * @throws RfaException
+   *           toujours
+   */
+  void lever(final RfaException exception) throws RfaException {
+    // le message n'est résolu que s'il est tracé
+    tracer(exception.getCode(), new Object() {
+      @Override
+      public String toString() {
+        return exception.getMessage();
+      }
+    });
+    throw exception;
+  }
+
+  /**
+   * Retourne un collecteur d'erreurs pour la validation en masse, qui conserve au plus
+   * {@link ErrorCollector#MAX_ERREURS_DEFAUT} erreurs.
+   * 
+   * @return le collecteur
+   */
+  public ErrorCollector creerCollecteur() {
+    return new ErrorCollector(this, ErrorCollector.MAX_ERREURS_DEFAUT);
+  }
+
+  /**
+   * Retourne un collecteur d'erreurs pour la validation en masse.
+   * 
+   * @param maxErreurs
+   *          nombre maximal d'erreurs conservées (les suivantes sont seulement comptées)
+   * @return le collecteur
+   */
+  public ErrorCollector creerCollecteur(final int maxErreurs) {
+    return new ErrorCollector(this, maxErreurs);
+  }
+
+  /**
+   * Retourne l'exception qui regroupe les erreurs <code>erreurs</code> ; chaque erreur est comptée
+   * dans les métriques.
+   * 
+   * @param erreurs
+   *          les erreurs conservées
+   * @param nbErreurs
+   *          le nombre d'erreurs, y compris celles qui n'ont pas été conservées
+   * @return l'exception
+   */
+  RfaMultipleException creerRfaMultipleException(final List<ErrorDetail> erreurs, final int nbErreurs) {
+    for (ErrorDetail erreur : erreurs) {
+      enregistrer(erreur.getCode());
+    }
+    enregistrer(RfaMultipleException.CODE);
+    final RfaMultipleException exception = new RfaMultipleException(this, erreurs, nbErreurs,
+      avecPileAppels(RfaMultipleException.CODE));
+    decrire(exception, RfaMultipleException.CODE);
+    return exception;
+  }
+
+  /**
+   * Retourne une exception de code <code>code</code> dont le message, construit à partir des
+   * arguments <code>args</code>, n'est résolu qu'au premier appel de
+   * {@link RfaException#getMessage()}.
+   * 
+   * @param code
+   *          le code de l'exception
+   * @param args
+   *          les valeurs des arguments du message (nullable)
+   * @param cause
+   *          l'exception d'origine (nullable)
+   * @return l'exception
+   */
+  public RfaException creerRfaException(final String code, final String[] args, final Throwable cause) {
+    enregistrer(code);
+    final RfaException exception = new RfaException(this, code, args, cause, avecPileAppels(code));
+    decrire(exception, code);
+    return exception;
   }
 
     /**
@@ -97,16 +266,65 @@ public final class ExceptionFactory {
    *         <code>code</code> et le message <code>message</code>
    */
   public RfaException getRfaException(final String code, final String message, final Throwable ex) {
+    enregistrer(code);
     RfaException ret = null;
-    if (ex == null) {
+    if (!avecPileAppels(code)) {
+      ret = new RfaException(message, ex, false);
+    } else if (ex == null) {
       ret = new RfaException(message);
     } else {
       ret = new RfaException(message, ex);
     }
     ret.setCode(code);
+    decrire(ret, code);
     return ret;
   }
 
+  /**
+   * Associe à l'exception <code>exception</code> la description du code <code>code</code> dans le
+   * catalogue, et sa sévérité si le code est déclaré.
+   * 
+   * @param exception
+   *          l'exception
+   * @param code
+   *          le code de l'exception
+   */
+  private void decrire(final RfaException exception, final String code) {
+    final ErrorDescriptor descripteur = catalogue.get(code);
+    exception.setDescripteur(descripteur);
+    if (descripteur.estDeclare()) {
+      exception.setSeverite(descripteur.getSeverite().name());
+    }
+  }
+
+  /**
+   * Enregistre la création d'une exception de code <code>code</code> dans les
+   * {@link #getMetriques() métriques}.
+   * 
+   * @param code
+   *          le code de l'exception
+   */
+  private void enregistrer(final String code) {
+    final ErrorMetrics registre = metriques;
+    if (registre != null) {
+      registre.enregistrer(code);
+    }
+  }
+
+  /**
+   * Indique si les exceptions de code <code>code</code> capturent leur pile d'appels.
+   * 
+   * @param code
+   *          le code de l'exception
+   * @return true si la pile d'appels est capturée
+   */
+  public boolean avecPileAppels(final String code) {
+    if (codesTechniques.contains(code)) {
+      return true;
+    }
+    return pileAppels && !codesSansPile.contains(code);
+  }
+
   /**
    * Trace en niveau ERROR le message qui a le code <code>code</code>.
    * 
@@ -118,10 +336,28 @@ public final class ExceptionFactory {
    */
   public String logMessage(final String code, final String[] args) {
     String message = getMessage(code, args);
-    LOGGER.error("[" + code + "] " + message);
+    tracer(code, message);
     return message;
   }
 
+  /**
+   * Trace en niveau ERROR <code>[code] message</code>, dans la limite du
+   * {@link #getLimiteurTraces() limiteur des traces}.
+   * 
+   * @param code
+   *          le code du message
+   * @param message
+   *          le message, converti en chaîne seulement s'il est tracé
+   */
+  private void tracer(final String code, final Object message) {
+    final ErrorLogThrottle limiteur = limiteurTraces;
+    if (limiteur == null) {
+      LOGGER.error("[{}] {}", code, message);
+    } else {
+      limiteur.tracer(LOGGER, code, message);
+    }
+  }
+
   /**
    * Retourne le message qui a le code <code>code</code> en remplaçant les variables du messages par
    * les valeurs du paramètre <code>args</code>.
@@ -134,7 +370,177 @@ public final class ExceptionFactory {
    *         les valeurs du paramètre <code>args</code>
    */
   public String getMessage(final String code, final String[] args) {
-    return messageSource.getMessage(code, args, "Libelle erreur introuvable", new Locale(""));
+    return message(code).formater(args);
+  }
+
+  /**
+   * Ajoute à <code>dest</code> le message qui a le code <code>code</code> en remplaçant les
+   * variables du messages par les valeurs du paramètre <code>args</code>.
+   * 
+   * @param code
+   *          le code du message à ajouter
+   * @param args
+   *          les valeurs des arguments du message
+   * @param dest
+   *          le buffer de destination
+   * @return le buffer <code>dest</code>
+   */
+  public StringBuilder getMessage(final String code, final String[] args, final StringBuilder dest) {
+    return message(code).formater(args, dest);
+  }
+
+  /**
+   * Retourne le message de code <code>code</code> d'une exception créée par la factory, à partir
+   * de la description <code>descripteur</code> attachée à sa création.
+   * 
+   * @param descripteur
+   *          la description du code (null pour la rechercher dans le catalogue)
+   * @param code
+   *          le code du message
+   * @param args
+   *          les valeurs des arguments du message
+   * @return le message
+   */
+  String getMessage(final ErrorDescriptor descripteur, final String code, final String[] args) {
+    return message(descripteur == null ? catalogue.get(code) : descripteur).formater(args);
+  }
+
+  /**
+   * Précompile les messages des codes <code>codes</code>.
+   * 
+   * @param codes
+   *          les codes des messages
+   */
+  public void prechauffer(final Collection<String> codes) {
+    for (String code : codes) {
+      message(code);
+    }
+  }
+
+  /**
+   * Retourne le message précompilé de code <code>code</code>.
+   * 
+   * @param code
+   *          le code du message
+   * @return le message précompilé
+   */
+  private MessageTemplate message(final String code) {
+    return message(catalogue.get(code));
+  }
+
+  /**
+   * Retourne le message précompilé du code décrit par <code>descripteur</code> : par identifiant
+   * si le code est déclaré dans le catalogue courant, par code sinon.
+   * 
+   * @param descripteur
+   *          la description du code
+   * @return le message précompilé
+   */
+  private MessageTemplate message(final ErrorDescriptor descripteur) {
+    final AtomicReferenceArray<MessageTemplate> declares = messagesDeclares;
+    final int id = descripteur.getId();
+    if (descripteur.estDeclare() && id < declares.length() && catalogue.get(id) == descripteur) {
+      MessageTemplate message = declares.get(id);
+      if (message == null) {
+        message = compiler(descripteur);
+        if (!declares.compareAndSet(id, null, message)) {
+          message = declares.get(id);
+        }
+      }
+      return message;
+    }
+    final String code = descripteur.getCode();
+    if (code == null) {
+      return INTROUVABLE;
+    }
+    MessageTemplate message = messages.get(code);
+    if (message == null) {
+      message = compiler(descripteur);
+      if (messages.size() < ErrorCatalog.CODES_MAX) {
+        final MessageTemplate existant = messages.putIfAbsent(code, message);
+        if (existant != null) {
+          message = existant;
+        }
+      }
+    }
+    return message;
+  }
+
+  /**
+   * Demande à la <code>MessageSource</code> et précompile le message du code décrit par
+   * <code>descripteur</code>.
+   * 
+   * @param descripteur
+   *          la description du code
+   * @return le message précompilé
+   */
+  private MessageTemplate compiler(final ErrorDescriptor descripteur) {
+    // sans argument, Spring retourne le texte brut, ou le message par défaut
+    final String motif = messageSource.getMessage(descripteur.getCleMessage(), null, MESSAGE_ABSENT, LOCALE);
+    if (!MESSAGE_ABSENT.equals(motif)) {
+      return MessageTemplate.compiler(motif, LOCALE);
+    }
+    if (RfaMultipleException.CODE.equals(descripteur.getCode())) {
+      return MessageTemplate.compiler(RfaMultipleException.MESSAGE_DEFAUT, LOCALE);
+    }
+    return INTROUVABLE;
+  }
+
+  /**
+   * Vide les messages précompilés.
+   */
+  private void viderMessages() {
+    messagesDeclares = new AtomicReferenceArray<MessageTemplate>(catalogue.getTaille());
+    messages.clear();
+  }
+
+  /**
+   * Précompile les messages des bundles {@link #basenames} si la <code>MessageSource</code> est
+   * configurée.
+   */
+  private void prechaufferBundles() {
+    if (messageSource == null) {
+      return;
+    }
+    for (String basename : basenames) {
+      prechauffer(ResourceBundle.getBundle(basename, LOCALE, ExceptionFactory.class.getClassLoader()).keySet());
+    }
+    verifierCatalogue();
+  }
+
+  /**
+   * Signale les incohérences entre le catalogue et les messages : codes des bundles
+   * {@link #basenames} absents du catalogue, et codes du catalogue dont le message est introuvable.
+   */
+  private void verifierCatalogue() {
+    final ErrorCatalog verifie = catalogue;
+    if (messageSource == null || verifie.getTaille() == 0) {
+      return;
+    }
+    final Set<String> cles = new HashSet<String>();
+    for (String code : verifie.getCodes()) {
+      cles.add(verifie.get(code).getCleMessage());
+    }
+    final Set<String> nonDeclares = new TreeSet<String>();
+    for (String basename : basenames) {
+      for (String cle : ResourceBundle.getBundle(basename, LOCALE, ExceptionFactory.class.getClassLoader()).keySet()) {
+        if (!cles.contains(cle)) {
+          nonDeclares.add(cle);
+        }
+      }
+    }
+    if (!nonDeclares.isEmpty()) {
+      LOGGER.warn("Codes d'erreur absents du catalogue : {}", nonDeclares);
+    }
+    final Set<String> sansMessage = new TreeSet<String>();
+    for (String code : verifie.getCodes()) {
+      if (message(code) == INTROUVABLE) {
+        sansMessage.add(code);
+      }
+    }
+    if (!sansMessage.isEmpty()) {
+      LOGGER.warn("Codes d'erreur du catalogue sans message : {}", sansMessage);
+    }
   }
 
   /**
@@ -154,6 +560,167 @@ public final class ExceptionFactory {
    */
   public void setMessageSource(final MessageSource messageSource) {
     this.messageSource = messageSource;
+    viderMessages();
+    prechaufferBundles();
+  }
+
+  /**
+   * Accesseur en lecture de l'attribut <code>basenames</code>.
+   * 
+   * @return List L'attribut basenames à lire.
+   */
+  public List<String> getBasenames() {
+    return basenames;
+  }
+
+  /**
+   * Accesseur en écriture de l'attribut <code>basenames</code> : bundles (mêmes noms que ceux de
+   * la <code>MessageSource</code>) dont tous les messages sont précompilés dès la configuration.
+   * 
+   * @param basenames
+   *          L'attribut basenames à modifier.
+   */
+  public void setBasenames(final List<String> basenames) {
+    this.basenames = basenames == null ? Collections.<String>emptyList() : Collections.unmodifiableList(
+      new ArrayList<String>(basenames));
+    prechaufferBundles();
+  }
+
+  /**
+   * Accesseur en lecture de l'attribut <code>catalogue</code>.
+   * 
+   * @return ErrorCatalog L'attribut catalogue à lire.
+   */
+  public ErrorCatalog getCatalogue() {
+    return catalogue;
+  }
+
+  /**
+   * Accesseur en écriture de l'attribut <code>catalogue</code> : catalogue des codes d'erreur
+   * ({@link ErrorCatalog#VIDE} par défaut). Les incohérences avec les messages sont signalées dès
+   * la configuration.
+   * 
+   * @param catalogue
+   *          L'attribut catalogue à modifier.
+   */
+  public void setCatalogue(final ErrorCatalog catalogue) {
+    this.catalogue = catalogue == null ? ErrorCatalog.VIDE : catalogue;
+    viderMessages();
+    prechaufferBundles();
+  }
+
+  /**
+   * Accesseur en lecture de l'attribut <code>pileAppels</code>.
+   * 
+   * @return boolean L'attribut pileAppels à lire.
+   */
+  public boolean isPileAppels() {
+    return pileAppels;
+  }
+
+  /**
+   * Accesseur en écriture de l'attribut <code>pileAppels</code> : false crée sans pile d'appels les
+   * exceptions de tous les codes non déclarés techniques.
+   * 
+   * @param pileAppels
+   *          L'attribut pileAppels à modifier.
+   */
+  public void setPileAppels(final boolean pileAppels) {
+    this.pileAppels = pileAppels;
+  }
+
+  /**
+   * Accesseur en lecture de l'attribut <code>codesSansPile</code>.
+   * 
+   * @return Set L'attribut codesSansPile à lire.
+   */
+  public Set<String> getCodesSansPile() {
+    return codesSansPile;
+  }
+
+  /**
+   * Accesseur en écriture de l'attribut <code>codesSansPile</code> : codes des exceptions créées
+   * sans pile d'appels.
+   * 
+   * @param codesSansPile
+   *          L'attribut codesSansPile à modifier.
+   */
+  public void setCodesSansPile(final Collection<String> codesSansPile) {
+    this.codesSansPile = copie(codesSansPile);
+  }
+
+  /**
+   * Accesseur en lecture de l'attribut <code>codesTechniques</code>.
+   * 
+   * @return Set L'attribut codesTechniques à lire.
+   */
+  public Set<String> getCodesTechniques() {
+    return codesTechniques;
+  }
+
+  /**
+   * Accesseur en écriture de l'attribut <code>codesTechniques</code> : codes des erreurs
+   * techniques, qui gardent toujours leur pile d'appels.
+   * 
+   * @param codesTechniques
+   *          L'attribut codesTechniques à modifier.
+   */
+  public void setCodesTechniques(final Collection<String> codesTechniques) {
+    this.codesTechniques = copie(codesTechniques);
+  }
+
+  /**
+   * Accesseur en lecture de l'attribut <code>limiteurTraces</code>.
+   * 
+   * @return ErrorLogThrottle L'attribut limiteurTraces à lire.
+   */
+  public ErrorLogThrottle getLimiteurTraces() {
+    return limiteurTraces;
+  }
+
+  /**
+   * Accesseur en écriture de l'attribut <code>limiteurTraces</code> : limiteur des traces d'erreur
+   * par code, null pour tracer toutes les erreurs.
+   * 
+   * @param limiteurTraces
+   *          L'attribut limiteurTraces à modifier.
+   */
+  public void setLimiteurTraces(final ErrorLogThrottle limiteurTraces) {
+    this.limiteurTraces = limiteurTraces;
+  }
+
+  /**
+   * Accesseur en lecture de l'attribut <code>metriques</code>.
+   * 
+   * @return ErrorMetrics L'attribut metriques à lire.
+   */
+  public ErrorMetrics getMetriques() {
+    return metriques;
+  }
+
+  /**
+   * Accesseur en écriture de l'attribut <code>metriques</code> : métriques des exceptions créées
+   * ({@link ErrorMetrics#INSTANCE} par défaut), null pour ne pas les compter.
+   * 
+   * @param metriques
+   *          L'attribut metriques à modifier.
+   */
+  public void setMetriques(final ErrorMetrics metriques) {
+    this.metriques = metriques;
+  }
+
+  /**
+   * Retourne une copie non modifiable de <code>codes</code>.
+   * 
+   * @param codes
+   *          les codes (nullable)
+   * @return la copie
+   */
+  private static Set<String> copie(final Collection<String> codes) {
+    if (codes == null || codes.isEmpty()) {
+      return Collections.emptySet();
+    }
+    return Collections.unmodifiableSet(new HashSet<String>(codes));
   }
 
 }
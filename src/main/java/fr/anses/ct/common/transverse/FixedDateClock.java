@@ -0,0 +1,50 @@
+package fr.anses.ct.common.transverse;
+
+/**
+ * Horloge figée, déplacée uniquement par {@link #setMillis(long)} et {@link #avancer(long)}.
+ * Destinée aux tests.
+ */
+public final class FixedDateClock implements DateClock {
+
+  /** Instant courant. */
+  private volatile long millis;
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param millis
+   *          instant initial en millisecondes depuis l'epoch
+   */
+  public FixedDateClock(final long millis) {
+    this.millis = millis;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMillis() {
+    return millis;
+  }
+
+  /**
+   * Modifie l'instant courant.
+   *
+   * @param nouveauMillis
+   *          instant en millisecondes depuis l'epoch
+   */
+  public void setMillis(final long nouveauMillis) {
+    millis = nouveauMillis;
+  }
+
+  /**
+   * Avance l'horloge.
+   *
+   * @param duree
+   *          durée en millisecondes (éventuellement négative)
+   */
+  public synchronized void avancer(final long duree) {
+    millis += duree;
+  }
+
+}
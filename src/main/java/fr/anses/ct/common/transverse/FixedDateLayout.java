@@ -0,0 +1,709 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * Encodeurs/décodeurs des formats de dates à largeur fixe de {@link DateUtils}.
+ * <p>
+ * Ces formats sont uniquement composés de chiffres à position fixe et de séparateurs : l'écriture
+ * et la lecture se font par arithmétique directe sur les champs, sans <code>Calendar</code>, sans
+ * <code>DateTime</code> et sans <code>String</code> intermédiaire. Les résultats sont identiques à
+ * ceux de Joda-Time pour les années 0 à 9999.
+ * </p>
+ * <p>
+ * La lecture est stricte : le texte doit respecter exactement le gabarit (chiffres et
+ * séparateurs), les champs doivent être valides et l'heure locale doit exister dans le fuseau
+ * horaire.
+ * </p>
+ */
+public enum FixedDateLayout {
+
+  /** {@link DateUtils#FORMAT_DATE_AAAAMMJJ} : yyyyMMdd. */
+  AAAAMMJJ(DateUtils.FORMAT_DATE_AAAAMMJJ),
+
+  /** {@link DateUtils#FORMAT_DATE} : yyyy-MM-dd. */
+  DATE(DateUtils.FORMAT_DATE),
+
+  /** {@link DateUtils#FORMAT_DATE_BASE_DE_DONNEES} : yyyyMMddHHmmss. */
+  BASE_DE_DONNEES(DateUtils.FORMAT_DATE_BASE_DE_DONNEES),
+
+  /** {@link DateUtils#FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP} : yyyy-MM-dd HH:mm:ss.SSS. */
+  TIMESTAMP(DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP),
+
+  /** {@link DateUtils#FORMAT_ISO_DATE_RACVISION} : yyyy-MM-dd HH:mm:ss. */
+  DATE_HEURE(DateUtils.FORMAT_ISO_DATE_RACVISION),
+
+  /** {@link DateUtils#FORMAT_DATE_BAS_PAGE} : dd/MM/yyyy HH:mm:ss. */
+  BAS_PAGE(DateUtils.FORMAT_DATE_BAS_PAGE),
+
+  /** {@link DateUtils#FORMAT_AFFICHAGE_DATE} : dd-MM-yyyy. */
+  AFFICHAGE_DATE(DateUtils.FORMAT_AFFICHAGE_DATE),
+
+  /** {@link DateUtils#FORMAT_DATE_JJMMAAAA} : ddMMyyyy. */
+  JJMMAAAA(DateUtils.FORMAT_DATE_JJMMAAAA),
+
+  /** {@link DateUtils#FORMAT_AAAA} : yyyy (1er janvier à 00:00 en lecture). */
+  AAAA(DateUtils.FORMAT_AAAA);
+
+  /** Valeur retournée par les lectures internes lorsque le texte est invalide. */
+  static final long INVALIDE = Long.MIN_VALUE;
+
+  /** Message d'erreur lors de la verification de la nullité des params. */
+  private static final String NULL_ERROR_PATTERN = "le paramètre '%s' est null";
+
+  /** Champ année. */
+  private static final int ANNEE = 0;
+
+  /** Champ mois. */
+  private static final int MOIS = 1;
+
+  /** Champ jour. */
+  private static final int JOUR = 2;
+
+  /** Champ heure. */
+  private static final int HEURE = 3;
+
+  /** Champ minute. */
+  private static final int MINUTE = 4;
+
+  /** Champ seconde. */
+  private static final int SECONDE = 5;
+
+  /** Champ milliseconde. */
+  private static final int MILLI = 6;
+
+  /** Nombre de champs. */
+  private static final int NB_CHAMPS = 7;
+
+  /** Valeur lue pour un champ absent du format (1er du mois, janvier). */
+  private static final int[] DEFAUT_PAR_CHAMP = {0, 1, 1, 0, 0, 0, 0 };
+
+  /** Année maximale représentable sur 4 chiffres. */
+  private static final int ANNEE_MAX = 9999;
+
+  /** Format Joda-Time équivalent. */
+  private final String format;
+
+  /** Gabarit : séparateurs aux positions littérales. */
+  private final char[] gabarit;
+
+  /** Champ de chaque position (-1 pour un séparateur). */
+  private final int[] champParPosition;
+
+  /** Puissance de 10 du chiffre de chaque position. */
+  private final int[] diviseurParPosition;
+
+  /** Position de début de chaque champ (-1 si absent). */
+  private final int[] positionParChamp;
+
+  /** Nombre de chiffres de chaque champ. */
+  private final int[] largeurParChamp;
+
+  /**
+   * Constructeur.
+   *
+   * @param format
+   *          format Joda-Time composé uniquement de chiffres et de séparateurs non quotés
+   */
+  private FixedDateLayout(final String format) {
+    this.format = format;
+    final int longueur = format.length();
+    gabarit = format.toCharArray();
+    champParPosition = new int[longueur];
+    diviseurParPosition = new int[longueur];
+    positionParChamp = new int[NB_CHAMPS];
+    largeurParChamp = new int[NB_CHAMPS];
+    for (int champ = 0; champ < NB_CHAMPS; champ++) {
+      positionParChamp[champ] = -1;
+    }
+    int i = 0;
+    while (i < longueur) {
+      final char lettre = gabarit[i];
+      final int champ = champ(lettre);
+      if (champ < 0) {
+        champParPosition[i++] = -1;
+        continue;
+      }
+      int fin = i;
+      while (fin < longueur && gabarit[fin] == lettre) {
+        fin++;
+      }
+      positionParChamp[champ] = i;
+      largeurParChamp[champ] = fin - i;
+      int diviseur = 1;
+      for (int j = fin - 1; j >= i; j--) {
+        champParPosition[j] = champ;
+        diviseurParPosition[j] = diviseur;
+        diviseur *= 10;
+      }
+      i = fin;
+    }
+  }
+
+  /**
+   * Retourne le champ correspondant à une lettre de format.
+   *
+   * @param lettre
+   *          lettre du format
+   * @return le champ, -1 pour un séparateur
+   */
+  private static int champ(final char lettre) {
+    switch (lettre) {
+      case 'y':
+        return ANNEE;
+      case 'M':
+        return MOIS;
+      case 'd':
+        return JOUR;
+      case 'H':
+        return HEURE;
+      case 'm':
+        return MINUTE;
+      case 's':
+        return SECONDE;
+      case 'S':
+        return MILLI;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Retourne le gabarit correspondant au format <code>format</code>.
+   *
+   * @param format
+   *          format Joda-Time
+   * @return le gabarit, <code>null</code> si le format n'est pas à largeur fixe
+   */
+  public static FixedDateLayout pourFormat(final String format) {
+    for (FixedDateLayout layout : values()) {
+      if (layout.format.equals(format)) {
+        return layout;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Retourne le format Joda-Time équivalent.
+   *
+   * @return le format
+   */
+  public String getFormat() {
+    return format;
+  }
+
+  /**
+   * Retourne le nombre de caractères du format.
+   *
+   * @return le nombre de caractères
+   */
+  public int getLongueur() {
+    return gabarit.length;
+  }
+
+  /**
+   * Indique si le format contient une heure.
+   *
+   * @return true si le format contient au moins le champ heure
+   */
+  public boolean contientHeure() {
+    return positionParChamp[HEURE] >= 0;
+  }
+
+  /**
+   * Formate l'instant <code>millis</code> dans le fuseau <code>zone</code>. Hors des années 0 à
+   * 9999, le formatage est délégué à Joda-Time.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @param zone
+   *          fuseau horaire
+   * @return la date formatée
+   */
+  public String formater(final long millis, final DateTimeZone zone) {
+    final long champs = champs(millis, zone);
+    if (champs < 0) {
+      return DateFormatterRegistry.getInstance().getFormateur(format, zone).print(millis);
+    }
+    final char[] texte = new char[gabarit.length];
+    ecrire(champs, texte, 0);
+    return new String(texte);
+  }
+
+  /**
+   * Ajoute l'instant <code>millis</code> formaté dans le fuseau <code>zone</code> au buffer
+   * <code>dest</code>.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @param zone
+   *          fuseau horaire
+   * @param dest
+   *          buffer de destination
+   * @return le buffer <code>dest</code>
+   */
+  public StringBuilder formater(final long millis, final DateTimeZone zone, final StringBuilder dest) {
+    final long champs = champsFormatables(millis, zone);
+    for (int i = 0; i < gabarit.length; i++) {
+      dest.append(caractere(champs, i));
+    }
+    return dest;
+  }
+
+  /**
+   * Ecrit l'instant <code>millis</code> formaté dans le fuseau <code>zone</code> dans le tableau
+   * <code>dest</code> à partir de <code>offset</code>.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @param zone
+   *          fuseau horaire
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position d'écriture
+   * @return la position qui suit le dernier caractère écrit
+   */
+  public int formater(final long millis, final DateTimeZone zone, final char[] dest, final int offset) {
+    return ecrire(champsFormatables(millis, zone), dest, offset);
+  }
+
+  /**
+   * Ecrit l'instant <code>millis</code> formaté dans le fuseau <code>zone</code> en ASCII dans le
+   * tableau <code>dest</code> à partir de <code>offset</code>.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @param zone
+   *          fuseau horaire
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position d'écriture
+   * @return la position qui suit le dernier octet écrit
+   */
+  public int formater(final long millis, final DateTimeZone zone, final byte[] dest, final int offset) {
+    final long champs = champsFormatables(millis, zone);
+    for (int i = 0; i < gabarit.length; i++) {
+      dest[offset + i] = (byte) caractere(champs, i);
+    }
+    return offset + gabarit.length;
+  }
+
+  /**
+   * Lit la date contenue dans <code>texte</code>, qui doit avoir exactement la longueur du format.
+   *
+   * @param texte
+   *          le texte à lire
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si le texte ne respecte pas le format
+   */
+  public long parser(final CharSequence texte, final DateTimeZone zone) {
+    notNull(texte, NULL_ERROR_PATTERN, DateUtils.DATE_ARG);
+    isTrue(texte.length() == gabarit.length, "Longueur invalide pour le format %s : %s", format, texte);
+    return verifier(tenterParser(texte, 0, zone), texte);
+  }
+
+  /**
+   * Lit la date contenue dans <code>texte</code> à partir de <code>offset</code>.
+   *
+   * @param texte
+   *          le texte à lire
+   * @param offset
+   *          position du premier caractère de la date
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si le texte ne respecte pas le format
+   */
+  public long parser(final CharSequence texte, final int offset, final DateTimeZone zone) {
+    notNull(texte, NULL_ERROR_PATTERN, DateUtils.DATE_ARG);
+    isTrue(offset >= 0 && offset + gabarit.length <= texte.length(), "Texte trop court pour le format %s", format);
+    return verifier(tenterParser(texte, offset, zone), texte);
+  }
+
+  /**
+   * Lit la date contenue en ASCII dans <code>texte</code> à partir de <code>offset</code>.
+   *
+   * @param texte
+   *          le tableau à lire
+   * @param offset
+   *          position du premier octet de la date
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si le texte ne respecte pas le format
+   */
+  public long parser(final byte[] texte, final int offset, final DateTimeZone zone) {
+    notNull(texte, NULL_ERROR_PATTERN, DateUtils.DATE_ARG);
+    isTrue(offset >= 0 && offset + gabarit.length <= texte.length, "Texte trop court pour le format %s", format);
+    // lecture par index absolu sur le tableau, sans copie
+    final long millis = tenterParser(ByteBuffer.wrap(texte), offset, zone);
+    isTrue(millis != INVALIDE, "Date invalide pour le format %s", format);
+    return millis;
+  }
+
+  /**
+   * Lit la date contenue en ASCII dans <code>buffer</code> à partir de sa position, puis avance la
+   * position de {@link #getLongueur()} octets. Aucune <code>String</code> n'est créée : le buffer
+   * peut être direct ou issu d'un fichier projeté en mémoire.
+   *
+   * @param buffer
+   *          le buffer à lire
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si le texte ne respecte pas le format (la position n'est alors pas modifiée)
+   */
+  public long parser(final ByteBuffer buffer, final DateTimeZone zone) {
+    notNull(buffer, NULL_ERROR_PATTERN, DateUtils.DATE_ARG);
+    final int position = buffer.position();
+    final long millis = parser(buffer, position, zone);
+    buffer.position(position + gabarit.length);
+    return millis;
+  }
+
+  /**
+   * Lit la date contenue en ASCII dans <code>buffer</code> à partir de l'index absolu
+   * <code>index</code>, sans modifier la position du buffer.
+   *
+   * @param buffer
+   *          le buffer à lire
+   * @param index
+   *          index du premier octet de la date
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si le texte ne respecte pas le format
+   */
+  public long parser(final ByteBuffer buffer, final int index, final DateTimeZone zone) {
+    notNull(buffer, NULL_ERROR_PATTERN, DateUtils.DATE_ARG);
+    isTrue(index >= 0 && index + gabarit.length <= buffer.limit(), "Texte trop court pour le format %s", format);
+    final long millis = tenterParser(buffer, index, zone);
+    isTrue(millis != INVALIDE, "Date invalide pour le format %s", format);
+    return millis;
+  }
+
+  /**
+   * Lit la date contenue dans <code>buffer</code> à partir de sa position, puis avance la position
+   * de {@link #getLongueur()} caractères. Pour une lecture sans déplacement, utiliser
+   * {@link #parser(CharSequence, int, DateTimeZone)} (les index sont alors relatifs à la position).
+   *
+   * @param buffer
+   *          le buffer à lire
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si le texte ne respecte pas le format (la position n'est alors pas modifiée)
+   */
+  public long parser(final CharBuffer buffer, final DateTimeZone zone) {
+    final long millis = parser((CharSequence) buffer, 0, zone);
+    buffer.position(buffer.position() + gabarit.length);
+    return millis;
+  }
+
+  /**
+   * Lit la date contenue dans <code>texte</code> à partir de <code>offset</code>, sans lever
+   * d'exception. Le texte doit contenir au moins {@link #getLongueur()} caractères après
+   * <code>offset</code>.
+   *
+   * @param texte
+   *          le texte à lire
+   * @param offset
+   *          position du premier caractère de la date
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return l'instant en millisecondes depuis l'epoch, {@link #INVALIDE} si le texte est invalide
+   */
+  long tenterParser(final CharSequence texte, final int offset, final DateTimeZone zone) {
+    for (int i = 0; i < gabarit.length; i++) {
+      if (champParPosition[i] < 0 && texte.charAt(offset + i) != gabarit[i]) {
+        return INVALIDE;
+      }
+    }
+    final int annee = lireNombre(texte, offset, ANNEE);
+    final int mois = lireNombre(texte, offset, MOIS);
+    final int jour = lireNombre(texte, offset, JOUR);
+    final int heure = lireNombre(texte, offset, HEURE);
+    final int minute = lireNombre(texte, offset, MINUTE);
+    final int seconde = lireNombre(texte, offset, SECONDE);
+    final int milli = lireNombre(texte, offset, MILLI);
+    return versMillis(annee, mois, jour, heure, minute, seconde, milli, zone);
+  }
+
+  /**
+   * Lit la date contenue en ASCII dans <code>buffer</code> à partir de l'index absolu
+   * <code>index</code>, sans lever d'exception. Le buffer doit contenir au moins
+   * {@link #getLongueur()} octets avant sa limite à partir de <code>index</code>.
+   *
+   * @param buffer
+   *          le buffer à lire
+   * @param index
+   *          index du premier octet de la date
+   * @param zone
+   *          fuseau horaire de l'heure locale lue
+   * @return l'instant en millisecondes depuis l'epoch, {@link #INVALIDE} si le texte est invalide
+   */
+  long tenterParser(final ByteBuffer buffer, final int index, final DateTimeZone zone) {
+    for (int i = 0; i < gabarit.length; i++) {
+      if (champParPosition[i] < 0 && buffer.get(index + i) != gabarit[i]) {
+        return INVALIDE;
+      }
+    }
+    final int annee = lireNombre(buffer, index, ANNEE);
+    final int mois = lireNombre(buffer, index, MOIS);
+    final int jour = lireNombre(buffer, index, JOUR);
+    final int heure = lireNombre(buffer, index, HEURE);
+    final int minute = lireNombre(buffer, index, MINUTE);
+    final int seconde = lireNombre(buffer, index, SECONDE);
+    final int milli = lireNombre(buffer, index, MILLI);
+    return versMillis(annee, mois, jour, heure, minute, seconde, milli, zone);
+  }
+
+  /**
+   * Lit la valeur d'un champ.
+   *
+   * @param texte
+   *          le texte
+   * @param offset
+   *          position du premier caractère de la date
+   * @param champ
+   *          le champ
+   * @return la valeur, la valeur par défaut si le champ est absent, -1 si un caractère n'est pas un
+   *         chiffre
+   */
+  private int lireNombre(final CharSequence texte, final int offset, final int champ) {
+    final int debut = positionParChamp[champ];
+    if (debut < 0) {
+      return DEFAUT_PAR_CHAMP[champ];
+    }
+    int valeur = 0;
+    for (int i = offset + debut, fin = i + largeurParChamp[champ]; i < fin; i++) {
+      final int chiffre = texte.charAt(i) - '0';
+      if (chiffre < 0 || chiffre > 9) {
+        return -1;
+      }
+      valeur = valeur * 10 + chiffre;
+    }
+    return valeur;
+  }
+
+  /**
+   * Lit la valeur d'un champ.
+   *
+   * @param texte
+   *          le buffer
+   * @param index
+   *          index du premier octet de la date
+   * @param champ
+   *          le champ
+   * @return la valeur, la valeur par défaut si le champ est absent, -1 si un octet n'est pas un
+   *         chiffre
+   */
+  private int lireNombre(final ByteBuffer texte, final int index, final int champ) {
+    final int debut = positionParChamp[champ];
+    if (debut < 0) {
+      return DEFAUT_PAR_CHAMP[champ];
+    }
+    int valeur = 0;
+    for (int i = index + debut, fin = i + largeurParChamp[champ]; i < fin; i++) {
+      final int chiffre = texte.get(i) - '0';
+      if (chiffre < 0 || chiffre > 9) {
+        return -1;
+      }
+      valeur = valeur * 10 + chiffre;
+    }
+    return valeur;
+  }
+
+  /**
+   * Convertit les champs lus en instant.
+   *
+   * @param annee
+   *          année
+   * @param mois
+   *          mois (1-12)
+   * @param jour
+   *          jour du mois
+   * @param heure
+   *          heure (0-23)
+   * @param minute
+   *          minute (0-59)
+   * @param seconde
+   *          seconde (0-59)
+   * @param milli
+   *          milliseconde (0-999)
+   * @param zone
+   *          fuseau horaire
+   * @return l'instant en millisecondes depuis l'epoch, {@link #INVALIDE} si un champ est invalide
+   */
+  static long versMillis(final int annee, final int mois, final int jour, final int heure, final int minute,
+    final int seconde, final int milli, final DateTimeZone zone) {
+    final long local = versLocal(annee, mois, jour, heure, minute, seconde, milli);
+    if (local == INVALIDE) {
+      return INVALIDE;
+    }
+    return CivilDates.versUtc(local, zone);
+  }
+
+  /**
+   * Convertit les champs lus en heure locale (millisecondes depuis l'epoch locale).
+   *
+   * @param annee
+   *          année
+   * @param mois
+   *          mois (1-12)
+   * @param jour
+   *          jour du mois
+   * @param heure
+   *          heure (0-23)
+   * @param minute
+   *          minute (0-59)
+   * @param seconde
+   *          seconde (0-59)
+   * @param milli
+   *          milliseconde (0-999)
+   * @return l'heure locale, {@link #INVALIDE} si un champ est invalide
+   */
+  static long versLocal(final int annee, final int mois, final int jour, final int heure, final int minute,
+    final int seconde, final int milli) {
+    if (annee < 0 || !CivilDates.estDateValide(annee, mois, jour) || heure < 0 || heure > 23 || minute < 0
+      || minute > 59 || seconde < 0 || seconde > 59 || milli < 0) {
+      return INVALIDE;
+    }
+    return CivilDates.jourEpoch(annee, mois, jour) * CivilDates.MILLIS_PAR_JOUR + heure
+      * CivilDates.MILLIS_PAR_HEURE + minute * CivilDates.MILLIS_PAR_MINUTE + seconde
+      * CivilDates.MILLIS_PAR_SECONDE + milli;
+  }
+
+  /**
+   * Vérifie le résultat d'une lecture.
+   *
+   * @param millis
+   *          résultat de la lecture
+   * @param texte
+   *          texte lu
+   * @return <code>millis</code>
+   */
+  private long verifier(final long millis, final CharSequence texte) {
+    isTrue(millis != INVALIDE, "Date invalide pour le format %s : %s", format, texte);
+    return millis;
+  }
+
+  /**
+   * Calcule les champs compactés de l'instant dans le fuseau.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @param zone
+   *          fuseau horaire
+   * @return les champs compactés, -1 si l'année n'est pas comprise entre 0 et 9999
+   */
+  static long champs(final long millis, final DateTimeZone zone) {
+    final long local = CivilDates.versLocal(millis, zone);
+    final long jourEpoch = CivilDates.floorDiv(local, CivilDates.MILLIS_PAR_JOUR);
+    final long civil = CivilDates.civil(jourEpoch);
+    final int annee = CivilDates.annee(civil);
+    if (annee < 0 || annee > ANNEE_MAX) {
+      return -1;
+    }
+    final long milliDuJour = local - jourEpoch * CivilDates.MILLIS_PAR_JOUR;
+    final long heure = milliDuJour / CivilDates.MILLIS_PAR_HEURE;
+    final long minute = milliDuJour / CivilDates.MILLIS_PAR_MINUTE % 60;
+    final long seconde = milliDuJour / CivilDates.MILLIS_PAR_SECONDE % 60;
+    final long milli = milliDuJour % CivilDates.MILLIS_PAR_SECONDE;
+    return ((long) annee << 36) | ((long) CivilDates.mois(civil) << 32) | ((long) CivilDates.jour(civil) << 27)
+      | (heure << 22) | (minute << 16) | (seconde << 10) | milli;
+  }
+
+  /**
+   * Calcule les champs compactés de l'instant dans le fuseau, en vérifiant que l'année est
+   * représentable sur 4 chiffres.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @param zone
+   *          fuseau horaire
+   * @return les champs compactés
+   */
+  private long champsFormatables(final long millis, final DateTimeZone zone) {
+    final long champs = champs(millis, notNull(zone, NULL_ERROR_PATTERN, "zone"));
+    isTrue(champs >= 0, "Année hors de l'intervalle 0-9999 pour le format %s : %s", format, millis);
+    return champs;
+  }
+
+  /**
+   * Ecrit les champs compactés dans le tableau.
+   *
+   * @param champs
+   *          champs compactés
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position d'écriture
+   * @return la position qui suit le dernier caractère écrit
+   */
+  private int ecrire(final long champs, final char[] dest, final int offset) {
+    for (int i = 0; i < gabarit.length; i++) {
+      dest[offset + i] = caractere(champs, i);
+    }
+    return offset + gabarit.length;
+  }
+
+  /**
+   * Retourne le caractère à la position <code>i</code> du format pour les champs compactés.
+   *
+   * @param champs
+   *          champs compactés
+   * @param i
+   *          position dans le format
+   * @return le caractère
+   */
+  private char caractere(final long champs, final int i) {
+    final int champ = champParPosition[i];
+    if (champ < 0) {
+      return gabarit[i];
+    }
+    final int valeur;
+    switch (champ) {
+      case ANNEE:
+        valeur = (int) (champs >>> 36);
+        break;
+      case MOIS:
+        valeur = (int) (champs >>> 32) & 0xF;
+        break;
+      case JOUR:
+        valeur = (int) (champs >>> 27) & 0x1F;
+        break;
+      case HEURE:
+        valeur = (int) (champs >>> 22) & 0x1F;
+        break;
+      case MINUTE:
+        valeur = (int) (champs >>> 16) & 0x3F;
+        break;
+      case SECONDE:
+        valeur = (int) (champs >>> 10) & 0x3F;
+        break;
+      default:
+        valeur = (int) champs & 0x3FF;
+        break;
+    }
+    return (char) ('0' + valeur / diviseurParPosition[i] % 10);
+  }
+
+}
@@ -0,0 +1,303 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.Serializable;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Date (instant et fuseau horaire) immuable.
+ * <p>
+ * Alternative aux <code>Calendar</code> mutables : une instance ne contient qu'un instant en
+ * millisecondes et son fuseau horaire Joda-Time (résolu une seule fois), peut être partagée entre
+ * threads sans copie défensive et sert de clé de map (égalité sur l'instant et l'identifiant du
+ * fuseau, quelle que soit l'implémentation du fuseau : Joda-Time, moteur java.time ou fuseau relu
+ * après sérialisation). Les conversions vers et depuis <code>Calendar</code> et <code>Date</code>
+ * sont directes.
+ * </p>
+ */
+public final class ImmutableDate implements Comparable<ImmutableDate>, Serializable {
+
+  /** serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+
+  /** Message d'erreur lors de la verification de la nullité des params. */
+  private static final String NULL_ERROR_PATTERN = "le paramètre '%s' est null";
+
+  /** Instant en millisecondes depuis l'epoch. */
+  private final long millis;
+
+  /** Fuseau horaire. */
+  private final DateTimeZone zone;
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @param zone
+   *          fuseau horaire
+   */
+  private ImmutableDate(final long millis, final DateTimeZone zone) {
+    this.millis = millis;
+    this.zone = zone;
+  }
+
+  /**
+   * Retourne la date de l'instant <code>millis</code> dans le fuseau horaire par défaut.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @return la date
+   */
+  public static ImmutableDate of(final long millis) {
+    return new ImmutableDate(millis, DateUtils.getBackend().getZone());
+  }
+
+  /**
+   * Retourne la date de l'instant <code>millis</code> dans le fuseau horaire <code>zone</code>.
+   *
+   * @param millis
+   *          instant en millisecondes depuis l'epoch
+   * @param zone
+   *          fuseau horaire
+   * @return la date
+   */
+  public static ImmutableDate of(final long millis, final DateTimeZone zone) {
+    return new ImmutableDate(millis, notNull(zone, NULL_ERROR_PATTERN, "zone"));
+  }
+
+  /**
+   * Retourne la date courante de l'horloge de {@link DateUtils}, dans le fuseau horaire par
+   * défaut.
+   *
+   * @return la date courante
+   */
+  public static ImmutableDate maintenant() {
+    return of(DateUtils.getMillisCourant());
+  }
+
+  /**
+   * Retourne la date du calendar, dans son fuseau horaire (null safe).
+   *
+   * @param calendar
+   *          le calendar
+   * @return la date, <code>null</code> si <code>calendar</code> est null
+   */
+  public static ImmutableDate from(final Calendar calendar) {
+    if (calendar == null) {
+      return null;
+    }
+    return new ImmutableDate(calendar.getTimeInMillis(), DateUtils.getZone(calendar));
+  }
+
+  /**
+   * Retourne la date de <code>date</code> dans le fuseau horaire par défaut (null safe).
+   *
+   * @param date
+   *          la date
+   * @return la date, <code>null</code> si <code>date</code> est null
+   */
+  public static ImmutableDate from(final Date date) {
+    if (date == null) {
+      return null;
+    }
+    return of(date.getTime());
+  }
+
+  /**
+   * Retourne l'instant.
+   *
+   * @return l'instant en millisecondes depuis l'epoch
+   */
+  public long getMillis() {
+    return millis;
+  }
+
+  /**
+   * Retourne le fuseau horaire.
+   *
+   * @return le fuseau horaire
+   */
+  public DateTimeZone getZone() {
+    return zone;
+  }
+
+  /**
+   * Retourne le jour (nombre de jours depuis le 1970-01-01) de la date dans son fuseau horaire.
+   *
+   * @return le jour epoch
+   */
+  public int getJourEpoch() {
+    return DateUtils.toJourEpoch(millis, zone);
+  }
+
+  /**
+   * Retourne l'année de la date dans son fuseau horaire.
+   *
+   * @return l'année
+   */
+  public int getAnnee() {
+    return CivilDates.annee(CivilDates.civil(getJourEpoch()));
+  }
+
+  /**
+   * Retourne le mois (1-12) de la date dans son fuseau horaire.
+   *
+   * @return le mois
+   */
+  public int getMois() {
+    return CivilDates.mois(CivilDates.civil(getJourEpoch()));
+  }
+
+  /**
+   * Retourne le jour du mois de la date dans son fuseau horaire.
+   *
+   * @return le jour du mois
+   */
+  public int getJour() {
+    return CivilDates.jour(CivilDates.civil(getJourEpoch()));
+  }
+
+  /**
+   * Retourne la même date dans le fuseau horaire <code>nouvelleZone</code>.
+   *
+   * @param nouvelleZone
+   *          fuseau horaire
+   * @return la date (<code>this</code> si le fuseau est inchangé)
+   */
+  public ImmutableDate withZone(final DateTimeZone nouvelleZone) {
+    if (zone.getID().equals(notNull(nouvelleZone, NULL_ERROR_PATTERN, "zone").getID())) {
+      return this;
+    }
+    return new ImmutableDate(millis, nouvelleZone);
+  }
+
+  /**
+   * Retourne la date décalée de <code>duree</code> millisecondes.
+   *
+   * @param duree
+   *          durée en millisecondes (éventuellement négative)
+   * @return la date
+   */
+  public ImmutableDate plusMillis(final long duree) {
+    if (duree == 0) {
+      return this;
+    }
+    return new ImmutableDate(millis + duree, zone);
+  }
+
+  /**
+   * Retourne le premier instant du jour de la date, dans son fuseau horaire (équivalent immuable
+   * de {@link DateUtils#miseAZeroHeure(Calendar)}).
+   *
+   * @return la date à 00:00
+   */
+  public ImmutableDate debutDeJour() {
+    final DayBoundaryIndex index = DayBoundaryIndex.pour(zone);
+    final long debut;
+    if (index.contient(millis)) {
+      debut = index.debutDeJour(millis);
+    } else {
+      debut = new DateTime(millis, zone).withTimeAtStartOfDay().getMillis();
+    }
+    return debut == millis ? this : new ImmutableDate(debut, zone);
+  }
+
+  /**
+   * Indique si la date est strictement postérieure à <code>autre</code>.
+   *
+   * @param autre
+   *          autre date
+   * @return true si la date est postérieure
+   */
+  public boolean isAfter(final ImmutableDate autre) {
+    return millis > autre.millis;
+  }
+
+  /**
+   * Indique si la date est strictement antérieure à <code>autre</code>.
+   *
+   * @param autre
+   *          autre date
+   * @return true si la date est antérieure
+   */
+  public boolean isBefore(final ImmutableDate autre) {
+    return millis < autre.millis;
+  }
+
+  /**
+   * Retourne un nouveau calendar grégorien de la date, dans son fuseau horaire.
+   *
+   * @return le calendar
+   */
+  public Calendar toCalendar() {
+    final Calendar calendar = new GregorianCalendar(zone.toTimeZone(), Locale.getDefault());
+    calendar.setTimeInMillis(millis);
+    return calendar;
+  }
+
+  /**
+   * Retourne une nouvelle <code>Date</code> de l'instant.
+   *
+   * @return la date
+   */
+  public Date toDate() {
+    return new Date(millis);
+  }
+
+  /**
+   * Compare les instants, puis les identifiants des fuseaux horaires pour un même instant
+   * (cohérent avec {@link #equals(Object)}).
+   *
+   * @param autre
+   *          autre date
+   * @return le résultat de la comparaison
+   */
+  @Override
+  public int compareTo(final ImmutableDate autre) {
+    final int comparaison = Long.compare(millis, autre.millis);
+    return comparaison != 0 ? comparaison : zone.getID().compareTo(autre.zone.getID());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ImmutableDate)) {
+      return false;
+    }
+    final ImmutableDate autre = (ImmutableDate) obj;
+    return millis == autre.millis && zone.getID().equals(autre.zone.getID());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return 31 * (int) (millis ^ (millis >>> 32)) + zone.getID().hashCode();
+  }
+
+  /**
+   * Retourne la date au format {@link DateUtils#FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP} suivie du
+   * fuseau horaire.
+   *
+   * @return la date
+   */
+  @Override
+  public String toString() {
+    return FixedDateLayout.TIMESTAMP.formater(millis, zone) + ' ' + zone.getID();
+  }
+
+}
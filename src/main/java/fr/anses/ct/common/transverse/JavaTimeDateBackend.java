@@ -0,0 +1,491 @@
+package fr.anses.ct.common.transverse;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.format.SignStyle;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * Moteur de dates <code>java.time</code>.
+ * <p>
+ * Les formats Joda-Time sont traduits en <code>DateTimeFormatter</code> (mis en cache, bornés à
+ * {@link DateFormatterRegistry#TAILLE_MAX_DEFAUT} formats) avec la même sémantique d'écriture :
+ * <code>y</code> est l'année proleptique, <code>yy</code> utilise le pivot Joda (année courante
+ * - 30), <code>S</code> est tronqué au nombre de lettres et <code>Z</code> s'écrit +HHMM. Les heures
+ * locales inexistantes sont rejetées à la lecture, comme avec Joda-Time. Les lettres supportées
+ * sont y, M, d, D, E, a, h, H, k, K, m, s, S et Z.
+ * </p>
+ * <p>
+ * {@link #getZone()} adapte le fuseau <code>ZoneId.systemDefault()</code> en
+ * <code>DateTimeZone</code> dont les décalages viennent des règles du JDK : les formats à largeur
+ * fixe et les calculs au jour de {@link DateUtils} suivent donc la même base tz que ce moteur, y
+ * compris pour les fuseaux où elle diffère de celle embarquée par Joda-Time. Les méthodes qui
+ * reçoivent explicitement un <code>DateTimeZone</code> Joda-Time (ex : {@link ImmutableDate}
+ * créée par <code>ImmutableDate.of(millis, zone)</code>) gardent les règles de Joda-Time.
+ * </p>
+ */
+public final class JavaTimeDateBackend implements DateBackend {
+
+  /** Nom du moteur. */
+  public static final String NOM = "java.time";
+
+  /** Instance partagée. */
+  public static final JavaTimeDateBackend INSTANCE = new JavaTimeDateBackend();
+
+  /** Nombre d'années entre le pivot des années sur 2 chiffres et l'année courante (Joda-Time). */
+  private static final int PIVOT_ANNEES = 30;
+
+  /** Nombre de nanosecondes dans une milliseconde. */
+  private static final int NANOS_PAR_MILLI = 1000000;
+
+  /** Fuseau par défaut adapté, remplacé si le fuseau par défaut change. */
+  private volatile FuseauJdk zone;
+
+  /** Formateurs d'écriture traduits par format Joda-Time. */
+  private final ConcurrentMap<String, DateTimeFormatter> formateurs =
+    new ConcurrentHashMap<String, DateTimeFormatter>();
+
+  /** Formateurs de lecture traduits par format Joda-Time. */
+  private final ConcurrentMap<String, DateTimeFormatter> lecteurs =
+    new ConcurrentHashMap<String, DateTimeFormatter>();
+
+  /**
+   * Constructeur de la classe.
+   */
+  private JavaTimeDateBackend() {
+    // Constructeur vide
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getNom() {
+    return NOM;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String formater(final long millis, final String format) {
+    try {
+      return formateur(format, false).format(Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()));
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long parser(final String date, final String format) {
+    final TemporalAccessor champs;
+    try {
+      champs = formateur(format, true).parse(date);
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException(e.getMessage(), e);
+    }
+    final LocalDateTime local = LocalDateTime.of(champs.query(TemporalQueries.localDate()),
+      champs.query(TemporalQueries.localTime()));
+    ZoneOffset offset = champs.query(TemporalQueries.offset());
+    if (offset == null) {
+      final List<ZoneOffset> offsets = ZoneId.systemDefault().getRules().getValidOffsets(local);
+      if (offsets.isEmpty()) {
+        throw new IllegalArgumentException("Cannot parse \"" + date
+          + "\": Illegal instant due to time zone offset transition (" + ZoneId.systemDefault() + ')');
+      }
+      offset = offsets.get(0);
+    }
+    return local.toEpochSecond(offset) * CivilDates.MILLIS_PAR_SECONDE + local.getNano() / NANOS_PAR_MILLI;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long debutDeJour(final int annee, final int mois, final int jour) {
+    try {
+      return LocalDate.of(annee, mois, jour).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Calendar toCalendar(final long millis) {
+    final Calendar calendar = Calendar.getInstance(TimeZone.getDefault(), Locale.getDefault());
+    calendar.setTimeInMillis(millis);
+    return calendar;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DateTimeZone getZone() {
+    final ZoneId id = ZoneId.systemDefault();
+    FuseauJdk courant = zone;
+    if (courant == null || !courant.zoneId.equals(id)) {
+      courant = new FuseauJdk(id);
+      zone = courant;
+    }
+    return courant;
+  }
+
+  /**
+   * Retourne le formateur traduit du format Joda-Time <code>format</code>.
+   *
+   * @param format
+   *          format Joda-Time
+   * @param lecture
+   *          true pour le formateur de lecture, false pour celui d'écriture
+   * @return le formateur java.time
+   */
+  private DateTimeFormatter formateur(final String format, final boolean lecture) {
+    final ConcurrentMap<String, DateTimeFormatter> cache = lecture ? lecteurs : formateurs;
+    DateTimeFormatter formateur = cache.get(format);
+    if (formateur == null) {
+      formateur = traduire(format, lecture);
+      if (cache.size() < DateFormatterRegistry.TAILLE_MAX_DEFAUT) {
+        final DateTimeFormatter existant = cache.putIfAbsent(format, formateur);
+        if (existant != null) {
+          formateur = existant;
+        }
+      }
+    }
+    return formateur;
+  }
+
+  /**
+   * Traduit un format Joda-Time en <code>DateTimeFormatter</code>.
+   * <p>
+   * Une année suivie d'un champ numérique s'écrit comme avec Joda-Time (signe des années avant
+   * l'an 1, tous ses chiffres au-delà de 9999) mais se lit sur le nombre de lettres, signe en plus :
+   * d'où un formateur de lecture distinct de celui d'écriture.
+   * </p>
+   *
+   * @param format
+   *          format Joda-Time
+   * @param lecture
+   *          true pour le formateur de lecture, false pour celui d'écriture
+   * @return le formateur java.time
+   */
+  static DateTimeFormatter traduire(final String format, final boolean lecture) {
+    final DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+    final int longueur = format.length();
+    boolean annee = false;
+    boolean mois = false;
+    boolean jour = false;
+    boolean heure = false;
+    boolean fraction = false;
+    int i = 0;
+    while (i < longueur) {
+      final char lettre = format.charAt(i);
+      if (lettre == '\'') {
+        i = litteral(format, i, builder);
+        continue;
+      }
+      int fin = i;
+      while (fin < longueur && format.charAt(fin) == lettre) {
+        fin++;
+      }
+      final int n = fin - i;
+      final boolean suiviNumerique = fin < longueur && estNumerique(format, fin);
+      switch (lettre) {
+        case 'y':
+          annee = true;
+          if (n == 2) {
+            builder.appendValueReduced(ChronoField.YEAR, 2, 2, LocalDate.now().getYear() - PIVOT_ANNEES - 50);
+          } else if (suiviNumerique && lecture) {
+            builder.appendValue(ChronoField.YEAR, n, n, SignStyle.NORMAL);
+          } else {
+            builder.appendValue(ChronoField.YEAR, n, 9, SignStyle.NORMAL);
+          }
+          break;
+        case 'M':
+          mois = true;
+          if (n >= 3) {
+            builder.appendText(ChronoField.MONTH_OF_YEAR, n >= 4 ? TextStyle.FULL : TextStyle.SHORT);
+          } else {
+            nombre(builder, ChronoField.MONTH_OF_YEAR, n, 2);
+          }
+          break;
+        case 'd':
+          jour = true;
+          nombre(builder, ChronoField.DAY_OF_MONTH, n, 2);
+          break;
+        case 'D':
+          jour = true;
+          mois = true;
+          nombre(builder, ChronoField.DAY_OF_YEAR, n, 3);
+          break;
+        case 'E':
+          builder.appendText(ChronoField.DAY_OF_WEEK, n >= 4 ? TextStyle.FULL : TextStyle.SHORT);
+          break;
+        case 'a':
+          heure = true;
+          builder.appendText(ChronoField.AMPM_OF_DAY, TextStyle.SHORT);
+          break;
+        case 'h':
+          heure = true;
+          nombre(builder, ChronoField.CLOCK_HOUR_OF_AMPM, n, 2);
+          break;
+        case 'H':
+          heure = true;
+          nombre(builder, ChronoField.HOUR_OF_DAY, n, 2);
+          break;
+        case 'k':
+          heure = true;
+          nombre(builder, ChronoField.CLOCK_HOUR_OF_DAY, n, 2);
+          break;
+        case 'K':
+          heure = true;
+          nombre(builder, ChronoField.HOUR_OF_AMPM, n, 2);
+          break;
+        case 'm':
+          nombre(builder, ChronoField.MINUTE_OF_HOUR, n, 2);
+          break;
+        case 's':
+          nombre(builder, ChronoField.SECOND_OF_MINUTE, n, 2);
+          break;
+        case 'S':
+          fraction = true;
+          builder.appendFraction(ChronoField.NANO_OF_SECOND, n, n, false);
+          break;
+        case 'Z':
+          if (n == 1) {
+            builder.appendOffset("+HHMM", "+0000");
+          } else if (n == 2) {
+            builder.appendOffset("+HH:MM", "+00:00");
+          } else {
+            builder.appendZoneId();
+          }
+          break;
+        default:
+          if ((lettre >= 'A' && lettre <= 'Z') || (lettre >= 'a' && lettre <= 'z')) {
+            throw new IllegalArgumentException("Lettre de format non supportée par le moteur " + NOM + " : "
+              + format);
+          }
+          builder.appendLiteral(format.substring(i, fin));
+          break;
+      }
+      i = fin;
+    }
+    if (!annee) {
+      builder.parseDefaulting(ChronoField.YEAR, 1970);
+    }
+    if (!mois) {
+      builder.parseDefaulting(ChronoField.MONTH_OF_YEAR, 1);
+    }
+    if (!jour) {
+      builder.parseDefaulting(ChronoField.DAY_OF_MONTH, 1);
+    }
+    if (!heure) {
+      builder.parseDefaulting(ChronoField.HOUR_OF_DAY, 0);
+    }
+    builder.parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0);
+    builder.parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0);
+    if (!fraction) {
+      builder.parseDefaulting(ChronoField.NANO_OF_SECOND, 0);
+    }
+    return builder.toFormatter(Locale.getDefault()).withResolverStyle(ResolverStyle.STRICT);
+  }
+
+  /**
+   * Ajoute un champ numérique.
+   *
+   * @param builder
+   *          builder
+   * @param champ
+   *          champ
+   * @param n
+   *          nombre de lettres (chiffres minimum)
+   * @param max
+   *          nombre de chiffres maximum du champ
+   */
+  private static void nombre(final DateTimeFormatterBuilder builder, final ChronoField champ, final int n,
+    final int max) {
+    builder.appendValue(champ, n, Math.max(n, max), SignStyle.NOT_NEGATIVE);
+  }
+
+  /**
+   * Indique si le format commence par un champ numérique à la position <code>i</code>.
+   *
+   * @param format
+   *          format
+   * @param i
+   *          position
+   * @return true si le champ est numérique
+   */
+  private static boolean estNumerique(final String format, final int i) {
+    final char lettre = format.charAt(i);
+    if (lettre == 'M') {
+      return i + 2 >= format.length() || format.charAt(i + 1) != 'M' || format.charAt(i + 2) != 'M';
+    }
+    return "yYdDhHkKmsSCxwe".indexOf(lettre) >= 0;
+  }
+
+  /**
+   * Ajoute un littéral quoté (<code>''</code> représente une quote).
+   *
+   * @param format
+   *          format
+   * @param debut
+   *          position de la quote ouvrante
+   * @param builder
+   *          builder
+   * @return la position qui suit le littéral
+   */
+  private static int litteral(final String format, final int debut, final DateTimeFormatterBuilder builder) {
+    if (debut + 1 < format.length() && format.charAt(debut + 1) == '\'') {
+      builder.appendLiteral('\'');
+      return debut + 2;
+    }
+    final StringBuilder texte = new StringBuilder();
+    int i = debut + 1;
+    while (i < format.length()) {
+      final char c = format.charAt(i);
+      if (c == '\'') {
+        if (i + 1 < format.length() && format.charAt(i + 1) == '\'') {
+          texte.append('\'');
+          i += 2;
+          continue;
+        }
+        i++;
+        break;
+      }
+      texte.append(c);
+      i++;
+    }
+    builder.appendLiteral(texte.toString());
+    return i;
+  }
+
+  /**
+   * Fuseau Joda-Time dont les décalages et transitions viennent des règles <code>java.time</code>.
+   */
+  private static final class FuseauJdk extends DateTimeZone {
+
+    /** UUID pour la sérialisation. */
+    private static final long serialVersionUID = -6183920311856479140L;
+
+    /** Fuseau java.time. */
+    private final ZoneId zoneId;
+
+    /** Règles du fuseau. */
+    private final ZoneRules regles;
+
+    /**
+     * Constructeur de la classe.
+     *
+     * @param zoneId
+     *          fuseau java.time
+     */
+    FuseauJdk(final ZoneId zoneId) {
+      super(zoneId.getId());
+      this.zoneId = zoneId;
+      this.regles = zoneId.getRules();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNameKey(final long millis) {
+      return getID();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getOffset(final long millis) {
+      return regles.getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds() * CivilDates.MILLIS_PAR_SECONDE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getStandardOffset(final long millis) {
+      return regles.getStandardOffset(Instant.ofEpochMilli(millis)).getTotalSeconds()
+        * CivilDates.MILLIS_PAR_SECONDE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFixed() {
+      return regles.isFixedOffset();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long nextTransition(final long millis) {
+      final ZoneOffsetTransition transition = regles.nextTransition(Instant.ofEpochMilli(millis));
+      return transition == null ? millis : transition.toEpochSecond() * CivilDates.MILLIS_PAR_SECONDE;
+    }
+
+    /**
+     * Retourne, comme Joda-Time, la milliseconde qui précède la dernière transition antérieure ou
+     * égale à <code>millis</code>.
+     *
+     * @param millis
+     *          instant
+     * @return la milliseconde qui précède la transition, <code>millis</code> s'il n'y en a pas
+     */
+    @Override
+    public long previousTransition(final long millis) {
+      if (millis == Long.MAX_VALUE) {
+        return millis;
+      }
+      final ZoneOffsetTransition transition = regles.previousTransition(Instant.ofEpochMilli(millis + 1));
+      return transition == null ? millis : transition.toEpochSecond() * CivilDates.MILLIS_PAR_SECONDE - 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object objet) {
+      return objet instanceof FuseauJdk && zoneId.equals(((FuseauJdk) objet).zoneId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+      return zoneId.hashCode();
+    }
+  }
+
+}
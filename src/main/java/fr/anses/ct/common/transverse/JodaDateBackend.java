@@ -0,0 +1,80 @@
+package fr.anses.ct.common.transverse;
+
+import java.util.Calendar;
+import java.util.Locale;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+
+/**
+ * Moteur de dates Joda-Time (moteur par défaut), appuyé sur le {@link DateFormatterRegistry}.
+ */
+public final class JodaDateBackend implements DateBackend {
+
+  /** Nom du moteur. */
+  public static final String NOM = "joda";
+
+  /** Instance partagée. */
+  public static final JodaDateBackend INSTANCE = new JodaDateBackend();
+
+  /** Registre des formateurs précompilés. */
+  private final DateFormatterRegistry formateurs = DateFormatterRegistry.getInstance();
+
+  /**
+   * Constructeur de la classe.
+   */
+  private JodaDateBackend() {
+    // Constructeur vide
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getNom() {
+    return NOM;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String formater(final long millis, final String format) {
+    return formateurs.getFormateur(format).print(millis);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long parser(final String date, final String format) {
+    return formateurs.getFormateur(format).parseMillis(date);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long debutDeJour(final int annee, final int mois, final int jour) {
+    return new LocalDate(annee, mois, jour).toDateTimeAtStartOfDay().getMillis();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Calendar toCalendar(final long millis) {
+    final Calendar calendar = Calendar.getInstance(DateTimeZone.getDefault().toTimeZone(), Locale.getDefault());
+    calendar.setTimeInMillis(millis);
+    return calendar;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DateTimeZone getZone() {
+    return DateTimeZone.getDefault();
+  }
+
+}
@@ -0,0 +1,224 @@
+package fr.anses.ct.common.transverse;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Message précompilé de {@link ExceptionFactory}.
+ * <p>
+ * Le motif est découpé une fois pour toutes en littéraux et en indices d'arguments selon la
+ * syntaxe de <code>MessageFormat</code> (quotes, <code>''</code>, <code>{n}</code>) ; le formatage
+ * ajoute directement les littéraux et les arguments dans un <code>StringBuilder</code>, avec le
+ * même résultat que <code>MessageFormat</code> pour des arguments <code>String</code>. Les motifs
+ * avec un type de format (<code>{0,number}</code>...) ou inhabituels sont délégués à un
+ * <code>MessageFormat</code>, construit seulement au premier formatage avec des arguments : un
+ * motif que <code>MessageFormat</code> refuse (<code>{nom}</code>, accolade isolée...) ne lève
+ * donc d'exception, comme avec Spring, que s'il est formaté avec des arguments. Sans argument, le
+ * texte est retourné tel que fourni par la <code>MessageSource</code>, comme le fait Spring. Cette
+ * classe est thread-safe.
+ * </p>
+ */
+final class MessageTemplate {
+
+  /** Indice d'argument maximal accepté par <code>MessageFormat</code>. */
+  private static final int INDICE_MAX = 10000;
+
+  /** Texte sans argument. */
+  private final String texte;
+
+  /** Littéraux : un de plus que d'arguments. */
+  private final String[] litteraux;
+
+  /** Indices des arguments. */
+  private final int[] indices;
+
+  /** Longueur cumulée des littéraux. */
+  private final int longueurLitteraux;
+
+  /** Locale du format délégué (<code>null</code> si le motif est précompilé). */
+  private final Locale locale;
+
+  /** Format délégué, construit au premier formatage avec des arguments. */
+  private volatile MessageFormat format;
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param texte
+   *          texte sans argument
+   * @param litteraux
+   *          littéraux
+   * @param indices
+   *          indices des arguments
+   * @param locale
+   *          locale du format délégué (<code>null</code> si le motif est précompilé)
+   */
+  private MessageTemplate(final String texte, final String[] litteraux, final int[] indices,
+    final Locale locale) {
+    this.texte = texte;
+    this.litteraux = litteraux;
+    this.indices = indices;
+    this.locale = locale;
+    int longueur = 0;
+    for (String litteral : litteraux) {
+      longueur += litteral.length();
+    }
+    this.longueurLitteraux = longueur;
+  }
+
+  /**
+   * Retourne un message sans argument, identique quels que soient les arguments (message par
+   * défaut des codes inconnus).
+   *
+   * @param texte
+   *          texte
+   * @return le message
+   */
+  static MessageTemplate constant(final String texte) {
+    return new MessageTemplate(texte, new String[] {texte }, new int[0], null);
+  }
+
+  /**
+   * Compile le motif <code>MessageFormat</code> <code>motif</code>.
+   *
+   * @param motif
+   *          motif, tel que retourné sans argument par la <code>MessageSource</code>
+   * @param locale
+   *          locale du format délégué
+   * @return le message compilé
+   */
+  static MessageTemplate compiler(final String motif, final Locale locale) {
+    final List<String> litteraux = new ArrayList<String>();
+    final List<Integer> indices = new ArrayList<Integer>();
+    StringBuilder litteral = new StringBuilder();
+    boolean quote = false;
+    final int longueur = motif.length();
+    for (int i = 0; i < longueur; i++) {
+      final char c = motif.charAt(i);
+      if (c == '\'') {
+        if (i + 1 < longueur && motif.charAt(i + 1) == '\'') {
+          litteral.append('\'');
+          i++;
+        } else {
+          quote = !quote;
+        }
+      } else if (quote || c != '{') {
+        litteral.append(c);
+      } else {
+        final int fin = motif.indexOf('}', i + 1);
+        final int indice = fin < 0 ? -1 : indice(motif, i + 1, fin);
+        if (indice < 0) {
+          return delegue(motif, locale);
+        }
+        litteraux.add(litteral.toString());
+        indices.add(indice);
+        litteral = new StringBuilder();
+        i = fin;
+      }
+    }
+    litteraux.add(litteral.toString());
+    final int[] tableau = new int[indices.size()];
+    for (int i = 0; i < tableau.length; i++) {
+      tableau[i] = indices.get(i);
+    }
+    return new MessageTemplate(motif, litteraux.toArray(new String[litteraux.size()]), tableau, null);
+  }
+
+  /**
+   * Retourne le message délégué à un <code>MessageFormat</code>.
+   *
+   * @param motif
+   *          motif
+   * @param locale
+   *          locale
+   * @return le message
+   */
+  private static MessageTemplate delegue(final String motif, final Locale locale) {
+    return new MessageTemplate(motif, new String[] {motif }, new int[0], locale);
+  }
+
+  /**
+   * Retourne l'indice d'argument <code>motif[debut..fin[</code>.
+   *
+   * @param motif
+   *          motif
+   * @param debut
+   *          position du premier chiffre
+   * @param fin
+   *          position de l'accolade fermante
+   * @return l'indice, -1 si ce n'est pas un indice simple
+   */
+  private static int indice(final String motif, final int debut, final int fin) {
+    if (fin == debut || fin - debut > 5) {
+      return -1;
+    }
+    int indice = 0;
+    for (int i = debut; i < fin; i++) {
+      final char c = motif.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      indice = indice * 10 + (c - '0');
+    }
+    return indice < INDICE_MAX ? indice : -1;
+  }
+
+  /**
+   * Retourne le message formaté avec les arguments <code>args</code>.
+   *
+   * @param args
+   *          arguments (nullable)
+   * @return le message
+   */
+  String formater(final String[] args) {
+    if (args == null || args.length == 0) {
+      return texte;
+    }
+    if (locale == null && indices.length == 0) {
+      return litteraux[0];
+    }
+    return formater(args, new StringBuilder(longueurLitteraux + 16 * indices.length)).toString();
+  }
+
+  /**
+   * Ajoute à <code>dest</code> le message formaté avec les arguments <code>args</code>.
+   *
+   * @param args
+   *          arguments (nullable)
+   * @param dest
+   *          buffer de destination
+   * @return le buffer <code>dest</code>
+   * @throws IllegalArgumentException
+   *           si le motif délégué est invalide (comme <code>MessageFormat</code>)
+   */
+  StringBuilder formater(final String[] args, final StringBuilder dest) {
+    if (args == null || args.length == 0) {
+      return dest.append(texte);
+    }
+    if (locale != null) {
+      MessageFormat delegue = format;
+      if (delegue == null) {
+        // construction idempotente : une course entre threads produit un format équivalent
+        delegue = new MessageFormat(texte, locale);
+        format = delegue;
+      }
+      synchronized (delegue) {
+        return dest.append(delegue.format(args));
+      }
+    }
+    dest.append(litteraux[0]);
+    for (int i = 0; i < indices.length; i++) {
+      final int indice = indices[i];
+      if (indice < args.length) {
+        dest.append(args[indice]);
+      } else {
+        dest.append('{').append(indice).append('}');
+      }
+      dest.append(litteraux[i + 1]);
+    }
+    return dest;
+  }
+
+}
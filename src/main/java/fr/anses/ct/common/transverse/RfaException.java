@@ -1,21 +1,56 @@
 package fr.anses.ct.common.transverse;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
+/**
+ * Exception applicative.
+ * <p>
+ * L'identifiant (UUID) n'est généré qu'au premier appel de {@link #getUuid()} ou à la
+ * sérialisation Java. Une exception créée par {@link ExceptionFactory} à partir d'un code et
+ * d'arguments ne résout son message qu'au premier appel de {@link #getMessage()} (ou à la
+ * sérialisation). Une exception levée puis ignorée ne paie donc ni l'un ni l'autre. Ces deux
+ * matérialisations sont thread-safe : l'UUID est généré une seule fois. Les sérialiseurs qui lisent
+ * directement les champs (json-io) doivent passer par les accesseurs, comme
+ * {@link ErrorJsonWriter}.
+ * </p>
+ */
 public class RfaException extends RuntimeException implements Serializable{
 	 /**
-	   * Identifiant de l'exception
+	   * Identifiant de l'exception (généré au premier accès)
 	   */
 	  private byte[] uuid;
+
+	  /**
+	   * true si l'identifiant est généré ou affecté
+	   */
+	  private transient volatile boolean uuidDefini;
+
+	  /**
+	   * Factory qui résoudra le message (null si le message est résolu)
+	   */
+	  private transient volatile ExceptionFactory resolveur;
+
+	  /**
+	   * Arguments du message à résoudre
+	   */
+	  private transient String[] arguments;
+
+	  /**
+	   * Description du code dans le catalogue de la factory (null si inconnue)
+	   */
+	  private transient volatile ErrorDescriptor descripteur;
 	  /**
 	   * UUID pour la sérialisation.
 	   */
 	  private static final long serialVersionUID = 8010050913147582331L;
 	  
 	  /**
-	   * message de l'exception
+	   * message de l'exception (null tant qu'il n'est pas résolu, cf. {@link #getMessage()})
 	   */
-	  protected String message;
+	  protected volatile String message;
 	  
 	  /**
 	   * code de l'exception
@@ -32,7 +67,6 @@ public class RfaException extends RuntimeException implements Serializable{
 	   */
 	  public RfaException() {
 	    super();
-	    uuid = UUIDUtils.genererRandom16ByteUuid();
 	  }
 	  
 	  /**
@@ -42,26 +76,68 @@ public class RfaException extends RuntimeException implements Serializable{
 	   */
 	  public RfaException(Throwable cause) {
 	    super(cause);
-	    uuid = UUIDUtils.genererRandom16ByteUuid();
 	  }
 	  
 	  public RfaException(String message) {
 		  super(message);
 		  this.message = message;
-		  uuid = UUIDUtils.genererRandom16ByteUuid();
 	}
 
 	  public RfaException(String message, Throwable cause) {
 		  super(message, cause);
 		  this.message = message;
-		  uuid = UUIDUtils.genererRandom16ByteUuid();
 	}
+
+	  /**
+	   * Constructeur de la classe
+	   * @param message
+	   *          message de l'erreur
+	   * @param cause
+	   *          Cause de l'erreur (nullable)
+	   * @param pileAppels
+	   *          false pour ne pas capturer la pile d'appels (exception sans trace, nettement moins
+	   *          coûteuse à créer : réservée aux erreurs métier attendues)
+	   */
+	  public RfaException(String message, Throwable cause, boolean pileAppels) {
+		  super(message, cause, true, pileAppels);
+		  this.message = message;
+	  }
+
+	  /**
+	   * Constructeur de la classe : le message sera résolu par <code>factory</code> au premier appel
+	   * de {@link #getMessage()}.
+	   * @param factory
+	   *          factory de résolution du message
+	   * @param code
+	   *          code de l'erreur
+	   * @param arguments
+	   *          arguments du message (nullable)
+	   * @param cause
+	   *          Cause de l'erreur (nullable)
+	   * @param pileAppels
+	   *          false pour ne pas capturer la pile d'appels
+	   */
+	  RfaException(ExceptionFactory factory, String code, String[] arguments, Throwable cause,
+	    boolean pileAppels) {
+		  super(null, cause, true, pileAppels);
+		  this.code = code;
+		  this.arguments = arguments == null ? null : arguments.clone();
+		  this.resolveur = factory;
+	  }
 	  
 	/**
-	   * Accesseur sur l'attribut uuid
+	   * Accesseur sur l'attribut uuid (généré au premier appel)
 	   * @return byte[] uuid
 	   */
 	  public byte[] getUuid() {
+	    if (!uuidDefini) {
+	      synchronized (this) {
+	        if (!uuidDefini) {
+	          uuid = UUIDUtils.genererRandom16ByteUuid();
+	          uuidDefini = true;
+	        }
+	      }
+	    }
 	    return uuid;
 	  }
 	  
@@ -72,10 +148,13 @@ public class RfaException extends RuntimeException implements Serializable{
 	   */
 	  public void setUuid(
 	    byte[] uuidIn) {
-	    if (uuidIn == null) {
-	      this.uuid = null;
-	    } else {
-	      this.uuid = uuidIn.clone();
+	    synchronized (this) {
+	      if (uuidIn == null) {
+	        this.uuid = null;
+	      } else {
+	        this.uuid = uuidIn.clone();
+	      }
+	      uuidDefini = true;
 	    }
 	  }
 	  
@@ -84,6 +163,12 @@ public class RfaException extends RuntimeException implements Serializable{
 	   */
 	  @Override
 	  public String getMessage() {
+	    final ExceptionFactory factory = resolveur;
+	    if (factory != null) {
+	      // résolution idempotente : une course entre threads produit le même message
+	      message = factory.getMessage(descripteur, code, arguments);
+	      resolveur = null;
+	    }
 	    return message;
 	  }
 	  
@@ -93,6 +178,7 @@ public class RfaException extends RuntimeException implements Serializable{
 	  public void setMessage(
 	    String message) {
 	    this.message = message;
+	    resolveur = null;
 	  }
 	  
 	  /**
@@ -108,6 +194,29 @@ public class RfaException extends RuntimeException implements Serializable{
 	  public void setCode(
 	    String code) {
 	    this.code = code;
+	    final ErrorDescriptor actuel = descripteur;
+	    if (actuel != null && (code == null || !code.equals(actuel.getCode()))) {
+	      descripteur = null;
+	    }
+	  }
+
+	  /**
+	   * Accesseur sur la description du code dans le catalogue de la factory qui a créé l'exception
+	   * @return ErrorDescriptor la description, null si l'exception n'a pas été créée par une
+	   *         {@link ExceptionFactory}
+	   */
+	  public ErrorDescriptor getDescripteur() {
+	    return descripteur;
+	  }
+
+	  /**
+	   * Mutateur sur la description du code
+	   * @param descripteur
+	   *          la description du code
+	   */
+	  void setDescripteur(
+	    ErrorDescriptor descripteur) {
+	    this.descripteur = descripteur;
 	  }
 	  
 	  /**
@@ -125,4 +234,31 @@ public class RfaException extends RuntimeException implements Serializable{
 	    this.severite = severite;
 	  }
 
+	  /**
+	   * Sérialisation : l'UUID et le message sont matérialisés avant l'écriture.
+	   * @param out
+	   *          flux de sortie
+	   * @throws IOException
+	   *           erreur d'écriture
+	   */
+	  private void writeObject(ObjectOutputStream out) throws IOException {
+	    getUuid();
+	    getMessage();
+	    out.defaultWriteObject();
+	  }
+
+	  /**
+	   * Désérialisation : l'UUID lu est conservé.
+	   * @param in
+	   *          flux d'entrée
+	   * @throws IOException
+	   *           erreur de lecture
+	   * @throws ClassNotFoundException
+	   *           classe introuvable
+	   */
+	  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+	    in.defaultReadObject();
+	    uuidDefini = true;
+	  }
+
 }
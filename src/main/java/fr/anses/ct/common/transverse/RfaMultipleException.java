@@ -0,0 +1,86 @@
+package fr.anses.ct.common.transverse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exception applicative qui regroupe plusieurs erreurs, levée par {@link ErrorCollector#lever()}
+ * (validation en masse). Son code est {@link #CODE} ; son message, résolu au premier appel de
+ * {@link #getMessage()}, est celui de ce code avec le nombre d'erreurs en argument (par défaut
+ * <code>{0} erreur(s)</code>). Les erreurs sont lues par {@link #getErreurs()}, dans l'ordre de
+ * leur enregistrement.
+ */
+public class RfaMultipleException extends RfaException {
+
+  /** Code des exceptions multiples. */
+  public static final String CODE = "ERREURS_MULTIPLES";
+
+  /** Message par défaut, si la <code>MessageSource</code> ne définit pas {@link #CODE}. */
+  public static final String MESSAGE_DEFAUT = "{0} erreur(s)";
+
+  /** UUID pour la sérialisation. */
+  private static final long serialVersionUID = 2873166917412209532L;
+
+  /** Nombre d'erreurs, y compris celles qui n'ont pas été conservées. */
+  private int nbErreurs;
+
+  /** Erreurs conservées. */
+  private List<ErrorDetail> erreurs;
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param erreurs
+   *          erreurs
+   * @param nbErreurs
+   *          nombre d'erreurs, y compris celles qui n'ont pas été conservées
+   * @param pileAppels
+   *          false pour ne pas capturer la pile d'appels
+   */
+  public RfaMultipleException(final List<ErrorDetail> erreurs, final int nbErreurs, final boolean pileAppels) {
+    super(null, null, pileAppels);
+    this.code = CODE;
+    this.erreurs = Collections.unmodifiableList(new ArrayList<ErrorDetail>(erreurs));
+    this.nbErreurs = nbErreurs;
+  }
+
+  /**
+   * Constructeur de la classe : le message sera résolu par <code>factory</code>.
+   *
+   * @param factory
+   *          factory de résolution des messages
+   * @param erreurs
+   *          erreurs (non copiées)
+   * @param nbErreurs
+   *          nombre d'erreurs, y compris celles qui n'ont pas été conservées
+   * @param pileAppels
+   *          false pour ne pas capturer la pile d'appels
+   */
+  RfaMultipleException(final ExceptionFactory factory, final List<ErrorDetail> erreurs, final int nbErreurs,
+    final boolean pileAppels) {
+    super(factory, CODE, new String[] {String.valueOf(nbErreurs) }, null, pileAppels);
+    this.erreurs = Collections.unmodifiableList(erreurs);
+    this.nbErreurs = nbErreurs;
+  }
+
+  /**
+   * Retourne les erreurs conservées.
+   *
+   * @return les erreurs, dans l'ordre de leur enregistrement
+   */
+  public List<ErrorDetail> getErreurs() {
+    return erreurs;
+  }
+
+  /**
+   * Retourne le nombre d'erreurs, y compris celles qui n'ont pas été conservées (au-delà du
+   * maximum du collecteur).
+   *
+   * @return le nombre d'erreurs
+   */
+  public int getNbErreurs() {
+    return nbErreurs;
+  }
+
+}
@@ -1,19 +1,24 @@
 package fr.anses.ct.common.transverse;
 
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.cedarsoftware.util.io.JsonWriter;
 
 public class RouteFailureHandler implements Processor {
 	
 	/** Le loggeur de l'interceptor. */
 	  private static final Logger LOGGER = LoggerFactory.getLogger(RouteFailureHandler.class);
+
+	  /** Catalogue des codes des exceptions qui ne viennent pas d'une ExceptionFactory. */
+	  private ErrorCatalog catalogue = ErrorCatalog.VIDE;
+
+	  /** Métriques des réponses d'erreur (null : pas de métriques). */
+	  private ErrorMetrics metriques = ErrorMetrics.INSTANCE;
+
+	  /** Écriture JSON du corps de la réponse. */
+	  private ErrorJsonWriter ecrivainJson = ErrorJsonWriter.COMPACT;
 		 
 	    public void process(Exchange exchange) throws Exception {
 	    	
@@ -27,24 +32,82 @@ public class RouteFailureHandler implements Processor {
 	    	
 	    	caused.printStackTrace();
 	        
-	        // Reconstruction de l'exception sans la stack trace
 	        RfaException causedRfa = (RfaException) caused;
-	        RfaException rfe = new RfaException();
-	        rfe.setMessage(causedRfa.getMessage());
-	        rfe.setCode(causedRfa.getCode());
-	        rfe.setUuid(causedRfa.getUuid());
 	        
-	        String code403 = "403";
-	        if (causedRfa.getCode().contains(code403)) {
-		        exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, "403");
+	        ErrorDescriptor descripteur = causedRfa.getDescripteur();
+	        if (descripteur == null) {
+	        	descripteur = catalogue.get(causedRfa.getCode());
 	        }
-	        else {
-	        	exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, "500");
+	        String statut = descripteur.getStatutTexte();
+	        exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, statut);
+	        if (metriques != null) {
+	        	metriques.enregistrerReponse(causedRfa.getCode(), statut, exchange.getFromRouteId());
 	        }
 
 	        
-	        Map<String, Object> args = new HashMap<String, Object>();
-	        args.put(JsonWriter.PRETTY_PRINT, true);
-	        exchange.getIn().setBody(JsonWriter.objectToJson(rfe, args));
+	        exchange.getIn().setBody(ecrivainJson.ecrire(causedRfa));
+	    }
+
+	    /**
+	     * Accesseur en lecture de l'attribut <code>catalogue</code>.
+	     * 
+	     * @return ErrorCatalog L'attribut catalogue à lire.
+	     */
+	    public ErrorCatalog getCatalogue() {
+	    	return catalogue;
+	    }
+
+	    /**
+	     * Accesseur en écriture de l'attribut <code>catalogue</code> : catalogue utilisé pour le
+	     * statut HTTP des exceptions qui ne portent pas la description de leur code (créées hors
+	     * {@link ExceptionFactory} ou désérialisées). {@link ErrorCatalog#VIDE} par défaut : statut
+	     * 403 si le code contient "403", 500 sinon.
+	     * 
+	     * @param catalogue
+	     *          L'attribut catalogue à modifier.
+	     */
+	    public void setCatalogue(ErrorCatalog catalogue) {
+	    	this.catalogue = catalogue == null ? ErrorCatalog.VIDE : catalogue;
+	    }
+
+	    /**
+	     * Accesseur en lecture de l'attribut <code>metriques</code>.
+	     * 
+	     * @return ErrorMetrics L'attribut metriques à lire.
+	     */
+	    public ErrorMetrics getMetriques() {
+	    	return metriques;
+	    }
+
+	    /**
+	     * Accesseur en écriture de l'attribut <code>metriques</code> : métriques des réponses
+	     * d'erreur par code, statut et route ({@link ErrorMetrics#INSTANCE} par défaut), null pour ne
+	     * pas les compter.
+	     * 
+	     * @param metriques
+	     *          L'attribut metriques à modifier.
+	     */
+	    public void setMetriques(ErrorMetrics metriques) {
+	    	this.metriques = metriques;
+	    }
+
+	    /**
+	     * Indique si le corps de la réponse est indenté.
+	     * 
+	     * @return boolean true si le corps de la réponse est indenté.
+	     */
+	    public boolean isIndentation() {
+	    	return ecrivainJson == ErrorJsonWriter.INDENTE;
+	    }
+
+	    /**
+	     * Accesseur en écriture de l'indentation du corps JSON de la réponse : false par défaut
+	     * (JSON compact), true pour le débogage.
+	     * 
+	     * @param indentation
+	     *          true pour indenter le corps de la réponse.
+	     */
+	    public void setIndentation(boolean indentation) {
+	    	this.ecrivainJson = indentation ? ErrorJsonWriter.INDENTE : ErrorJsonWriter.COMPACT;
 	    }
 }
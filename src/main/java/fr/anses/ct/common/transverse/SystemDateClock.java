@@ -0,0 +1,26 @@
+package fr.anses.ct.common.transverse;
+
+/**
+ * Horloge système (<code>System.currentTimeMillis()</code>), horloge par défaut.
+ */
+public final class SystemDateClock implements DateClock {
+
+  /** Instance partagée. */
+  public static final SystemDateClock INSTANCE = new SystemDateClock();
+
+  /**
+   * Constructeur de la classe.
+   */
+  private SystemDateClock() {
+    // Constructeur vide
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMillis() {
+    return System.currentTimeMillis();
+  }
+
+}
@@ -1,22 +1,104 @@
 package fr.anses.ct.common.transverse;
 
-import java.nio.ByteBuffer;
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Classe utilitaire de génération d'UUID.
- * 
+ * <p>
+ * L'aléa est fourni par un {@link UuidGenerator}, choisi au démarrage par la propriété système
+ * {@link #PROPRIETE_GENERATEUR} (cf. {@link UuidGeneratorStrategy}, <code>jdk</code> par défaut)
+ * ou par {@link #setGenerateur(UuidGenerator)}. La propriété système {@link #PROPRIETE_TAILLE_RESERVE}
+ * place ce générateur derrière une réserve pré-générée ({@link UuidRingBuffer}), dont le thread de
+ * remplissage est arrêté par {@link #arreterReserve()} (à appeler à l'arrêt de l'application,
+ * par exemple au déchargement d'une application web) ou au remplacement du générateur.
+ * </p>
+ * <p>
+ * Les méthodes par lot (<code>genererRandom16ByteUuids</code>, <code>genererOrdonne16ByteUuids</code>
+ * et leurs variantes <code>long[]</code>) génèrent N UUID en un appel, dans un tableau fourni
+ * par l'appelant : l'aléa est tiré en un seul lot et les UUID ordonnés réservent leurs N états en
+ * une seule opération atomique.
+ * </p>
+ * <p>
+ * Les UUID ordonnés ({@link #genererOrdonne16ByteUuid()}) sont des UUID version 7 (RFC 9562) :
+ * ils commencent par l'instant de génération en millisecondes (horloge de {@link DateUtils}), ce
+ * qui les rend croissants et limite la fragmentation des index qui les utilisent comme clé.
+ * </p>
  */
 public final class UUIDUtils {
 
+  /** Propriété système de choix du générateur d'UUID au démarrage (jdk, pool, thread ou rapide). */
+  public static final String PROPRIETE_GENERATEUR = "fr.anses.ct.common.uuid.generateur";
+
+  /**
+   * Propriété système de capacité de la réserve d'UUID pré-générés au démarrage : une valeur
+   * strictement positive place le générateur derrière un {@link UuidRingBuffer} de cette capacité.
+   */
+  public static final String PROPRIETE_TAILLE_RESERVE = "fr.anses.ct.common.uuid.reserve.taille";
+
   /** Taille du byte. */
   private static final int BYTE_SIZE = 16;
 
   /** Taille du byte / 2. */
   private static final int HUIT = 8;
 
-  /** Notation hexadécimale. */
-  private static final long NOTATION_HEXA = 0xff;
+  /** Octet de la version. */
+  private static final int OCTET_VERSION = 6;
+
+  /** Version 4 (aléatoire). */
+  private static final int VERSION_ALEATOIRE = 0x40;
+
+  /** Masque des bits hors version / variante. */
+  private static final int MASQUE_VERSION = 0x0f;
+
+  /** Masque des bits hors variante. */
+  private static final int MASQUE_VARIANTE = 0x3f;
+
+  /** Variante RFC 4122. */
+  private static final int VARIANTE = 0x80;
+
+  /** Version 4 (aléatoire) sur le poids fort. */
+  private static final long VERSION_ALEATOIRE_LONG = 0x4000L;
+
+  /** Masque du poids fort hors version. */
+  private static final long MASQUE_VERSION_LONG = 0xFFFFFFFFFFFF0FFFL;
+
+  /** Masque du poids faible hors variante. */
+  private static final long MASQUE_VARIANTE_LONG = 0x3FFFFFFFFFFFFFFFL;
+
+  /** Variante RFC 4122 sur le poids faible. */
+  private static final long VARIANTE_LONG = 0x8000000000000000L;
+
+  /** Version 7 (ordonnée par le temps). */
+  private static final int VERSION_ORDONNEE = 0x7000;
+
+  /** Nombre de bits du compteur intra-milliseconde (champ rand_a). */
+  private static final int BITS_COMPTEUR = 12;
+
+  /** Masque de l'instant sur 48 bits. */
+  private static final long MASQUE_INSTANT = 0xFFFFFFFFFFFFL;
+
+  /** Masque de la valeur initiale du compteur (bit de poids fort à 0 pour garder de la marge). */
+  private static final int MASQUE_COMPTEUR_INITIAL = (1 << (BITS_COMPTEUR - 1)) - 1;
+
+  /** Nombre de bits de l'instant et de la version sous le bit de poids faible de l'instant. */
+  private static final int DECALAGE_INSTANT = 16;
+
+  /**
+   * Dernier état des UUID ordonnés : <code>(instant &lt;&lt; 12) | compteur</code>. Chaque UUID
+   * prend un état strictement supérieur au précédent (le compteur déborde sur l'instant), d'où un
+   * ordre strict entre tous les threads, même si l'horloge recule.
+   */
+  private static final AtomicLong DERNIER_ETAT = new AtomicLong(Long.MIN_VALUE);
+
+  /** Générateur d'aléa. */
+  private static volatile UuidGenerator generateur = choisirGenerateur(UuidGeneratorStrategy.pourNom(
+    System.getProperty(PROPRIETE_GENERATEUR, UuidGeneratorStrategy.JDK.getNom())),
+    Integer.getInteger(PROPRIETE_TAILLE_RESERVE, 0));
 
   /**
    * Constructeur de la classe.
@@ -25,17 +107,287 @@ public final class UUIDUtils {
     // Constructeur vide
   }
 
+  /**
+   * Retourne le générateur de démarrage : <code>source</code>, derrière une réserve si
+   * <code>capacite</code> est strictement positive.
+   * 
+   * @param source
+   *          générateur choisi
+   * @param capacite
+   *          capacité de la réserve
+   * @return le générateur
+   */
+  private static UuidGenerator choisirGenerateur(final UuidGenerator source, final int capacite) {
+    if (capacite > 0) {
+      return new UuidRingBuffer(source, capacite);
+    }
+    return source;
+  }
+
+  /**
+   * Retourne le générateur d'aléa utilisé.
+   * 
+   * @return le générateur
+   */
+  public static UuidGenerator getGenerateur() {
+    return generateur;
+  }
+
+  /**
+   * Modifie le générateur d'aléa utilisé. Le générateur remplacé, s'il s'agit d'une réserve
+   * ({@link UuidRingBuffer}), est arrêté.
+   * 
+   * @param nouveauGenerateur
+   *          le générateur
+   */
+  public static synchronized void setGenerateur(final UuidGenerator nouveauGenerateur) {
+    notNull(nouveauGenerateur, "le paramètre '%s' est null", "generateur");
+    final UuidGenerator ancien = generateur;
+    generateur = nouveauGenerateur;
+    if (ancien != nouveauGenerateur && ancien instanceof UuidRingBuffer) {
+      ((UuidRingBuffer) ancien).arreter();
+    }
+  }
+
+  /**
+   * Arrête la réserve d'UUID utilisée, le cas échéant (notamment celle installée par
+   * {@link #PROPRIETE_TAILLE_RESERVE}) : son thread de remplissage se termine et sa source devient
+   * le générateur utilisé. Sans effet si le générateur n'est pas une réserve.
+   */
+  public static synchronized void arreterReserve() {
+    final UuidGenerator courant = generateur;
+    if (courant instanceof UuidRingBuffer) {
+      generateur = ((UuidRingBuffer) courant).getSource();
+      ((UuidRingBuffer) courant).arreter();
+    }
+  }
+
   /**
    * Génération d'un tableau de 16 octets correspondant à un UUID généré aléatoirement.
    * 
    * @return byte[] UUID généré aléatoirement
    */
   public static byte[] genererRandom16ByteUuid() {
-    UUID uuid = UUID.randomUUID();
-    ByteBuffer bb = ByteBuffer.wrap(new byte[BYTE_SIZE]);
-    bb.putLong(uuid.getMostSignificantBits());
-    bb.putLong(uuid.getLeastSignificantBits());
-    return bb.array();
+    final byte[] uuid = new byte[BYTE_SIZE];
+    generateur.remplir(uuid, 0);
+    uuid[OCTET_VERSION] = (byte) ((uuid[OCTET_VERSION] & MASQUE_VERSION) | VERSION_ALEATOIRE);
+    uuid[HUIT] = (byte) ((uuid[HUIT] & MASQUE_VARIANTE) | VARIANTE);
+    return uuid;
+  }
+
+  /**
+   * Génération d'un tableau de 16 octets correspondant à un UUID version 7 (RFC 9562) : instant en
+   * millisecondes sur 48 bits, compteur monotone sur 12 bits, puis 62 bits aléatoires. Les UUID
+   * générés sont strictement croissants (ordre des octets non signés), y compris entre threads.
+   * 
+   * @return byte[] UUID ordonné par le temps
+   */
+  public static byte[] genererOrdonne16ByteUuid() {
+    final long etat = reserverEtats(1);
+    final byte[] uuid = new byte[BYTE_SIZE];
+    generateur.remplir(uuid, 0);
+    UuidCodecs.ecrireLong(poidsFortOrdonne(etat), uuid, 0);
+    uuid[HUIT] = (byte) ((uuid[HUIT] & MASQUE_VARIANTE) | VARIANTE);
+    return uuid;
+  }
+
+  /**
+   * Génère <code>nombre</code> UUID aléatoires (version 4) consécutifs dans <code>dest</code>, à
+   * partir de <code>offset</code>.
+   * 
+   * @param dest
+   *          tableau de destination (16 octets par UUID)
+   * @param offset
+   *          position du premier octet
+   * @param nombre
+   *          nombre d'UUID
+   * @see #genererRandom16ByteUuid()
+   */
+  public static void genererRandom16ByteUuids(final byte[] dest, final int offset, final int nombre) {
+    verifierPlage(dest, offset, nombre, BYTE_SIZE);
+    UuidGeneratorStrategy.remplir(generateur, dest, offset, nombre);
+    for (int i = 0; i < nombre; i++) {
+      final int debut = offset + i * BYTE_SIZE;
+      dest[debut + OCTET_VERSION] = (byte) ((dest[debut + OCTET_VERSION] & MASQUE_VERSION) | VERSION_ALEATOIRE);
+      dest[debut + HUIT] = (byte) ((dest[debut + HUIT] & MASQUE_VARIANTE) | VARIANTE);
+    }
+  }
+
+  /**
+   * Génère <code>nombre</code> UUID aléatoires (version 4) dans <code>dest</code>, à partir de
+   * <code>offset</code> : poids fort puis poids faible de chaque UUID.
+   * 
+   * @param dest
+   *          tableau de destination (2 longs par UUID)
+   * @param offset
+   *          position du premier long
+   * @param nombre
+   *          nombre d'UUID
+   * @see #genererRandom16ByteUuid()
+   */
+  public static void genererRandomUuids(final long[] dest, final int offset, final int nombre) {
+    notNull(dest, "le paramètre '%s' est null", "dest");
+    isTrue(nombre >= 0 && offset >= 0 && offset <= dest.length - 2L * nombre, "plage hors du tableau");
+    final byte[] octets = new byte[nombre * BYTE_SIZE];
+    UuidGeneratorStrategy.remplir(generateur, octets, 0, nombre);
+    for (int i = 0; i < nombre; i++) {
+      final long msb = UuidCodecs.lireLong(octets, i * BYTE_SIZE);
+      final long lsb = UuidCodecs.lireLong(octets, i * BYTE_SIZE + HUIT);
+      dest[offset + 2 * i] = (msb & MASQUE_VERSION_LONG) | VERSION_ALEATOIRE_LONG;
+      dest[offset + 2 * i + 1] = (lsb & MASQUE_VARIANTE_LONG) | VARIANTE_LONG;
+    }
+  }
+
+  /**
+   * Génère <code>nombre</code> UUID version 7 consécutifs dans <code>dest</code>, à partir de
+   * <code>offset</code>. Les UUID du lot sont strictement croissants et précèdent tous ceux générés
+   * ensuite.
+   * 
+   * @param dest
+   *          tableau de destination (16 octets par UUID)
+   * @param offset
+   *          position du premier octet
+   * @param nombre
+   *          nombre d'UUID
+   * @see #genererOrdonne16ByteUuid()
+   */
+  public static void genererOrdonne16ByteUuids(final byte[] dest, final int offset, final int nombre) {
+    verifierPlage(dest, offset, nombre, BYTE_SIZE);
+    if (nombre == 0) {
+      return;
+    }
+    final long premier = reserverEtats(nombre);
+    UuidGeneratorStrategy.remplir(generateur, dest, offset, nombre);
+    for (int i = 0; i < nombre; i++) {
+      final int debut = offset + i * BYTE_SIZE;
+      UuidCodecs.ecrireLong(poidsFortOrdonne(premier + i), dest, debut);
+      dest[debut + HUIT] = (byte) ((dest[debut + HUIT] & MASQUE_VARIANTE) | VARIANTE);
+    }
+  }
+
+  /**
+   * Génère <code>nombre</code> UUID version 7 dans <code>dest</code>, à partir de
+   * <code>offset</code> : poids fort puis poids faible de chaque UUID.
+   * 
+   * @param dest
+   *          tableau de destination (2 longs par UUID)
+   * @param offset
+   *          position du premier long
+   * @param nombre
+   *          nombre d'UUID
+   * @see #genererOrdonne16ByteUuids(byte[], int, int)
+   */
+  public static void genererOrdonneUuids(final long[] dest, final int offset, final int nombre) {
+    notNull(dest, "le paramètre '%s' est null", "dest");
+    isTrue(nombre >= 0 && offset >= 0 && offset <= dest.length - 2L * nombre, "plage hors du tableau");
+    if (nombre == 0) {
+      return;
+    }
+    final long premier = reserverEtats(nombre);
+    final byte[] octets = new byte[nombre * BYTE_SIZE];
+    UuidGeneratorStrategy.remplir(generateur, octets, 0, nombre);
+    for (int i = 0; i < nombre; i++) {
+      dest[offset + 2 * i] = poidsFortOrdonne(premier + i);
+      dest[offset + 2 * i + 1] = (UuidCodecs.lireLong(octets, i * BYTE_SIZE + HUIT) & MASQUE_VARIANTE_LONG)
+        | VARIANTE_LONG;
+    }
+  }
+
+  /**
+   * Vérifie que <code>nombre</code> éléments de <code>taille</code> octets tiennent dans
+   * <code>dest</code> à partir de <code>offset</code>.
+   * 
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position du premier octet
+   * @param nombre
+   *          nombre d'éléments
+   * @param taille
+   *          taille d'un élément
+   */
+  private static void verifierPlage(final byte[] dest, final int offset, final int nombre, final int taille) {
+    notNull(dest, "le paramètre '%s' est null", "dest");
+    isTrue(nombre >= 0 && offset >= 0 && offset <= dest.length - (long) taille * nombre, "plage hors du tableau");
+  }
+
+  /**
+   * Retourne le poids fort d'un UUID version 7 de l'état <code>etat</code>.
+   * 
+   * @param etat
+   *          état <code>(instant &lt;&lt; 12) | compteur</code>
+   * @return le poids fort
+   */
+  private static long poidsFortOrdonne(final long etat) {
+    return ((etat >>> BITS_COMPTEUR) << DECALAGE_INSTANT) | VERSION_ORDONNEE | (etat & ((1 << BITS_COMPTEUR) - 1));
+  }
+
+  /**
+   * Génère un UUID version 7 (RFC 9562), ordonné par le temps.
+   * 
+   * @return un UUID au format String
+   * @see #genererOrdonne16ByteUuid()
+   */
+  public static String genererOrdonneUuid() {
+    return genererFrom16ByteString(genererOrdonne16ByteUuid());
+  }
+
+  /**
+   * Retourne l'instant de génération contenu dans un UUID version 7.
+   * 
+   * @param uuid
+   *          UUID de 16 octets
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si l'UUID n'est pas un UUID version 7
+   */
+  public static long extraireInstant(final byte[] uuid) {
+    notNull(uuid, "le paramètre '%s' est null", "uuid");
+    isTrue(uuid.length == BYTE_SIZE, "un UUID fait %d octets", BYTE_SIZE);
+    final long msb = UuidCodecs.lireLong(uuid, 0);
+    isTrue((msb & 0xF000) == VERSION_ORDONNEE, "l'UUID n'est pas un UUID version 7");
+    return msb >>> DECALAGE_INSTANT;
+  }
+
+  /**
+   * Retourne l'instant de génération contenu dans un UUID version 7 au format String.
+   * 
+   * @param uuid
+   *          UUID au format String
+   * @return l'instant en millisecondes depuis l'epoch
+   * @throws IllegalArgumentException
+   *           si l'UUID n'est pas un UUID version 7
+   */
+  public static long extraireInstant(final String uuid) {
+    final UUID valeur = UUID.fromString(notNull(uuid, "le paramètre '%s' est null", "uuid"));
+    isTrue(valeur.version() == 7, "l'UUID n'est pas un UUID version 7");
+    return valeur.getMostSignificantBits() >>> DECALAGE_INSTANT;
+  }
+
+  /**
+   * Réserve les états des <code>nombre</code> prochains UUID ordonnés : à partir de l'instant
+   * courant avec un compteur initial aléatoire si l'horloge a avancé, sinon à partir de l'état
+   * précédent + 1.
+   * 
+   * @param nombre
+   *          nombre d'états (strictement positif)
+   * @return le premier état réservé <code>(instant &lt;&lt; 12) | compteur</code>, les suivants se
+   *         déduisant par incrément
+   */
+  private static long reserverEtats(final int nombre) {
+    while (true) {
+      final long precedent = DERNIER_ETAT.get();
+      final long instant = (DateUtils.getMillisCourant() & MASQUE_INSTANT) << BITS_COMPTEUR;
+      final long premier;
+      if (instant > precedent) {
+        premier = instant | (ThreadLocalRandom.current().nextInt() & MASQUE_COMPTEUR_INITIAL);
+      } else {
+        premier = precedent + 1;
+      }
+      if (DERNIER_ETAT.compareAndSet(precedent, premier + nombre - 1)) {
+        return premier;
+      }
+    }
   }
 
   /**
@@ -46,19 +398,9 @@ public final class UUIDUtils {
    * @return retourne un UUID au format String
    */
   public static String genererFrom16ByteString(final byte[] byteArray) {
-    long msb = 0;
-    long lsb = 0;
-    for (int i = 0; i < HUIT; i++) {
-      msb = (msb << HUIT) | (byteArray[i] & NOTATION_HEXA);
-    }
-    for (int i = HUIT; i < BYTE_SIZE; i++) {
-      lsb = (lsb << HUIT) | (byteArray[i] & NOTATION_HEXA);
-    }
-    UUID result = new UUID(msb, lsb);
-
-    return result.toString();
+    return UuidCodecs.toString(byteArray, 0);
   }
-  
+
   /**
    * Génére un UUID aléatoire
    * @return Un UID au format String
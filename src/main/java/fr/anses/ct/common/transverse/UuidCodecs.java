@@ -0,0 +1,479 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodage et décodage des UUID sans objet intermédiaire.
+ * <p>
+ * La forme canonique (36 caractères hexadécimaux minuscules avec tirets, comme
+ * <code>UUID.toString()</code>) est écrite directement dans un <code>char[]</code>, un
+ * <code>StringBuilder</code> ou un <code>ByteBuffer</code> (ASCII), depuis un UUID de 16 octets ou
+ * une paire de longs (poids fort, poids faible). La lecture accepte les minuscules et les
+ * majuscules et écrit dans un tableau fourni par l'appelant. Aucune de ces méthodes n'alloue de
+ * mémoire, hormis {@link #toString(long, long)} et {@link #toString(byte[], int)} qui créent la
+ * <code>String</code> résultat.
+ * </p>
+ */
+public final class UuidCodecs {
+
+  /** Longueur de la forme canonique. */
+  public static final int LONGUEUR_HEXA = 36;
+
+  /** Taille d'un UUID en octets. */
+  private static final int TAILLE_UUID = 16;
+
+  /** Nombre d'octets d'un long. */
+  private static final int OCTETS_PAR_LONG = 8;
+
+  /** Message d'erreur lors de la verification de la nullité des params. */
+  private static final String NULL_ERROR_PATTERN = "le paramètre '%s' est null";
+
+  /** Chiffres hexadécimaux. */
+  private static final char[] HEXA = "0123456789abcdef".toCharArray();
+
+  /** Valeur de chaque caractère ASCII hexadécimal (-1 si invalide). */
+  private static final byte[] VALEURS = new byte[128];
+
+  /** Positions des tirets de la forme canonique. */
+  private static final int[] POSITIONS_TIRETS = {8, 13, 18, 23 };
+
+  static {
+    for (int i = 0; i < VALEURS.length; i++) {
+      VALEURS[i] = -1;
+    }
+    for (int i = 0; i < HEXA.length; i++) {
+      VALEURS[HEXA[i]] = (byte) i;
+      VALEURS[Character.toUpperCase(HEXA[i])] = (byte) i;
+    }
+  }
+
+  /**
+   * Constructeur de la classe.
+   */
+  private UuidCodecs() {
+    // Constructeur vide
+  }
+
+  /**
+   * Ecrit la forme canonique de l'UUID (poids fort, poids faible) dans <code>dest</code>.
+   *
+   * @param msb
+   *          64 bits de poids fort
+   * @param lsb
+   *          64 bits de poids faible
+   * @param dest
+   *          tableau de destination (36 caractères à partir de <code>offset</code>)
+   * @param offset
+   *          position du premier caractère
+   * @return la position qui suit le dernier caractère écrit
+   */
+  public static int ecrire(final long msb, final long lsb, final char[] dest, final int offset) {
+    notNull(dest, NULL_ERROR_PATTERN, "dest");
+    hexa(msb >>> 32, 8, dest, offset);
+    dest[offset + 8] = '-';
+    hexa(msb >>> 16, 4, dest, offset + 9);
+    dest[offset + 13] = '-';
+    hexa(msb, 4, dest, offset + 14);
+    dest[offset + 18] = '-';
+    hexa(lsb >>> 48, 4, dest, offset + 19);
+    dest[offset + 23] = '-';
+    hexa(lsb, 12, dest, offset + 24);
+    return offset + LONGUEUR_HEXA;
+  }
+
+  /**
+   * Ecrit la forme canonique de l'UUID de 16 octets <code>uuid[offset..offset+15]</code> dans
+   * <code>dest</code>.
+   *
+   * @param uuid
+   *          tableau contenant l'UUID
+   * @param offset
+   *          position du premier octet de l'UUID
+   * @param dest
+   *          tableau de destination
+   * @param destOffset
+   *          position du premier caractère
+   * @return la position qui suit le dernier caractère écrit
+   */
+  public static int ecrire(final byte[] uuid, final int offset, final char[] dest, final int destOffset) {
+    return ecrire(poidsFort(uuid, offset), poidsFaible(uuid, offset), dest, destOffset);
+  }
+
+  /**
+   * Ajoute la forme canonique de l'UUID (poids fort, poids faible) à <code>dest</code>.
+   *
+   * @param msb
+   *          64 bits de poids fort
+   * @param lsb
+   *          64 bits de poids faible
+   * @param dest
+   *          buffer de destination
+   * @return le buffer <code>dest</code>
+   */
+  public static StringBuilder ecrire(final long msb, final long lsb, final StringBuilder dest) {
+    notNull(dest, NULL_ERROR_PATTERN, "dest");
+    dest.ensureCapacity(dest.length() + LONGUEUR_HEXA);
+    hexa(msb >>> 32, 8, dest);
+    dest.append('-');
+    hexa(msb >>> 16, 4, dest);
+    dest.append('-');
+    hexa(msb, 4, dest);
+    dest.append('-');
+    hexa(lsb >>> 48, 4, dest);
+    dest.append('-');
+    hexa(lsb, 12, dest);
+    return dest;
+  }
+
+  /**
+   * Ajoute la forme canonique de l'UUID de 16 octets <code>uuid[offset..offset+15]</code> à
+   * <code>dest</code>.
+   *
+   * @param uuid
+   *          tableau contenant l'UUID
+   * @param offset
+   *          position du premier octet de l'UUID
+   * @param dest
+   *          buffer de destination
+   * @return le buffer <code>dest</code>
+   */
+  public static StringBuilder ecrire(final byte[] uuid, final int offset, final StringBuilder dest) {
+    return ecrire(poidsFort(uuid, offset), poidsFaible(uuid, offset), dest);
+  }
+
+  /**
+   * Ecrit la forme canonique de l'UUID (poids fort, poids faible) en ASCII à la position de
+   * <code>dest</code>, qui avance de 36 octets.
+   *
+   * @param msb
+   *          64 bits de poids fort
+   * @param lsb
+   *          64 bits de poids faible
+   * @param dest
+   *          buffer de destination
+   * @return le buffer <code>dest</code>
+   */
+  public static ByteBuffer ecrire(final long msb, final long lsb, final ByteBuffer dest) {
+    notNull(dest, NULL_ERROR_PATTERN, "dest");
+    isTrue(dest.remaining() >= LONGUEUR_HEXA, "place insuffisante dans le buffer");
+    hexa(msb >>> 32, 8, dest);
+    dest.put((byte) '-');
+    hexa(msb >>> 16, 4, dest);
+    dest.put((byte) '-');
+    hexa(msb, 4, dest);
+    dest.put((byte) '-');
+    hexa(lsb >>> 48, 4, dest);
+    dest.put((byte) '-');
+    hexa(lsb, 12, dest);
+    return dest;
+  }
+
+  /**
+   * Ecrit la forme canonique de l'UUID de 16 octets <code>uuid[offset..offset+15]</code> en ASCII à
+   * la position de <code>dest</code>, qui avance de 36 octets.
+   *
+   * @param uuid
+   *          tableau contenant l'UUID
+   * @param offset
+   *          position du premier octet de l'UUID
+   * @param dest
+   *          buffer de destination
+   * @return le buffer <code>dest</code>
+   */
+  public static ByteBuffer ecrire(final byte[] uuid, final int offset, final ByteBuffer dest) {
+    return ecrire(poidsFort(uuid, offset), poidsFaible(uuid, offset), dest);
+  }
+
+  /**
+   * Retourne la forme canonique de l'UUID (poids fort, poids faible).
+   *
+   * @param msb
+   *          64 bits de poids fort
+   * @param lsb
+   *          64 bits de poids faible
+   * @return la forme canonique
+   */
+  public static String toString(final long msb, final long lsb) {
+    final char[] texte = new char[LONGUEUR_HEXA];
+    ecrire(msb, lsb, texte, 0);
+    return new String(texte);
+  }
+
+  /**
+   * Retourne la forme canonique de l'UUID de 16 octets <code>uuid[offset..offset+15]</code>.
+   *
+   * @param uuid
+   *          tableau contenant l'UUID
+   * @param offset
+   *          position du premier octet de l'UUID
+   * @return la forme canonique
+   */
+  public static String toString(final byte[] uuid, final int offset) {
+    return toString(poidsFort(uuid, offset), poidsFaible(uuid, offset));
+  }
+
+  /**
+   * Lit la forme canonique <code>texte[offset..offset+35]</code> dans les 16 octets de
+   * <code>dest</code> à partir de <code>destOffset</code>.
+   *
+   * @param texte
+   *          texte contenant l'UUID
+   * @param offset
+   *          position du premier caractère
+   * @param dest
+   *          tableau de destination
+   * @param destOffset
+   *          position du premier octet
+   * @throws IllegalArgumentException
+   *           si le texte n'est pas un UUID canonique
+   */
+  public static void lire(final CharSequence texte, final int offset, final byte[] dest, final int destOffset) {
+    notNull(dest, NULL_ERROR_PATTERN, "dest");
+    valider(texte, offset);
+    ecrireLong(lirePoidsFort(texte, offset), dest, destOffset);
+    ecrireLong(lirePoidsFaible(texte, offset), dest, destOffset + OCTETS_PAR_LONG);
+  }
+
+  /**
+   * Lit la forme canonique <code>texte[offset..offset+35]</code> dans <code>dest[destOffset]</code>
+   * (poids fort) et <code>dest[destOffset + 1]</code> (poids faible).
+   *
+   * @param texte
+   *          texte contenant l'UUID
+   * @param offset
+   *          position du premier caractère
+   * @param dest
+   *          tableau de destination
+   * @param destOffset
+   *          position du poids fort
+   * @throws IllegalArgumentException
+   *           si le texte n'est pas un UUID canonique
+   */
+  public static void lire(final CharSequence texte, final int offset, final long[] dest, final int destOffset) {
+    notNull(dest, NULL_ERROR_PATTERN, "dest");
+    valider(texte, offset);
+    dest[destOffset] = lirePoidsFort(texte, offset);
+    dest[destOffset + 1] = lirePoidsFaible(texte, offset);
+  }
+
+  /**
+   * Lit les 64 bits de poids fort de la forme canonique <code>texte[offset..offset+35]</code>.
+   *
+   * @param texte
+   *          texte contenant l'UUID
+   * @param offset
+   *          position du premier caractère
+   * @return les 64 bits de poids fort
+   * @throws IllegalArgumentException
+   *           si le texte n'est pas un UUID canonique
+   */
+  public static long poidsFort(final CharSequence texte, final int offset) {
+    valider(texte, offset);
+    return lirePoidsFort(texte, offset);
+  }
+
+  /**
+   * Lit les 64 bits de poids faible de la forme canonique <code>texte[offset..offset+35]</code>.
+   *
+   * @param texte
+   *          texte contenant l'UUID
+   * @param offset
+   *          position du premier caractère
+   * @return les 64 bits de poids faible
+   * @throws IllegalArgumentException
+   *           si le texte n'est pas un UUID canonique
+   */
+  public static long poidsFaible(final CharSequence texte, final int offset) {
+    valider(texte, offset);
+    return lirePoidsFaible(texte, offset);
+  }
+
+  /**
+   * Retourne les 64 bits de poids fort de l'UUID de 16 octets <code>uuid[offset..]</code>.
+   *
+   * @param uuid
+   *          tableau contenant l'UUID
+   * @param offset
+   *          position du premier octet de l'UUID
+   * @return les 64 bits de poids fort
+   */
+  public static long poidsFort(final byte[] uuid, final int offset) {
+    notNull(uuid, NULL_ERROR_PATTERN, "uuid");
+    isTrue(offset >= 0 && offset + TAILLE_UUID <= uuid.length, "un UUID fait %d octets", TAILLE_UUID);
+    return lireLong(uuid, offset);
+  }
+
+  /**
+   * Retourne les 64 bits de poids faible de l'UUID de 16 octets <code>uuid[offset..]</code>.
+   *
+   * @param uuid
+   *          tableau contenant l'UUID
+   * @param offset
+   *          position du premier octet de l'UUID
+   * @return les 64 bits de poids faible
+   */
+  public static long poidsFaible(final byte[] uuid, final int offset) {
+    notNull(uuid, NULL_ERROR_PATTERN, "uuid");
+    isTrue(offset >= 0 && offset + TAILLE_UUID <= uuid.length, "un UUID fait %d octets", TAILLE_UUID);
+    return lireLong(uuid, offset + OCTETS_PAR_LONG);
+  }
+
+  /**
+   * Ecrit un long en big-endian dans un tableau d'octets.
+   *
+   * @param valeur
+   *          valeur
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position du premier octet
+   */
+  static void ecrireLong(final long valeur, final byte[] dest, final int offset) {
+    for (int i = 0; i < OCTETS_PAR_LONG; i++) {
+      dest[offset + i] = (byte) (valeur >>> ((OCTETS_PAR_LONG - 1 - i) * OCTETS_PAR_LONG));
+    }
+  }
+
+  /**
+   * Lit un long big-endian dans un tableau d'octets.
+   *
+   * @param source
+   *          tableau source
+   * @param offset
+   *          position du premier octet
+   * @return la valeur
+   */
+  static long lireLong(final byte[] source, final int offset) {
+    long valeur = 0;
+    for (int i = 0; i < OCTETS_PAR_LONG; i++) {
+      valeur = (valeur << OCTETS_PAR_LONG) | (source[offset + i] & 0xff);
+    }
+    return valeur;
+  }
+
+  /**
+   * Vérifie la forme canonique <code>texte[offset..offset+35]</code> (tirets et chiffres).
+   *
+   * @param texte
+   *          texte
+   * @param offset
+   *          position du premier caractère
+   */
+  private static void valider(final CharSequence texte, final int offset) {
+    notNull(texte, NULL_ERROR_PATTERN, "texte");
+    isTrue(offset >= 0 && offset + LONGUEUR_HEXA <= texte.length(), "UUID tronqué");
+    int tiret = 0;
+    for (int i = 0; i < LONGUEUR_HEXA; i++) {
+      final char c = texte.charAt(offset + i);
+      if (tiret < POSITIONS_TIRETS.length && i == POSITIONS_TIRETS[tiret]) {
+        if (c != '-') {
+          throw new IllegalArgumentException("UUID invalide : " + texte);
+        }
+        tiret++;
+      } else if (c >= VALEURS.length || VALEURS[c] < 0) {
+        throw new IllegalArgumentException("UUID invalide : " + texte);
+      }
+    }
+  }
+
+  /**
+   * Lit les 64 bits de poids fort d'une forme canonique validée.
+   *
+   * @param texte
+   *          texte
+   * @param offset
+   *          position du premier caractère
+   * @return les 64 bits de poids fort
+   */
+  private static long lirePoidsFort(final CharSequence texte, final int offset) {
+    return (lireHexa(texte, offset, 8) << 32) | (lireHexa(texte, offset + 9, 4) << 16)
+      | lireHexa(texte, offset + 14, 4);
+  }
+
+  /**
+   * Lit les 64 bits de poids faible d'une forme canonique validée.
+   *
+   * @param texte
+   *          texte
+   * @param offset
+   *          position du premier caractère
+   * @return les 64 bits de poids faible
+   */
+  private static long lirePoidsFaible(final CharSequence texte, final int offset) {
+    return (lireHexa(texte, offset + 19, 4) << 48) | lireHexa(texte, offset + 24, 12);
+  }
+
+  /**
+   * Lit <code>n</code> chiffres hexadécimaux validés.
+   *
+   * @param texte
+   *          texte
+   * @param offset
+   *          position du premier chiffre
+   * @param n
+   *          nombre de chiffres
+   * @return la valeur
+   */
+  private static long lireHexa(final CharSequence texte, final int offset, final int n) {
+    long valeur = 0;
+    for (int i = 0; i < n; i++) {
+      valeur = (valeur << 4) | VALEURS[texte.charAt(offset + i)];
+    }
+    return valeur;
+  }
+
+  /**
+   * Ecrit les <code>n</code> chiffres hexadécimaux de poids faible de <code>valeur</code>.
+   *
+   * @param valeur
+   *          valeur
+   * @param n
+   *          nombre de chiffres
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position du premier chiffre
+   */
+  private static void hexa(final long valeur, final int n, final char[] dest, final int offset) {
+    for (int i = n - 1, decalage = 0; i >= 0; i--, decalage += 4) {
+      dest[offset + i] = HEXA[(int) (valeur >>> decalage) & 0xF];
+    }
+  }
+
+  /**
+   * Ajoute les <code>n</code> chiffres hexadécimaux de poids faible de <code>valeur</code>.
+   *
+   * @param valeur
+   *          valeur
+   * @param n
+   *          nombre de chiffres
+   * @param dest
+   *          buffer de destination
+   */
+  private static void hexa(final long valeur, final int n, final StringBuilder dest) {
+    for (int decalage = (n - 1) * 4; decalage >= 0; decalage -= 4) {
+      dest.append(HEXA[(int) (valeur >>> decalage) & 0xF]);
+    }
+  }
+
+  /**
+   * Ecrit en ASCII les <code>n</code> chiffres hexadécimaux de poids faible de
+   * <code>valeur</code>.
+   *
+   * @param valeur
+   *          valeur
+   * @param n
+   *          nombre de chiffres
+   * @param dest
+   *          buffer de destination
+   */
+  private static void hexa(final long valeur, final int n, final ByteBuffer dest) {
+    for (int decalage = (n - 1) * 4; decalage >= 0; decalage -= 4) {
+      dest.put((byte) HEXA[(int) (valeur >>> decalage) & 0xF]);
+    }
+  }
+
+}
@@ -0,0 +1,319 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Formes textuelles compactes des UUID, alternatives aux 36 caractères de la forme canonique
+ * ({@link UuidCodecs}).
+ * <p>
+ * {@link #BASE64URL} (22 caractères) est le base64url de la RFC 4648 sans bourrage, identique à
+ * <code>Base64.getUrlEncoder().withoutPadding()</code> sur les 16 octets : c'est la forme la plus
+ * courte, sûre dans une URL, mais son alphabet ne suit pas l'ordre ASCII et l'ordre des UUID n'est
+ * pas conservé. {@link #CROCKFORD} (26 caractères) est le base32 de Crockford, comme les ULID :
+ * son alphabet suit l'ordre ASCII, donc l'ordre lexicographique des textes est celui des UUID (les
+ * UUID version 7 restent triés par date). La lecture Crockford ignore la casse et accepte
+ * <code>I</code>, <code>L</code> (pour 1) et <code>O</code> (pour 0).
+ * </p>
+ * <p>
+ * Comme pour {@link UuidCodecs}, l'écriture et la lecture se font dans des tableaux fournis par
+ * l'appelant, sans objet intermédiaire, et le texte se relit exactement dans les 16 octets
+ * d'origine (les bits de bourrage doivent être nuls).
+ * </p>
+ */
+public enum UuidCompactCodec {
+
+  /** Base64url (RFC 4648) sans bourrage, 22 caractères. */
+  BASE64URL("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_", 6, 0),
+
+  /** Base32 de Crockford, 26 caractères, ordre conservé. */
+  CROCKFORD("0123456789ABCDEFGHJKMNPQRSTVWXYZ", 5, 2);
+
+  /** Nombre de bits d'un UUID. */
+  private static final int BITS_UUID = 128;
+
+  /** Nombre de bits d'un long. */
+  private static final int BITS_PAR_LONG = 64;
+
+  /** Taille d'un UUID en octets. */
+  private static final int TAILLE_UUID = 16;
+
+  /** Message d'erreur lors de la verification de la nullité des params. */
+  private static final String NULL_ERROR_PATTERN = "le paramètre '%s' est null";
+
+  /** Alphabet. */
+  private final char[] alphabet;
+
+  /** Valeur de chaque caractère ASCII (-1 si invalide). */
+  private final byte[] valeurs = new byte[128];
+
+  /** Nombre de bits par caractère. */
+  private final int bitsParCaractere;
+
+  /** Nombre de bits nuls ajoutés avant l'UUID. */
+  private final int bourrageDebut;
+
+  /** Nombre de bits nuls ajoutés après l'UUID. */
+  private final int bourrageFin;
+
+  /** Nombre de caractères. */
+  private final int longueur;
+
+  /** Masque de la valeur d'un caractère. */
+  private final int masque;
+
+  /**
+   * Constructeur de l'enum.
+   *
+   * @param alphabet
+   *          alphabet (2^bitsParCaractere caractères)
+   * @param bitsParCaractere
+   *          nombre de bits par caractère
+   * @param bourrageDebut
+   *          nombre de bits nuls ajoutés avant l'UUID
+   */
+  UuidCompactCodec(final String alphabet, final int bitsParCaractere, final int bourrageDebut) {
+    this.alphabet = alphabet.toCharArray();
+    this.bitsParCaractere = bitsParCaractere;
+    this.masque = (1 << bitsParCaractere) - 1;
+    this.bourrageDebut = bourrageDebut;
+    this.longueur = (BITS_UUID + bitsParCaractere - 1) / bitsParCaractere;
+    this.bourrageFin = longueur * bitsParCaractere - BITS_UUID - bourrageDebut;
+    for (int i = 0; i < valeurs.length; i++) {
+      valeurs[i] = -1;
+    }
+    for (int i = 0; i < this.alphabet.length; i++) {
+      valeurs[this.alphabet[i]] = (byte) i;
+      valeurs[Character.toLowerCase(this.alphabet[i])] = (byte) i;
+    }
+    if (bourrageDebut > 0) {
+      // alias de Crockford
+      valeurs['I'] = 1;
+      valeurs['i'] = 1;
+      valeurs['L'] = 1;
+      valeurs['l'] = 1;
+      valeurs['O'] = 0;
+      valeurs['o'] = 0;
+    }
+  }
+
+  /**
+   * Retourne le nombre de caractères de la forme compacte.
+   *
+   * @return le nombre de caractères
+   */
+  public int getLongueur() {
+    return longueur;
+  }
+
+  /**
+   * Ecrit la forme compacte de l'UUID (poids fort, poids faible) dans <code>dest</code>.
+   *
+   * @param msb
+   *          64 bits de poids fort
+   * @param lsb
+   *          64 bits de poids faible
+   * @param dest
+   *          tableau de destination ({@link #getLongueur()} caractères à partir de
+   *          <code>offset</code>)
+   * @param offset
+   *          position du premier caractère
+   * @return la position qui suit le dernier caractère écrit
+   */
+  public int ecrire(final long msb, final long lsb, final char[] dest, final int offset) {
+    notNull(dest, NULL_ERROR_PATTERN, "dest");
+    for (int i = 0; i < longueur; i++) {
+      dest[offset + i] = alphabet[champ(msb, lsb, i)];
+    }
+    return offset + longueur;
+  }
+
+  /**
+   * Ecrit la forme compacte de l'UUID de 16 octets <code>uuid[offset..offset+15]</code> dans
+   * <code>dest</code>.
+   *
+   * @param uuid
+   *          tableau contenant l'UUID
+   * @param offset
+   *          position du premier octet de l'UUID
+   * @param dest
+   *          tableau de destination
+   * @param destOffset
+   *          position du premier caractère
+   * @return la position qui suit le dernier caractère écrit
+   */
+  public int ecrire(final byte[] uuid, final int offset, final char[] dest, final int destOffset) {
+    return ecrire(UuidCodecs.poidsFort(uuid, offset), UuidCodecs.poidsFaible(uuid, offset), dest, destOffset);
+  }
+
+  /**
+   * Ajoute la forme compacte de l'UUID (poids fort, poids faible) à <code>dest</code>.
+   *
+   * @param msb
+   *          64 bits de poids fort
+   * @param lsb
+   *          64 bits de poids faible
+   * @param dest
+   *          buffer de destination
+   * @return le buffer <code>dest</code>
+   */
+  public StringBuilder ecrire(final long msb, final long lsb, final StringBuilder dest) {
+    notNull(dest, NULL_ERROR_PATTERN, "dest");
+    dest.ensureCapacity(dest.length() + longueur);
+    for (int i = 0; i < longueur; i++) {
+      dest.append(alphabet[champ(msb, lsb, i)]);
+    }
+    return dest;
+  }
+
+  /**
+   * Retourne la forme compacte de l'UUID (poids fort, poids faible).
+   *
+   * @param msb
+   *          64 bits de poids fort
+   * @param lsb
+   *          64 bits de poids faible
+   * @return la forme compacte
+   */
+  public String toString(final long msb, final long lsb) {
+    final char[] texte = new char[longueur];
+    ecrire(msb, lsb, texte, 0);
+    return new String(texte);
+  }
+
+  /**
+   * Retourne la forme compacte de l'UUID de 16 octets <code>uuid[offset..offset+15]</code>.
+   *
+   * @param uuid
+   *          tableau contenant l'UUID
+   * @param offset
+   *          position du premier octet de l'UUID
+   * @return la forme compacte
+   */
+  public String toString(final byte[] uuid, final int offset) {
+    return toString(UuidCodecs.poidsFort(uuid, offset), UuidCodecs.poidsFaible(uuid, offset));
+  }
+
+  /**
+   * Lit la forme compacte <code>texte[offset..]</code> dans <code>dest[destOffset]</code> (poids
+   * fort) et <code>dest[destOffset + 1]</code> (poids faible).
+   *
+   * @param texte
+   *          texte contenant l'UUID
+   * @param offset
+   *          position du premier caractère
+   * @param dest
+   *          tableau de destination
+   * @param destOffset
+   *          position du poids fort
+   * @throws IllegalArgumentException
+   *           si le texte n'est pas une forme compacte valide
+   */
+  public void lire(final CharSequence texte, final int offset, final long[] dest, final int destOffset) {
+    notNull(dest, NULL_ERROR_PATTERN, "dest");
+    isTrue(destOffset >= 0 && destOffset + 2 <= dest.length, "place insuffisante dans le tableau");
+    valider(texte, offset);
+    long msb = 0;
+    long lsb = 0;
+    for (int i = 0; i < longueur; i++) {
+      int valeur = valeurs[texte.charAt(offset + i)];
+      int bits = bitsParCaractere;
+      if (i == longueur - 1) {
+        valeur >>>= bourrageFin;
+        bits -= bourrageFin;
+      }
+      // décalage à gauche de 128 bits : les bits de bourrage initiaux, nuls, sortent du poids fort
+      msb = (msb << bits) | (lsb >>> (BITS_PAR_LONG - bits));
+      lsb = (lsb << bits) | valeur;
+    }
+    dest[destOffset] = msb;
+    dest[destOffset + 1] = lsb;
+  }
+
+  /**
+   * Lit la forme compacte <code>texte[offset..]</code> dans les 16 octets de <code>dest</code> à
+   * partir de <code>destOffset</code>.
+   *
+   * @param texte
+   *          texte contenant l'UUID
+   * @param offset
+   *          position du premier caractère
+   * @param dest
+   *          tableau de destination
+   * @param destOffset
+   *          position du premier octet
+   * @throws IllegalArgumentException
+   *           si le texte n'est pas une forme compacte valide
+   */
+  public void lire(final CharSequence texte, final int offset, final byte[] dest, final int destOffset) {
+    notNull(dest, NULL_ERROR_PATTERN, "dest");
+    isTrue(destOffset >= 0 && destOffset + TAILLE_UUID <= dest.length, "place insuffisante dans le tableau");
+    valider(texte, offset);
+    // flux de bits : les bits de bourrage initiaux (nuls) ne comptent pas, les bits finaux restent
+    long accumulateur = 0;
+    int nbBits = -bourrageDebut;
+    int position = destOffset;
+    for (int i = 0; i < longueur; i++) {
+      accumulateur = (accumulateur << bitsParCaractere) | valeurs[texte.charAt(offset + i)];
+      nbBits += bitsParCaractere;
+      if (nbBits >= Byte.SIZE) {
+        nbBits -= Byte.SIZE;
+        dest[position++] = (byte) (accumulateur >>> nbBits);
+      }
+    }
+  }
+
+  /**
+   * Retourne la valeur du caractère <code>i</code> : les bits
+   * <code>[i * bitsParCaractere - bourrageDebut, (i + 1) * bitsParCaractere - bourrageDebut[</code>
+   * de l'UUID (comptés depuis le bit de poids fort), les bits hors de l'UUID étant nuls. Chaque
+   * caractère est extrait indépendamment des autres.
+   *
+   * @param msb
+   *          64 bits de poids fort
+   * @param lsb
+   *          64 bits de poids faible
+   * @param i
+   *          rang du caractère
+   * @return la valeur du caractère
+   */
+  private int champ(final long msb, final long lsb, final int i) {
+    final int fin = (i + 1) * bitsParCaractere - bourrageDebut;
+    final long bits;
+    if (fin <= BITS_PAR_LONG) {
+      bits = msb >>> (BITS_PAR_LONG - fin);
+    } else if (fin - bitsParCaractere < BITS_PAR_LONG) {
+      bits = (msb << (fin - BITS_PAR_LONG)) | (lsb >>> (2 * BITS_PAR_LONG - fin));
+    } else if (fin <= 2 * BITS_PAR_LONG) {
+      bits = lsb >>> (2 * BITS_PAR_LONG - fin);
+    } else {
+      bits = lsb << (fin - 2 * BITS_PAR_LONG);
+    }
+    return (int) bits & masque;
+  }
+
+  /**
+   * Vérifie la forme compacte <code>texte[offset..]</code> : caractères de l'alphabet et bits de
+   * bourrage nuls.
+   *
+   * @param texte
+   *          texte
+   * @param offset
+   *          position du premier caractère
+   */
+  private void valider(final CharSequence texte, final int offset) {
+    notNull(texte, NULL_ERROR_PATTERN, "texte");
+    isTrue(offset >= 0 && offset + longueur <= texte.length(), "UUID tronqué");
+    for (int i = 0; i < longueur; i++) {
+      final char c = texte.charAt(offset + i);
+      if (c >= valeurs.length || valeurs[c] < 0) {
+        throw new IllegalArgumentException("UUID invalide : " + texte);
+      }
+    }
+    if (valeurs[texte.charAt(offset)] >>> (bitsParCaractere - bourrageDebut) != 0
+      || (valeurs[texte.charAt(offset + longueur - 1)] & ((1 << bourrageFin) - 1)) != 0) {
+      throw new IllegalArgumentException("UUID hors limites : " + texte);
+    }
+  }
+
+}
@@ -0,0 +1,34 @@
+package fr.anses.ct.common.transverse;
+
+/**
+ * Source d'aléa des UUID générés par {@link UUIDUtils}.
+ * <p>
+ * Le générateur fournit les 16 octets aléatoires ; {@link UUIDUtils} positionne ensuite les bits
+ * de version (4) et de variante (RFC 4122). Le générateur est choisi au démarrage par la propriété
+ * système {@link UUIDUtils#PROPRIETE_GENERATEUR} ou par
+ * {@link UUIDUtils#setGenerateur(UuidGenerator)}. Les implémentations doivent être thread-safe.
+ * </p>
+ *
+ * @see UuidGeneratorStrategy
+ */
+public interface UuidGenerator {
+
+  /**
+   * Retourne le nom du générateur.
+   *
+   * @return le nom du générateur
+   */
+  String getNom();
+
+  /**
+   * Remplit les 16 octets de <code>dest</code> à partir de <code>offset</code> avec des octets
+   * aléatoires.
+   *
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position du premier octet
+   */
+  void remplir(byte[] dest, int offset);
+
+}
@@ -0,0 +1,295 @@
+package fr.anses.ct.common.transverse;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Générateurs d'aléa des UUID fournis par ct-common.
+ * <p>
+ * {@link #JDK} (défaut) utilise <code>UUID.randomUUID()</code>, dont le <code>SecureRandom</code>
+ * unique est partagé par tous les threads. {@link #POOL} et {@link #THREAD} répartissent la
+ * génération sur plusieurs <code>SecureRandom</code> pour supprimer cette contention, avec la
+ * même qualité cryptographique. {@link #RAPIDE} n'est pas cryptographique : les UUID restent
+ * uniques en pratique mais sont prévisibles, et ne doivent pas servir de secret.
+ * </p>
+ */
+public enum UuidGeneratorStrategy implements UuidGenerator {
+
+  /** <code>UUID.randomUUID()</code> (un <code>SecureRandom</code> partagé). */
+  JDK("jdk") {
+    @Override
+    public void remplir(final byte[] dest, final int offset) {
+      final UUID uuid = UUID.randomUUID();
+      UuidCodecs.ecrireLong(uuid.getMostSignificantBits(), dest, offset);
+      UuidCodecs.ecrireLong(uuid.getLeastSignificantBits(), dest, offset + OCTETS_PAR_LONG);
+    }
+  },
+
+  /** Pool de <code>SecureRandom</code>, choisi selon le thread. */
+  POOL("pool") {
+    @Override
+    public void remplir(final byte[] dest, final int offset) {
+      final SecureRandom[] pool = Pool.INSTANCES;
+      remplir(pool[(int) Thread.currentThread().getId() & (pool.length - 1)], dest, offset);
+    }
+
+    @Override
+    public void remplir(final byte[] dest, final int offset, final int nombre) {
+      final SecureRandom[] pool = Pool.INSTANCES;
+      remplir(pool[(int) Thread.currentThread().getId() & (pool.length - 1)], dest, offset, nombre);
+    }
+  },
+
+  /** Un <code>SecureRandom</code> par thread. */
+  THREAD("thread") {
+    @Override
+    public void remplir(final byte[] dest, final int offset) {
+      remplir(ParThread.INSTANCE.get(), dest, offset);
+    }
+
+    @Override
+    public void remplir(final byte[] dest, final int offset, final int nombre) {
+      remplir(ParThread.INSTANCE.get(), dest, offset, nombre);
+    }
+  },
+
+  /** <code>ThreadLocalRandom</code> : rapide, non cryptographique. */
+  RAPIDE("rapide") {
+    @Override
+    public void remplir(final byte[] dest, final int offset) {
+      final ThreadLocalRandom random = ThreadLocalRandom.current();
+      UuidCodecs.ecrireLong(random.nextLong(), dest, offset);
+      UuidCodecs.ecrireLong(random.nextLong(), dest, offset + OCTETS_PAR_LONG);
+    }
+  };
+
+  /** Taille d'un UUID en octets. */
+  static final int TAILLE_UUID = 16;
+
+  /** Algorithme des <code>SecureRandom</code> du pool et par thread. */
+  private static final String ALGORITHME_ISOLE = "SHA1PRNG";
+
+  /** Nombre d'octets d'un long. */
+  static final int OCTETS_PAR_LONG = 8;
+
+  /** Nom du générateur. */
+  private final String nom;
+
+  /**
+   * Constructeur de l'enum.
+   *
+   * @param nom
+   *          nom du générateur
+   */
+  UuidGeneratorStrategy(final String nom) {
+    this.nom = nom;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getNom() {
+    return nom;
+  }
+
+  /**
+   * Retourne le générateur de nom <code>nom</code>.
+   *
+   * @param nom
+   *          nom du générateur (jdk, pool, thread ou rapide)
+   * @return le générateur
+   */
+  public static UuidGeneratorStrategy pourNom(final String nom) {
+    for (UuidGeneratorStrategy strategie : values()) {
+      if (strategie.nom.equals(nom)) {
+        return strategie;
+      }
+    }
+    throw new IllegalArgumentException("Générateur d'UUID inconnu : " + nom);
+  }
+
+  /**
+   * Remplit <code>nombre</code> UUID consécutifs (16 octets chacun) de <code>dest</code> à partir de
+   * <code>offset</code> avec des octets aléatoires. Les générateurs à base de
+   * <code>SecureRandom</code> tirent tout le lot en un seul appel.
+   *
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position du premier octet
+   * @param nombre
+   *          nombre d'UUID
+   */
+  public void remplir(final byte[] dest, final int offset, final int nombre) {
+    for (int i = 0; i < nombre; i++) {
+      remplir(dest, offset + i * TAILLE_UUID);
+    }
+  }
+
+  /**
+   * Remplit <code>nombre</code> UUID consécutifs avec <code>generateur</code>, en un seul lot si
+   * c'est un générateur de ct-common. Une réserve ({@link UuidRingBuffer}) n'est pas vidée par les
+   * lots : ils sont tirés directement de sa source.
+   *
+   * @param generateur
+   *          générateur
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position du premier octet
+   * @param nombre
+   *          nombre d'UUID
+   */
+  static void remplir(final UuidGenerator generateur, final byte[] dest, final int offset, final int nombre) {
+    if (generateur instanceof UuidRingBuffer) {
+      remplir(((UuidRingBuffer) generateur).getSource(), dest, offset, nombre);
+      return;
+    }
+    if (generateur instanceof UuidGeneratorStrategy) {
+      ((UuidGeneratorStrategy) generateur).remplir(dest, offset, nombre);
+      return;
+    }
+    for (int i = 0; i < nombre; i++) {
+      generateur.remplir(dest, offset + i * TAILLE_UUID);
+    }
+  }
+
+  /**
+   * Remplit 16 octets avec <code>random</code>, directement dans <code>dest</code> s'il a la taille
+   * d'un UUID.
+   *
+   * @param random
+   *          générateur
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position du premier octet
+   */
+  static void remplir(final SecureRandom random, final byte[] dest, final int offset) {
+    if (offset == 0 && dest.length == TAILLE_UUID) {
+      random.nextBytes(dest);
+      return;
+    }
+    final byte[] octets = new byte[TAILLE_UUID];
+    random.nextBytes(octets);
+    System.arraycopy(octets, 0, dest, offset, TAILLE_UUID);
+  }
+
+  /**
+   * Remplit <code>nombre</code> UUID consécutifs avec <code>random</code>, directement dans
+   * <code>dest</code> si le lot l'occupe entièrement.
+   *
+   * @param random
+   *          générateur
+   * @param dest
+   *          tableau de destination
+   * @param offset
+   *          position du premier octet
+   * @param nombre
+   *          nombre d'UUID
+   */
+  static void remplir(final SecureRandom random, final byte[] dest, final int offset, final int nombre) {
+    final int taille = nombre * TAILLE_UUID;
+    if (offset == 0 && dest.length == taille) {
+      random.nextBytes(dest);
+      return;
+    }
+    final byte[] octets = new byte[taille];
+    random.nextBytes(octets);
+    System.arraycopy(octets, 0, dest, offset, taille);
+  }
+
+  /**
+   * Crée un <code>SecureRandom</code> à état propre (SHA1PRNG) : le <code>NativePRNG</code> par
+   * défaut partage un verrou entre toutes ses instances. La graine est tirée par
+   * <code>nextBytes</code> d'un <code>SecureRandom</code> partagé déjà amorcé, et non par
+   * <code>generateSeed</code>, qui peut bloquer en attendant l'entropie du système à chaque
+   * nouveau thread.
+   *
+   * @return le générateur
+   */
+  static SecureRandom nouveauSecureRandom() {
+    try {
+      final SecureRandom random = SecureRandom.getInstance(ALGORITHME_ISOLE);
+      final byte[] graine = new byte[TAILLE_UUID * 2];
+      Amorce.INSTANCE.nextBytes(graine);
+      random.setSeed(graine);
+      return random;
+    } catch (NoSuchAlgorithmException e) {
+      return new SecureRandom();
+    }
+  }
+
+  /**
+   * <code>SecureRandom</code> partagé qui fournit les graines (initialisé au premier usage).
+   */
+  private static final class Amorce {
+
+    /** Instance. */
+    static final SecureRandom INSTANCE = new SecureRandom();
+
+    /**
+     * Constructeur de la classe.
+     */
+    private Amorce() {
+      // Constructeur vide
+    }
+  }
+
+  /**
+   * Pool de <code>SecureRandom</code> (initialisé au premier usage).
+   */
+  private static final class Pool {
+
+    /** Instances (puissance de 2, au moins 2 par processeur). */
+    static final SecureRandom[] INSTANCES = creer(Integer.highestOneBit(Runtime.getRuntime()
+      .availableProcessors() * 2 - 1) << 1);
+
+    /**
+     * Constructeur de la classe.
+     */
+    private Pool() {
+      // Constructeur vide
+    }
+
+    /**
+     * Crée le pool.
+     *
+     * @param taille
+     *          taille du pool
+     * @return le pool
+     */
+    private static SecureRandom[] creer(final int taille) {
+      final SecureRandom[] pool = new SecureRandom[taille];
+      for (int i = 0; i < taille; i++) {
+        pool[i] = nouveauSecureRandom();
+      }
+      return pool;
+    }
+  }
+
+  /**
+   * <code>SecureRandom</code> par thread (initialisé au premier usage).
+   */
+  private static final class ParThread {
+
+    /** Instance du thread courant. */
+    static final ThreadLocal<SecureRandom> INSTANCE = new ThreadLocal<SecureRandom>() {
+      @Override
+      protected SecureRandom initialValue() {
+        return nouveauSecureRandom();
+      }
+    };
+
+    /**
+     * Constructeur de la classe.
+     */
+    private ParThread() {
+      // Constructeur vide
+    }
+  }
+
+}
@@ -0,0 +1,222 @@
+package fr.anses.ct.common.transverse;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Réserve d'aléa pré-généré : un thread démon remplit un anneau de <code>capacite</code> UUID à
+ * partir d'un générateur source, et {@link #remplir(byte[], int)} se limite à prendre l'élément
+ * suivant de l'anneau, sans verrou ni accès à la source.
+ * <p>
+ * Le thread est réveillé dès que l'anneau est à moitié vide et le remplit par lots. Si l'anneau
+ * est vide (consommation plus rapide que le remplissage, ou réserve arrêtée), l'UUID est généré
+ * directement par la source dans le thread appelant : la réserve ne bloque jamais. Ces replis sont
+ * comptés par {@link #getNbReplis()}.
+ * </p>
+ * <p>
+ * Le thread est arrêté par {@link #arreter()} ; la réserve délègue alors tout à la source.
+ * </p>
+ */
+public final class UuidRingBuffer implements UuidGenerator {
+
+  /** Capacité par défaut (nombre d'UUID). */
+  public static final int CAPACITE_DEFAUT = 4096;
+
+  /** Nom du thread de remplissage. */
+  private static final String NOM_THREAD = "ct-common-uuid-ring";
+
+  /** Nombre maximal d'UUID générés par lot de remplissage. */
+  private static final int TAILLE_LOT = 256;
+
+  /** Attente maximale du thread de remplissage entre deux vérifications, en millisecondes. */
+  private static final long ATTENTE_MAX = 100;
+
+  /** Générateur source. */
+  private final UuidGenerator source;
+
+  /** Anneau : poids fort puis poids faible de chaque UUID. */
+  private final long[] anneau;
+
+  /** Masque d'indice de l'anneau (capacité - 1). */
+  private final int masque;
+
+  /** Niveau de l'anneau en dessous duquel le thread de remplissage est réveillé. */
+  private final int seuil;
+
+  /** Séquence du prochain UUID à prendre. */
+  private final AtomicLong lus = new AtomicLong();
+
+  /** Séquence du prochain UUID à écrire (écrite par le seul thread de remplissage). */
+  private volatile long ecrits;
+
+  /** Nombre d'UUID générés directement par la source, anneau vide. */
+  private final AtomicLong replis = new AtomicLong();
+
+  /** Thread de remplissage. */
+  private final Thread remplisseur;
+
+  /** Indicateur d'arrêt. */
+  private volatile boolean arrete;
+
+  /**
+   * Constructeur de la classe, capacité {@link #CAPACITE_DEFAUT}.
+   *
+   * @param source
+   *          générateur source
+   */
+  public UuidRingBuffer(final UuidGenerator source) {
+    this(source, CAPACITE_DEFAUT);
+  }
+
+  /**
+   * Constructeur de la classe.
+   *
+   * @param source
+   *          générateur source
+   * @param capacite
+   *          nombre d'UUID de l'anneau (strictement positif, arrondi à la puissance de 2
+   *          supérieure)
+   */
+  public UuidRingBuffer(final UuidGenerator source, final int capacite) {
+    notNull(source, "le paramètre '%s' est null", "source");
+    isTrue(capacite > 0 && capacite <= 1 << 29, "capacité invalide : %d", capacite);
+    this.source = source;
+    final int taille = capacite == 1 ? 1 : Integer.highestOneBit(capacite - 1) << 1;
+    this.anneau = new long[taille * 2];
+    this.masque = taille - 1;
+    this.seuil = taille / 2;
+    this.remplisseur = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        remplirAnneau();
+      }
+    }, NOM_THREAD);
+    remplisseur.setDaemon(true);
+    remplisseur.start();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getNom() {
+    return source.getNom() + "+anneau";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void remplir(final byte[] dest, final int offset) {
+    while (true) {
+      final long sequence = lus.get();
+      final long disponibles = ecrits - sequence;
+      if (disponibles <= 0) {
+        replis.incrementAndGet();
+        source.remplir(dest, offset);
+        return;
+      }
+      // lecture avant réservation : l'emplacement n'est réécrit qu'une fois la séquence dépassée
+      final int indice = (int) (sequence & masque) * 2;
+      final long poidsFort = anneau[indice];
+      final long poidsFaible = anneau[indice + 1];
+      if (lus.compareAndSet(sequence, sequence + 1)) {
+        if (disponibles - 1 == seuil) {
+          LockSupport.unpark(remplisseur);
+        }
+        UuidCodecs.ecrireLong(poidsFort, dest, offset);
+        UuidCodecs.ecrireLong(poidsFaible, dest, offset + UuidGeneratorStrategy.OCTETS_PAR_LONG);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Boucle du thread de remplissage : complète l'anneau par lots puis attend d'être réveillé.
+   */
+  private void remplirAnneau() {
+    final byte[] lot = new byte[Math.min(TAILLE_LOT, masque + 1) * UuidGeneratorStrategy.TAILLE_UUID];
+    while (!arrete) {
+      final long sequence = ecrits;
+      final int libres = (int) (masque + 1 - (sequence - lus.get()));
+      if (libres <= 0) {
+        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(ATTENTE_MAX));
+        continue;
+      }
+      final int nombre = Math.min(libres, lot.length / UuidGeneratorStrategy.TAILLE_UUID);
+      try {
+        UuidGeneratorStrategy.remplir(source, lot, 0, nombre);
+      } catch (RuntimeException e) {
+        // source en échec : les appelants se replient sur la source
+        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(ATTENTE_MAX));
+        continue;
+      }
+      for (int i = 0; i < nombre; i++) {
+        final int indice = (int) ((sequence + i) & masque) * 2;
+        final int position = i * UuidGeneratorStrategy.TAILLE_UUID;
+        anneau[indice] = UuidCodecs.lireLong(lot, position);
+        anneau[indice + 1] = UuidCodecs.lireLong(lot, position + UuidGeneratorStrategy.OCTETS_PAR_LONG);
+      }
+      ecrits = sequence + nombre;
+    }
+  }
+
+  /**
+   * Retourne le générateur source.
+   *
+   * @return le générateur source
+   */
+  public UuidGenerator getSource() {
+    return source;
+  }
+
+  /**
+   * Retourne la capacité de l'anneau.
+   *
+   * @return le nombre d'UUID de l'anneau
+   */
+  public int getCapacite() {
+    return masque + 1;
+  }
+
+  /**
+   * Retourne le nombre d'UUID pré-générés disponibles.
+   *
+   * @return le nombre d'UUID disponibles
+   */
+  public int getDisponibles() {
+    return (int) Math.max(0, ecrits - lus.get());
+  }
+
+  /**
+   * Retourne le nombre d'UUID générés directement par la source faute d'UUID disponible.
+   *
+   * @return le nombre de replis
+   */
+  public long getNbReplis() {
+    return replis.get();
+  }
+
+  /**
+   * Arrête le thread de remplissage. Les UUID restants sont consommés, puis la source est appelée
+   * directement.
+   */
+  public void arreter() {
+    arrete = true;
+    LockSupport.unpark(remplisseur);
+  }
+
+  /**
+   * Indique si le thread de remplissage est arrêté.
+   *
+   * @return true si la réserve est arrêtée
+   */
+  public boolean estArretee() {
+    return arrete;
+  }
+
+}
@@ -0,0 +1,158 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.joda.time.DateTimeZone;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.DateBackend;
+import fr.anses.ct.common.transverse.DateUtils;
+import fr.anses.ct.common.transverse.JavaTimeDateBackend;
+import fr.anses.ct.common.transverse.JodaDateBackend;
+
+/**
+ * Vérifie que les moteurs Joda-Time et java.time produisent les mêmes résultats pour chaque format
+ * FORMAT_* de DateUtils. Le fuseau Europe/Paris est imposé : les règles de certains fuseaux
+ * (ex: America/Sao_Paulo depuis 2019) diffèrent entre la base tz embarquée par Joda-Time 2.6 et
+ * celle du JDK.
+ */
+public class DateBackendConformanceTest {
+
+	  private static final DateBackend JODA = JodaDateBackend.INSTANCE;
+
+	  private static final DateBackend JAVA_TIME = JavaTimeDateBackend.INSTANCE;
+
+	  /** Du 1900-01-01 au 2100-01-01. */
+	  private static final long DEBUT = -2208988800000L;
+
+	  private static final long ETENDUE = 6311433600000L;
+
+	  /** Du -15000-01-01 au 15000-01-01 : années négatives et sur 5 chiffres. */
+	  private static final long DEBUT_LARGE = -535521456000000L;
+
+	  private static final long ETENDUE_LARGE = 946708560000000L;
+
+	  private TimeZone fuseau;
+
+	  private DateTimeZone zone;
+
+	  @Before
+	  public void fixerFuseau() {
+		  fuseau = TimeZone.getDefault();
+		  zone = DateTimeZone.getDefault();
+		  TimeZone.setDefault(TimeZone.getTimeZone("Europe/Paris"));
+		  DateTimeZone.setDefault(DateTimeZone.forID("Europe/Paris"));
+	  }
+
+	  @After
+	  public void reinitialiser() {
+		  DateUtils.setBackend(JODA);
+		  TimeZone.setDefault(fuseau);
+		  DateTimeZone.setDefault(zone);
+	  }
+
+	  private static List<String> formats() throws IllegalAccessException {
+		  List<String> formats = new ArrayList<String>();
+		  for (Field field : DateUtils.class.getFields()) {
+			  if (Modifier.isStatic(field.getModifiers()) && field.getName().startsWith("FORMAT_")
+				  && !DateUtils.FORMAT_ARG.equals(field.get(null))) {
+				  formats.add((String) field.get(null));
+			  }
+		  }
+		  Assert.assertEquals(11, formats.size());
+		  return formats;
+	  }
+
+	  @Test
+	  public void formatageEtLectureIdentiques() throws IllegalAccessException {
+		  Random random = new Random(11);
+		  for (String format : formats()) {
+			  for (int n = 0; n < 4000; n++) {
+				  long millis = n < 3000 ? DEBUT + (long) (random.nextDouble() * ETENDUE)
+					  : DEBUT_LARGE + (long) (random.nextDouble() * ETENDUE_LARGE);
+				  String texte = JODA.formater(millis, format);
+				  Assert.assertEquals(format, texte, JAVA_TIME.formater(millis, format));
+				  Long jodaLu = lire(JODA, texte, format);
+				  Long javaTimeLu = lire(JAVA_TIME, texte, format);
+				  Assert.assertEquals(format + " " + texte, jodaLu, javaTimeLu);
+			  }
+		  }
+	  }
+
+	  @Test
+	  public void debutDeJourIdentique() {
+		  Random random = new Random(5);
+		  for (int n = 0; n < 3000; n++) {
+			  int annee = 1900 + random.nextInt(200);
+			  int mois = 1 + random.nextInt(12);
+			  int jour = 1 + random.nextInt(31);
+			  Long joda = debutDeJour(JODA, annee, mois, jour);
+			  Assert.assertEquals(joda, debutDeJour(JAVA_TIME, annee, mois, jour));
+		  }
+	  }
+
+	  @Test
+	  public void choixDuMoteur() {
+		  DateUtils.setBackend(DateUtils.choisirBackend(JavaTimeDateBackend.NOM));
+		  Assert.assertEquals("2014-12-01", DateUtils.toStringAAAAMMJJNullSafe(DateUtils.toCalendar("2014", "12", "1")));
+		  Assert.assertEquals("01-12-2014", DateUtils.toStringJJMMAAAA(DateUtils.toCalendarFormatISO("2014-12-01")));
+	  }
+
+	  @Test
+	  public void formatsFixesSelonLeMoteur() {
+		  DateUtils.setBackend(JAVA_TIME);
+		  Random random = new Random(17);
+		  for (String id : new String[] {"Europe/Paris", "America/Sao_Paulo", "Australia/Lord_Howe", "Pacific/Apia" }) {
+			  TimeZone.setDefault(TimeZone.getTimeZone(id));
+			  ZoneRules regles = ZoneId.of(id).getRules();
+			  DateTimeZone fuseauMoteur = JAVA_TIME.getZone();
+			  Assert.assertEquals(id, fuseauMoteur.getID());
+			  for (int n = 0; n < 2000; n++) {
+				  long millis = DEBUT + (long) (random.nextDouble() * ETENDUE) / 1000 * 1000;
+				  Assert.assertEquals(regles.getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds() * 1000,
+					  fuseauMoteur.getOffset(millis));
+				  Calendar calendar = Calendar.getInstance();
+				  calendar.setTimeInMillis(millis);
+				  String texte = DateUtils.toStringyyyyMMddHHmmss(calendar);
+				  Assert.assertEquals(id, JAVA_TIME.formater(millis, DateUtils.FORMAT_DATE_BASE_DE_DONNEES), texte);
+				  Assert.assertEquals(id + " " + texte, JAVA_TIME.parser(texte, DateUtils.FORMAT_DATE_BASE_DE_DONNEES),
+					  DateUtils.toCalendarFormatyyyyMMddHHmmss(texte).getTimeInMillis());
+			  }
+		  }
+		  // base tz différente de celle de Joda-Time 2.6 : pas d'heure d'été au Brésil depuis 2019
+		  TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+		  Calendar calendar = Calendar.getInstance();
+		  calendar.setTimeInMillis(1573387200000L);
+		  Assert.assertEquals("20191110090000", DateUtils.toStringyyyyMMddHHmmss(calendar));
+	  }
+
+	  private static Long lire(DateBackend backend, String texte, String format) {
+		  try {
+			  return backend.parser(texte, format);
+		  } catch (IllegalArgumentException e) {
+			  return null;
+		  }
+	  }
+
+	  private static Long debutDeJour(DateBackend backend, int annee, int mois, int jour) {
+		  try {
+			  return backend.debutDeJour(annee, mois, jour);
+		  } catch (IllegalArgumentException e) {
+			  return null;
+		  }
+	  }
+
+}
@@ -0,0 +1,82 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.util.Calendar;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.DateBatchUtils;
+import fr.anses.ct.common.transverse.DateUtils;
+
+public class DateBatchUtilsTest {
+
+	  private static final String[] FORMATS = {DateUtils.FORMAT_DATE, DateUtils.FORMAT_DATE_BASE_DE_DONNEES,
+		  DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP, DateUtils.FORMAT_ISO_DATE, DateUtils.FORMAT_AFFICHAGE_DATE };
+
+	  @After
+	  public void reinitialiser() {
+		  DateBatchUtils.setSeuilParallelisation(DateBatchUtils.SEUIL_PARALLELISATION_DEFAUT);
+	  }
+
+	  private static long[] instants(int taille) {
+		  Random random = new Random(7);
+		  long[] millis = new long[taille];
+		  for (int i = 0; i < taille; i++) {
+			  millis[i] = 946684800000L + (random.nextLong() & 0xFFFFFFFFFFL);
+		  }
+		  return millis;
+	  }
+
+	  @Test
+	  public void identiqueAuxMethodesUnitaires() {
+		  DateBatchUtils.setSeuilParallelisation(100);
+		  long[] millis = instants(1000);
+		  Calendar cal = Calendar.getInstance();
+		  for (String format : FORMATS) {
+			  String[] chaines = new String[millis.length];
+			  DateBatchUtils.toString(millis, format, chaines);
+			  long[] attendus = new long[millis.length];
+			  int n = 0;
+			  for (int i = 0; i < millis.length; i++) {
+				  cal.setTimeInMillis(millis[i]);
+				  Assert.assertEquals(DateUtils.toString(cal, format), chaines[i]);
+				  try {
+					  attendus[n] = DateUtils.toCalendar(chaines[i], format).getTimeInMillis();
+					  chaines[n++] = chaines[i];
+				  } catch (IllegalArgumentException e) {
+					  // heure locale inexistante dans le fuseau par défaut
+				  }
+			  }
+			  String[] lisibles = new String[n];
+			  System.arraycopy(chaines, 0, lisibles, 0, n);
+			  long[] relus = new long[n];
+			  DateBatchUtils.toMillis(lisibles, format, relus);
+			  for (int i = 0; i < n; i++) {
+				  Assert.assertEquals(attendus[i], relus[i]);
+			  }
+		  }
+	  }
+
+	  @Test
+	  public void tableauContigu() {
+		  DateBatchUtils.setSeuilParallelisation(64);
+		  long[] millis = instants(500);
+		  String format = DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP;
+		  char[] contigu = DateBatchUtils.toChars(millis, format);
+		  Assert.assertEquals(500 * format.length(), contigu.length);
+		  long[] relus = new long[millis.length];
+		  DateBatchUtils.toMillis(contigu, 0, format, relus);
+		  for (int i = 0; i < millis.length; i++) {
+			  String chaine = new String(contigu, i * format.length(), format.length());
+			  Assert.assertEquals(DateUtils.toCalendar(chaine, format).getTimeInMillis(), relus[i]);
+		  }
+	  }
+
+	  @Test(expected = IllegalArgumentException.class)
+	  public void tableauContiguFormatVariable() {
+		  DateBatchUtils.toChars(new long[1], DateUtils.FORMAT_ISO_DATE);
+	  }
+
+}
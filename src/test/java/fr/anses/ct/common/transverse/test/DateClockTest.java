@@ -0,0 +1,89 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.util.Calendar;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.CoarseDateClock;
+import fr.anses.ct.common.transverse.DateUtils;
+import fr.anses.ct.common.transverse.FixedDateClock;
+import fr.anses.ct.common.transverse.SystemDateClock;
+
+public class DateClockTest {
+
+	  @After
+	  public void reinitialiser() {
+		  DateUtils.setHorloge(SystemDateClock.INSTANCE);
+	  }
+
+	  @Test
+	  public void testHorlogeFigee() {
+		  // 2014-03-05T10:15:30Z
+		  FixedDateClock horloge = new FixedDateClock(1394014530000L);
+		  DateUtils.setHorloge(horloge);
+
+		  Assert.assertEquals(1394014530000L, DateUtils.getMillisCourant());
+		  Assert.assertEquals(1394014530000L, DateUtils.getDateCourante().getTimeInMillis());
+		  Assert.assertEquals(DateUtils.toJourEpoch(1394014530000L), DateUtils.getJourEpochCourant());
+
+		  horloge.avancer(-1000L);
+		  Assert.assertEquals(1394014529000L, DateUtils.getMillisCourant());
+		  horloge.setMillis(0L);
+		  Assert.assertEquals(0L, DateUtils.getDateCourante().getTimeInMillis());
+	  }
+
+	  @Test
+	  public void testGetAnneesDiffSelonHorloge() {
+		  Calendar naissance = DateUtils.toCalendar("2000", "03", "05");
+		  DateUtils.setHorloge(new FixedDateClock(DateUtils.toCalendar("2014", "03", "04").getTimeInMillis()));
+		  Assert.assertEquals(13, DateUtils.getAnneesDiff(naissance, null));
+		  DateUtils.setHorloge(new FixedDateClock(DateUtils.toCalendar("2014", "03", "05").getTimeInMillis()));
+		  Assert.assertEquals(14, DateUtils.getAnneesDiff(naissance, null));
+		  Assert.assertEquals(-14, DateUtils.getAnneesDiff(null, naissance));
+	  }
+
+	  @Test
+	  public void testHorlogeFaibleResolution() throws InterruptedException {
+		  CoarseDateClock horloge = new CoarseDateClock(5);
+		  try {
+			  long avant = System.currentTimeMillis();
+			  Thread.sleep(50);
+			  long lu = horloge.getMillis();
+			  Assert.assertTrue(lu >= avant);
+			  Assert.assertTrue(lu <= System.currentTimeMillis());
+		  } finally {
+			  horloge.arreter();
+		  }
+		  Assert.assertTrue(horloge.estArretee());
+		  Assert.assertEquals(5, horloge.getResolution());
+	  }
+
+	  @Test
+	  public void testArretHorloge() {
+		  CoarseDateClock premiere = new CoarseDateClock(5);
+		  CoarseDateClock seconde = new CoarseDateClock(5);
+		  DateUtils.setHorloge(premiere);
+		  DateUtils.setHorloge(premiere);
+		  Assert.assertFalse(premiere.estArretee());
+		  DateUtils.setHorloge(seconde);
+		  Assert.assertTrue(premiere.estArretee());
+		  Assert.assertFalse(seconde.estArretee());
+		  DateUtils.arreterHorloge();
+		  Assert.assertTrue(seconde.estArretee());
+		  Assert.assertSame(SystemDateClock.INSTANCE, DateUtils.getHorloge());
+		  DateUtils.arreterHorloge();
+		  Assert.assertSame(SystemDateClock.INSTANCE, DateUtils.getHorloge());
+	  }
+
+	  @Test(expected = IllegalArgumentException.class)
+	  public void testResolutionInvalide() {
+		  new CoarseDateClock(0);
+	  }
+
+	  @Test(expected = NullPointerException.class)
+	  public void testHorlogeNulle() {
+		  DateUtils.setHorloge(null);
+	  }
+}
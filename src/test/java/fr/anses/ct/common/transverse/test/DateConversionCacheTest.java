@@ -0,0 +1,156 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.joda.time.DateTimeZone;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.DateConversionCache;
+import fr.anses.ct.common.transverse.DateUtils;
+
+public class DateConversionCacheTest {
+
+	  private static final DateTimeZone PARIS = DateTimeZone.forID("Europe/Paris");
+
+	  @After
+	  public void tearDown() {
+		  DateUtils.setCache(null);
+	  }
+
+	  @Test
+	  public void testFormatageParJour() {
+		  DateConversionCache cache = new DateConversionCache(64);
+		  Assert.assertNull(cache.getTexte(DateUtils.FORMAT_DATE, PARIS, 1394037912123L));
+		  cache.putTexte(DateUtils.FORMAT_DATE, PARIS, 1394037912123L, "2014-03-05");
+		  // même jour, autre heure : même entrée
+		  Assert.assertEquals("2014-03-05", cache.getTexte(DateUtils.FORMAT_DATE, PARIS, 1394000000000L));
+		  Assert.assertNull(cache.getTexte(DateUtils.FORMAT_DATE, DateTimeZone.UTC, 1394037912123L));
+		  // format avec heure : clé à la milliseconde
+		  cache.putTexte(DateUtils.FORMAT_DATE_BAS_PAGE, PARIS, 1394037912123L, "05/03/2014 17:45:12");
+		  Assert.assertNull(cache.getTexte(DateUtils.FORMAT_DATE_BAS_PAGE, PARIS, 1394037912124L));
+		  Assert.assertEquals(1L, cache.getNbSucces());
+		  Assert.assertEquals(3L, cache.getNbEchecs());
+		  Assert.assertEquals(0.25d, cache.getTauxSucces(), 1e-9);
+		  cache.vider();
+		  Assert.assertEquals(0, cache.getTaille());
+		  Assert.assertEquals(0L, cache.getNbSucces());
+	  }
+
+	  @Test
+	  public void testEviction() {
+		  DateConversionCache cache = new DateConversionCache(DateConversionCache.NB_SEGMENTS);
+		  for (int i = 0; i < 1000; i++) {
+			  cache.putMillis(DateUtils.FORMAT_DATE, PARIS, "texte" + i, i);
+		  }
+		  Assert.assertTrue(cache.getTaille() <= DateConversionCache.NB_SEGMENTS);
+		  Assert.assertEquals(1000L - cache.getTaille(), cache.getNbEvictions());
+		  Assert.assertEquals(Long.valueOf(999L), cache.getMillis(DateUtils.FORMAT_DATE, PARIS, "texte999"));
+		  try {
+			  new DateConversionCache(DateConversionCache.NB_SEGMENTS - 1);
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // attendu
+		  }
+	  }
+
+	  @Test
+	  public void testDateUtils() {
+		  Calendar calendar = DateUtils.toCalendar("2014-03-05 17:45:12.123",
+			  DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP);
+		  String attenduJour = DateUtils.toStringAAAAMMJJNullSafe(calendar);
+		  String attenduIso = DateUtils.toStringISONullSafe(calendar);
+		  long attenduLecture = DateUtils.toCalendarFormatISO("2014-03-05").getTimeInMillis();
+
+		  DateConversionCache cache = new DateConversionCache(1024);
+		  DateUtils.setCache(cache);
+		  Assert.assertSame(cache, DateUtils.getCache());
+		  for (int i = 0; i < 3; i++) {
+			  Assert.assertEquals(attenduJour, DateUtils.toStringAAAAMMJJNullSafe(calendar));
+			  Assert.assertEquals(attenduIso, DateUtils.toStringISONullSafe(calendar));
+			  Calendar lu = DateUtils.toCalendarFormatISO("2014-03-05");
+			  Assert.assertEquals(attenduLecture, lu.getTimeInMillis());
+			  lu.add(Calendar.DATE, 1);
+		  }
+		  Assert.assertEquals(3L, cache.getNbEchecs());
+		  Assert.assertEquals(6L, cache.getNbSucces());
+		  Assert.assertEquals(attenduLecture, DateUtils.toCalendarFormatISO("2014-03-05").getTimeInMillis());
+		  try {
+			  DateUtils.toCalendarFormatISO("2014-02-30");
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // les erreurs ne sont pas mémorisées
+		  }
+		  Assert.assertEquals(3, cache.getTaille());
+	  }
+
+	  @Test
+	  public void testFormatTextuelSelonLocale() {
+		  Locale locale = Locale.getDefault();
+		  try {
+			  Locale.setDefault(Locale.FRANCE);
+			  DateConversionCache cache = new DateConversionCache(64);
+			  cache.putTexte("d MMMM yyyy", PARIS, 1394037912123L, "5 mars 2014");
+			  cache.putTexte("d MM yyyy", PARIS, 1394037912123L, "5 03 2014");
+			  cache.putMillis("d MMM yyyy", PARIS, "5 mars 2014", 1393974000000L);
+			  Assert.assertEquals("5 mars 2014", cache.getTexte("d MMMM yyyy", PARIS, 1394037912123L));
+			  Locale.setDefault(Locale.ENGLISH);
+			  Assert.assertNull(cache.getTexte("d MMMM yyyy", PARIS, 1394037912123L));
+			  Assert.assertNull(cache.getMillis("d MMM yyyy", PARIS, "5 mars 2014"));
+			  // format numérique : indépendant de la locale
+			  Assert.assertEquals("5 03 2014", cache.getTexte("d MM yyyy", PARIS, 1394037912123L));
+
+			  Calendar calendar = DateUtils.toCalendar("2014-03-05 17:45:12.123",
+				  DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP);
+			  DateUtils.setCache(new DateConversionCache(64));
+			  Locale.setDefault(Locale.FRANCE);
+			  Assert.assertEquals("5 mars 2014", DateUtils.toString(calendar, "d MMMM yyyy"));
+			  Locale.setDefault(Locale.ENGLISH);
+			  Assert.assertEquals("5 March 2014", DateUtils.toString(calendar, "d MMMM yyyy"));
+			  Assert.assertEquals("Wed 5", DateUtils.toString(calendar, "EEE d"));
+		  } finally {
+			  Locale.setDefault(locale);
+		  }
+	  }
+
+	  @Test
+	  public void testConcurrence() throws Exception {
+		  final DateConversionCache cache = new DateConversionCache(256);
+		  ExecutorService executor = Executors.newFixedThreadPool(4);
+		  try {
+			  Future<?>[] resultats = new Future<?>[4];
+			  for (int t = 0; t < resultats.length; t++) {
+				  resultats[t] = executor.submit(new Callable<Void>() {
+					  @Override
+					  public Void call() {
+						  for (int i = 0; i < 20000; i++) {
+							  String texte = Integer.toString(i % 512);
+							  Long millis = cache.getMillis(DateUtils.FORMAT_DATE, PARIS, texte);
+							  if (millis == null) {
+								  cache.putMillis(DateUtils.FORMAT_DATE, PARIS, texte, i % 512);
+							  } else {
+								  Assert.assertEquals(i % 512, millis.longValue());
+							  }
+						  }
+						  return null;
+					  }
+				  });
+			  }
+			  for (Future<?> resultat : resultats) {
+				  resultat.get();
+			  }
+		  } finally {
+			  executor.shutdown();
+		  }
+		  Assert.assertEquals(80000L, cache.getNbSucces() + cache.getNbEchecs());
+		  Assert.assertTrue(cache.getTaille() <= 256);
+	  }
+
+}
@@ -0,0 +1,150 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.DateFieldScanner;
+import fr.anses.ct.common.transverse.DateUtils;
+import fr.anses.ct.common.transverse.FixedDateLayout;
+
+public class DateFieldScannerTest {
+
+	  private static final DateTimeZone PARIS = DateTimeZone.forID("Europe/Paris");
+
+	  private static final String CSV = "id;naissance;maj;libelle\r\n"
+		  + "1;19800229;2014-03-05 17:45:12.123;premier\r\n"
+		  + "2;20001231;2014-10-26 02:30:00.000;\r\n"
+		  + "3;2000123;invalide;dernier";
+
+	  private static long joda(String date, String format) {
+		  return DateTimeFormat.forPattern(format).withZone(PARIS).parseMillis(date);
+	  }
+
+	  @Test
+	  public void testLectureBuffers() {
+		  ByteBuffer direct = ByteBuffer.allocateDirect(32);
+		  direct.put("xx2014-03-05 17:45:12.123yy".getBytes(StandardCharsets.US_ASCII));
+		  direct.flip();
+		  direct.position(2);
+		  long attendu = joda("2014-03-05 17:45:12.123", DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP);
+		  Assert.assertEquals(attendu, FixedDateLayout.TIMESTAMP.parser(direct, PARIS));
+		  Assert.assertEquals(25, direct.position());
+		  Assert.assertEquals(attendu, FixedDateLayout.TIMESTAMP.parser(direct, 2, PARIS));
+		  Assert.assertEquals(25, direct.position());
+
+		  CharBuffer caracteres = CharBuffer.wrap("05/03/2014 17:45:12;05-03-2014");
+		  Assert.assertEquals(joda("05/03/2014 17:45:12", DateUtils.FORMAT_DATE_BAS_PAGE),
+			  FixedDateLayout.BAS_PAGE.parser(caracteres, PARIS));
+		  caracteres.get();
+		  Assert.assertEquals(joda("05-03-2014", DateUtils.FORMAT_AFFICHAGE_DATE),
+			  FixedDateLayout.AFFICHAGE_DATE.parser(caracteres, PARIS));
+		  Assert.assertFalse(caracteres.hasRemaining());
+
+		  ByteBuffer invalide = ByteBuffer.wrap("2014-02-30".getBytes(StandardCharsets.US_ASCII));
+		  try {
+			  FixedDateLayout.DATE.parser(invalide, PARIS);
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  Assert.assertEquals(0, invalide.position());
+		  }
+	  }
+
+	  @Test
+	  public void testDateUtilsToMillis() {
+		  ByteBuffer strict = ByteBuffer.wrap("20140305".getBytes(StandardCharsets.US_ASCII));
+		  Assert.assertEquals(DateUtils.toCalendar("20140305", DateUtils.FORMAT_DATE_AAAAMMJJ).getTimeInMillis(),
+			  DateUtils.toMillis(strict, DateUtils.FORMAT_DATE_AAAAMMJJ));
+		  Assert.assertEquals(0, strict.position());
+		  // lecture tolérante déléguée au moteur
+		  Assert.assertEquals(DateUtils.toCalendar("2014-3-5", DateUtils.FORMAT_DATE).getTimeInMillis(),
+			  DateUtils.toMillis(CharBuffer.wrap("2014-3-5"), DateUtils.FORMAT_DATE));
+		  Assert.assertEquals(DateUtils.toCalendar("1403", DateUtils.FORMAT_AAMM).getTimeInMillis(),
+			  DateUtils.toMillis(ByteBuffer.wrap("1403".getBytes(StandardCharsets.US_ASCII)), DateUtils.FORMAT_AAMM));
+	  }
+
+	  @Test
+	  public void testScannerMemoire() throws IOException {
+		  ByteBuffer source = ByteBuffer.wrap(CSV.getBytes(StandardCharsets.US_ASCII));
+		  verifier(new DateFieldScanner(source, (byte) ';'));
+		  Assert.assertEquals(0, source.position());
+	  }
+
+	  @Test
+	  public void testScannerCanal() throws IOException {
+		  // tampon plus petit que certains champs : compactage et agrandissement
+		  for (int taille = 1; taille < 12; taille++) {
+			  verifier(new DateFieldScanner(Channels.newChannel(new ByteArrayInputStream(CSV
+				  .getBytes(StandardCharsets.US_ASCII))), (byte) ';', taille));
+		  }
+	  }
+
+	  @Test
+	  public void testScannerFichierProjete() throws IOException {
+		  File fichier = File.createTempFile("dates", ".csv");
+		  try {
+			  Files.write(fichier.toPath(), CSV.getBytes(StandardCharsets.US_ASCII));
+			  DateFieldScanner scanner = DateFieldScanner.ouvrir(fichier.toPath(), (byte) ';');
+			  try {
+				  verifier(scanner);
+			  } finally {
+				  scanner.close();
+			  }
+		  } finally {
+			  Assert.assertTrue(fichier.delete());
+		  }
+	  }
+
+	  @Test
+	  public void testChampsVides() throws IOException {
+		  List<String> champs = new ArrayList<String>();
+		  DateFieldScanner scanner = new DateFieldScanner(ByteBuffer.wrap(";a;\n\nb;".getBytes(StandardCharsets.US_ASCII)),
+			  (byte) ';');
+		  while (scanner.suivant()) {
+			  champs.add(scanner.getLigne() + ":" + scanner.getColonne() + ":" + scanner.getTexte());
+		  }
+		  Assert.assertEquals("[1:0:, 1:1:a, 1:2:, 2:0:, 3:0:b, 3:1:]", champs.toString());
+		  Assert.assertFalse(new DateFieldScanner(ByteBuffer.allocate(0), (byte) ';').suivant());
+	  }
+
+	  private static void verifier(DateFieldScanner scanner) throws IOException {
+		  List<Long> naissances = new ArrayList<Long>();
+		  List<Long> majs = new ArrayList<Long>();
+		  int champs = 0;
+		  while (scanner.suivant()) {
+			  champs++;
+			  if (scanner.getLigne() == 1) {
+				  continue;
+			  }
+			  if (scanner.getColonne() == 1) {
+				  naissances.add(scanner.tenterLireDate(FixedDateLayout.AAAAMMJJ, PARIS));
+			  } else if (scanner.getColonne() == 2) {
+				  majs.add(scanner.tenterLireDate(FixedDateLayout.TIMESTAMP, PARIS));
+			  } else if (scanner.getColonne() == 3 && scanner.getLigne() == 3) {
+				  Assert.assertEquals(0, scanner.getLongueur());
+			  }
+		  }
+		  Assert.assertEquals(16, champs);
+		  Assert.assertEquals(joda("19800229", DateUtils.FORMAT_DATE_AAAAMMJJ), naissances.get(0).longValue());
+		  Assert.assertEquals(joda("20001231", DateUtils.FORMAT_DATE_AAAAMMJJ), naissances.get(1).longValue());
+		  Assert.assertEquals(DateFieldScanner.INVALIDE, naissances.get(2).longValue());
+		  Assert.assertEquals(joda("2014-03-05 17:45:12.123", DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP),
+			  majs.get(0).longValue());
+		  Assert.assertEquals(joda("2014-10-26 02:30:00.000", DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP),
+			  majs.get(1).longValue());
+		  Assert.assertEquals(DateFieldScanner.INVALIDE, majs.get(2).longValue());
+	  }
+}
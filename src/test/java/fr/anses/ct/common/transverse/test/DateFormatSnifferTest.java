@@ -0,0 +1,119 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.util.Calendar;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.DateClock;
+import fr.anses.ct.common.transverse.DateFormatSniffer;
+import fr.anses.ct.common.transverse.DateUtils;
+import fr.anses.ct.common.transverse.DetectedDate;
+import fr.anses.ct.common.transverse.FixedDateClock;
+
+public class DateFormatSnifferTest {
+
+	  private static final DateTimeZone PARIS = DateTimeZone.forID("Europe/Paris");
+
+	  private static final String[] FORMATS = {DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP,
+		  DateUtils.FORMAT_ISO_DATE_RACVISION, DateUtils.FORMAT_DATE, DateUtils.FORMAT_DATE_BAS_PAGE,
+		  DateUtils.FORMAT_AFFICHAGE_DATE, DateUtils.FORMAT_DATE_BASE_DE_DONNEES, DateUtils.FORMAT_DATE_JJMMAAAA,
+		  DateUtils.FORMAT_DATE_AAAAMMJJ, DateUtils.FORMAT_ISO_DATE, DateUtils.FORMAT_AAMM };
+
+	  private static long joda(String date, String format) {
+		  return DateTimeFormat.forPattern(format).withZone(PARIS).parseMillis(date);
+	  }
+
+	  private static void verifier(DateFormatSniffer detecteur, String date, String format) {
+		  DetectedDate detectee = detecteur.analyser(date, PARIS);
+		  Assert.assertNotNull(date, detectee);
+		  Assert.assertEquals(date, format, detectee.getFormat());
+		  Assert.assertEquals(date, joda(date, format), detectee.getMillis());
+		  Assert.assertEquals(date, joda(date, format), detecteur.tenterParser(date, PARIS));
+	  }
+
+	  @Test
+	  public void testDetection() {
+		  DateFormatSniffer detecteur = new DateFormatSniffer(FORMATS);
+		  Assert.assertEquals(FORMATS.length, detecteur.getNbFormats());
+		  verifier(detecteur, "2014-03-05 17:45:12.123", DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP);
+		  verifier(detecteur, "2014-03-05 17:45:12", DateUtils.FORMAT_ISO_DATE_RACVISION);
+		  verifier(detecteur, "2014-03-05", DateUtils.FORMAT_DATE);
+		  verifier(detecteur, "05/03/2014 17:45:12", DateUtils.FORMAT_DATE_BAS_PAGE);
+		  verifier(detecteur, "05-03-2014", DateUtils.FORMAT_AFFICHAGE_DATE);
+		  verifier(detecteur, "20140305174512", DateUtils.FORMAT_DATE_BASE_DE_DONNEES);
+		  verifier(detecteur, "2014-03-05T17:45:12,1+0100", DateUtils.FORMAT_ISO_DATE);
+		  verifier(detecteur, "2014-03-05T17:45:12,1-03:30", DateUtils.FORMAT_ISO_DATE);
+		  verifier(detecteur, "2014-03-05T17:45:12,1Z", DateUtils.FORMAT_ISO_DATE);
+		  verifier(detecteur, "9912", DateUtils.FORMAT_AAMM);
+		  verifier(detecteur, "4512", DateUtils.FORMAT_AAMM);
+	  }
+
+	  @Test
+	  public void testAmbiguite() {
+		  DateFormatSniffer detecteur = new DateFormatSniffer(FORMATS);
+		  Assert.assertEquals(3L << 6, detecteur.formatsCompatibles("05032014"));
+		  // ddMMyyyy est prioritaire s'il est valide, sinon yyyyMMdd
+		  verifier(detecteur, "05032014", DateUtils.FORMAT_DATE_JJMMAAAA);
+		  verifier(detecteur, "20140305", DateUtils.FORMAT_DATE_AAAAMMJJ);
+		  DetectedDate detectee = detecteur.analyser("20140305", PARIS);
+		  Assert.assertEquals(7, detectee.getIndexFormat());
+		  Assert.assertEquals(DateUtils.FORMAT_DATE_AAAAMMJJ, detecteur.getFormat(detectee.getIndexFormat()));
+	  }
+
+	  @Test
+	  public void testInvalide() {
+		  DateFormatSniffer detecteur = new DateFormatSniffer(FORMATS);
+		  for (String date : new String[] {"", "2014", "2014-02-30", "2014-03-05 17:45", "2014-03-05 24:00:00",
+			  "2014-03-05T17:45:12,1+2400", "2014-03-05x", "2014-03-05é", "31022014", "2014-03-30 02:30:00" }) {
+			  Assert.assertNull(date, detecteur.analyser(date, PARIS));
+			  Assert.assertEquals(date, DateFormatSniffer.INVALIDE, detecteur.tenterParser(date, PARIS));
+		  }
+		  Assert.assertEquals(0L, detecteur.formatsCompatibles("2014/03/05"));
+	  }
+
+	  @Test
+	  public void testFormatsNonSupportes() {
+		  for (String format : new String[] {"dd MMM yyyy", "d/M/yyyy", "EEE dd", "yyyy-MM-dd'é'" }) {
+			  try {
+				  new DateFormatSniffer(format);
+				  Assert.fail(format);
+			  } catch (IllegalArgumentException e) {
+				  // attendu
+			  }
+		  }
+	  }
+
+	  @Test
+	  public void testPivotSelonAnneeCourante() {
+		  DateClock horloge = DateUtils.getHorloge();
+		  // 2020-06-01
+		  FixedDateClock fixe = new FixedDateClock(1590969600000L);
+		  DateUtils.setHorloge(fixe);
+		  try {
+			  DateFormatSniffer detecteur = new DateFormatSniffer(DateUtils.FORMAT_AAMM);
+			  Assert.assertEquals(1945, detecteur.analyser("4512", PARIS).toCalendar().get(Calendar.YEAR));
+			  // 2040-06-01 : même détecteur, pivot recalculé
+			  fixe.setMillis(2222121600000L);
+			  Assert.assertEquals(2045, detecteur.analyser("4512", PARIS).toCalendar().get(Calendar.YEAR));
+		  } finally {
+			  DateUtils.setHorloge(horloge);
+		  }
+	  }
+
+	  @Test
+	  public void testDetecterDate() {
+		  DetectedDate detectee = DateUtils.detecterDate("05/03/2014 17:45:12", DateUtils.FORMAT_DATE,
+			  DateUtils.FORMAT_DATE_BAS_PAGE);
+		  Assert.assertEquals(DateUtils.FORMAT_DATE_BAS_PAGE, detectee.getFormat());
+		  Assert.assertEquals(1, detectee.getIndexFormat());
+		  Assert.assertEquals(DateUtils.toCalendar("05/03/2014 17:45:12", DateUtils.FORMAT_DATE_BAS_PAGE),
+			  detectee.toCalendar());
+		  Assert.assertNull(DateUtils.detecterDate("05/03/2014", DateUtils.FORMAT_DATE,
+			  DateUtils.FORMAT_DATE_BAS_PAGE));
+	  }
+
+}
@@ -0,0 +1,178 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.joda.time.Years;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.DateFormatterRegistry;
+import fr.anses.ct.common.transverse.DateUtils;
+import fr.anses.ct.common.transverse.FixedDateLayout;
+
+public class DateUtilsTest {
+
+	  private static final String[] FORMATS = {DateUtils.FORMAT_DATE, DateUtils.FORMAT_DATE_BAS_PAGE,
+		  DateUtils.FORMAT_DATE_BASE_DE_DONNEES, DateUtils.FORMAT_ISO_DATE, DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP,
+		  DateUtils.FORMAT_ISO_DATE_RACVISION, DateUtils.FORMAT_AFFICHAGE_DATE, DateUtils.FORMAT_AAMM,
+		  DateUtils.FORMAT_AAAA, DateUtils.FORMAT_DATE_AAAAMMJJ, DateUtils.FORMAT_DATE_JJMMAAAA };
+
+	  private static Calendar calendar(long millis) {
+		  Calendar cal = Calendar.getInstance();
+		  cal.setTimeInMillis(millis);
+		  return cal;
+	  }
+
+	  @Test
+	  public void toStringIdentiqueJoda() {
+		  long[] instants = {0L, 1417392000123L, 1396142999999L, 951782400000L, -2208988800000L, 4102444799999L };
+		  for (String format : FORMATS) {
+			  for (long millis : instants) {
+				  Assert.assertEquals(format, new DateTime(millis).toString(format),
+					  DateUtils.toString(calendar(millis), format));
+			  }
+		  }
+	  }
+
+	  @Test
+	  public void toCalendarIdentiqueJoda() {
+		  for (String format : FORMATS) {
+			  String texte = new DateTime(1417392000123L).toString(format);
+			  Calendar attendu = DateTimeFormat.forPattern(format).parseDateTime(texte).toCalendar(Locale.getDefault());
+			  Calendar obtenu = DateUtils.toCalendar(texte, format);
+			  Assert.assertEquals(format, attendu.getTimeInMillis(), obtenu.getTimeInMillis());
+			  Assert.assertEquals(format, attendu.getTimeZone().getID(), obtenu.getTimeZone().getID());
+		  }
+	  }
+
+	  @Test(expected = IllegalArgumentException.class)
+	  public void toCalendarFormatInvalide() {
+		  DateUtils.toCalendar("2014-13-01", DateUtils.FORMAT_DATE);
+	  }
+
+	  @Test
+	  public void registreBorne() {
+		  DateFormatterRegistry registre = new DateFormatterRegistry(2);
+		  DateTimeZone paris = DateTimeZone.forID("Europe/Paris");
+		  DateTimeFormatter f1 = registre.getFormateur(DateUtils.FORMAT_DATE, paris);
+		  Assert.assertSame(f1, registre.getFormateur(DateUtils.FORMAT_DATE, paris));
+		  registre.enregistrer(DateUtils.FORMAT_AAAA, DateTimeZone.UTC);
+		  registre.getFormateur(DateUtils.FORMAT_AAMM, paris);
+		  Assert.assertEquals(2, registre.getTaille());
+		  Assert.assertFalse(registre.estEnregistre(DateUtils.FORMAT_AAMM, paris));
+		  Assert.assertEquals("2014-12-01", f1.print(1417392000123L));
+	  }
+
+	  @Test
+	  public void formatsFixesIdentiquesJoda() {
+		  Random random = new Random(42);
+		  DateTimeZone[] zones = {DateTimeZone.UTC, DateTimeZone.forID("Europe/Paris"),
+			  DateTimeZone.forID("America/Sao_Paulo"), DateTimeZone.forID("Asia/Kolkata") };
+		  StringBuilder sb = new StringBuilder();
+		  char[] chars = new char[32];
+		  byte[] bytes = new byte[32];
+		  for (int n = 0; n < 5000; n++) {
+			  long millis = (random.nextLong() % 253402300799999L) - 62135596800000L / 2;
+			  for (DateTimeZone zone : zones) {
+				  for (FixedDateLayout layout : FixedDateLayout.values()) {
+					  String attendu = new DateTime(millis, zone).toString(layout.getFormat());
+					  Assert.assertEquals(attendu, layout.formater(millis, zone));
+					  if (attendu.length() != layout.getLongueur()) {
+						  continue;
+					  }
+					  sb.setLength(0);
+					  Assert.assertEquals(attendu, layout.formater(millis, zone, sb).toString());
+					  Assert.assertEquals(layout.getLongueur() + 3, layout.formater(millis, zone, chars, 3));
+					  Assert.assertEquals(attendu, new String(chars, 3, layout.getLongueur()));
+					  layout.formater(millis, zone, bytes, 1);
+					  long relu;
+					  try {
+						  relu = DateTimeFormat.forPattern(layout.getFormat()).withZone(zone).parseMillis(attendu);
+					  } catch (IllegalArgumentException e) {
+						  // minuit inexistant (passage à l'heure d'été) : la lecture stricte doit aussi échouer
+						  try {
+							  layout.parser(attendu, zone);
+							  Assert.fail(attendu);
+						  } catch (IllegalArgumentException attendue) {
+							  continue;
+						  }
+						  continue;
+					  }
+					  Assert.assertEquals(relu, layout.parser(attendu, zone));
+					  Assert.assertEquals(relu, layout.parser(bytes, 1, zone));
+				  }
+			  }
+		  }
+	  }
+
+	  @Test
+	  public void formatsFixesLectureStricte() {
+		  DateTimeZone paris = DateTimeZone.forID("Europe/Paris");
+		  String[] invalides = {"20141301", "20140230", "2014O101", "20140330023000" };
+		  FixedDateLayout[] layouts = {FixedDateLayout.AAAAMMJJ, FixedDateLayout.AAAAMMJJ, FixedDateLayout.AAAAMMJJ,
+			  FixedDateLayout.BASE_DE_DONNEES };
+		  for (int i = 0; i < invalides.length; i++) {
+			  try {
+				  layouts[i].parser(invalides[i], paris);
+				  Assert.fail(invalides[i]);
+			  } catch (IllegalArgumentException e) {
+				  // attendu
+			  }
+		  }
+		  // les variantes permissives acceptées par Joda-Time restent acceptées
+		  Assert.assertEquals(DateUtils.toCalendar("2014-3-5", DateUtils.FORMAT_DATE).getTimeInMillis(),
+			  DateUtils.toCalendarFormatISO("2014-3-5").getTimeInMillis());
+		  Assert.assertEquals("2014-03-05", DateUtils.toStringAAAAMMJJNullSafe(DateUtils.toCalendarFormatISO("2014-03-05")));
+	  }
+
+	  @Test
+	  public void precisionJourIdentiqueJoda() {
+		  Random random = new Random(3);
+		  String[] zones = {"UTC", "Europe/Paris", "America/Sao_Paulo", "Pacific/Kiritimati" };
+		  for (int n = 0; n < 5000; n++) {
+			  Calendar c1 = Calendar.getInstance(TimeZone.getTimeZone(zones[random.nextInt(zones.length)]));
+			  Calendar c2 = Calendar.getInstance(TimeZone.getTimeZone(zones[random.nextInt(zones.length)]));
+			  c1.setTimeInMillis(946684800000L + (random.nextLong() % 3000000000000L));
+			  c2.setTimeInMillis(c1.getTimeInMillis() + (random.nextLong() % (n % 2 == 0 ? 172800000L : 3000000000000L)));
+			  LocalDate d1 = new DateTime(c1).toLocalDate();
+			  LocalDate d2 = new DateTime(c2).toLocalDate();
+			  Assert.assertEquals(d1.isAfter(d2), DateUtils.afterPrecisionJour(c1, c2));
+			  Assert.assertEquals(d1.isBefore(d2), DateUtils.beforePrecisionJour(c1, c2));
+			  Assert.assertEquals(d1.compareTo(d2), DateUtils.compareToPrecisionJour(c1, c2));
+			  Assert.assertEquals(Days.daysBetween(d1, d2).getDays(), DateUtils.nbJoursEcart(c1, c2));
+			  Assert.assertEquals(d1.isEqual(d2), DateUtils.egaliteDateJourMoisAn(c1, c2));
+			  Assert.assertEquals(Years.yearsBetween(d1, d2).getYears(), DateUtils.getAnneesDiff(c1, c2));
+			  Date date1 = c1.getTime();
+			  Date date2 = c2.getTime();
+			  int annees = random.nextInt(5);
+			  Assert.assertEquals(new DateTime(date1).toLocalDate().plusYears(annees).compareTo(new DateTime(date2).toLocalDate()) < 0,
+				  DateUtils.possedeDelais(date1, date2, annees));
+			  Assert.assertEquals(new DateTime(date1).toLocalDate().isEqual(new DateTime(c2).toLocalDate()),
+				  DateUtils.egaliteDateJourMoisAn(date1, c2));
+		  }
+	  }
+
+	  @Test
+	  public void jourEpoch() {
+		  DateTimeZone paris = DateTimeZone.forID("Europe/Paris");
+		  long minuitParis = new DateTime(2016, 2, 29, 0, 0, paris).getMillis();
+		  Assert.assertEquals(16860, DateUtils.toJourEpoch(minuitParis, paris));
+		  Assert.assertEquals(16859, DateUtils.toJourEpoch(minuitParis, DateTimeZone.UTC));
+		  Assert.assertEquals(-1, DateUtils.toJourEpoch(-1L, DateTimeZone.UTC));
+		  Assert.assertEquals(DateUtils.toJourEpoch(new DateTime(2017, 2, 28, 0, 0, DateTimeZone.UTC).getMillis(),
+			  DateTimeZone.UTC), DateUtils.ajouterAnnees(16860, 1));
+		  Assert.assertTrue(DateUtils.possedeDelaisJourEpoch(16860, 16860 + 366, 1));
+		  Assert.assertFalse(DateUtils.possedeDelaisJourEpoch(16860, 16860 + 365, 1));
+	  }
+
+}
@@ -0,0 +1,173 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.DateUtils;
+import fr.anses.ct.common.transverse.DayBoundaryIndex;
+
+public class DayBoundaryIndexTest {
+
+	  /** Fuseaux avec changements d'heure à minuit, demi-heure d'été, jour sauté (Apia, 2011-12-30). */
+	  private static final String[] ZONES = {"UTC", "Europe/Paris", "America/Sao_Paulo", "Australia/Lord_Howe",
+		  "Pacific/Apia", "Asia/Kolkata" };
+
+	  private static final long JOUR = 24L * 60 * 60 * 1000;
+
+	  /** Du 1900-01-02 au 2100-12-30. */
+	  private static final long DEBUT = -2208902400000L;
+
+	  private static final long ETENDUE = 73412 * JOUR;
+
+	  @After
+	  public void reinitialiser() {
+		  DayBoundaryIndex.setPlage(DayBoundaryIndex.ANNEE_MIN_DEFAUT, DayBoundaryIndex.ANNEE_MAX_DEFAUT);
+	  }
+
+	  @Test
+	  public void testIndexJoda() {
+		  Random random = new Random(7);
+		  for (String id : ZONES) {
+			  DateTimeZone zone = DateTimeZone.forID(id);
+			  DayBoundaryIndex index = DayBoundaryIndex.pour(zone);
+			  Assert.assertTrue(id, index.contientAnnee(1920));
+			  Assert.assertTrue(id, index.contientAnnee(DayBoundaryIndex.ANNEE_MAX_DEFAUT));
+			  for (int i = 0; i < 20000; i++) {
+				  long millis = DEBUT + (long) (random.nextDouble() * ETENDUE);
+				  if (!index.contient(millis)) {
+					  continue;
+				  }
+				  long local = millis + zone.getOffset(millis);
+				  Assert.assertEquals(id + " " + millis, Math.floorDiv(local, JOUR), index.jourEpoch(millis));
+				  // premier instant du jour (withTimeAtStartOfDay retient le second minuit d'un recouvrement)
+				  long debut = index.debutDeJour(millis);
+				  Assert.assertEquals(id + " " + millis, Math.floorDiv(local, JOUR),
+					  Math.floorDiv(debut + zone.getOffset(debut), JOUR));
+				  Assert.assertTrue(id + " " + millis,
+					  Math.floorDiv(debut - 1 + zone.getOffset(debut - 1), JOUR) < Math.floorDiv(local, JOUR));
+				  Assert.assertEquals(id + " " + millis, new DateTime(millis, zone).getYear(), index.annee(millis));
+			  }
+		  }
+	  }
+
+	  @Test
+	  public void testIndexJdk() {
+		  Random random = new Random(11);
+		  for (String id : ZONES) {
+			  TimeZone zone = TimeZone.getTimeZone(id);
+			  DayBoundaryIndex index = DayBoundaryIndex.pour(zone);
+			  Assert.assertTrue(id, index.contientAnnee(1920));
+			  Assert.assertTrue(id, index.contientAnnee(DayBoundaryIndex.ANNEE_MAX_DEFAUT));
+			  for (int i = 0; i < 20000; i++) {
+				  long millis = DEBUT + (long) (random.nextDouble() * ETENDUE);
+				  if (!index.contient(millis)) {
+					  continue;
+				  }
+				  Calendar calendar = new GregorianCalendar(zone);
+				  calendar.setTimeInMillis(millis);
+				  int annee = calendar.get(Calendar.YEAR);
+				  LocalDate jour = LocalDate.of(annee, calendar.get(Calendar.MONTH) + 1,
+					  calendar.get(Calendar.DAY_OF_MONTH));
+				  Assert.assertEquals(id + " " + millis, jour.toEpochDay(), index.jourEpoch(millis));
+				  Assert.assertEquals(id + " " + millis, annee, index.annee(millis));
+				  Calendar debut = new GregorianCalendar(zone);
+				  debut.clear();
+				  debut.set(annee, calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH));
+				  Assert.assertEquals(id + " " + millis, debut.getTimeInMillis(), index.debutDeJour(millis));
+				  debut.clear();
+				  debut.set(annee, Calendar.JANUARY, 1);
+				  Assert.assertEquals(id + " " + millis, debut.getTimeInMillis(), index.debutAnnee(annee));
+			  }
+		  }
+	  }
+
+	  @Test
+	  public void testHorsPlage() {
+		  DayBoundaryIndex.setPlage(2000, 2001);
+		  DateTimeZone zone = DateTimeZone.forID("Europe/Paris");
+		  DayBoundaryIndex index = DayBoundaryIndex.pour(zone);
+		  // 1990-06-15T12:00:00Z
+		  long millis = 645451200000L;
+		  Assert.assertFalse(index.contient(millis));
+		  Assert.assertFalse(index.contientAnnee(1990));
+		  Assert.assertTrue(index.contientAnnee(2001));
+		  Assert.assertFalse(index.contientAnnee(2002));
+		  Assert.assertEquals(Math.floorDiv(millis + zone.getOffset(millis), JOUR), DateUtils.toJourEpoch(millis, zone));
+
+		  Calendar c = Calendar.getInstance();
+		  c.setTimeInMillis(millis);
+		  DateUtils.miseAZeroHeure(c);
+		  Assert.assertEquals(0, c.get(Calendar.HOUR_OF_DAY));
+		  Assert.assertEquals(0, c.get(Calendar.MINUTE));
+		  Assert.assertEquals(1990, DateUtils.get1erJanvier(1990).get(Calendar.YEAR));
+	  }
+
+	  @Test
+	  public void testRetourDeDateLocale() {
+		  // Europe/Paris, 1911-03-11 00:01 PMT -> 1911-03-10 23:51:39 WET
+		  DayBoundaryIndex index = DayBoundaryIndex.pour(DateTimeZone.forID("Europe/Paris"));
+		  Assert.assertFalse(index.contientAnnee(1911));
+		  Assert.assertTrue(index.contientAnnee(1913));
+		  Assert.assertEquals(1911, DateUtils.get1erJanvier(1911).get(Calendar.YEAR));
+	  }
+
+	  @Test(expected = IllegalArgumentException.class)
+	  public void testPlageInvalide() {
+		  DayBoundaryIndex.setPlage(2001, 2000);
+	  }
+
+	  @Test
+	  public void testMiseAZeroHeureApresMidi() {
+		  Calendar c = DateUtils.toCalendar("2014-03-05 17:45:12", DateUtils.FORMAT_ISO_DATE_RACVISION);
+		  DateUtils.miseAZeroHeure(c);
+		  Assert.assertEquals(2014, c.get(Calendar.YEAR));
+		  Assert.assertEquals(Calendar.MARCH, c.get(Calendar.MONTH));
+		  Assert.assertEquals(5, c.get(Calendar.DAY_OF_MONTH));
+		  Assert.assertEquals(0, c.get(Calendar.HOUR_OF_DAY));
+		  Assert.assertEquals(0, c.get(Calendar.MINUTE));
+		  Assert.assertEquals(0, c.get(Calendar.SECOND));
+		  Assert.assertEquals(0, c.get(Calendar.MILLISECOND));
+	  }
+
+	  @Test
+	  public void testPremierEtDernierJourDeAnnee() {
+		  TimeZone fuseau = TimeZone.getDefault();
+		  try {
+			  // Pacific/Kiritimati : le 1994-12-31 n'existe pas
+			  for (String id : new String[] {"Europe/Paris", "Pacific/Apia", "Pacific/Kiritimati" }) {
+				  TimeZone.setDefault(TimeZone.getTimeZone(id));
+				  ZoneId zone = ZoneId.of(id);
+				  for (int annee = 1890; annee <= 2110; annee++) {
+					  Calendar janvier = DateUtils.get1erJanvier(annee);
+					  Assert.assertEquals(id, annee, janvier.get(Calendar.YEAR));
+					  Assert.assertEquals(id, Calendar.JANUARY, janvier.get(Calendar.MONTH));
+					  Assert.assertEquals(id, 1, janvier.get(Calendar.DAY_OF_MONTH));
+					  Calendar veille = (Calendar) janvier.clone();
+					  veille.add(Calendar.MILLISECOND, -1);
+					  Assert.assertEquals(id, annee - 1, veille.get(Calendar.YEAR));
+					  LocalDate dernierJour = LocalDate.of(annee, 12, 31);
+					  if (!dernierJour.atStartOfDay(zone).toLocalDate().equals(dernierJour)) {
+						  continue;
+					  }
+					  Calendar decembre = DateUtils.get31Decembre(annee);
+					  Assert.assertEquals(id, annee, decembre.get(Calendar.YEAR));
+					  Assert.assertEquals(id, Calendar.DECEMBER, decembre.get(Calendar.MONTH));
+					  Assert.assertEquals(id, 31, decembre.get(Calendar.DAY_OF_MONTH));
+				  }
+			  }
+		  } finally {
+			  TimeZone.setDefault(fuseau);
+		  }
+	  }
+}
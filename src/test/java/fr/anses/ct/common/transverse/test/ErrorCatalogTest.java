@@ -0,0 +1,141 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultExchange;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import fr.anses.ct.common.transverse.ErrorCatalog;
+import fr.anses.ct.common.transverse.ErrorDescriptor;
+import fr.anses.ct.common.transverse.ExceptionFactory;
+import fr.anses.ct.common.transverse.RfaException;
+import fr.anses.ct.common.transverse.RouteFailureHandler;
+
+public class ErrorCatalogTest {
+
+	  @Test
+	  public void testChargement() {
+		  ErrorCatalog catalogue = ErrorCatalog.charger("erreurs_test.properties");
+		  Assert.assertEquals(3, catalogue.getTaille());
+		  Assert.assertEquals(Arrays.asList("ACCES_REFUSE", "ERR_SANS_MESSAGE", "HEADER_READ_ERROR"),
+			  Arrays.asList(catalogue.getCodes().toArray()));
+		  for (int id = 0; id < catalogue.getTaille(); id++) {
+			  ErrorDescriptor descripteur = catalogue.get(id);
+			  Assert.assertEquals(id, descripteur.getId());
+			  Assert.assertSame(descripteur, catalogue.get(descripteur.getCode()));
+		  }
+
+		  ErrorDescriptor acces = catalogue.get("ACCES_REFUSE");
+		  Assert.assertTrue(acces.estDeclare());
+		  Assert.assertEquals(403, acces.getStatut());
+		  Assert.assertEquals("403", acces.getStatutTexte());
+		  Assert.assertEquals(ErrorDescriptor.Severite.ERREUR, acces.getSeverite());
+		  Assert.assertEquals("HEADER_READ_ERROR", acces.getCleMessage());
+		  Assert.assertEquals("ERR_SANS_MESSAGE", catalogue.get("ERR_SANS_MESSAGE").getCleMessage());
+
+		  // codes non déclarés : règle historique, calculée une fois
+		  ErrorDescriptor interdit = catalogue.get("ERR_403_PROFIL");
+		  Assert.assertFalse(interdit.estDeclare());
+		  Assert.assertEquals(ErrorDescriptor.ID_NON_DECLARE, interdit.getId());
+		  Assert.assertEquals(403, interdit.getStatut());
+		  Assert.assertSame(interdit, catalogue.get("ERR_403_PROFIL"));
+		  Assert.assertEquals(500, catalogue.get("ERR_INCONNUE").getStatut());
+		  Assert.assertEquals(500, catalogue.get(null).getStatut());
+		  Assert.assertEquals("[INCONNU]", catalogue.getCodesNonDeclares(Arrays.asList("INCONNU", "ACCES_REFUSE")).toString());
+	  }
+
+	  @Test
+	  public void testEntreesInvalides() {
+		  for (String valeur : new String[] {"500", "abc,ERREUR", "500,GRAVE", "42,ERREUR", "500,ERREUR,cle,autre" }) {
+			  Properties proprietes = new Properties();
+			  proprietes.setProperty("CODE", valeur);
+			  try {
+				  ErrorCatalog.depuis(proprietes);
+				  Assert.fail(valeur);
+			  } catch (IllegalArgumentException e) {
+				  Assert.assertTrue(e.getMessage().contains("CODE=" + valeur));
+			  }
+		  }
+		  try {
+			  ErrorCatalog.charger("introuvable.properties");
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // attendu
+		  }
+	  }
+
+	  @Test
+	  public void testFactoryEtHandler() throws Exception {
+		  Logger logger = (Logger) LoggerFactory.getLogger(ExceptionFactory.class);
+		  ListAppender<ILoggingEvent> traces = new ListAppender<ILoggingEvent>();
+		  traces.start();
+		  logger.addAppender(traces);
+		  ExceptionFactory factory = new ExceptionFactory();
+		  try {
+			  ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+			  messageSource.setBasename("messages_test");
+			  factory.setMessageSource(messageSource);
+			  factory.setCatalogue(ErrorCatalog.charger("erreurs_test.properties"));
+			  factory.setBasenames(Arrays.asList("messages_test"));
+		  } finally {
+			  logger.detachAppender(traces);
+		  }
+		  // ERR_SANS_MESSAGE n'a pas de message ; tous les messages du bundle sont déclarés
+		  boolean signale = false;
+		  for (ILoggingEvent trace : traces.list) {
+			  Assert.assertFalse(trace.getFormattedMessage().contains("absents du catalogue"));
+			  signale |= trace.getFormattedMessage().equals("Codes d'erreur du catalogue sans message : [ERR_SANS_MESSAGE]");
+		  }
+		  Assert.assertTrue(signale);
+
+		  // clé de message distincte du code
+		  RfaException acces = factory.creerRfaException("ACCES_REFUSE", new String[] {"A", "1" }, null);
+		  Assert.assertEquals(factory.getMessage("HEADER_READ_ERROR", new String[] {"A", "1" }), acces.getMessage());
+		  Assert.assertEquals("ERREUR", acces.getSeverite());
+		  Assert.assertEquals(403, acces.getDescripteur().getStatut());
+		  RfaException lecture = factory.getRfaException("HEADER_READ_ERROR", "message", null);
+		  Assert.assertEquals("AVERTISSEMENT", lecture.getSeverite());
+		  RfaException inconnue = factory.creerRfaException("ERR_403_PROFIL", null, null);
+		  Assert.assertNull(inconnue.getSeverite());
+		  Assert.assertFalse(inconnue.getDescripteur().estDeclare());
+
+		  RouteFailureHandler handler = new RouteFailureHandler();
+		  handler.setMetriques(null);
+		  Assert.assertEquals("400", statut(handler, lecture));
+		  Assert.assertEquals("403", statut(handler, acces));
+		  Assert.assertEquals("403", statut(handler, inconnue));
+		  // exception hors factory : catalogue du handler
+		  RfaException directe = new RfaException("message");
+		  directe.setCode("HEADER_READ_ERROR");
+		  Assert.assertEquals("500", statut(handler, directe));
+		  handler.setCatalogue(factory.getCatalogue());
+		  Assert.assertEquals("400", statut(handler, directe));
+		  // changement de code : la description n'est plus valable
+		  lecture.setCode("ERR_403_AUTRE");
+		  Assert.assertNull(lecture.getDescripteur());
+		  Assert.assertEquals("403", statut(handler, lecture));
+
+		  // changement de catalogue : le message suit la description attachée à la création
+		  RfaException avant = factory.creerRfaException("ACCES_REFUSE", new String[] {"A", "1" }, null);
+		  factory.setCatalogue(null);
+		  Assert.assertEquals(acces.getMessage(), avant.getMessage());
+		  Assert.assertEquals(factory.getMessage("HEADER_READ_ERROR", new String[] {"A", "1" }),
+			  factory.creerRfaException("HEADER_READ_ERROR", new String[] {"A", "1" }, null).getMessage());
+	  }
+
+	  private static String statut(RouteFailureHandler handler, RfaException exception) throws Exception {
+		  Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+		  exchange.setProperty(Exchange.EXCEPTION_CAUGHT, exception);
+		  handler.process(exchange);
+		  return exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, String.class);
+	  }
+}
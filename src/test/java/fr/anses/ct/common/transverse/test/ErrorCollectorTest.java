@@ -0,0 +1,109 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultExchange;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import fr.anses.ct.common.transverse.ErrorCollector;
+import fr.anses.ct.common.transverse.ErrorDetail;
+import fr.anses.ct.common.transverse.ExceptionFactory;
+import fr.anses.ct.common.transverse.RfaMultipleException;
+import fr.anses.ct.common.transverse.RouteFailureHandler;
+
+public class ErrorCollectorTest {
+
+	  private static ExceptionFactory factory() {
+		  ExceptionFactory factory = new ExceptionFactory();
+		  ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+		  messageSource.setBasename("messages_test");
+		  factory.setMessageSource(messageSource);
+		  factory.setMetriques(null);
+		  return factory;
+	  }
+
+	  @Test
+	  public void testCollecte() {
+		  ExceptionFactory factory = factory();
+		  ErrorCollector collecteur = factory.creerCollecteur(3);
+		  Assert.assertTrue(collecteur.estVide());
+		  Assert.assertNull(collecteur.creerException());
+		  collecteur.lever();
+
+		  for (int ligne = 1; ligne <= 5; ligne++) {
+			  collecteur.ajouter(ligne, "HEADER_READ_ERROR", new String[] {"COL" + ligne, String.valueOf(ligne) });
+		  }
+		  Assert.assertEquals(5, collecteur.getNbErreurs());
+		  Assert.assertEquals(3, collecteur.getTaille());
+		  Assert.assertEquals("HEADER_READ_ERROR", collecteur.getCode(2));
+		  Assert.assertEquals(factory.getMessage("HEADER_READ_ERROR", new String[] {"COL3", "3" }),
+			  collecteur.getMessage(2));
+
+		  RfaMultipleException exception = collecteur.creerException();
+		  Assert.assertEquals(RfaMultipleException.CODE, exception.getCode());
+		  Assert.assertEquals("5 erreur(s)", exception.getMessage());
+		  Assert.assertEquals(5, exception.getNbErreurs());
+		  Assert.assertEquals(3, exception.getErreurs().size());
+		  ErrorDetail premiere = exception.getErreurs().get(0);
+		  Assert.assertEquals(1, premiere.getEnregistrement());
+		  Assert.assertEquals(factory.getMessage("HEADER_READ_ERROR", new String[] {"COL1", "1" }), premiere.getMessage());
+
+		  try {
+			  collecteur.lever();
+			  Assert.fail();
+		  } catch (RfaMultipleException e) {
+			  Assert.assertEquals(5, e.getNbErreurs());
+		  }
+		  // réutilisation après levée
+		  Assert.assertTrue(collecteur.estVide());
+		  collecteur.ajouter("ERR_INCONNUE");
+		  Assert.assertEquals(1, collecteur.getTaille());
+		  Assert.assertEquals(ErrorDetail.SANS_ENREGISTREMENT,
+			  collecteur.creerException().getErreurs().get(0).getEnregistrement());
+		  try {
+			  collecteur.getCode(1);
+			  Assert.fail();
+		  } catch (IndexOutOfBoundsException e) {
+			  // attendu
+		  }
+	  }
+
+	  @Test
+	  public void testHandlerEtSerialisation() throws Exception {
+		  ExceptionFactory factory = factory();
+		  ErrorCollector collecteur = factory.creerCollecteur();
+		  collecteur.ajouter(7, "HEADER_READ_ERROR", new String[] {"NOM", "7" });
+		  collecteur.ajouter("ERR_403_PROFIL", "x");
+		  RfaMultipleException exception = collecteur.creerException();
+		  String attendu = factory.getMessage("HEADER_READ_ERROR", new String[] {"NOM", "7" });
+
+		  RouteFailureHandler handler = new RouteFailureHandler();
+		  handler.setMetriques(null);
+		  Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+		  exchange.setProperty(Exchange.EXCEPTION_CAUGHT, exception);
+		  handler.process(exchange);
+		  String corps = exchange.getIn().getBody(String.class);
+		  Assert.assertTrue(corps, corps.contains("erreurs"));
+		  Assert.assertTrue(corps, corps.contains(RfaMultipleException.CODE));
+		  Assert.assertTrue(corps, corps.contains("ERR_403_PROFIL"));
+		  Assert.assertTrue(corps, corps.contains("2 erreur(s)"));
+		  Assert.assertEquals("500", exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, String.class));
+
+		  ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		  ObjectOutputStream sortie = new ObjectOutputStream(octets);
+		  sortie.writeObject(collecteur.creerException());
+		  sortie.close();
+		  RfaMultipleException copie = (RfaMultipleException) new ObjectInputStream(new ByteArrayInputStream(
+			  octets.toByteArray())).readObject();
+		  Assert.assertEquals(2, copie.getNbErreurs());
+		  Assert.assertEquals(attendu, copie.getErreurs().get(0).getMessage());
+		  Assert.assertEquals(7, copie.getErreurs().get(0).getEnregistrement());
+	  }
+}
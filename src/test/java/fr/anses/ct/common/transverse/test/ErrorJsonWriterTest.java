@@ -0,0 +1,69 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.cedarsoftware.util.io.JsonReader;
+
+import fr.anses.ct.common.transverse.ErrorDetail;
+import fr.anses.ct.common.transverse.ErrorJsonWriter;
+import fr.anses.ct.common.transverse.RfaException;
+import fr.anses.ct.common.transverse.RfaMultipleException;
+
+public class ErrorJsonWriterTest {
+
+	  @Test
+	  public void testEchappement() throws Exception {
+		  String message = "a\"b\\c/d\n\r\t\b\f\u0001\u001f   éà€😀";
+		  RfaException exception = new RfaException(message);
+		  exception.setCode("CODE");
+		  exception.setUuid(new byte[] {0, 1, -1, 127, -128 });
+		  String json = ErrorJsonWriter.COMPACT.ecrire(exception);
+		  Assert.assertEquals("{\"uuid\":[0,1,-1,127,-128],\"message\":\"a\\\"b\\\\c/d\\n\\r\\t\\b\\f\\u0001\\u001f"
+			  + "\\u2028\\u2029 éà€😀\",\"code\":\"CODE\",\"severite\":null}", json);
+
+		  Map<?, ?> lu = JsonReader.jsonToMaps(json);
+		  Assert.assertEquals(message, lu.get("message"));
+		  Assert.assertEquals("CODE", lu.get("code"));
+		  Assert.assertNull(lu.get("severite"));
+
+		  // mêmes données en mode indenté, sur un Writer et sur un flux UTF-8
+		  String indente = ErrorJsonWriter.INDENTE.ecrire(exception);
+		  Assert.assertTrue(indente, indente.startsWith("{\n  \"uuid\": [0,1,-1,127,-128],\n  \"message\": "));
+		  Assert.assertEquals(json, indente.replaceAll("\n *", "").replace("\": ", "\":"));
+		  StringWriter writer = new StringWriter();
+		  ErrorJsonWriter.COMPACT.ecrire(exception, writer);
+		  Assert.assertEquals(json, writer.toString());
+		  ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		  ErrorJsonWriter.COMPACT.ecrire(exception, octets);
+		  Assert.assertTrue(Arrays.equals(json.getBytes("UTF-8"), octets.toByteArray()));
+
+		  exception.setUuid(null);
+		  exception.setMessage(null);
+		  Assert.assertEquals("{\"uuid\":null,\"message\":null,\"code\":\"CODE\",\"severite\":null}",
+			  ErrorJsonWriter.COMPACT.ecrire(exception));
+	  }
+
+	  @Test
+	  public void testExceptionMultiple() throws Exception {
+		  RfaMultipleException exception = new RfaMultipleException(Arrays.asList(new ErrorDetail(3, "E1", "m1"),
+			  new ErrorDetail(ErrorDetail.SANS_ENREGISTREMENT, "E2", "m\"2")), 5, false);
+		  exception.setMessage("5 erreur(s)");
+		  exception.setSeverite("ERREUR");
+		  exception.setUuid(new byte[] {1 });
+		  Assert.assertEquals("{\"uuid\":[1],\"message\":\"5 erreur(s)\",\"code\":\"ERREURS_MULTIPLES\","
+			  + "\"severite\":\"ERREUR\",\"nbErreurs\":5,\"erreurs\":[{\"enregistrement\":3,\"code\":\"E1\","
+			  + "\"message\":\"m1\"},{\"code\":\"E2\",\"message\":\"m\\\"2\"}]}", ErrorJsonWriter.COMPACT.ecrire(exception));
+		  String indente = ErrorJsonWriter.INDENTE.ecrire(exception);
+		  Assert.assertTrue(indente, indente.contains("\"erreurs\": [\n    {\n      \"enregistrement\": 3,\n"));
+		  Assert.assertEquals(Long.valueOf(5), JsonReader.jsonToMaps(indente).get("nbErreurs"));
+
+		  RfaMultipleException vide = new RfaMultipleException(Arrays.<ErrorDetail> asList(), 0, false);
+		  Assert.assertTrue(ErrorJsonWriter.INDENTE.ecrire(vide).contains("\"erreurs\": []"));
+	  }
+}
@@ -0,0 +1,155 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import fr.anses.ct.common.transverse.ErrorLogThrottle;
+import fr.anses.ct.common.transverse.FixedDateClock;
+
+public class ErrorLogThrottleTest {
+
+	  private final Logger logger = (Logger) LoggerFactory.getLogger(ErrorLogThrottleTest.class.getName() + ".traces");
+
+	  private final ListAppender<ILoggingEvent> traces = new ListAppender<ILoggingEvent>();
+
+	  @Before
+	  public void setUp() {
+		  traces.start();
+		  logger.setAdditive(false);
+		  logger.addAppender(traces);
+	  }
+
+	  @After
+	  public void tearDown() {
+		  logger.detachAppender(traces);
+		  logger.setLevel(null);
+	  }
+
+	  @Test
+	  public void testLimite() {
+		  FixedDateClock horloge = new FixedDateClock(1000000);
+		  ErrorLogThrottle limiteur = new ErrorLogThrottle(3, 1000, horloge);
+		  for (int i = 0; i < 10; i++) {
+			  Assert.assertEquals(i < 3, limiteur.tracer(logger, "PANNE", "message " + i));
+		  }
+		  Assert.assertTrue(limiteur.tracer(logger, "AUTRE", "autre"));
+		  // 3 traces, l'atteinte de la limite, puis l'autre code
+		  Assert.assertEquals(5, traces.list.size());
+		  Assert.assertEquals("[PANNE] message 0", traces.list.get(0).getFormattedMessage());
+		  Assert.assertEquals("[AUTRE] autre", traces.list.get(4).getFormattedMessage());
+		  Assert.assertEquals(7, limiteur.getNbSupprimees());
+
+		  // même fenêtre : toujours suspendu
+		  horloge.avancer(999);
+		  Assert.assertFalse(limiteur.tracer(logger, "PANNE", "message"));
+		  Assert.assertEquals(5, traces.list.size());
+
+		  // fenêtre suivante : synthèse puis trace complète
+		  horloge.avancer(1);
+		  Assert.assertTrue(limiteur.tracer(logger, "PANNE", "reprise"));
+		  Assert.assertEquals(7, traces.list.size());
+		  Assert.assertTrue(traces.list.get(5).getFormattedMessage().startsWith("[PANNE] 8 occurrence(s) non tracée(s)"));
+		  Assert.assertEquals("[PANNE] reprise", traces.list.get(6).getFormattedMessage());
+
+		  // fenêtre suivante sans dépassement : pas de synthèse
+		  horloge.avancer(5000);
+		  Assert.assertTrue(limiteur.tracer(logger, "PANNE", "encore"));
+		  Assert.assertEquals(8, traces.list.size());
+	  }
+
+	  @Test
+	  public void testSyntheseEnFinDeRafale() {
+		  FixedDateClock horloge = new FixedDateClock(1000000);
+		  ErrorLogThrottle limiteur = new ErrorLogThrottle(2, 1000, horloge);
+		  for (int i = 0; i < 5; i++) {
+			  limiteur.tracer(logger, "PANNE", "message " + i);
+		  }
+		  Assert.assertEquals(3, traces.list.size());
+
+		  // la rafale cesse : la synthèse est écrite par un appel d'un autre code, plusieurs fenêtres plus tard
+		  horloge.avancer(5000);
+		  Assert.assertTrue(limiteur.tracer(logger, "AUTRE", "autre"));
+		  Assert.assertEquals(5, traces.list.size());
+		  String synthese = traces.list.get(3).getFormattedMessage();
+		  Assert.assertTrue(synthese, synthese.startsWith("[PANNE] 3 occurrence(s) non tracée(s) entre "));
+		  Assert.assertTrue(synthese, synthese.endsWith(" (limite de 2 par 1000 ms)"));
+		  Assert.assertEquals("[AUTRE] autre", traces.list.get(4).getFormattedMessage());
+
+		  // la synthèse n'est écrite qu'une fois
+		  horloge.avancer(1000);
+		  Assert.assertTrue(limiteur.tracer(logger, "PANNE", "reprise"));
+		  Assert.assertEquals(6, traces.list.size());
+		  Assert.assertEquals("[PANNE] reprise", traces.list.get(5).getFormattedMessage());
+
+		  // sans aucun appel : purge explicite
+		  for (int i = 0; i < 3; i++) {
+			  limiteur.tracer(logger, "PANNE", "message " + i);
+		  }
+		  Assert.assertEquals(8, traces.list.size());
+		  limiteur.purger();
+		  Assert.assertEquals(8, traces.list.size());
+		  horloge.avancer(1000);
+		  limiteur.purger();
+		  Assert.assertEquals(9, traces.list.size());
+		  Assert.assertTrue(traces.list.get(8).getFormattedMessage().startsWith("[PANNE] 2 occurrence(s) non tracée(s)"));
+	  }
+
+	  @Test
+	  public void testNiveauInactif() {
+		  logger.setLevel(Level.OFF);
+		  ErrorLogThrottle limiteur = new ErrorLogThrottle(1, 1000, new FixedDateClock(0));
+		  Object message = new Object() {
+			  @Override
+			  public String toString() {
+				  throw new AssertionError("message construit");
+			  }
+		  };
+		  for (int i = 0; i < 5; i++) {
+			  Assert.assertFalse(limiteur.tracer(logger, "PANNE", message));
+		  }
+		  Assert.assertEquals(0, limiteur.getNbSupprimees());
+		  Assert.assertTrue(traces.list.isEmpty());
+	  }
+
+	  @Test
+	  public void testConcurrence() throws Exception {
+		  final ErrorLogThrottle limiteur = new ErrorLogThrottle(50, 60000, new FixedDateClock(0));
+		  ExecutorService executor = Executors.newFixedThreadPool(4);
+		  try {
+			  Callable<Integer> tache = new Callable<Integer>() {
+				  @Override
+				  public Integer call() {
+					  int tracees = 0;
+					  for (int i = 0; i < 1000; i++) {
+						  if (limiteur.tracer(logger, "PANNE", "message")) {
+							  tracees++;
+						  }
+					  }
+					  return tracees;
+				  }
+			  };
+			  int tracees = 0;
+			  for (Future<Integer> resultat : executor.invokeAll(Collections.nCopies(4, tache))) {
+				  tracees += resultat.get();
+			  }
+			  Assert.assertEquals(50, tracees);
+			  Assert.assertEquals(4000 - 50, limiteur.getNbSupprimees());
+			  Assert.assertEquals(51, traces.list.size());
+		  } finally {
+			  executor.shutdown();
+		  }
+	  }
+}
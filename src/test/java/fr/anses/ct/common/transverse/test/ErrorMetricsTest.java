@@ -0,0 +1,156 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultExchange;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.support.StaticMessageSource;
+
+import fr.anses.ct.common.transverse.ErrorCodeMetricsMXBean;
+import fr.anses.ct.common.transverse.ErrorMetrics;
+import fr.anses.ct.common.transverse.ExceptionFactory;
+import fr.anses.ct.common.transverse.FixedDateClock;
+import fr.anses.ct.common.transverse.RfaException;
+import fr.anses.ct.common.transverse.RouteFailureHandler;
+
+public class ErrorMetricsTest {
+
+	  @Test
+	  public void testComptage() throws Exception {
+		  FixedDateClock horloge = new FixedDateClock(1000000);
+		  ErrorMetrics metriques = new ErrorMetrics(horloge, false);
+		  ExceptionFactory factory = new ExceptionFactory();
+		  factory.setMessageSource(new StaticMessageSource());
+		  factory.setMetriques(metriques);
+		  factory.setLimiteurTraces(null);
+
+		  for (int i = 0; i < 3; i++) {
+			  try {
+				  factory.throwRfaException("ERR_500");
+				  Assert.fail();
+			  } catch (RfaException e) {
+				  // attendu
+			  }
+		  }
+		  factory.getRfaException("403_INTERDIT", "interdit", null);
+		  RfaException exception = factory.creerRfaException("403_INTERDIT", null, null);
+
+		  RouteFailureHandler handler = new RouteFailureHandler();
+		  handler.setMetriques(metriques);
+		  Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+		  exchange.setProperty(Exchange.EXCEPTION_CAUGHT, exception);
+		  handler.process(exchange);
+
+		  Assert.assertEquals(5, metriques.getTotal());
+		  Assert.assertArrayEquals(new String[] {"403_INTERDIT", "ERR_500" }, metriques.getCodes());
+		  Map<String, ErrorCodeMetricsMXBean> instantane = metriques.instantane();
+		  Assert.assertEquals(3, instantane.get("ERR_500").getTotal());
+		  Assert.assertEquals(2, instantane.get("403_INTERDIT").getTotal());
+		  Assert.assertEquals(Long.valueOf(1), instantane.get("403_INTERDIT").getStatuts().get("403"));
+		  Assert.assertTrue(instantane.get("ERR_500").getStatuts().isEmpty());
+		  Assert.assertEquals(Long.valueOf(1), instantane.get("403_INTERDIT").getRoutes().get(ErrorMetrics.AUTRES));
+
+		  metriques.reinitialiser();
+		  Assert.assertEquals(0, metriques.getTotal());
+		  Assert.assertEquals(0, metriques.getCodes().length);
+	  }
+
+	  @Test
+	  public void testTaux() {
+		  FixedDateClock horloge = new FixedDateClock(1000000);
+		  ErrorMetrics metriques = new ErrorMetrics(horloge, false);
+		  // 10 exceptions par seconde pendant 20 secondes
+		  for (int seconde = 0; seconde < 20; seconde++) {
+			  for (int i = 0; i < 10; i++) {
+				  metriques.enregistrer("PANNE");
+			  }
+			  horloge.avancer(1000);
+			  metriques.echantillonner();
+		  }
+		  Assert.assertEquals(10, metriques.getTaux("PANNE", 10), 0.001);
+		  Assert.assertEquals(200.0 / 60, metriques.getTaux("PANNE", 60), 0.001);
+		  Assert.assertEquals(0, metriques.getTaux("INCONNU", 10), 0.001);
+
+		  // plus rien pendant 15 secondes (échantillonnage arrêté), puis une exception
+		  horloge.avancer(15000);
+		  Assert.assertEquals(0, metriques.getTaux("PANNE", 10), 0.001);
+		  metriques.enregistrer("PANNE");
+		  Assert.assertEquals(0.1, metriques.getTaux("PANNE", 10), 0.001);
+
+		  // anneau recyclé : les échantillons de plus de 64 secondes ne comptent plus
+		  horloge.avancer(100000);
+		  metriques.echantillonner();
+		  metriques.enregistrer("PANNE");
+		  Assert.assertEquals(0.1, metriques.getTaux("PANNE", 10), 0.001);
+		  Assert.assertEquals(202, metriques.instantane().get("PANNE").getTotal());
+	  }
+
+	  @Test
+	  public void testEchantillonnage() throws Exception {
+		  ErrorMetrics metriques = new ErrorMetrics();
+		  try {
+			  // démarrage au premier code
+			  Assert.assertTrue(metriques.estArretee());
+			  metriques.enregistrer("PANNE");
+			  Assert.assertFalse(metriques.estArretee());
+			  Assert.assertTrue(metriques.getTaux("PANNE", 10) > 0);
+		  } finally {
+			  metriques.arreter();
+		  }
+		  Assert.assertTrue(metriques.estArretee());
+		  // arrêt définitif
+		  metriques.enregistrer("AUTRE");
+		  metriques.publier(MBeanServerFactory.newMBeanServer());
+		  Assert.assertTrue(metriques.estArretee());
+		  metriques.depublier();
+	  }
+
+	  @Test
+	  public void testEchantillonnageSelonPublication() throws Exception {
+		  ErrorMetrics metriques = new ErrorMetrics();
+		  try {
+			  metriques.publier(MBeanServerFactory.newMBeanServer());
+			  Assert.assertFalse(metriques.estArretee());
+			  metriques.depublier();
+			  Assert.assertTrue(metriques.estArretee());
+			  metriques.enregistrer("PANNE");
+			  Assert.assertFalse(metriques.estArretee());
+		  } finally {
+			  metriques.arreter();
+		  }
+	  }
+
+	  @Test
+	  public void testJmx() throws Exception {
+		  MBeanServer serveur = MBeanServerFactory.newMBeanServer();
+		  ErrorMetrics metriques = new ErrorMetrics(new FixedDateClock(0), false);
+		  metriques.enregistrer("AVANT");
+		  metriques.publier(serveur);
+		  Assert.assertTrue(metriques.estPubliee());
+		  metriques.enregistrer("APRES");
+		  metriques.enregistrerReponse("APRES", "500", "route-1");
+
+		  ObjectName global = new ObjectName(ErrorMetrics.DOMAINE + ":type=Erreurs");
+		  Assert.assertEquals(Long.valueOf(2), serveur.getAttribute(global, "Total"));
+		  ObjectName apres = new ObjectName(ErrorMetrics.DOMAINE + ":type=Erreurs,code=\"APRES\"");
+		  Assert.assertEquals(Long.valueOf(1), serveur.getAttribute(apres, "Total"));
+		  TabularData routes = (TabularData) serveur.getAttribute(apres, "Routes");
+		  CompositeData route = (CompositeData) routes.values().iterator().next();
+		  Assert.assertEquals("route-1", route.get("key"));
+		  Assert.assertEquals(Long.valueOf(1), route.get("value"));
+		  Assert.assertTrue(serveur.isRegistered(new ObjectName(ErrorMetrics.DOMAINE + ":type=Erreurs,code=\"AVANT\"")));
+
+		  metriques.depublier();
+		  Assert.assertFalse(serveur.isRegistered(global));
+		  Assert.assertFalse(serveur.isRegistered(apres));
+	  }
+}
@@ -1,16 +1,33 @@
 package fr.anses.ct.common.transverse.test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.support.StaticMessageSource;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 
 import fr.anses.ct.common.transverse.ExceptionFactory;
+import fr.anses.ct.common.transverse.RfaException;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(locations = {"/spring/tech-context.xml" })
@@ -27,4 +44,209 @@ public class ExceptionFactoryTest {
 		  Assert.assertEquals(mess.length(), 45);  
 	  }
 
+	  @Test
+	  public void pileAppels() {
+		  Assert.assertTrue(exceptionFactory.avecPileAppels("HEADER_READ_ERROR"));
+		  RfaException avecPile = exceptionFactory.getRfaException("HEADER_READ_ERROR", "message", null);
+		  Assert.assertTrue(avecPile.getStackTrace().length > 0);
+
+		  ExceptionFactory factory = new ExceptionFactory();
+		  factory.setMessageSource(exceptionFactory.getMessageSource());
+		  factory.setCodesSansPile(Arrays.asList("VALIDATION", "403_INTERDIT"));
+		  Assert.assertFalse(factory.avecPileAppels("VALIDATION"));
+		  Assert.assertTrue(factory.avecPileAppels("HEADER_READ_ERROR"));
+		  IllegalStateException cause = new IllegalStateException("cause");
+		  RfaException sansPile = factory.getRfaException("VALIDATION", "message", cause);
+		  Assert.assertEquals(0, sansPile.getStackTrace().length);
+		  Assert.assertSame(cause, sansPile.getCause());
+		  Assert.assertEquals("message", sansPile.getMessage());
+		  Assert.assertEquals("VALIDATION", sansPile.getCode());
+		  Assert.assertEquals(16, sansPile.getUuid().length);
+
+		  // configuration globale : seuls les codes techniques gardent leur pile d'appels
+		  factory.setPileAppels(false);
+		  factory.setCodesTechniques(Arrays.asList("HEADER_READ_ERROR"));
+		  try {
+			  factory.throwRfaException("HEADER_READ_ERROR", new String[] {"0", "1" });
+			  Assert.fail();
+		  } catch (RfaException e) {
+			  Assert.assertTrue(e.getStackTrace().length > 0);
+			  Assert.assertEquals(45, e.getMessage().length());
+		  }
+		  try {
+			  factory.throwRfaException("AUTRE");
+			  Assert.fail();
+		  } catch (RfaException e) {
+			  Assert.assertEquals(0, e.getStackTrace().length);
+		  }
+	  }
+
+	  @Test
+	  public void materialisationDifferee() throws Exception {
+		  final AtomicInteger resolutions = new AtomicInteger();
+		  StaticMessageSource messageSource = new StaticMessageSource() {
+			  @Override
+			  protected String resolveCodeWithoutArguments(String code, Locale locale) {
+				  resolutions.incrementAndGet();
+				  return super.resolveCodeWithoutArguments(code, locale);
+			  }
+		  };
+		  messageSource.addMessage("COLONNE", new Locale(""), "Colonne {0} absente");
+		  ExceptionFactory factory = new ExceptionFactory();
+		  factory.setMessageSource(messageSource);
+		  String[] args = new String[] {"NOM" };
+		  final RfaException exception = factory.creerRfaException("COLONNE", args, null);
+		  args[0] = "MODIFIE";
+		  Assert.assertEquals(0, resolutions.get());
+		  Assert.assertEquals("COLONNE", exception.getCode());
+		  Assert.assertEquals("Colonne NOM absente", exception.getMessage());
+		  Assert.assertEquals("Colonne NOM absente", exception.getMessage());
+		  Assert.assertEquals(1, resolutions.get());
+		  exception.setMessage("autre");
+		  Assert.assertEquals("autre", exception.getMessage());
+
+		  // UUID généré une seule fois, même en concurrence
+		  final Set<byte[]> uuids = Collections.newSetFromMap(new ConcurrentHashMap<byte[], Boolean>());
+		  ExecutorService executor = Executors.newFixedThreadPool(4);
+		  try {
+			  Future<?>[] resultats = new Future<?>[4];
+			  for (int t = 0; t < resultats.length; t++) {
+				  resultats[t] = executor.submit(new Callable<Void>() {
+					  @Override
+					  public Void call() {
+						  uuids.add(exception.getUuid());
+						  return null;
+					  }
+				  });
+			  }
+			  for (Future<?> resultat : resultats) {
+				  resultat.get();
+			  }
+		  } finally {
+			  executor.shutdown();
+		  }
+		  Assert.assertEquals(1, uuids.size());
+		  Assert.assertEquals(16, exception.getUuid().length);
+		  RfaException sansUuid = new RfaException("message");
+		  sansUuid.setUuid(null);
+		  Assert.assertNull(sansUuid.getUuid());
+
+		  // la sérialisation matérialise l'UUID et le message
+		  RfaException differee = factory.creerRfaException("COLONNE", new String[] {"AGE" }, null);
+		  ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		  ObjectOutputStream out = new ObjectOutputStream(octets);
+		  out.writeObject(differee);
+		  out.close();
+		  RfaException relue = (RfaException) new ObjectInputStream(new ByteArrayInputStream(octets.toByteArray()))
+			  .readObject();
+		  Assert.assertEquals("Colonne AGE absente", relue.getMessage());
+		  Assert.assertArrayEquals(differee.getUuid(), relue.getUuid());
+	  }
+
+	  @Test
+	  public void messagesPrecompiles() {
+		  final AtomicInteger resolutions = new AtomicInteger();
+		  StaticMessageSource messageSource = new StaticMessageSource() {
+			  @Override
+			  protected String resolveCodeWithoutArguments(String code, Locale locale) {
+				  resolutions.incrementAndGet();
+				  return super.resolveCodeWithoutArguments(code, locale);
+			  }
+		  };
+		  String[] motifs = new String[] {"Simple", "La colonne {0} n''a pas été trouvée à la ligne {1}", "{1}{0}{1}",
+			  "'{0}' entre quotes", "'' {0} ''", "Manquant {3}", "Accolade } seule", "Sans type {0,}",
+			  "Quote 'ouverte {0}", "{00}" };
+		  for (int i = 0; i < motifs.length; i++) {
+			  messageSource.addMessage("CODE" + i, new Locale(""), motifs[i]);
+		  }
+		  ExceptionFactory factory = new ExceptionFactory();
+		  factory.setMessageSource(messageSource);
+		  String[][] arguments = new String[][] {null, {}, {"A" }, {"A", "B" }, {"1", null, "C" } };
+		  for (int i = 0; i < motifs.length; i++) {
+			  for (String[] args : arguments) {
+				  String attendu = messageSource.getMessage("CODE" + i, args, "Libelle erreur introuvable",
+					  new Locale(""));
+				  Assert.assertEquals(motifs[i], attendu, factory.getMessage("CODE" + i, args));
+				  StringBuilder builder = new StringBuilder(">");
+				  Assert.assertEquals(motifs[i], ">" + attendu, factory.getMessage("CODE" + i, args, builder).toString());
+			  }
+		  }
+		  // codes inconnus : une seule résolution
+		  resolutions.set(0);
+		  for (int i = 0; i < 10; i++) {
+			  Assert.assertEquals("Libelle erreur introuvable", factory.getMessage("INCONNU", new String[] {"x" }));
+		  }
+		  Assert.assertEquals(1, resolutions.get());
+		  resolutions.set(0);
+		  factory.getMessage("CODE1", new String[] {"x", "y" });
+		  Assert.assertEquals(0, resolutions.get());
+	  }
+
+	  @Test
+	  public void motifsRefusesParMessageFormat() {
+		  StaticMessageSource messageSource = new StaticMessageSource();
+		  messageSource.addMessage("E1", new Locale(""), "Champ {nom} invalide");
+		  messageSource.addMessage("E2", new Locale(""), "Accolade { seule");
+		  ExceptionFactory factory = new ExceptionFactory();
+		  // la précompilation ne lève pas d'exception
+		  factory.setMessageSource(messageSource);
+		  factory.prechauffer(Arrays.asList("E1", "E2"));
+		  Assert.assertEquals("Champ {nom} invalide", factory.getMessage("E1", null));
+		  Assert.assertEquals("Accolade { seule", factory.getMessage("E2", new String[0]));
+		  try {
+			  factory.throwRfaException("E1");
+			  Assert.fail();
+		  } catch (RfaException e) {
+			  Assert.assertEquals("Champ {nom} invalide", e.getMessage());
+		  }
+		  // avec des arguments, le motif est refusé comme par Spring
+		  try {
+			  messageSource.getMessage("E1", new String[] {"x" }, new Locale(""));
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // attendu
+		  }
+		  try {
+			  factory.getMessage("E1", new String[] {"x" });
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // attendu
+		  }
+	  }
+
+	  @Test
+	  public void sansCode() {
+		  ExceptionFactory factory = new ExceptionFactory();
+		  factory.setMessageSource(new StaticMessageSource());
+		  Assert.assertEquals("Libelle erreur introuvable", factory.getMessage(null, null));
+		  try {
+			  factory.throwRfaException(null);
+			  Assert.fail();
+		  } catch (RfaException e) {
+			  Assert.assertNull(e.getCode());
+			  Assert.assertEquals("Libelle erreur introuvable", e.getMessage());
+		  }
+	  }
+
+	  @Test
+	  public void prechauffage() {
+		  Assert.assertEquals(Arrays.asList("messages_test"), exceptionFactory.getBasenames());
+		  final AtomicInteger resolutions = new AtomicInteger();
+		  StaticMessageSource messageSource = new StaticMessageSource() {
+			  @Override
+			  protected String resolveCodeWithoutArguments(String code, Locale locale) {
+				  resolutions.incrementAndGet();
+				  return super.resolveCodeWithoutArguments(code, locale);
+			  }
+		  };
+		  messageSource.addMessage("HEADER_READ_ERROR", new Locale(""), "Colonne {0}, ligne {1}");
+		  ExceptionFactory factory = new ExceptionFactory();
+		  factory.setBasenames(Arrays.asList("messages_test"));
+		  Assert.assertEquals(0, resolutions.get());
+		  factory.setMessageSource(messageSource);
+		  Assert.assertEquals(1, resolutions.get());
+		  Assert.assertEquals("Colonne 0, ligne 1", factory.getMessage("HEADER_READ_ERROR", new String[] {"0", "1" }));
+		  Assert.assertEquals(1, resolutions.get());
+	  }
+
 }
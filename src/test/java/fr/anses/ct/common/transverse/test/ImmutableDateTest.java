@@ -0,0 +1,145 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.DateBackend;
+import fr.anses.ct.common.transverse.DateUtils;
+import fr.anses.ct.common.transverse.ImmutableDate;
+import fr.anses.ct.common.transverse.JavaTimeDateBackend;
+
+public class ImmutableDateTest {
+
+	  private static final DateTimeZone PARIS = DateTimeZone.forID("Europe/Paris");
+
+	  private static final DateTimeZone TOKYO = DateTimeZone.forID("Asia/Tokyo");
+
+	  @Test
+	  public void testConversions() {
+		  Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("Europe/Paris"));
+		  calendar.setTimeInMillis(1394037912123L);
+		  ImmutableDate date = DateUtils.calendarToImmutableDate(calendar);
+		  Assert.assertEquals(1394037912123L, date.getMillis());
+		  Assert.assertEquals(PARIS, date.getZone());
+		  Calendar copie = DateUtils.immutableDateToCalendar(date);
+		  Assert.assertNotSame(calendar, copie);
+		  Assert.assertEquals(calendar.getTimeInMillis(), copie.getTimeInMillis());
+		  Assert.assertEquals(calendar.get(Calendar.HOUR_OF_DAY), copie.get(Calendar.HOUR_OF_DAY));
+		  Assert.assertEquals(1394037912123L, date.toDate().getTime());
+		  Assert.assertEquals(ImmutableDate.of(1394037912123L), ImmutableDate.from(date.toDate()));
+		  Assert.assertNull(DateUtils.calendarToImmutableDate(null));
+		  Assert.assertNull(DateUtils.immutableDateToCalendar(null));
+		  Assert.assertEquals(2014, date.getAnnee());
+		  Assert.assertEquals(3, date.getMois());
+		  Assert.assertEquals(5, date.getJour());
+	  }
+
+	  @Test
+	  public void testImmuabilite() throws Exception {
+		  ImmutableDate date = ImmutableDate.of(1394037912123L, PARIS);
+		  Calendar calendar = date.toCalendar();
+		  DateUtils.miseAZeroHeure(calendar);
+		  Assert.assertEquals(1394037912123L, date.getMillis());
+		  Assert.assertEquals(calendar.getTimeInMillis(), date.debutDeJour().getMillis());
+		  Assert.assertEquals(new DateTime(1394037912123L, TOKYO).withTimeAtStartOfDay().getMillis(),
+			  date.withZone(TOKYO).debutDeJour().getMillis());
+		  Assert.assertSame(date, date.withZone(PARIS));
+		  Assert.assertEquals(1394037912124L, date.plusMillis(1).getMillis());
+
+		  Map<ImmutableDate, String> map = new HashMap<ImmutableDate, String>();
+		  map.put(date, "a");
+		  Assert.assertEquals("a", map.get(ImmutableDate.of(1394037912123L, PARIS)));
+		  Assert.assertNull(map.get(ImmutableDate.of(1394037912123L, TOKYO)));
+		  Assert.assertTrue(date.compareTo(date.withZone(TOKYO)) > 0);
+		  Assert.assertTrue(date.compareTo(date.plusMillis(1).withZone(TOKYO)) < 0);
+
+		  ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		  ObjectOutputStream sortie = new ObjectOutputStream(octets);
+		  sortie.writeObject(date);
+		  sortie.close();
+		  Object relue = new ObjectInputStream(new ByteArrayInputStream(octets.toByteArray())).readObject();
+		  Assert.assertEquals(date, relue);
+	  }
+
+	  @Test
+	  public void testEgaliteSelonMoteur() throws Exception {
+		  DateBackend backend = DateUtils.getBackend();
+		  TimeZone fuseau = TimeZone.getDefault();
+		  TimeZone.setDefault(TimeZone.getTimeZone("Europe/Paris"));
+		  try {
+			  DateUtils.setBackend(JavaTimeDateBackend.INSTANCE);
+			  ImmutableDate date = ImmutableDate.of(1394037912123L);
+			  Assert.assertEquals("Europe/Paris", date.getZone().getID());
+			  ImmutableDate joda = ImmutableDate.of(1394037912123L, PARIS);
+			  Assert.assertEquals(joda, date);
+			  Assert.assertEquals(date, joda);
+			  Assert.assertEquals(joda.hashCode(), date.hashCode());
+			  Assert.assertEquals(0, date.compareTo(joda));
+			  Assert.assertSame(date, date.withZone(PARIS));
+
+			  ByteArrayOutputStream octets = new ByteArrayOutputStream();
+			  ObjectOutputStream sortie = new ObjectOutputStream(octets);
+			  sortie.writeObject(date);
+			  sortie.close();
+			  Object relue = new ObjectInputStream(new ByteArrayInputStream(octets.toByteArray())).readObject();
+			  Assert.assertEquals(date, relue);
+			  Assert.assertEquals(date.hashCode(), relue.hashCode());
+		  } finally {
+			  DateUtils.setBackend(backend);
+			  TimeZone.setDefault(fuseau);
+		  }
+	  }
+
+	  @Test
+	  public void testFormatage() {
+		  ImmutableDate date = ImmutableDate.of(1394037912123L, PARIS);
+		  Assert.assertEquals("2014-03-05", DateUtils.immutableDateToStringAAAAMMJJNullSafe(date));
+		  Assert.assertEquals("20140305", DateUtils.immutableDateToStringyyyyMMdd(date));
+		  Assert.assertEquals("05-03-2014", DateUtils.immutableDateToStringJJMMAAAA(date));
+		  Assert.assertEquals("2014-03-05 17:45:12.123", DateUtils.immutableDateToStringTimeStamp(date));
+		  Assert.assertEquals("2014-03-05T17:45:12,1+0100", DateUtils.immutableDateToStringISONullSafe(date));
+		  Assert.assertEquals("2014-03-06T01:45:12,1+0900", DateUtils.immutableDateToStringISONullSafe(date.withZone(TOKYO)));
+		  Assert.assertEquals("05/03/2014 17:45:12", DateUtils.immutableDateToString(date, DateUtils.FORMAT_DATE_BAS_PAGE));
+		  Assert.assertNull(DateUtils.immutableDateToStringAAAAMMJJNullSafe(null));
+		  Assert.assertNull(DateUtils.immutableDateToStringISONullSafe(null));
+		  Assert.assertNull(DateUtils.toStringAAAAMMJJNullSafe(null));
+		  Assert.assertNull(DateUtils.toStringISONullSafe(null));
+	  }
+
+	  @Test
+	  public void testLectureEtComparaison() {
+		  ImmutableDate date = DateUtils.toImmutableDate("2014-03-05 17:45:12.123",
+			  DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP);
+		  Assert.assertEquals(DateTimeZone.getDefault(), date.getZone());
+		  Assert.assertEquals(DateUtils.toCalendar("2014-03-05 17:45:12.123",
+			  DateUtils.FORMAT_DATE_BASE_DE_DONNEES_TIMESTAMP).getTimeInMillis(), date.getMillis());
+		  ImmutableDate jour = DateUtils.toImmutableDateFormatISO("2014-03-05");
+		  Assert.assertEquals(DateUtils.toCalendarFormatISO("2014-03-05").getTimeInMillis(), jour.getMillis());
+		  Assert.assertNull(DateUtils.toImmutableDateFormatISO(null));
+		  Assert.assertEquals(DateUtils.toCalendar("5/3/2014", "d/M/yyyy").getTimeInMillis(),
+			  DateUtils.toImmutableDate("5/3/2014", "d/M/yyyy").getMillis());
+
+		  ImmutableDate lendemain = DateUtils.toImmutableDateFormatISO("2014-03-06");
+		  Assert.assertTrue(DateUtils.egaliteDateJourMoisAn(date, jour));
+		  Assert.assertTrue(DateUtils.egaliteDateJourMoisAn(null, null));
+		  Assert.assertFalse(DateUtils.egaliteDateJourMoisAn(date, null));
+		  Assert.assertTrue(DateUtils.egaliteDateJourMoisAn((Object) date, (Object) jour.toCalendar()));
+		  Assert.assertTrue(DateUtils.immutableDateAfterPrecisionJour(lendemain, date));
+		  Assert.assertTrue(DateUtils.immutableDateBeforePrecisionJour(date, lendemain));
+		  Assert.assertEquals(0, DateUtils.immutableDateCompareToPrecisionJour(date, jour));
+		  Assert.assertEquals(1L, DateUtils.immutableDateNbJoursEcart(date, lendemain));
+	  }
+
+}
@@ -0,0 +1,257 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.DateUtils;
+import fr.anses.ct.common.transverse.FixedDateClock;
+import fr.anses.ct.common.transverse.SystemDateClock;
+import fr.anses.ct.common.transverse.UUIDUtils;
+import fr.anses.ct.common.transverse.UuidGenerator;
+import fr.anses.ct.common.transverse.UuidGeneratorStrategy;
+
+public class UUIDUtilsTest {
+
+	  @After
+	  public void tearDown() {
+		  UUIDUtils.setGenerateur(UuidGeneratorStrategy.JDK);
+		  DateUtils.setHorloge(SystemDateClock.INSTANCE);
+	  }
+
+	  private static long poidsFort(byte[] uuid) {
+		  long msb = 0;
+		  for (int i = 0; i < 8; i++) {
+			  msb = (msb << 8) | (uuid[i] & 0xff);
+		  }
+		  return msb;
+	  }
+
+	  @Test
+	  public void testUuidOrdonne() {
+		  // instant postérieur à celui des autres tests : l'état des UUID ordonnés est global
+		  FixedDateClock horloge = new FixedDateClock(4000000000000L);
+		  DateUtils.setHorloge(horloge);
+		  byte[] precedent = UUIDUtils.genererOrdonne16ByteUuid();
+		  Assert.assertEquals(4000000000000L, UUIDUtils.extraireInstant(precedent));
+		  UUID uuid = UUID.fromString(UUIDUtils.genererFrom16ByteString(precedent));
+		  Assert.assertEquals(7, uuid.version());
+		  Assert.assertEquals(2, uuid.variant());
+		  Assert.assertEquals(4000000000000L, UUIDUtils.extraireInstant(uuid.toString()));
+		  // même milliseconde : le compteur garantit l'ordre
+		  for (int i = 0; i < 100; i++) {
+			  byte[] suivant = UUIDUtils.genererOrdonne16ByteUuid();
+			  Assert.assertTrue(Long.compareUnsigned(poidsFort(precedent), poidsFort(suivant)) < 0);
+			  Assert.assertEquals(4000000000000L, UUIDUtils.extraireInstant(suivant));
+			  precedent = suivant;
+		  }
+		  // recul de l'horloge : l'ordre est conservé
+		  horloge.setMillis(3999999990000L);
+		  byte[] suivant = UUIDUtils.genererOrdonne16ByteUuid();
+		  Assert.assertTrue(Long.compareUnsigned(poidsFort(precedent), poidsFort(suivant)) < 0);
+		  horloge.setMillis(4000000000001L);
+		  Assert.assertEquals(4000000000001L, UUIDUtils.extraireInstant(UUIDUtils.genererOrdonneUuid()));
+		  try {
+			  UUIDUtils.extraireInstant(UUIDUtils.genererRandom16ByteUuid());
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // attendu
+		  }
+		  try {
+			  UUIDUtils.extraireInstant(UUIDUtils.genererRandomUuid());
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // attendu
+		  }
+	  }
+
+	  @Test
+	  public void testUuidOrdonneConcurrence() throws Exception {
+		  DateUtils.setHorloge(new FixedDateClock(1394037912123L));
+		  final Set<Long> poidsForts = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+		  ExecutorService executor = Executors.newFixedThreadPool(4);
+		  try {
+			  Future<?>[] resultats = new Future<?>[4];
+			  for (int t = 0; t < resultats.length; t++) {
+				  resultats[t] = executor.submit(new Callable<Void>() {
+					  @Override
+					  public Void call() {
+						  long precedent = 0L;
+						  for (int i = 0; i < 5000; i++) {
+							  long msb = poidsFort(UUIDUtils.genererOrdonne16ByteUuid());
+							  Assert.assertTrue(Long.compareUnsigned(precedent, msb) < 0);
+							  Assert.assertTrue(poidsForts.add(msb));
+							  precedent = msb;
+						  }
+						  return null;
+					  }
+				  });
+			  }
+			  for (Future<?> resultat : resultats) {
+				  resultat.get();
+			  }
+		  } finally {
+			  executor.shutdown();
+		  }
+		  Assert.assertEquals(20000, poidsForts.size());
+	  }
+
+	  @Test
+	  public void testLots() {
+		  for (UuidGeneratorStrategy strategie : UuidGeneratorStrategy.values()) {
+			  UUIDUtils.setGenerateur(strategie);
+			  Set<String> uuids = new HashSet<String>();
+			  byte[] octets = new byte[2 + 1000 * 16];
+			  UUIDUtils.genererRandom16ByteUuids(octets, 2, 1000);
+			  long[] longs = new long[1 + 1000 * 2];
+			  UUIDUtils.genererRandomUuids(longs, 1, 1000);
+			  Assert.assertEquals(0, octets[0]);
+			  Assert.assertEquals(0L, longs[0]);
+			  for (int i = 0; i < 1000; i++) {
+				  UUID uuid = UUID.fromString(UUIDUtils.genererFrom16ByteString(Arrays.copyOfRange(octets,
+					  2 + i * 16, 2 + (i + 1) * 16)));
+				  Assert.assertEquals(strategie.getNom(), 4, uuid.version());
+				  Assert.assertEquals(strategie.getNom(), 2, uuid.variant());
+				  Assert.assertTrue(uuids.add(uuid.toString()));
+				  uuid = new UUID(longs[1 + 2 * i], longs[2 + 2 * i]);
+				  Assert.assertEquals(strategie.getNom(), 4, uuid.version());
+				  Assert.assertEquals(strategie.getNom(), 2, uuid.variant());
+				  Assert.assertTrue(uuids.add(uuid.toString()));
+			  }
+		  }
+		  UUIDUtils.genererRandom16ByteUuids(new byte[0], 0, 0);
+		  try {
+			  UUIDUtils.genererRandom16ByteUuids(new byte[31], 0, 2);
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // attendu
+		  }
+		  try {
+			  UUIDUtils.genererRandomUuids(new long[4], 1, 2);
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // attendu
+		  }
+	  }
+
+	  @Test
+	  public void testLotsOrdonnes() {
+		  long debut = System.currentTimeMillis();
+		  byte[] octets = new byte[5000 * 16];
+		  UUIDUtils.genererOrdonne16ByteUuids(octets, 0, 5000);
+		  long[] longs = new long[5000 * 2];
+		  UUIDUtils.genererOrdonneUuids(longs, 0, 5000);
+		  long precedent = 0L;
+		  for (int i = 0; i < 5000; i++) {
+			  long msb = poidsFort(Arrays.copyOfRange(octets, i * 16, i * 16 + 8));
+			  Assert.assertTrue(Long.compareUnsigned(precedent, msb) < 0);
+			  precedent = msb;
+		  }
+		  for (int i = 0; i < 5000; i++) {
+			  Assert.assertTrue(Long.compareUnsigned(precedent, longs[2 * i]) < 0);
+			  precedent = longs[2 * i];
+			  UUID uuid = new UUID(longs[2 * i], longs[2 * i + 1]);
+			  Assert.assertEquals(7, uuid.version());
+			  Assert.assertEquals(2, uuid.variant());
+		  }
+		  // le compteur déborde sur l'instant : les UUID suivants restent postérieurs au lot
+		  Assert.assertTrue(UUIDUtils.extraireInstant(Arrays.copyOf(octets, 16)) >= debut);
+		  Assert.assertTrue(Long.compareUnsigned(precedent, poidsFort(UUIDUtils.genererOrdonne16ByteUuid())) < 0);
+	  }
+
+	  @Test
+	  public void testStrategies() {
+		  Assert.assertSame(UuidGeneratorStrategy.JDK, UUIDUtils.getGenerateur());
+		  for (UuidGeneratorStrategy strategie : UuidGeneratorStrategy.values()) {
+			  Assert.assertSame(strategie, UuidGeneratorStrategy.pourNom(strategie.getNom()));
+			  UUIDUtils.setGenerateur(strategie);
+			  Set<String> uuids = new HashSet<String>();
+			  for (int i = 0; i < 10000; i++) {
+				  byte[] octets = UUIDUtils.genererRandom16ByteUuid();
+				  Assert.assertEquals(16, octets.length);
+				  UUID uuid = UUID.fromString(UUIDUtils.genererFrom16ByteString(octets));
+				  Assert.assertEquals(strategie.getNom(), 4, uuid.version());
+				  Assert.assertEquals(strategie.getNom(), 2, uuid.variant());
+				  Assert.assertTrue(uuids.add(uuid.toString()));
+			  }
+			  Assert.assertEquals(36, UUIDUtils.genererRandomUuid().length());
+		  }
+		  try {
+			  UuidGeneratorStrategy.pourNom("inconnu");
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // attendu
+		  }
+	  }
+
+	  @Test
+	  public void testRemplissageDecale() {
+		  for (UuidGeneratorStrategy strategie : UuidGeneratorStrategy.values()) {
+			  byte[] octets = new byte[20];
+			  strategie.remplir(octets, 2);
+			  Assert.assertEquals(0, octets[0]);
+			  Assert.assertEquals(0, octets[1]);
+			  Assert.assertEquals(0, octets[18]);
+			  Assert.assertEquals(0, octets[19]);
+		  }
+	  }
+
+	  @Test
+	  public void testGenerateurPersonnalise() {
+		  UUIDUtils.setGenerateur(new UuidGenerator() {
+			  @Override
+			  public String getNom() {
+				  return "zero";
+			  }
+
+			  @Override
+			  public void remplir(byte[] dest, int offset) {
+				  for (int i = 0; i < 16; i++) {
+					  dest[offset + i] = 0;
+				  }
+			  }
+		  });
+		  Assert.assertEquals("00000000-0000-4000-8000-000000000000", UUIDUtils.genererRandomUuid());
+	  }
+
+	  @Test
+	  public void testConcurrence() throws Exception {
+		  final Set<String> uuids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		  ExecutorService executor = Executors.newFixedThreadPool(4);
+		  try {
+			  for (UuidGeneratorStrategy strategie : UuidGeneratorStrategy.values()) {
+				  UUIDUtils.setGenerateur(strategie);
+				  Future<?>[] resultats = new Future<?>[4];
+				  for (int t = 0; t < resultats.length; t++) {
+					  resultats[t] = executor.submit(new Callable<Void>() {
+						  @Override
+						  public Void call() {
+							  for (int i = 0; i < 5000; i++) {
+								  Assert.assertTrue(uuids.add(UUIDUtils.genererRandomUuid()));
+							  }
+							  return null;
+						  }
+					  });
+				  }
+				  for (Future<?> resultat : resultats) {
+					  resultat.get();
+				  }
+			  }
+		  } finally {
+			  executor.shutdown();
+		  }
+		  Assert.assertEquals(4 * 4 * 5000, uuids.size());
+	  }
+
+}
@@ -0,0 +1,90 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.UUIDUtils;
+import fr.anses.ct.common.transverse.UuidCodecs;
+
+public class UuidCodecsTest {
+
+	  @Test
+	  public void testAllerRetour() {
+		  Random random = new Random(42);
+		  char[] caracteres = new char[40];
+		  StringBuilder builder = new StringBuilder();
+		  ByteBuffer buffer = ByteBuffer.allocate(80);
+		  byte[] octets = new byte[20];
+		  long[] paire = new long[3];
+		  for (int i = 0; i < 10000; i++) {
+			  UUID uuid = new UUID(random.nextLong(), random.nextLong());
+			  String attendu = uuid.toString();
+			  long msb = uuid.getMostSignificantBits();
+			  long lsb = uuid.getLeastSignificantBits();
+
+			  Assert.assertEquals(attendu, UuidCodecs.toString(msb, lsb));
+			  Assert.assertEquals(38, UuidCodecs.ecrire(msb, lsb, caracteres, 2));
+			  Assert.assertEquals(attendu, new String(caracteres, 2, 36));
+			  builder.setLength(0);
+			  Assert.assertEquals(attendu, UuidCodecs.ecrire(msb, lsb, builder.append('x')).substring(1));
+			  buffer.clear();
+			  buffer.put((byte) 'x');
+			  UuidCodecs.ecrire(msb, lsb, buffer);
+			  Assert.assertEquals(37, buffer.position());
+			  Assert.assertEquals(attendu, new String(buffer.array(), 1, 36, StandardCharsets.US_ASCII));
+
+			  UuidCodecs.lire(attendu, 0, octets, 3);
+			  Assert.assertEquals(attendu, UuidCodecs.toString(octets, 3));
+			  Assert.assertEquals(msb, UuidCodecs.poidsFort(octets, 3));
+			  Assert.assertEquals(lsb, UuidCodecs.poidsFaible(octets, 3));
+			  UuidCodecs.lire("{" + attendu.toUpperCase() + "}", 1, paire, 1);
+			  Assert.assertEquals(msb, paire[1]);
+			  Assert.assertEquals(lsb, paire[2]);
+			  Assert.assertEquals(msb, UuidCodecs.poidsFort(attendu, 0));
+			  Assert.assertEquals(lsb, UuidCodecs.poidsFaible(attendu, 0));
+
+			  builder.setLength(0);
+			  Assert.assertEquals(attendu, UuidCodecs.ecrire(octets, 3, builder).toString());
+			  Assert.assertEquals(36, UuidCodecs.ecrire(octets, 3, caracteres, 0));
+			  Assert.assertEquals(attendu, new String(caracteres, 0, 36));
+		  }
+	  }
+
+	  @Test
+	  public void testUUIDUtils() {
+		  byte[] octets = UUIDUtils.genererRandom16ByteUuid();
+		  String texte = UUIDUtils.genererFrom16ByteString(octets);
+		  Assert.assertEquals(new UUID(UuidCodecs.poidsFort(octets, 0), UuidCodecs.poidsFaible(octets, 0)).toString(),
+			  texte);
+		  byte[] relus = new byte[16];
+		  UuidCodecs.lire(texte, 0, relus, 0);
+		  Assert.assertArrayEquals(octets, relus);
+	  }
+
+	  @Test
+	  public void testInvalide() {
+		  long[] paire = new long[2];
+		  for (String texte : new String[] {"", "123e4567-e89b-12d3-a456-42661417400",
+			  "123e4567-e89b-12d3-a456_426614174000", "123e4567-e89b-12d3-a456-42661417400g",
+			  "123e4567e-89b-12d3-a456-426614174000", "123e4567-e89b-12d3-a456-4266141740é0" }) {
+			  try {
+				  UuidCodecs.lire(texte, 0, paire, 0);
+				  Assert.fail(texte);
+			  } catch (IllegalArgumentException e) {
+				  // attendu
+			  }
+		  }
+		  try {
+			  UuidCodecs.ecrire(0L, 0L, ByteBuffer.allocate(35));
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // attendu
+		  }
+	  }
+
+}
@@ -0,0 +1,119 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.UUIDUtils;
+import fr.anses.ct.common.transverse.UuidCodecs;
+import fr.anses.ct.common.transverse.UuidCompactCodec;
+
+public class UuidCompactCodecTest {
+
+	  @Test
+	  public void testAllerRetour() {
+		  Random random = new Random(42);
+		  long[] paire = new long[3];
+		  byte[] octets = new byte[20];
+		  for (UuidCompactCodec codec : UuidCompactCodec.values()) {
+			  char[] caracteres = new char[codec.getLongueur() + 2];
+			  StringBuilder builder = new StringBuilder();
+			  for (int i = 0; i < 10000; i++) {
+				  long msb = i == 0 ? 0L : i == 1 ? -1L : random.nextLong();
+				  long lsb = i == 0 ? 0L : i == 1 ? -1L : random.nextLong();
+				  String texte = codec.toString(msb, lsb);
+				  Assert.assertEquals(codec.getLongueur(), texte.length());
+				  Assert.assertEquals(codec.getLongueur() + 2, codec.ecrire(msb, lsb, caracteres, 2));
+				  Assert.assertEquals(texte, new String(caracteres, 2, codec.getLongueur()));
+				  builder.setLength(0);
+				  Assert.assertEquals(texte, codec.ecrire(msb, lsb, builder.append('x')).substring(1));
+
+				  codec.lire("x" + texte, 1, paire, 1);
+				  Assert.assertEquals(msb, paire[1]);
+				  Assert.assertEquals(lsb, paire[2]);
+				  codec.lire(texte, 0, octets, 3);
+				  Assert.assertEquals(msb, UuidCodecs.poidsFort(octets, 3));
+				  Assert.assertEquals(lsb, UuidCodecs.poidsFaible(octets, 3));
+				  Assert.assertEquals(texte, codec.toString(octets, 3));
+			  }
+		  }
+		  Assert.assertEquals(22, UuidCompactCodec.BASE64URL.getLongueur());
+		  Assert.assertEquals(26, UuidCompactCodec.CROCKFORD.getLongueur());
+		  Assert.assertEquals("AAAAAAAAAAAAAAAAAAAAAA", UuidCompactCodec.BASE64URL.toString(0L, 0L));
+		  Assert.assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ", UuidCompactCodec.CROCKFORD.toString(-1L, -1L));
+	  }
+
+	  @Test
+	  public void testBase64Standard() {
+		  for (int i = 0; i < 1000; i++) {
+			  byte[] uuid = UUIDUtils.genererRandom16ByteUuid();
+			  String texte = UuidCompactCodec.BASE64URL.toString(uuid, 0);
+			  Assert.assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(uuid), texte);
+			  byte[] relus = new byte[16];
+			  UuidCompactCodec.BASE64URL.lire(texte, 0, relus, 0);
+			  Assert.assertArrayEquals(uuid, relus);
+		  }
+	  }
+
+	  @Test
+	  public void testOrdreCrockford() {
+		  Random random = new Random(7);
+		  UUID[] uuids = new UUID[2000];
+		  String[] textes = new String[uuids.length];
+		  for (int i = 0; i < uuids.length; i++) {
+			  // poids forts proches pour départager aussi sur le poids faible
+			  uuids[i] = new UUID(random.nextInt(4) - 2L, random.nextLong());
+			  textes[i] = UuidCompactCodec.CROCKFORD.toString(uuids[i].getMostSignificantBits(),
+				  uuids[i].getLeastSignificantBits());
+		  }
+		  for (int i = 1; i < uuids.length; i++) {
+			  int ordre = Long.compareUnsigned(uuids[i - 1].getMostSignificantBits(), uuids[i].getMostSignificantBits());
+			  if (ordre == 0) {
+				  ordre = Long.compareUnsigned(uuids[i - 1].getLeastSignificantBits(), uuids[i].getLeastSignificantBits());
+			  }
+			  Assert.assertEquals(Integer.signum(ordre), Integer.signum(textes[i - 1].compareTo(textes[i])));
+		  }
+		  // les UUID version 7 restent triés par date
+		  String[] ordonnes = new String[100];
+		  for (int i = 0; i < ordonnes.length; i++) {
+			  ordonnes[i] = UuidCompactCodec.CROCKFORD.toString(UUIDUtils.genererOrdonne16ByteUuid(), 0);
+		  }
+		  String[] tries = ordonnes.clone();
+		  Arrays.sort(tries);
+		  Assert.assertArrayEquals(ordonnes, tries);
+		  // casse et alias
+		  long[] paire = new long[2];
+		  UuidCompactCodec.CROCKFORD.lire("0oOiIlL1" + "0000000000000000ABCDEFGHJK".substring(8).toLowerCase(), 0, paire, 0);
+		  long[] attendu = new long[2];
+		  UuidCompactCodec.CROCKFORD.lire("00011111" + "0000000000000000ABCDEFGHJK".substring(8), 0, attendu, 0);
+		  Assert.assertArrayEquals(attendu, paire);
+	  }
+
+	  @Test
+	  public void testInvalide() {
+		  long[] paire = new long[2];
+		  for (String texte : new String[] {"", "AAAAAAAAAAAAAAAAAAAAA", "AAAAAAAAAAAAAAAAAAAAA+", "AAAAAAAAAAAAAAAAAAAAAB",
+			  "AAAAAAAAAAAAAAAAAAAAAé" }) {
+			  try {
+				  UuidCompactCodec.BASE64URL.lire(texte, 0, paire, 0);
+				  Assert.fail(texte);
+			  } catch (IllegalArgumentException e) {
+				  // attendu
+			  }
+		  }
+		  for (String texte : new String[] {"0000000000000000000000000", "80000000000000000000000000",
+			  "0000000000000000000000000U", "000000000000000000000000-0" }) {
+			  try {
+				  UuidCompactCodec.CROCKFORD.lire(texte, 0, paire, 0);
+				  Assert.fail(texte);
+			  } catch (IllegalArgumentException e) {
+				  // attendu
+			  }
+		  }
+	  }
+
+}
@@ -0,0 +1,137 @@
+package fr.anses.ct.common.transverse.test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.anses.ct.common.transverse.UUIDUtils;
+import fr.anses.ct.common.transverse.UuidGenerator;
+import fr.anses.ct.common.transverse.UuidGeneratorStrategy;
+import fr.anses.ct.common.transverse.UuidRingBuffer;
+
+public class UuidRingBufferTest {
+
+	  private UuidRingBuffer reserve;
+
+	  @After
+	  public void tearDown() {
+		  UUIDUtils.setGenerateur(UuidGeneratorStrategy.JDK);
+		  if (reserve != null) {
+			  reserve.arreter();
+		  }
+	  }
+
+	  private static void attendreRemplissage(UuidRingBuffer reserve) throws InterruptedException {
+		  for (int i = 0; i < 500 && reserve.getDisponibles() < reserve.getCapacite(); i++) {
+			  Thread.sleep(10);
+		  }
+		  Assert.assertEquals(reserve.getCapacite(), reserve.getDisponibles());
+	  }
+
+	  @Test
+	  public void testReserve() throws Exception {
+		  final AtomicInteger appels = new AtomicInteger();
+		  reserve = new UuidRingBuffer(new UuidGenerator() {
+			  @Override
+			  public String getNom() {
+				  return "compteur";
+			  }
+
+			  @Override
+			  public void remplir(byte[] dest, int offset) {
+				  int valeur = appels.incrementAndGet();
+				  for (int i = 0; i < 16; i++) {
+					  dest[offset + i] = (byte) (valeur >>> (8 * (i & 3)));
+				  }
+			  }
+		  }, 100);
+		  Assert.assertEquals(128, reserve.getCapacite());
+		  Assert.assertEquals("compteur+anneau", reserve.getNom());
+		  attendreRemplissage(reserve);
+		  // la consommation réveille le remplissage
+		  UUIDUtils.setGenerateur(reserve);
+		  for (int i = 0; i < 100; i++) {
+			  Assert.assertEquals(4, UUID.fromString(UUIDUtils.genererRandomUuid()).version());
+		  }
+		  attendreRemplissage(reserve);
+		  Assert.assertEquals(0L, reserve.getNbReplis());
+		  // arrêt : la réserve se vide puis se replie sur la source
+		  reserve.arreter();
+		  Assert.assertTrue(reserve.estArretee());
+		  int avant = appels.get();
+		  for (int i = 0; i < 128 + 10; i++) {
+			  UUIDUtils.genererRandom16ByteUuid();
+		  }
+		  Assert.assertEquals(0, reserve.getDisponibles());
+		  Assert.assertEquals(10L, reserve.getNbReplis());
+		  Assert.assertEquals(avant + 10, appels.get());
+		  // les lots ne vident pas la réserve : ils sont tirés de la source
+		  UUIDUtils.genererRandom16ByteUuids(new byte[5 * 16], 0, 5);
+		  Assert.assertEquals(10L, reserve.getNbReplis());
+		  Assert.assertEquals(avant + 15, appels.get());
+		  try {
+			  new UuidRingBuffer(UuidGeneratorStrategy.JDK, 0);
+			  Assert.fail();
+		  } catch (IllegalArgumentException e) {
+			  // attendu
+		  }
+	  }
+
+	  @Test
+	  public void testArret() {
+		  reserve = new UuidRingBuffer(UuidGeneratorStrategy.RAPIDE, 64);
+		  UUIDUtils.setGenerateur(reserve);
+		  // le générateur remplacé est arrêté
+		  UUIDUtils.setGenerateur(UuidGeneratorStrategy.JDK);
+		  Assert.assertTrue(reserve.estArretee());
+
+		  reserve = new UuidRingBuffer(UuidGeneratorStrategy.RAPIDE, 64);
+		  UUIDUtils.setGenerateur(reserve);
+		  UUIDUtils.setGenerateur(reserve);
+		  Assert.assertFalse(reserve.estArretee());
+		  UUIDUtils.arreterReserve();
+		  Assert.assertTrue(reserve.estArretee());
+		  Assert.assertSame(UuidGeneratorStrategy.RAPIDE, UUIDUtils.getGenerateur());
+		  UUIDUtils.arreterReserve();
+		  Assert.assertSame(UuidGeneratorStrategy.RAPIDE, UUIDUtils.getGenerateur());
+	  }
+
+	  @Test
+	  public void testConcurrence() throws Exception {
+		  reserve = new UuidRingBuffer(UuidGeneratorStrategy.RAPIDE, 256);
+		  UUIDUtils.setGenerateur(reserve);
+		  final Set<String> uuids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		  ExecutorService executor = Executors.newFixedThreadPool(4);
+		  try {
+			  Future<?>[] resultats = new Future<?>[4];
+			  for (int t = 0; t < resultats.length; t++) {
+				  resultats[t] = executor.submit(new Callable<Void>() {
+					  @Override
+					  public Void call() {
+						  for (int i = 0; i < 10000; i++) {
+							  Assert.assertTrue(uuids.add(UUIDUtils.genererRandomUuid()));
+						  }
+						  return null;
+					  }
+				  });
+			  }
+			  for (Future<?> resultat : resultats) {
+				  resultat.get();
+			  }
+		  } finally {
+			  executor.shutdown();
+		  }
+		  Assert.assertEquals(4 * 10000, uuids.size());
+	  }
+
+}